@@ -0,0 +1,304 @@
+package com.businesspro.inventorymanager;
+
+//importing the android sqlite classes this adapter wraps
+import android.database.Cursor; //this is used to read data from the database query results
+import android.database.sqlite.SQLiteConstraintException; //this is thrown when an insert breaks a constraint
+import android.database.sqlite.SQLiteDatabase; //this represents the sqlite database itself
+import android.database.sqlite.SQLiteOpenHelper; //this opens the database on first use
+import android.database.sqlite.SQLiteStatement; //this is a compiled statement with typed arguments
+
+//importing the java collections used for results and attachments
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//the AndroidStoreDatabase class runs StoreDatabase operations on Android's SQLiteDatabase.
+//it opens the database through the helper on first use, or wraps a fixed database while
+//SQLiteOpenHelper is still inside onCreate()/onUpgrade() (opening it again there would recurse).
+//
+//attached databases live on a connection of their own. SQLiteDatabase.execSQL("ATTACH ...") turns write-ahead
+//logging off for the whole database, which leaves one connection for every reader and writer (and throws if
+//another thread is using one at that moment). so the helper's database is never attached to: withAttached() runs
+//its work on a second SQLiteDatabase over the same file, opened with a single connection, where ATTACH runs as a
+//compiled statement that SQLiteDatabase does not watch for.
+public class AndroidStoreDatabase implements StoreDatabase {
+
+    //the helper that opens the database (null when a fixed database is wrapped)
+    private final SQLiteOpenHelper helper;
+
+    //the fixed database used during onCreate()/onUpgrade() (null when the helper is used)
+    private final SQLiteDatabase fixed;
+
+    //the files added with attach(), by schema name (guarded by this adapter)
+    private final Map<String, String> attachments = new LinkedHashMap<>();
+
+    //the connection the attached databases are attached to (null until withAttached() first needs it), the
+    //schema names attached to it, and the helper's database it was opened next to (all guarded by this adapter)
+    private SQLiteDatabase attachedDb;
+    private final Set<String> attached = new HashSet<>();
+    private SQLiteDatabase attachedTo;
+
+    //the database the current thread's withAttached() work runs on (null outside it)
+    private final ThreadLocal<SQLiteDatabase> workDb = new ThreadLocal<>();
+
+    //creating an adapter that opens the database through the helper when it is first needed
+    public AndroidStoreDatabase(SQLiteOpenHelper helper) {
+        this.helper = helper;
+        this.fixed = null;
+    }
+
+    //creating an adapter over a database that is already open
+    public AndroidStoreDatabase(SQLiteDatabase db) {
+        this.helper = null;
+        this.fixed = db;
+    }
+
+    //returning the database this thread's statements run on: the attached connection inside withAttached(),
+    //otherwise the open database (the helper keeps it open, so this is cheap after the first call)
+    private SQLiteDatabase db() {
+        SQLiteDatabase own = workDb.get();
+        return own != null ? own : shared();
+    }
+
+    //returning the helper's (or the fixed) database
+    private SQLiteDatabase shared() {
+        return fixed != null ? fixed : helper.getWritableDatabase();
+    }
+
+    @Override
+    public <T> List<T> query(String sql, Object[] args, RowMapper<T> mapper) {
+        List<T> results = new ArrayList<>();
+        try (Cursor cursor = db().rawQuery(sql, toStrings(args))) {
+            CursorRow row = new CursorRow(cursor);
+            while (cursor.moveToNext()) {
+                results.add(mapper.map(row));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void scan(String sql, Object[] args, RowHandler handler) {
+        try (Cursor cursor = db().rawQuery(sql, toStrings(args))) {
+            CursorRow row = new CursorRow(cursor);
+            while (cursor.moveToNext()) {
+                handler.handle(row);
+            }
+        }
+    }
+
+    @Override
+    public double queryDouble(String sql, Object[] args) {
+        try (Cursor cursor = db().rawQuery(sql, toStrings(args))) {
+            return cursor.moveToFirst() ? cursor.getDouble(0) : 0;
+        }
+    }
+
+    @Override
+    public long queryLong(String sql, Object[] args) {
+        try (Cursor cursor = db().rawQuery(sql, toStrings(args))) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    @Override
+    public long insert(String sql, Object[] args) {
+        SQLiteStatement statement = db().compileStatement(sql);
+        try {
+            bind(statement, args);
+            return statement.executeInsert();
+        } catch (SQLiteConstraintException e) {
+            return -1; //same result as SQLiteDatabase.insert() when a constraint fails
+        } finally {
+            statement.close();
+        }
+    }
+
+    @Override
+    public int insertBatch(String sql, List<Object[]> rows) {
+        SQLiteStatement statement = db().compileStatement(sql);
+        try {
+            for (Object[] args : rows) {
+                statement.clearBindings();
+                bind(statement, args);
+                statement.executeInsert();
+            }
+            return rows.size();
+        } finally {
+            statement.close();
+        }
+    }
+
+    @Override
+    public int update(String sql, Object[] args) {
+        SQLiteStatement statement = db().compileStatement(sql);
+        try {
+            bind(statement, args);
+            return statement.executeUpdateDelete();
+        } finally {
+            statement.close();
+        }
+    }
+
+    @Override
+    public void execute(String sql) {
+        db().execSQL(sql);
+    }
+
+    @Override
+    public void attach(String schemaName, String path) {
+        synchronized (this) {
+            if (!attachments.containsKey(schemaName)) {
+                attachments.put(schemaName, path);
+            }
+        }
+        attachedConnection(); //attaching it now, so a file that cannot be attached fails here
+    }
+
+    @Override
+    public <T> T withAttached(Work<T> work) {
+        if (workDb.get() != null) {
+            return work.run(); //already on the attached connection
+        }
+        if (shared().inTransaction()) {
+            //the attached connection would wait for this thread's own write lock
+            throw new IllegalStateException("withAttached() cannot be called inside a transaction");
+        }
+        workDb.set(attachedConnection());
+        try {
+            return work.run();
+        } finally {
+            workDb.remove();
+        }
+    }
+
+    //returning the connection that has every attached database, opening it (or opening it again, if the helper
+    //reopened the database after a restore) and attaching what it does not have yet.
+    //the helper's database is opened before this adapter is locked, in the same order as DatabaseHelper.close()
+    private SQLiteDatabase attachedConnection() {
+        SQLiteDatabase db = shared();
+        synchronized (this) {
+            if (attachedDb != null && attachedTo != db) {
+                closeAttached();
+            }
+            if (attachedDb == null) {
+                //no write-ahead logging flag, so the pool has a single connection and every statement sees the
+                //attachments. the file itself stays in WAL mode: a journal mode change cannot take it out while the
+                //helper's connections have it open
+                attachedDb = SQLiteDatabase.openDatabase(db.getPath(), null, SQLiteDatabase.OPEN_READWRITE);
+                attachedTo = db;
+            }
+            for (Map.Entry<String, String> attachment : attachments.entrySet()) {
+                if (attached.contains(attachment.getKey())) {
+                    continue;
+                }
+                SQLiteStatement statement = attachedDb.compileStatement("ATTACH DATABASE ? AS " + attachment.getKey());
+                try {
+                    statement.bindString(1, attachment.getValue());
+                    statement.execute();
+                } finally {
+                    statement.close();
+                }
+                attached.add(attachment.getKey());
+            }
+            return attachedDb;
+        }
+    }
+
+    //closing the attached connection (it is opened again when next needed). call it before the database file is
+    //closed or replaced, so the connection never outlives the file it was opened on
+    public synchronized void closeAttached() {
+        if (attachedDb != null) {
+            attachedDb.close();
+            attachedDb = null;
+            attachedTo = null;
+            attached.clear();
+        }
+    }
+
+    @Override
+    public <T> T inTransaction(Work<T> work) {
+        SQLiteDatabase db = db();
+        db.beginTransaction(); //nested calls join the outer transaction
+        try {
+            T result = work.run();
+            db.setTransactionSuccessful();
+            return result;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    //binding each argument with its own type so numbers are not stored as text
+    private static void bind(SQLiteStatement statement, Object[] args) {
+        if (args == null) {
+            return;
+        }
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            int index = i + 1;
+            if (arg == null) {
+                statement.bindNull(index);
+            } else if (arg instanceof Double || arg instanceof Float) {
+                statement.bindDouble(index, ((Number) arg).doubleValue());
+            } else if (arg instanceof Number) {
+                statement.bindLong(index, ((Number) arg).longValue());
+            } else if (arg instanceof Boolean) {
+                statement.bindLong(index, (Boolean) arg ? 1 : 0);
+            } else if (arg instanceof byte[]) {
+                statement.bindBlob(index, (byte[]) arg);
+            } else {
+                statement.bindString(index, arg.toString());
+            }
+        }
+    }
+
+    //rawQuery only takes string arguments (sqlite compares them by column affinity)
+    private static String[] toStrings(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        String[] strings = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            strings[i] = String.valueOf(args[i]);
+        }
+        return strings;
+    }
+
+    //a row backed by the cursor's current position
+    private static final class CursorRow implements Row {
+        private final Cursor cursor;
+
+        CursorRow(Cursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public int getInt(String column) {
+            return cursor.getInt(cursor.getColumnIndexOrThrow(column));
+        }
+
+        @Override
+        public long getLong(String column) {
+            return cursor.getLong(cursor.getColumnIndexOrThrow(column));
+        }
+
+        @Override
+        public double getDouble(String column) {
+            return cursor.getDouble(cursor.getColumnIndexOrThrow(column));
+        }
+
+        @Override
+        public String getString(String column) {
+            return cursor.getString(cursor.getColumnIndexOrThrow(column));
+        }
+
+        @Override
+        public boolean isNull(String column) {
+            return cursor.isNull(cursor.getColumnIndexOrThrow(column));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.businesspro.inventorymanager;
+
+//importing the android and java classes used to run work off and back on the main thread
+import android.os.Handler; //this posts work onto the main (UI) thread
+import android.os.Looper; //this gives access to the main thread's message loop
+import java.util.concurrent.Executor; //this is the simple interface for running a task
+import java.util.concurrent.ExecutorService; //this is a thread pool we can submit tasks to
+import java.util.concurrent.Executors; //this creates the thread pools
+
+//the AppExecutors class holds the shared background and main-thread executors.
+//database reads and formatting run on diskIO() so the UI thread only ever sets the prepared results.
+public final class AppExecutors {
+
+    //a single background thread for database and file work, so queries run one after another in order
+    private static final ExecutorService DISK_IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-disk-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //a small pool for independent work that can run side by side (e.g., the splash warm-up tasks)
+    private static final ExecutorService PARALLEL = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+            runnable -> {
+                Thread thread = new Thread(runnable, "inventory-parallel");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    //an executor that posts tasks onto the main thread
+    private static final Executor MAIN_THREAD = new Executor() {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
+    };
+
+    //private constructor because this class only has static helpers
+    private AppExecutors() {
+    }
+
+    //returns the background executor used for database and file work
+    public static ExecutorService diskIO() {
+        return DISK_IO;
+    }
+
+    //returns the pool used for independent tasks that should run in parallel
+    public static ExecutorService parallel() {
+        return PARALLEL;
+    }
+
+    //returns the executor that runs tasks on the main thread
+    public static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+}
@@ -0,0 +1,65 @@
+package com.businesspro.inventorymanager;
+
+//importing the android and java classes used by the warm-up
+import android.content.Context; //this is used to reach the shared database helper
+import android.util.Log; //this logs warm-up tasks that failed
+import java.util.concurrent.atomic.AtomicInteger; //this counts the warm-up tasks that are still running
+
+//the AppWarmup class runs the start-up work while the splash screen is visible:
+//it opens (and if needed creates or upgrades) the database, replays the sale journal, primes the product cache
+//and precomputes the dashboard summary, all in parallel, then tells the splash screen it can move on.
+public final class AppWarmup {
+
+    //the tag used for log messages
+    private static final String TAG = "AppWarmup";
+
+    //the callback run on the main thread once every warm-up task has finished
+    public interface Listener {
+        void onWarmupFinished();
+    }
+
+    //private constructor because this class only has static helpers
+    private AppWarmup() {
+    }
+
+    //starting the warm-up tasks in parallel; the listener is called on the main thread when all are done.
+    //a failed task is only logged, because every screen can still load its own data if the warm-up missed it
+    public static void start(Context context, Listener listener) {
+        DatabaseHelper dbHelper = DatabaseHelper.getInstance(context);
+
+        String[] names = {"warmup.db_open", "warmup.sale_journal", "warmup.product_cache", "warmup.product_codes",
+                "warmup.dashboard_summary"};
+        Runnable[] tasks = {
+                //opening the database also runs onCreate/onUpgrade the first time
+                dbHelper::getWritableDatabase,
+                //opening the sale journal writes any sales the last run left in it into the database
+                () -> dbHelper.getStore().openSaleJournal(),
+                //loading the products into memory for the inventory and sale screens
+                () -> ProductCache.prime(dbHelper),
+                //loading the product codes so the first scanned code on the sale screen resolves at once
+                () -> ProductCodeIndex.prime(dbHelper.getStore()),
+                //computing the dashboard values so the first screen shows them immediately
+                () -> DashboardSummary.prefetch(dbHelper)
+        };
+
+        AtomicInteger remaining = new AtomicInteger(tasks.length);
+        for (int i = 0; i < tasks.length; i++) {
+            Runnable task = tasks[i];
+            String name = names[i];
+            AppExecutors.parallel().execute(() -> {
+                long traceStart = PerfTrace.begin();
+                try {
+                    task.run();
+                    PerfTrace.end(name, traceStart);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Warm-up task failed", e);
+                } finally {
+                    //the last task to finish hands control back to the main thread
+                    if (remaining.decrementAndGet() == 0) {
+                        AppExecutors.mainThread().execute(listener::onWarmupFinished);
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.businesspro.inventorymanager;
+
+//the BranchTotals class holds one branch's sales added up over a range of days, read from the branch rollups.
+//the consolidated report shows one of these per branch, and their sum for the whole business.
+public class BranchTotals {
+
+    //the branch ID and name
+    private final int branchId;
+    private final String name;
+
+    //the number of sales and units sold, and their value and profit
+    private final long saleCount;
+    private final long units;
+    private final double salesTotal;
+    private final double profitTotal;
+
+    //creating the totals of one branch
+    public BranchTotals(int branchId, String name, long saleCount, long units, double salesTotal, double profitTotal) {
+        this.branchId = branchId;
+        this.name = name;
+        this.saleCount = saleCount;
+        this.units = units;
+        this.salesTotal = salesTotal;
+        this.profitTotal = profitTotal;
+    }
+
+    //returns the branch ID
+    public int getBranchId() { return branchId; }
+
+    //returns the branch name
+    public String getName() { return name; }
+
+    //returns how many sales were made
+    public long getSaleCount() { return saleCount; }
+
+    //returns how many units were sold
+    public long getUnits() { return units; }
+
+    //returns the value of the sales
+    public double getSalesTotal() { return salesTotal; }
+
+    //returns the profit of the sales
+    public double getProfitTotal() { return profitTotal; }
+}
@@ -0,0 +1,370 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used by the benchmark runner
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+//the CoreBenchmarks class measures the hot paths that do not need Android: row mapping, display formatting,
+//csv writing, report building, the columnar sales analysis, query timing and (when the sqlite-jdbc driver is on the classpath) sale
+//recording and the dashboard aggregates through JdbcInventoryStore.
+//every benchmark runs in its own JVM (started with the same java and classpath), so the code one benchmark
+//made the JIT compile cannot speed up or slow down the next; there it is warmed up first, then timed in several
+//rounds, and the median and best time per operation are printed so runs can be compared with the baseline in README.md.
+//
+//run it on a plain JVM from the repository root:
+//  javac -d build/bench $(grep -L "^import android" *.java)
+//  java -cp build/bench[:sqlite-jdbc.jar] com.businesspro.inventorymanager.CoreBenchmarks [--no-fork] [name...]
+//
+//--no-fork runs every benchmark in this JVM instead, and names pick the benchmarks to run (all by default)
+public final class CoreBenchmarks {
+
+    //how long each warm-up and measured round runs
+    private static final long ROUND_NANOS = 200_000_000L;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    //the number of rows used by the list benchmarks
+    private static final int ROWS = 1000;
+
+    //the number of sales in the columnar snapshot benchmarks
+    private static final int SNAPSHOT_ROWS = 200_000;
+
+    //the number of products in the typeahead name index benchmark
+    private static final int NAME_INDEX_PRODUCTS = 50_000;
+
+    //results are added here so the JIT cannot remove the measured work
+    private static volatile long sink;
+
+    //the benchmarks to run in this JVM (all when empty), and the list the names are collected into instead of
+    //running them, while the forking runner finds out which benchmarks there are (null otherwise)
+    private static final List<String> selected = new ArrayList<>();
+    private static List<String> listed;
+
+    //one benchmark: runs the measured work once and returns a value derived from its result
+    private interface Benchmark {
+        long run() throws Exception;
+    }
+
+    //private constructor because this class only has static helpers
+    private CoreBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean fork = true;
+        boolean forked = false;
+        for (String arg : args) {
+            if (arg.equals("--no-fork")) {
+                fork = false;
+            } else if (arg.equals("--forked")) {
+                forked = true; //started by the forking runner below, which has printed the header
+            } else {
+                selected.add(arg);
+            }
+        }
+        if (forked) {
+            runBenchmarks();
+            return;
+        }
+        System.out.println(String.format(Locale.ROOT, "%-28s %14s %14s %10s", "benchmark", "median ns/op", "best ns/op", "ops/round"));
+        if (!fork) {
+            runBenchmarks();
+            return;
+        }
+        listed = new ArrayList<>();
+        runBenchmarks();
+        List<String> names = listed;
+        listed = null;
+        for (String name : names) {
+            runForked(name);
+        }
+    }
+
+    //setting up the data and running (or listing) every selected benchmark
+    private static void runBenchmarks() throws Exception {
+        final List<Sale> sales = sampleSales(ROWS);
+        final List<Product> products = sampleProducts(ROWS);
+        final List<StoreDatabase.Row> saleRows = new ArrayList<>(ROWS);
+        final List<StoreDatabase.Row> productRows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            saleRows.add(saleRow(sales.get(i)));
+            productRows.add(productRow(products.get(i)));
+        }
+        final Writer discard = new DiscardingWriter();
+        final StringBuilder csvRow = new StringBuilder(128);
+
+        //mapping result rows to objects (what every list query does per row)
+        run("map.sale_row", () -> SqlInventoryStore.readSale(saleRows.get(0)).getQuantity());
+        run("map.product_row", () -> SqlInventoryStore.readProduct(productRows.get(0)).getStock());
+
+        //building the pre-formatted sales rows for the sales list and the dashboard
+        run("format.sale_display_1000", () -> SaleDisplayItem.fromSales(sales).size());
+        run("format.currency", () -> DisplayFormats.formatCurrency(12345.67).length());
+
+        //writing the sales report
+        run("csv.row", () -> {
+            csvRow.setLength(0);
+            SalesCsvWriter.appendRow(csvRow, sales.get(7));
+            return csvRow.length();
+        });
+        run("csv.write_1000", () -> {
+            SalesCsvWriter.write(discard, sales);
+            return 1;
+        });
+
+        //report calculations
+        run("report.low_stock_1000", () -> ReportCalculator.lowStockReport(products).length());
+        run("report.sale_pricing", () -> (long) (ReportCalculator.saleTotal(349.99, 3)
+                + ReportCalculator.saleProfit(349.99, 210.5, 3)));
+
+        //the columnar sales analysis (fork-join across the cores)
+        final SalesSnapshot snapshot = sampleSnapshot(SNAPSHOT_ROWS);
+        final long from = snapshot.firstTimestamp();
+        run("snapshot.totals_200k", () -> snapshot.totals(from, Long.MAX_VALUE).count(0));
+        run("snapshot.by_product_200k", () -> snapshot.byProduct(from, Long.MAX_VALUE).size());
+        run("snapshot.by_hour_200k", () -> snapshot.byHourOfDay(from, Long.MAX_VALUE, -1).count(12));
+
+        //the typeahead search of the sale screen (a prefix matching 11,111 of the products; the first 20 are returned)
+        final ProductNameIndex nameIndex = ProductNameIndex.build(sampleProducts(NAME_INDEX_PRODUCTS));
+        run("name_index.search_50k", () -> nameIndex.find("product 4", 20).size());
+
+        //the per-query timing every store call pays
+        run("stats.record_query", () -> QueryStats.record("benchmark", 125_000L, 1) ? 1 : 0);
+        QueryStats.reset();
+
+        runStoreBenchmarks();
+    }
+
+    //sale recording and aggregates against a real sqlite file, if the sqlite-jdbc driver is available
+    private static void runStoreBenchmarks() throws Exception {
+        if (listed == null && !selected.isEmpty() && !isStoreBenchmarkSelected()) {
+            return; //nothing to time, so no database is made
+        }
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            System.out.println("store.* skipped: org.sqlite.JDBC is not on the classpath");
+            return;
+        }
+        File file = File.createTempFile("inventory-bench", ".db");
+        file.delete();
+        try (final JdbcInventoryStore store = JdbcInventoryStore.open(file)) {
+            final int productId = (int) store.addProduct("Benchmark item", 100, Integer.MAX_VALUE / 2, "Bench", 60);
+            run("store.record_sale", () -> store.recordSale(productId, "Benchmark item", 1, 100, 60));
+            run("store.total_sales", () -> (long) store.getTotalSales());
+            run("store.inventory_value", () -> (long) store.getInventoryValue());
+            run("store.recent_sales", () -> store.getRecentSales(DashboardSummary.RECENT_SALES_LIMIT).size());
+        } finally {
+            file.delete();
+            new File(file.getPath() + "-wal").delete();
+            new File(file.getPath() + "-shm").delete();
+        }
+        QueryStats.reset();
+    }
+
+    //returns whether a store.* benchmark is among the selected ones
+    private static boolean isStoreBenchmarkSelected() {
+        for (String name : selected) {
+            if (name.startsWith("store.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //running one benchmark in a new JVM with the same java, classpath and JVM options, which prints its result line
+    private static void runForked(String name) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(CoreBenchmarks.class.getName());
+        command.add("--forked");
+        command.add(name);
+        int status = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (status != 0) {
+            throw new IllegalStateException("benchmark " + name + " failed with exit status " + status);
+        }
+    }
+
+    //warming up, timing the rounds and printing the result (or only noting the name while the benchmarks are listed)
+    private static void run(String name, Benchmark benchmark) throws Exception {
+        if (listed != null) {
+            if (selected.isEmpty() || selected.contains(name)) {
+                listed.add(name);
+            }
+            return;
+        }
+        if (!selected.isEmpty() && !selected.contains(name)) {
+            return;
+        }
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round(benchmark);
+        }
+        double[] nanosPerOp = new double[MEASURED_ROUNDS];
+        long ops = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long[] result = round(benchmark);
+            nanosPerOp[i] = (double) result[0] / result[1];
+            ops = result[1];
+        }
+        Arrays.sort(nanosPerOp);
+        double median = (nanosPerOp[MEASURED_ROUNDS / 2 - 1] + nanosPerOp[MEASURED_ROUNDS / 2]) / 2;
+        System.out.println(String.format(Locale.ROOT, "%-28s %14.1f %14.1f %10d", name, median, nanosPerOp[0], ops));
+    }
+
+    //running the benchmark for one round; returns {elapsed nanos, operations}
+    private static long[] round(Benchmark benchmark) throws Exception {
+        long result = 0;
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            //checking the clock every 64 calls so the clock itself is not what gets measured
+            for (int i = 0; i < 64; i++) {
+                result += benchmark.run();
+            }
+            ops += 64;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ROUND_NANOS);
+        sink += result;
+        return new long[]{elapsed, ops};
+    }
+
+    //creating sales that look like real ones (prices, quantities and stored dates)
+    private static List<Sale> sampleSales(int count) {
+        List<Sale> sales = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int quantity = 1 + i % 5;
+            double price = 120 + (i % 37) * 25.5;
+            String date = String.format(Locale.ROOT, "2025-%02d-%02d %02d:%02d:00", 1 + i % 12, 1 + i % 28, i % 24, i % 60);
+            sales.add(new Sale(i + 1, 1 + i % 50, "Product " + (i % 50), quantity, price,
+                    ReportCalculator.saleTotal(price, quantity), date, ReportCalculator.saleProfit(price, price * 0.7, quantity)));
+        }
+        return sales;
+    }
+
+    //creating a snapshot of sales spread over a year, 500 products and every hour of the day
+    private static SalesSnapshot sampleSnapshot(int count) {
+        SalesSnapshot.Builder builder = new SalesSnapshot.Builder(count);
+        long time = SalesSnapshot.toTimestamp("2025-01-01 00:00:00");
+        long step = 365L * 86_400 / count;
+        for (int i = 0; i < count; i++) {
+            int productId = 1 + (i * 7919) % 500;
+            int quantity = 1 + i % 5;
+            long priceCents = 12_000 + (i % 37) * 2_550;
+            builder.add(productId, "Product " + productId, quantity, time + i * step,
+                    priceCents * quantity, priceCents * quantity * 3 / 10);
+        }
+        return builder.build();
+    }
+
+    //creating products with a spread of prices and stock levels
+    private static List<Product> sampleProducts(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double price = 50 + (i % 90) * 10;
+            products.add(new Product(i + 1, "Product " + i, price, i % 11, i % 2 == 0 ? "Electronics" : "Accessories", price * 0.6));
+        }
+        return products;
+    }
+
+    //a sales row as a query would return it
+    private static StoreDatabase.Row saleRow(Sale sale) {
+        Map<String, Object> values = new HashMap<>();
+        values.put(InventorySchema.COL_SALE_ID, sale.getSaleId());
+        values.put(InventorySchema.COL_PRODUCT_ID, sale.getProductId());
+        values.put(InventorySchema.COL_PRODUCT_NAME, sale.getProductName());
+        values.put(InventorySchema.COL_QUANTITY, sale.getQuantity());
+        values.put(InventorySchema.COL_SALE_PRICE, sale.getSalePrice());
+        values.put(InventorySchema.COL_TOTAL, sale.getTotal());
+        values.put(InventorySchema.COL_DATE, sale.getDate());
+        values.put(InventorySchema.COL_PROFIT, sale.getProfit());
+        values.put(InventorySchema.COL_BRANCH_ID, sale.getBranchId());
+        return new MapRow(values);
+    }
+
+    //a products row as a query would return it
+    private static StoreDatabase.Row productRow(Product product) {
+        Map<String, Object> values = new HashMap<>();
+        values.put(InventorySchema.COL_ID, product.getId());
+        values.put(InventorySchema.COL_NAME, product.getName());
+        values.put(InventorySchema.COL_PRICE, product.getPrice());
+        values.put(InventorySchema.COL_STOCK, product.getStock());
+        values.put(InventorySchema.COL_CATEGORY, product.getCategory());
+        values.put(InventorySchema.COL_COST, product.getCost());
+        values.put(InventorySchema.COL_VERSION, product.getVersion());
+        values.put(InventorySchema.COL_BRANCH_ID, product.getBranchId());
+        values.put(InventorySchema.COL_SKU, product.getSku());
+        return new MapRow(values);
+    }
+
+    //an in-memory row, so row mapping is measured without a database
+    private static final class MapRow implements StoreDatabase.Row {
+        private final Map<String, Object> values;
+
+        MapRow(Map<String, Object> values) {
+            this.values = values;
+        }
+
+        @Override
+        public int getInt(String column) {
+            return ((Number) values.get(column)).intValue();
+        }
+
+        @Override
+        public long getLong(String column) {
+            return ((Number) values.get(column)).longValue();
+        }
+
+        @Override
+        public double getDouble(String column) {
+            return ((Number) values.get(column)).doubleValue();
+        }
+
+        @Override
+        public String getString(String column) {
+            Object value = values.get(column);
+            return value == null ? null : value.toString();
+        }
+
+        @Override
+        public boolean isNull(String column) {
+            return values.get(column) == null;
+        }
+    }
+
+    //a writer that drops everything, so csv writing is measured without disk i/o
+    private static final class DiscardingWriter extends Writer {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public Writer append(CharSequence text) {
+            sink += text.length();
+            return this;
+        }
+
+        @Override
+        public void write(String text) {
+            sink += text.length();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+}
@@ -1,152 +1,439 @@
-package com.businesspro.inventorymanager;
-
-// importing all the required android classes and libraries for functionality and UI (Medium.com, 2025)
-import android.content.Intent; // this will be used for navigating between activities (screens)
-import android.os.Bundle; // this will be used to store activity state between re-creations
-import android.widget.TextView; // this is for displaying text data on the screen
-// importing AndroidX support libraries for modern app compatibility
-import androidx.appcompat.app.AppCompatActivity;
-import androidx.recyclerview.widget.LinearLayoutManager;
-import androidx.recyclerview.widget.RecyclerView;
-// importing Material Design components for the modern bottom navigation bar
-import com.google.android.material.bottomnavigation.BottomNavigationView;
-// importing the utility classes for formatting and list management (Medium.com, 2025)
-import java.text.NumberFormat; // this is used to display numbers as properly formatted currency
-import java.util.List; // this is used for storing and working with lists of objects
-import java.util.Locale; // this is used to format currency for a specific region
-
-// creating a public class for the eDashboardActivity class to display business summary info and recent sales
-public class DashboardActivity extends AppCompatActivity {
-
-    // declaring the database helper that will connect to the sqlite database
-    private DatabaseHelper dbHelper;
-
-    // declaring the TextView elements to show dashboard statistics
-    private TextView tvTotalProducts, tvTotalSales, tvInventoryValue, tvLowStock;
-
-    // declaring the RecyclerView to display a scrollable list of recent sales
-    private RecyclerView rvRecentSales;
-
-    // Declaring the formatter to display prices and money values in South African Rand format
-    private NumberFormat currencyFormat;
-
-    // onCreate() will be called when this activity starts
-    @Override
-    protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-
-        // setting the layout file (activity_dashboard.xml) that defines the UI
-        setContentView(R.layout.activity_dashboard);
-
-        // setting the title of the action bar at the top of the screen
-        getSupportActionBar().setTitle("Dashboard");
-
-        // initialising the database helper so I can access stored product/sales data (Code, 2024)
-        dbHelper = new DatabaseHelper(this);
-
-        // setting the  currency format for South Africa (en_ZA)
-        currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "ZA"));
-
-        // callin the helper methods to initialize components, set up navigation, and load data
-        initViews();
-        setupBottomNavigation();
-        loadDashboardData();
-    }
-
-    // creating a method to connect UI elements from the layout file to variables in this class (Codepath.com, 2025)
-    private void initViews() {
-        // Linking each TextView to its ID in the layout
-        tvTotalProducts = findViewById(R.id.tv_total_products);   //this displays the total number of products
-        tvTotalSales = findViewById(R.id.tv_total_sales);         // this displays the total sales amount
-        tvInventoryValue = findViewById(R.id.tv_inventory_value); // this displays the total inventory value
-        tvLowStock = findViewById(R.id.tv_low_stock);             // this displays the count of low-stock items
-
-        // linking the RecyclerView to show recent sales
-        rvRecentSales = findViewById(R.id.rv_recent_sales);
-
-        // setting the layout manager for RecyclerView
-        // the LinearLayoutManager arranges items vertically, like a list
-        rvRecentSales.setLayoutManager(new LinearLayoutManager(this));
-    }
-
-    // creatign a method to handle the bottom navigation bar setup and item selection (Risner, 2017)
-    private void setupBottomNavigation() {
-        // finding the BottomNavigationView by its ID
-        BottomNavigationView bottomNav = findViewById(R.id.bottom_navigation);
-
-        // marking "Dashboard" as the selected item in the navigation bar
-        bottomNav.setSelectedItemId(R.id.nav_dashboard);
-
-        // creating an event listener for when a navigation item is selected
-        bottomNav.setOnItemSelectedListener(item -> {
-            // getting the ID of the selected menu item
-            int itemId = item.getItemId();
-
-            // checking which navigation item was clicked and then it will  open the appropriate activity
-            if (itemId == R.id.nav_inventory) {
-                // navigating to InventoryActivity screen (Risner, 2017)
-                startActivity(new Intent(this, InventoryActivity.class));
-                // disabling the animation between transitions
-                overridePendingTransition(0, 0);
-                // closing the current activity so the new one becomes active
-                finish();
-                return true;
-
-            } else if (itemId == R.id.nav_sales) {
-                // navigating to SalesActivity screen
-                startActivity(new Intent(this, SalesActivity.class));
-                overridePendingTransition(0, 0);
-                finish();
-                return true;
-
-            } else if (itemId == R.id.nav_reports) {
-                // navigating to the ReportsActivity screen
-                startActivity(new Intent(this, ReportsActivity.class));
-                overridePendingTransition(0, 0);
-                finish();
-                return true;
-            }
-
-            // returning false if none of the above options were selected
-            return false;
-        });
-    }
-
-    // creating a method to load and display real-time dashboard data from the database
-    private void loadDashboardData() {
-        // displaying the total number of products by querying the database
-        tvTotalProducts.setText(String.valueOf(dbHelper.getTotalProducts()));
-
-        // displaying the total sales formatted as currency (Slingacademy.com, 2024)
-        tvTotalSales.setText(currencyFormat.format(dbHelper.getTotalSales()));
-
-        // displaying the total inventory value formatted as currency
-        tvInventoryValue.setText(currencyFormat.format(dbHelper.getInventoryValue()));
-
-        // displaying the number of products that are low in stock
-        tvLowStock.setText(String.valueOf(dbHelper.getLowStockProducts().size()));
-
-        // getting  all the sales records from the database
-        List<Sale> recentSales = dbHelper.getAllSales();
-
-        // limiting the recent sales list to only the first 5 entries (most recent ones)
-        if (recentSales.size() > 5) {
-            recentSales = recentSales.subList(0, 5);
-        }
-
-        // creating an adapter to bind the recent sales list to the RecyclerView (Abhiandroid.com, 2019)
-        SalesAdapter adapter = new SalesAdapter(this, recentSales);
-
-        // attaching  the adapter to the RecyclerView so the sales appear in the list (Abhiandroid.com, 2019)
-        rvRecentSales.setAdapter(adapter);
-    }
-
-    // onResume() is called when the user returns to this activity
-    // This ensures the dashboard refreshes with updated data each time it’s reopened
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Reload dashboard data to ensure displayed values are up to date
-        loadDashboardData();
-    }
-}
+package com.businesspro.inventorymanager;
+
+// importing all the required android classes and libraries for functionality and UI (Medium.com, 2025)
+import android.content.Intent; // this will be used for navigating between activities (screens)
+import android.os.Bundle; // this will be used to store activity state between re-creations
+import android.text.InputType; // this sets the keyboard for the sync server address
+import android.view.Menu; // this is the action bar menu
+import android.view.MenuItem; // this is a single action bar menu entry
+import android.widget.EditText; // this is where the sync server address is typed
+import android.widget.TextView; // this is for displaying text data on the screen
+import android.widget.Toast; // this shows short messages such as the test data progress
+// importing AndroidX support libraries for modern app compatibility
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+// importing Material Design components for the modern bottom navigation bar
+import com.google.android.material.bottomnavigation.BottomNavigationView;
+// importing the java classes for the backup files and the sync
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+// creating a public class for the eDashboardActivity class to display business summary info and recent sales
+public class DashboardActivity extends AppCompatActivity {
+
+    // the action bar menu item ID for the performance trace debug screen
+    private static final int MENU_TRACE = 1;
+
+    // the debug menu item IDs for generating test data (a small set and the full scale-test set)
+    private static final int MENU_GENERATE_SMALL = 2;
+    private static final int MENU_GENERATE_LARGE = 3;
+
+    // the menu item ID for moving old sales to the archive database
+    private static final int MENU_ARCHIVE = 4;
+
+    // the menu item IDs for backing up the database and restoring the newest backup
+    private static final int MENU_BACKUP = 5;
+    private static final int MENU_RESTORE = 6;
+
+    // the menu item ID for sending the changes to the central server
+    private static final int MENU_SYNC = 7;
+
+    // the menu item ID for choosing the branch this device works in
+    private static final int MENU_BRANCH = 8;
+
+    // the seed used for the generated test data
+    private static final long TEST_DATA_SEED = 42;
+
+    // declaring the database helper that will connect to the sqlite database
+    private DatabaseHelper dbHelper;
+
+    // declaring the TextView elements to show dashboard statistics
+    private TextView tvTotalProducts, tvTotalSales, tvInventoryValue, tvLowStock;
+
+    // declaring the RecyclerView to display a scrollable list of recent sales
+    private RecyclerView rvRecentSales;
+    private SalesAdapter recentSalesAdapter;
+
+    // the summary, loaded again whenever a product, a sale or a rollup is written while the dashboard is showing
+    // (e.g., a sale recorded at another till), and not at all while it is hidden
+    private ObservableQuery<DashboardSummary> summaryQuery;
+
+    // onCreate() will be called when this activity starts
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // setting the layout file (activity_dashboard.xml) that defines the UI
+        setContentView(R.layout.activity_dashboard);
+
+        // setting the title of the action bar at the top of the screen
+        getSupportActionBar().setTitle("Dashboard");
+
+        // initialising the database helper so I can access stored product/sales data (Code, 2024)
+        dbHelper = DatabaseHelper.getInstance(this);
+
+        // callin the helper methods to initialize components and set up navigation
+        // (the data itself is loaded in onStart(), which always runs right after onCreate())
+        initViews();
+        setupBottomNavigation();
+        summaryQuery = new ObservableQuery<>(dbHelper.getStore().getInvalidationTracker(),
+                this::loadSummary, AppExecutors.diskIO(), AppExecutors.mainThread(), this::showSummary,
+                InventorySchema.TABLE_PRODUCTS, InventorySchema.TABLE_SALES, InventorySchema.TABLE_BRANCH_ROLLUPS);
+    }
+
+    // creating a method to connect UI elements from the layout file to variables in this class (Codepath.com, 2025)
+    private void initViews() {
+        // Linking each TextView to its ID in the layout
+        tvTotalProducts = findViewById(R.id.tv_total_products);   //this displays the total number of products
+        tvTotalSales = findViewById(R.id.tv_total_sales);         // this displays the total sales amount
+        tvInventoryValue = findViewById(R.id.tv_inventory_value); // this displays the total inventory value
+        tvLowStock = findViewById(R.id.tv_low_stock);             // this displays the count of low-stock items
+
+        // linking the RecyclerView to show recent sales
+        rvRecentSales = findViewById(R.id.rv_recent_sales);
+
+        // setting the layout manager for RecyclerView
+        // the LinearLayoutManager arranges items vertically, like a list
+        rvRecentSales.setLayoutManager(new LinearLayoutManager(this));
+
+        // attaching the recent sales adapter once; each new summary only updates the rows that changed
+        recentSalesAdapter = new SalesAdapter(this, new ArrayList<>());
+        rvRecentSales.setAdapter(recentSalesAdapter);
+    }
+
+    // creatign a method to handle the bottom navigation bar setup and item selection (Risner, 2017)
+    private void setupBottomNavigation() {
+        // finding the BottomNavigationView by its ID
+        BottomNavigationView bottomNav = findViewById(R.id.bottom_navigation);
+
+        // marking "Dashboard" as the selected item in the navigation bar
+        bottomNav.setSelectedItemId(R.id.nav_dashboard);
+
+        // creating an event listener for when a navigation item is selected
+        bottomNav.setOnItemSelectedListener(item -> {
+            // getting the ID of the selected menu item
+            int itemId = item.getItemId();
+
+            // checking which navigation item was clicked and then it will  open the appropriate activity
+            if (itemId == R.id.nav_inventory) {
+                // navigating to InventoryActivity screen (Risner, 2017)
+                startActivity(new Intent(this, InventoryActivity.class));
+                // disabling the animation between transitions
+                overridePendingTransition(0, 0);
+                // closing the current activity so the new one becomes active
+                finish();
+                return true;
+
+            } else if (itemId == R.id.nav_sales) {
+                // navigating to SalesActivity screen
+                startActivity(new Intent(this, SalesActivity.class));
+                overridePendingTransition(0, 0);
+                finish();
+                return true;
+
+            } else if (itemId == R.id.nav_reports) {
+                // navigating to the ReportsActivity screen
+                startActivity(new Intent(this, ReportsActivity.class));
+                overridePendingTransition(0, 0);
+                finish();
+                return true;
+            }
+
+            // returning false if none of the above options were selected
+            return false;
+        });
+    }
+
+    // creating a method to start showing real-time dashboard data from the database
+    private void startDashboardData() {
+        long traceStart = PerfTrace.begin();
+
+        // using the summary the splash screen already computed, if the data has not changed since
+        // (the version is read first, so a write that drops the prefetched summary after it still makes a load)
+        long version = summaryQuery.getTablesVersion();
+        DashboardSummary prefetched = DashboardSummary.takePrefetched();
+        if (prefetched != null) {
+            showSummary(prefetched);
+            summaryQuery.start(version);
+            PerfTrace.end("load.dashboard(prefetched)", traceStart);
+            return;
+        }
+
+        // otherwise the query loads and formats everything on the background thread, if anything changed
+        // since the dashboard was last showing
+        summaryQuery.start();
+    }
+
+    // querying and formatting the dashboard values (run by the summary query on the background thread)
+    private DashboardSummary loadSummary() {
+        long traceStart = PerfTrace.begin();
+        DashboardSummary summary = DashboardSummary.load(dbHelper);
+        PerfTrace.end("load.dashboard", traceStart);
+        return summary;
+    }
+
+    // creating a method to display the prepared dashboard values (Slingacademy.com, 2024)
+    private void showSummary(DashboardSummary summary) {
+        // displaying the total number of products, total sales, inventory value and low-stock count
+        tvTotalProducts.setText(summary.getTotalProductsText());
+        tvTotalSales.setText(summary.getTotalSalesText());
+        tvInventoryValue.setText(summary.getInventoryValueText());
+        tvLowStock.setText(summary.getLowStockText());
+
+        // updating the recent sales rows in place (only a handful, so the diff is cheap here), which keeps the
+        // list from being rebuilt on every sale (Abhiandroid.com, 2019)
+        List<SaleDisplayItem> recentSales = summary.getRecentSales();
+        recentSalesAdapter.updateSales(recentSales, SalesAdapter.diffSales(recentSalesAdapter.getSales(), recentSales));
+    }
+
+    // adding the data tools (archive, backup and restore, sync, branch switch) to the action bar menu, and the
+    // debug tools (performance trace and test data) when tracing is switched on
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        menu.add(Menu.NONE, MENU_ARCHIVE, Menu.NONE, "Archive sales older than " + InventorySchema.ARCHIVE_AFTER_DAYS + " days");
+        menu.add(Menu.NONE, MENU_BACKUP, Menu.NONE, "Back up now");
+        menu.add(Menu.NONE, MENU_RESTORE, Menu.NONE, "Restore latest backup");
+        menu.add(Menu.NONE, MENU_SYNC, Menu.NONE, "Sync now");
+        menu.add(Menu.NONE, MENU_BRANCH, Menu.NONE, "Switch branch");
+        if (PerfTrace.isEnabled()) {
+            menu.add(Menu.NONE, MENU_TRACE, Menu.NONE, "Performance trace");
+            menu.add(Menu.NONE, MENU_GENERATE_SMALL, Menu.NONE, "Generate test data (1k products, 50k sales)");
+            menu.add(Menu.NONE, MENU_GENERATE_LARGE, Menu.NONE, "Generate test data (100k products, 5M sales)");
+        }
+        return true;
+    }
+
+    // opening the selected debug screen from the action bar menu
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == MENU_TRACE) {
+            startActivity(new Intent(this, TraceActivity.class));
+            return true;
+        } else if (item.getItemId() == MENU_GENERATE_SMALL) {
+            generateTestData(1_000, 50_000L);
+            return true;
+        } else if (item.getItemId() == MENU_GENERATE_LARGE) {
+            generateTestData(100_000, 5_000_000L);
+            return true;
+        } else if (item.getItemId() == MENU_ARCHIVE) {
+            archiveOldSales();
+            return true;
+        } else if (item.getItemId() == MENU_BACKUP) {
+            backUpNow();
+            return true;
+        } else if (item.getItemId() == MENU_RESTORE) {
+            confirmRestore();
+            return true;
+        } else if (item.getItemId() == MENU_SYNC) {
+            syncNow();
+            return true;
+        } else if (item.getItemId() == MENU_BRANCH) {
+            chooseBranch();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    // adding generated products and sales on the background thread (the dashboard shows them once they are all written)
+    // (a fixed seed, so every debug build gets the same data set)
+    private void generateTestData(int products, long sales) {
+        Toast.makeText(this, "Generating test data...", Toast.LENGTH_SHORT).show();
+        AppExecutors.diskIO().execute(() -> {
+            DatasetGenerator.Result result = new DatasetGenerator(TEST_DATA_SEED, products, sales)
+                    .generate(dbHelper.getStore());
+            AppExecutors.mainThread().execute(() -> {
+                Toast.makeText(getApplicationContext(), "Generated " + result, Toast.LENGTH_LONG).show();
+            });
+        });
+    }
+
+    // moving old sales into the archive database on the background thread (they still appear in the sales list,
+    // reports and exports); the dashboard shows the new totals by itself
+    private void archiveOldSales() {
+        AppExecutors.diskIO().execute(() -> {
+            int moved = dbHelper.archiveSales(InventorySchema.ARCHIVE_AFTER_DAYS);
+            AppExecutors.mainThread().execute(() -> {
+                Toast.makeText(getApplicationContext(), "Archived " + moved + " sales", Toast.LENGTH_LONG).show();
+            });
+        });
+    }
+
+    // taking a backup on the background thread while sales carry on
+    private void backUpNow() {
+        AppExecutors.diskIO().execute(() -> {
+            String message;
+            try {
+                message = "Backup saved: " + dbHelper.getBackup().backup().getName();
+            } catch (StoreException e) {
+                message = "Backup failed: " + e.getMessage();
+            }
+            showToast(message);
+        });
+    }
+
+    // asking before the newest backup replaces everything in the database
+    private void confirmRestore() {
+        AppExecutors.diskIO().execute(() -> {
+            List<File> backups = dbHelper.getBackup().list();
+            AppExecutors.mainThread().execute(() -> {
+                if (backups.isEmpty()) {
+                    Toast.makeText(this, "There are no backups yet", Toast.LENGTH_LONG).show();
+                    return;
+                }
+                File newest = backups.get(0);
+                new android.app.AlertDialog.Builder(this)
+                        .setTitle("Restore backup")
+                        .setMessage("Replace all products and sales with the backup " + newest.getName()
+                                + "?\n\nEverything recorded since then will be lost.")
+                        .setPositiveButton("Restore", (dialog, which) -> restore(newest))
+                        .setNegativeButton("Cancel", null)
+                        .show();
+            });
+        });
+    }
+
+    // restoring the backup on the background thread (it is checked before the database is replaced); the restore
+    // reports every table as changed, so the dashboard reloads by itself
+    private void restore(File backup) {
+        AppExecutors.diskIO().execute(() -> {
+            String message;
+            try {
+                dbHelper.restoreBackup(backup);
+                message = "Restored " + backup.getName();
+            } catch (StoreException e) {
+                message = "Restore failed: " + e.getMessage();
+            }
+            showToast(message);
+        });
+    }
+
+    // sending the changes to the central server, asking for its address the first time
+    private void syncNow() {
+        SyncJobService.runOnSyncThread(() -> {
+            String endpoint = dbHelper.getStore().getSyncEndpoint();
+            if (endpoint != null) {
+                sync(endpoint);
+                return;
+            }
+            AppExecutors.mainThread().execute(() -> {
+                EditText input = new EditText(this);
+                input.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_VARIATION_URI);
+                input.setHint("https://example.com/sync");
+                new android.app.AlertDialog.Builder(this)
+                        .setTitle("Sync server")
+                        .setMessage("Enter the address of the head office sync server.")
+                        .setView(input)
+                        .setPositiveButton("Sync", (dialog, which) -> {
+                            String address = input.getText().toString().trim();
+                            SyncJobService.runOnSyncThread(() -> {
+                                try {
+                                    new URL(address);
+                                } catch (MalformedURLException e) {
+                                    showToast("Not a valid address: " + address);
+                                    return;
+                                }
+                                dbHelper.getStore().setSyncEndpoint(address);
+                                sync(address);
+                            });
+                        })
+                        .setNegativeButton("Cancel", null)
+                        .show();
+            });
+        });
+    }
+
+    // running one sync on the sync thread and showing what was sent
+    private void sync(String endpoint) {
+        String message;
+        try {
+            message = "Synced " + new SyncEngine(dbHelper.getStore(), endpoint).sync();
+        } catch (IOException | StoreException e) {
+            message = "Sync failed: " + e.getMessage();
+        }
+        showToast(message);
+    }
+
+    // listing the branches to choose from, with the current one ticked
+    private void chooseBranch() {
+        AppExecutors.diskIO().execute(() -> {
+            List<BranchTotals> branches = dbHelper.getBranchTotals(null, null);
+            int current = dbHelper.getStore().getCurrentBranchId();
+            String[] names = new String[branches.size()];
+            int checked = -1;
+            for (int i = 0; i < names.length; i++) {
+                names[i] = branches.get(i).getName();
+                if (branches.get(i).getBranchId() == current) {
+                    checked = i;
+                }
+            }
+            int checkedItem = checked;
+            AppExecutors.mainThread().execute(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                new android.app.AlertDialog.Builder(this)
+                        .setTitle("Branch")
+                        .setSingleChoiceItems(names, checkedItem, (dialog, which) -> {
+                            dialog.dismiss();
+                            switchBranch(branches.get(which).getBranchId(), names[which]);
+                        })
+                        .setNeutralButton("Add branch", (dialog, which) -> addBranch())
+                        .setNegativeButton("Cancel", null)
+                        .show();
+            });
+        });
+    }
+
+    // asking for the new branch's name, then switching to it
+    private void addBranch() {
+        EditText input = new EditText(this);
+        input.setHint("Branch name");
+        new android.app.AlertDialog.Builder(this)
+                .setTitle("Add branch")
+                .setView(input)
+                .setPositiveButton("Add", (dialog, which) -> {
+                    String name = input.getText().toString().trim();
+                    if (name.isEmpty()) {
+                        return;
+                    }
+                    AppExecutors.diskIO().execute(() -> switchBranch(dbHelper.getStore().addBranch(name), name));
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // making the branch the current one on the background thread; the dashboard reloads for it by itself
+    private void switchBranch(int branchId, String name) {
+        AppExecutors.diskIO().execute(() -> {
+            dbHelper.getStore().setCurrentBranch(branchId);
+            AppExecutors.mainThread().execute(() ->
+                    Toast.makeText(getApplicationContext(), "Now working in " + name, Toast.LENGTH_SHORT).show());
+        });
+    }
+
+    // showing a toast from a background thread
+    private void showToast(String message) {
+        AppExecutors.mainThread().execute(() ->
+                Toast.makeText(getApplicationContext(), message, Toast.LENGTH_LONG).show());
+    }
+
+    // onStart() is called when the dashboard becomes visible: it shows the summary and keeps it up to date
+    // (loading it again only if the data changed while the dashboard was hidden)
+    @Override
+    protected void onStart() {
+        super.onStart();
+        startDashboardData();
+    }
+
+    // onStop() is called when the dashboard is hidden, so it stops watching the data
+    @Override
+    protected void onStop() {
+        summaryQuery.stop();
+        super.onStop();
+    }
+}
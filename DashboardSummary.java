@@ -0,0 +1,91 @@
+package com.businesspro.inventorymanager;
+
+//importing the list class used for the recent sales rows
+import java.util.List;
+
+//the DashboardSummary class holds everything the dashboard shows, already formatted for display.
+//it is built on a background thread (by the splash warm-up or the dashboard itself),
+//so DashboardActivity only has to set the values on screen.
+public final class DashboardSummary {
+
+    //the number of recent sales shown on the dashboard
+    public static final int RECENT_SALES_LIMIT = 5;
+
+    //the summary computed during the splash warm-up, handed over to the first dashboard that opens
+    private static DashboardSummary prefetched;
+
+    //increases on every invalidatePrefetched(), so a summary that raced with a write is not kept
+    private static long generation;
+
+    //the formatted dashboard values
+    private final String totalProductsText;
+    private final String totalSalesText;
+    private final String inventoryValueText;
+    private final String lowStockText;
+
+    //the most recent sales, already converted to display rows
+    private final List<SaleDisplayItem> recentSales;
+
+    //creating a constructor that stores the formatted values
+    public DashboardSummary(String totalProductsText, String totalSalesText, String inventoryValueText,
+                            String lowStockText, List<SaleDisplayItem> recentSales) {
+        this.totalProductsText = totalProductsText;
+        this.totalSalesText = totalSalesText;
+        this.inventoryValueText = inventoryValueText;
+        this.lowStockText = lowStockText;
+        this.recentSales = recentSales;
+    }
+
+    //querying the database and formatting the dashboard values (call this off the main thread)
+    public static DashboardSummary load(InventoryStore dbHelper) {
+        return new DashboardSummary(
+                String.valueOf(dbHelper.getTotalProducts()),
+                DisplayFormats.formatCurrency(dbHelper.getTotalSales()),
+                DisplayFormats.formatCurrency(dbHelper.getInventoryValue()),
+                String.valueOf(dbHelper.getLowStockCount()),
+                SaleDisplayItem.fromSales(dbHelper.getRecentSales(RECENT_SALES_LIMIT))
+        );
+    }
+
+    //computing the summary ahead of time so the dashboard can show it immediately (used by the splash warm-up)
+    public static void prefetch(InventoryStore dbHelper) {
+        long loadGeneration;
+        synchronized (DashboardSummary.class) {
+            loadGeneration = generation;
+        }
+        DashboardSummary summary = load(dbHelper);
+        synchronized (DashboardSummary.class) {
+            if (generation == loadGeneration) {
+                prefetched = summary;
+            }
+        }
+    }
+
+    //handing over the prefetched summary once; returns null if there is none or the data changed since
+    public static synchronized DashboardSummary takePrefetched() {
+        DashboardSummary summary = prefetched;
+        prefetched = null;
+        return summary;
+    }
+
+    //dropping the prefetched summary after a write, because its values are now out of date
+    public static synchronized void invalidatePrefetched() {
+        generation++;
+        prefetched = null;
+    }
+
+    //returns the total number of products as text
+    public String getTotalProductsText() { return totalProductsText; }
+
+    //returns the total sales formatted as currency
+    public String getTotalSalesText() { return totalSalesText; }
+
+    //returns the total inventory value formatted as currency
+    public String getInventoryValueText() { return inventoryValueText; }
+
+    //returns the number of low-stock products as text
+    public String getLowStockText() { return lowStockText; }
+
+    //returns the recent sales display rows
+    public List<SaleDisplayItem> getRecentSales() { return recentSales; }
+}
@@ -0,0 +1,206 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to write, compress and check the backup files
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+//the DatabaseBackup class takes consistent copies of the inventory database while the shop keeps trading.
+//
+//  - the copy is made with VACUUM INTO on a read-only connection of its own (see Copier), which reads the database
+//    inside one read transaction: in WAL mode sales keep being recorded on the app's connection while it runs,
+//    and the copy is exactly the database as it was when it started
+//  - the copy is checked (integrity and schema version) on its own connection before it is kept,
+//    then gzip-compressed if asked, and only the newest few backups are kept
+//  - a restore decompresses a backup next to the database and checks it the same way before anything is
+//    replaced, so a damaged backup can never overwrite a working database (see DatabaseHelper.restoreBackup())
+//
+//the archive database (see archiveSales()) is not part of the backup. after a restore, the sales archived at or after
+//the restored database's watermark are dropped from the archive the first time it is attached: the restored sales
+//table still holds the ones that existed when the backup was taken, and the rest were recorded after it and are lost
+//with the other changes since then (see SqlInventoryStore.trimArchive()).
+public class DatabaseBackup {
+
+    //copies the live database into a new file on a read connection of its own, never on the connection the app
+    //writes on (which would hold every write and journal drain until the copy is done);
+    //implemented by DatabaseHelper and JdbcInventoryStore
+    public interface Copier {
+        //writing the copy to 'target', which does not exist yet; throws StoreException if it could not be made
+        void copyTo(File target);
+    }
+
+    //checks a database file on a connection of its own; implemented by DatabaseHelper and JdbcInventoryStore
+    public interface Verifier {
+        //returns null if the file is a sound inventory database, otherwise what is wrong with it
+        String check(File file);
+    }
+
+    //backup files are named like "inventory-20251103-103000.db.gz", so sorting by name sorts them by age
+    private static final String PREFIX = "inventory-";
+    private static final String SUFFIX = ".db";
+    private static final String COMPRESSED_SUFFIX = ".db.gz";
+
+    //the first 16 bytes of every sqlite database file
+    private static final byte[] SQLITE_HEADER = "SQLite format 3\u0000".getBytes(StandardCharsets.US_ASCII);
+
+    private final File directory;
+    private final Copier copier;
+    private final Verifier verifier;
+    private int keep = 7;
+    private boolean compress = true;
+
+    //creating a backup helper that writes into the given folder
+    public DatabaseBackup(File directory, Copier copier, Verifier verifier) {
+        this.directory = directory;
+        this.copier = copier;
+        this.verifier = verifier;
+    }
+
+    //setting how many backups are kept (default 7); older ones are deleted after each new backup
+    public DatabaseBackup setKeep(int keep) {
+        this.keep = keep;
+        return this;
+    }
+
+    //setting whether backups are gzip-compressed (default true)
+    public DatabaseBackup setCompress(boolean compress) {
+        this.compress = compress;
+        return this;
+    }
+
+    //taking a backup and returning its file; throws StoreException if it could not be made or did not check out
+    public File backup() {
+        long start = System.nanoTime();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new StoreException("could not create " + directory);
+        }
+        String name = PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date());
+        File copy = new File(directory, name + SUFFIX);
+        File temp = new File(directory, name + SUFFIX + ".tmp");
+        temp.delete(); //VACUUM INTO refuses to write over an existing file
+
+        try {
+            copier.copyTo(temp);
+            String problem = verifier.check(temp);
+            if (problem != null) {
+                throw new StoreException("the backup did not check out: " + problem);
+            }
+            File result;
+            if (compress) {
+                result = new File(directory, name + COMPRESSED_SUFFIX);
+                try (InputStream in = new FileInputStream(temp);
+                     OutputStream out = new GZIPOutputStream(new FileOutputStream(result), 64 * 1024)) {
+                    copy(in, out);
+                }
+            } else {
+                result = copy;
+                if (!temp.renameTo(result)) {
+                    throw new StoreException("could not rename " + temp + " to " + result);
+                }
+            }
+            prune();
+            QueryStats.record("backup", System.nanoTime() - start, 1);
+            return result;
+        } catch (IOException e) {
+            throw new StoreException("could not write the backup " + name, e);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    //returning the backups in the folder, newest first
+    public List<File> list() {
+        File[] files = directory.listFiles((dir, fileName) -> fileName.startsWith(PREFIX)
+                && (fileName.endsWith(SUFFIX) || fileName.endsWith(COMPRESSED_SUFFIX)));
+        List<File> backups = new ArrayList<>(files == null ? Collections.<File>emptyList() : Arrays.asList(files));
+        Collections.sort(backups, (a, b) -> b.getName().compareTo(a.getName()));
+        return backups;
+    }
+
+    //deleting all but the newest 'keep' backups
+    private void prune() {
+        List<File> backups = list();
+        for (int i = keep; i < backups.size(); i++) {
+            backups.get(i).delete();
+        }
+    }
+
+    //unpacking a backup into 'target' (e.g. a file next to the live database) and checking it there.
+    //returns only if the target is a sound database that can be moved over the live one
+    public void prepareRestore(File backup, File target) {
+        target.delete();
+        try (InputStream in = backup.getName().endsWith(COMPRESSED_SUFFIX)
+                ? new GZIPInputStream(new FileInputStream(backup), 64 * 1024)
+                : new BufferedInputStream(new FileInputStream(backup));
+             OutputStream out = new FileOutputStream(target)) {
+            copy(in, out);
+        } catch (IOException e) {
+            target.delete();
+            throw new StoreException("could not read the backup " + backup.getName(), e);
+        }
+        String problem = hasSqliteHeader(target) ? verifier.check(target) : "not a database file";
+        if (problem != null) {
+            target.delete();
+            throw new StoreException("the backup " + backup.getName() + " cannot be restored: " + problem);
+        }
+    }
+
+    //the copy shared by the copiers, run on the copier's own connection (needs SQLite 3.27, i.e. Android 11 or later)
+    public static void vacuumInto(StoreDatabase db, File target) {
+        db.execute("VACUUM INTO '" + target.getAbsolutePath().replace("'", "''") + "'");
+    }
+
+    //the checks shared by the verifiers: sqlite's own consistency check and a schema version this app can open
+    public static String check(StoreDatabase db) {
+        List<String> messages = db.query("PRAGMA quick_check", null, row -> row.getString("quick_check"));
+        if (messages.isEmpty() || !"ok".equals(messages.get(0))) {
+            return "quick_check: " + messages;
+        }
+        long version = db.queryLong("PRAGMA user_version", null);
+        if (version < 1 || version > InventorySchema.DATABASE_VERSION) {
+            return "schema version " + version + " (this app opens 1 to " + InventorySchema.DATABASE_VERSION + ")";
+        }
+        return null;
+    }
+
+    //returns true if the file starts with the sqlite header
+    private static boolean hasSqliteHeader(File file) {
+        byte[] header = new byte[SQLITE_HEADER.length];
+        try (InputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < header.length) {
+                int n = in.read(header, read, header.length - read);
+                if (n < 0) {
+                    return false;
+                }
+                read += n;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return Arrays.equals(header, SQLITE_HEADER);
+    }
+
+    //copying a stream to the end
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+    }
+}
@@ -1,311 +1,314 @@
-package com.businesspro.inventorymanager;
-
-// importing required Android and Java libraries (Medium.com, 2025)
-import android.content.ContentValues; // this is used for inserting and updating key-value pairs in the database
-import android.content.Context; // this provides access to application-specific resources and classes
-import android.database.Cursor; // this is used to read data from the database query results
-import android.database.sqlite.SQLiteDatabase; // this represents the sqlite database itself
-import android.database.sqlite.SQLiteOpenHelper; // this is helps manage database creation and version management
-
-// importing date and formatting utilities
-import java.text.SimpleDateFormat; // this is used for formatting dates when recording sales
-import java.util.ArrayList; // this is used to store lists of Product and Sale objects
-import java.util.Date; // this represents current date and time for timestamps
-import java.util.List; // this is the interface for holding collections of objects
-import java.util.Locale; // this is used for localization (region-specific date formats)
-
-// creating the  DatabaseHelper class that will handle all database operations (create, read, update, delete)
-public class DatabaseHelper extends SQLiteOpenHelper {
-
-    // creating the database configuration constants
-    private static final String DATABASE_NAME = "InventoryManager.db"; // This is the database file name
-    private static final int DATABASE_VERSION = 1; //this is version number (used for upgrades)
-
-    // creating the product table constants (Tutlane.com, 2018)
-    private static final String TABLE_PRODUCTS = "products"; //this is the table name for products
-    private static final String COL_ID = "id";               //this is the primary key for product
-    private static final String COL_NAME = "name";           //this is the product name
-    private static final String COL_PRICE = "price";         //this is the selling price of product
-    private static final String COL_STOCK = "stock";         //this is the available quantity in stock
-    private static final String COL_CATEGORY = "category";   //this is the product category (like electronics)
-    private static final String COL_COST = "cost";           //this is the cost price of the product
-
-    // creating the sales table constants (Tutlane.com, 2018)
-    private static final String TABLE_SALES = "sales";       //this is the table name for sales
-    private static final String COL_SALE_ID = "sale_id";     //this is the unique ID for each sale
-    private static final String COL_PRODUCT_ID = "product_id"; //this will link the sale to its product
-    private static final String COL_PRODUCT_NAME = "product_name"; //this is the name of product sold
-    private static final String COL_QUANTITY = "quantity";         //this is the number of items sold
-    private static final String COL_SALE_PRICE = "sale_price";     //this is the selling price per unit
-    private static final String COL_TOTAL = "total";               //this is the total sale amount (price * quantity)
-    private static final String COL_DATE = "date";                 //this is the date and time of sale
-    private static final String COL_PROFIT = "profit";             //this is the profit made on that sale
-
-    // creating a constructor to initialise the database helper and connects to the SQLite database (Unknown, 2025)
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
-    }
-
-    // onCreate is called automatically when the database is created for the first time
-    @Override
-    public void onCreate(SQLiteDatabase db) {
-        // SQL command to create the Products table (STechies, 2017)
-        String createProductsTable = "CREATE TABLE " + TABLE_PRODUCTS + " (" +
-                COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +  //this is the auto-generated product ID
-                COL_NAME + " TEXT NOT NULL, " +                    //this is the product name (required)
-                COL_PRICE + " REAL NOT NULL, " +                   //this is the product selling price
-                COL_STOCK + " INTEGER NOT NULL, " +                //this is the stock quantity
-                COL_CATEGORY + " TEXT NOT NULL, " +                //this is the product category
-                COL_COST + " REAL DEFAULT 0)";                     //this is the product cost (default 0)
-
-        // SQL command to create the Sales table (STechies, 2017)
-        String createSalesTable = "CREATE TABLE " + TABLE_SALES + " (" +
-                COL_SALE_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " + //this is the auto-generated sale ID
-                COL_PRODUCT_ID + " INTEGER, " +                        //this is the product ID (foreign key reference)
-                COL_PRODUCT_NAME + " TEXT, " +                         //this is the product name sold
-                COL_QUANTITY + " INTEGER, " +                          //this is the quantity sold
-                COL_SALE_PRICE + " REAL, " +                           //this is the selling price per item
-                COL_TOTAL + " REAL, " +                                //this is the total sale value
-                COL_DATE + " TEXT, " +                                 //this is the date of sale
-                COL_PROFIT + " REAL)";                                 //this is the profit made
-
-        //now we execute the SQL commands to create both tables (STechies, 2017)
-        db.execSQL(createProductsTable);
-        db.execSQL(createSalesTable);
-
-        //adding the default sample products into the database for demonstration (STechies, 2017)
-        insertSampleData(db);
-    }
-
-    //creating a method to insert product data into the database upon creation
-    private void insertSampleData(SQLiteDatabase db) {
-        //creating  a ContentValues object to store product data for insertion
-        ContentValues values = new ContentValues();
-
-        //creating the product information arrays
-        String[] products = {"Laptop", "Mouse", "Keyboard", "Monitor", "USB Cable"};
-        double[] prices = {15000, 350, 650, 4500, 120};
-        int[] stocks = {15, 45, 30, 8, 100};
-        String[] categories = {"Electronics", "Accessories", "Accessories", "Electronics", "Accessories"};
-        double[] costs = {12000, 200, 400, 3500, 60};
-
-        //using a for loop to loop through all sample data and insert each product into the database (STechies, 2017)
-        for (int i = 0; i < products.length; i++) {
-            values.clear(); //clearing old values before reusing the object
-            values.put(COL_NAME, products[i]);
-            values.put(COL_PRICE, prices[i]);
-            values.put(COL_STOCK, stocks[i]);
-            values.put(COL_CATEGORY, categories[i]);
-            values.put(COL_COST, costs[i]);
-            db.insert(TABLE_PRODUCTS, null, values); //inserting into products table
-        }
-    }
-
-    // onUpgrade is called automatically when the database version changes
-    // it drops old tables and recreates them (STechies, 2017)
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_PRODUCTS);
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SALES);
-        onCreate(db); //recreating tables
-    }
-
-    //crud operations for products
-    // Adding a new product record to the database  (Techotopia.com, 2025)
-    public long addProduct(String name, double price, int stock, String category, double cost) {
-        SQLiteDatabase db = this.getWritableDatabase(); // open writable database
-        ContentValues values = new ContentValues();
-        values.put(COL_NAME, name);
-        values.put(COL_PRICE, price);
-        values.put(COL_STOCK, stock);
-        values.put(COL_CATEGORY, category);
-        values.put(COL_COST, cost);
-        return db.insert(TABLE_PRODUCTS, null, values); //returning the new row ID or -1 if failed
-    }
-
-    // retrieving all the product records from the database  (Techotopia.com, 2025)
-    public List<Product> getAllProducts() {
-        List<Product> products = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-
-        //querying the products table and order results alphabetically by name  (Techotopia.com, 2025)
-        Cursor cursor = db.query(TABLE_PRODUCTS, null, null, null, null, null, COL_NAME + " ASC");
-
-        // looping through results and create product objects for each row
-        if (cursor.moveToFirst()) {
-            do {
-                Product product = new Product(
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_ID)),
-                        cursor.getString(cursor.getColumnIndexOrThrow(COL_NAME)),
-                        cursor.getDouble(cursor.getColumnIndexOrThrow(COL_PRICE)),
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_STOCK)),
-                        cursor.getString(cursor.getColumnIndexOrThrow(COL_CATEGORY)),
-                        cursor.getDouble(cursor.getColumnIndexOrThrow(COL_COST))
-                );
-                products.add(product); //Add product to list
-            } while (cursor.moveToNext());
-        }
-        cursor.close(); //close cursor after reading
-        return products;
-    }
-
-    //retrieve a single product record by its ID (Panjuta, 2020)
-    public Product getProduct(int id) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.query(TABLE_PRODUCTS, null, COL_ID + "=?",
-                new String[]{String.valueOf(id)}, null, null, null);
-
-        Product product = null;
-        if (cursor.moveToFirst()) {
-            product = new Product(
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_ID)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_NAME)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_PRICE)),
-                    cursor.getInt(cursor.getColumnIndexOrThrow(COL_STOCK)),
-                    cursor.getString(cursor.getColumnIndexOrThrow(COL_CATEGORY)),
-                    cursor.getDouble(cursor.getColumnIndexOrThrow(COL_COST))
-            );
-        }
-        cursor.close();
-        return product;
-    }
-
-    //updating an existing product record (Panjuta, 2020)
-    public int updateProduct(int id, String name, double price, int stock, String category, double cost) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put(COL_NAME, name);
-        values.put(COL_PRICE, price);
-        values.put(COL_STOCK, stock);
-        values.put(COL_CATEGORY, category);
-        values.put(COL_COST, cost);
-        // Return number of rows affected
-        return db.update(TABLE_PRODUCTS, values, COL_ID + "=?", new String[]{String.valueOf(id)});
-    }
-
-    //deleting a product by its ID (Panjuta, 2020)
-    public void deleteProduct(int id) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_PRODUCTS, COL_ID + "=?", new String[]{String.valueOf(id)});
-    }
-
-    //retrieve all products with stock less than or equal to 10 (low stock) (Panjuta, 2020)
-    public List<Product> getLowStockProducts() {
-        List<Product> products = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.query(TABLE_PRODUCTS, null, COL_STOCK + " <= ?",
-                new String[]{"10"}, null, null, COL_STOCK + " ASC");
-
-        if (cursor.moveToFirst()) {
-            do {
-                Product product = new Product(
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_ID)),
-                        cursor.getString(cursor.getColumnIndexOrThrow(COL_NAME)),
-                        cursor.getDouble(cursor.getColumnIndexOrThrow(COL_PRICE)),
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_STOCK)),
-                        cursor.getString(cursor.getColumnIndexOrThrow(COL_CATEGORY)),
-                        cursor.getDouble(cursor.getColumnIndexOrThrow(COL_COST))
-                );
-                products.add(product);
-            } while (cursor.moveToNext());
-        }
-        cursor.close();
-        return products;
-    }
-
-    //sales operations:
-    //recording a sale and update stock levels (Tutorialspoint.com, 2019)
-    public long recordSale(int productId, String productName, int quantity, double salePrice, double cost) {
-        SQLiteDatabase db = this.getWritableDatabase();
-
-        //decreasing stock for the sold product (Tutorialspoint.com, 2019)
-        db.execSQL("UPDATE " + TABLE_PRODUCTS + " SET " + COL_STOCK + " = " + COL_STOCK + " - ? WHERE " + COL_ID + " = ?",
-                new Object[]{quantity, productId});
-
-        //creating a ContentValues object to insert the sale record
-        ContentValues values = new ContentValues();
-        values.put(COL_PRODUCT_ID, productId);
-        values.put(COL_PRODUCT_NAME, productName);
-        values.put(COL_QUANTITY, quantity);
-        values.put(COL_SALE_PRICE, salePrice);
-        values.put(COL_TOTAL, salePrice * quantity);
-        values.put(COL_DATE, new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault()).format(new Date()));
-        values.put(COL_PROFIT, (salePrice - cost) * quantity); // Calculate profit
-
-        //insert new sale record into the sales table
-        return db.insert(TABLE_SALES, null, values);
-    }
-
-    //retrieving all recorded sales when the user prompts (w3resource, 2024)
-    public List<Sale> getAllSales() {
-        List<Sale> sales = new ArrayList<>();
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.query(TABLE_SALES, null, null, null, null, null, COL_DATE + " DESC");
-
-        if (cursor.moveToFirst()) {
-            do {
-                Sale sale = new Sale(
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_SALE_ID)),
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_PRODUCT_ID)),
-                        cursor.getString(cursor.getColumnIndexOrThrow(COL_PRODUCT_NAME)),
-                        cursor.getInt(cursor.getColumnIndexOrThrow(COL_QUANTITY)),
-                        cursor.getDouble(cursor.getColumnIndexOrThrow(COL_SALE_PRICE)),
-                        cursor.getDouble(cursor.getColumnIndexOrThrow(COL_TOTAL)),
-                        cursor.getString(cursor.getColumnIndexOrThrow(COL_DATE)),
-                        cursor.getDouble(cursor.getColumnIndexOrThrow(COL_PROFIT))
-                );
-                sales.add(sale);
-            } while (cursor.moveToNext());
-        }
-        cursor.close();
-        return sales;
-    }
-
-    //calculating the total sales value from the sales table (SQLite Tutorial, 2022)
-    public double getTotalSales() {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT SUM(" + COL_TOTAL + ") FROM " + TABLE_SALES, null);
-        double total = 0;
-        if (cursor.moveToFirst()) {
-            total = cursor.getDouble(0);
-        }
-        cursor.close();
-        return total;
-    }
-
-    //calculating the  total profit earned (SQLite Tutorial, 2022)
-    public double getTotalProfit() {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT SUM(" + COL_PROFIT + ") FROM " + TABLE_SALES, null);
-        double total = 0;
-        if (cursor.moveToFirst()) {
-            total = cursor.getDouble(0);
-        }
-        cursor.close();
-        return total;
-    }
-
-    //calculating the total inventory value (price × stock for all products) (SQLite Tutorial, 2022)
-    public double getInventoryValue() {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT SUM(" + COL_PRICE + " * " + COL_STOCK + ") FROM " + TABLE_PRODUCTS, null);
-        double total = 0;
-        if (cursor.moveToFirst()) {
-            total = cursor.getDouble(0);
-        }
-        cursor.close();
-        return total;
-    }
-
-    //counting the total number of products in the database (SQLite Tutorial, 2022)
-    public int getTotalProducts() {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM " + TABLE_PRODUCTS, null);
-        int count = 0;
-        if (cursor.moveToFirst()) {
-            count = cursor.getInt(0);
-        }
-        cursor.close();
-        return count;
-    }
-}
+package com.businesspro.inventorymanager;
+
+// importing required Android and Java libraries (Medium.com, 2025)
+import android.content.Context; // this provides access to application-specific resources and classes
+import android.database.sqlite.SQLiteDatabase; // this represents the sqlite database itself
+import android.database.sqlite.SQLiteException; // this is thrown when a database file cannot be opened
+import android.database.sqlite.SQLiteOpenHelper; // this is helps manage database creation and version management
+
+// importing the java classes for backup files and query results
+import java.io.File; // this is a database or backup file
+import java.util.List; // this is the interface for holding collections of objects
+
+// creating the  DatabaseHelper class that opens the app's SQLite database and handles all database operations
+// (create, read, update, delete). the SQL itself lives in SqlInventoryStore, which is shared with the JVM store.
+public class DatabaseHelper extends SQLiteOpenHelper implements InventoryStore {
+
+    // the single shared helper, so every screen and the splash warm-up use the same open database
+    private static DatabaseHelper instance;
+
+    // returning the shared helper, creating it on first use with the application context
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new DatabaseHelper(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // the store that runs every query against this helper's database, and the adapter it runs them through
+    private final SqlInventoryStore store;
+    private final AndroidStoreDatabase storeDatabase;
+
+    // the database file and the folder its backups are written to
+    private final File databaseFile;
+    private final File backupDirectory;
+
+    // creating a constructor to initialise the database helper and connects to the SQLite database (Unknown, 2025)
+    private DatabaseHelper(Context context) {
+        super(context, InventorySchema.DATABASE_NAME, null, InventorySchema.DATABASE_VERSION);
+        // write-ahead logging lets the screens read while sales are written; the archive is attached on a
+        // connection of its own, so attaching it does not turn this off (see AndroidStoreDatabase)
+        setWriteAheadLoggingEnabled(true);
+        storeDatabase = new AndroidStoreDatabase(this);
+        store = new SqlInventoryStore(storeDatabase);
+        // old sales are moved to a second file in the app's database folder
+        store.setArchivePath(context.getDatabasePath(InventorySchema.ARCHIVE_DATABASE_NAME).getPath());
+        databaseFile = context.getDatabasePath(InventorySchema.DATABASE_NAME);
+        backupDirectory = new File(context.getFilesDir(), "backups");
+        // sales are journaled and written to the database in the background, so a checkout never waits for a commit
+        store.setSaleJournalFile(new File(context.getFilesDir(), InventorySchema.SALE_JOURNAL_NAME));
+        // after every write, in-memory copies of the data (product cache, prefetched dashboard) are dropped
+        store.setDataChangeListener(() -> {
+            ProductCache.invalidate();
+            DashboardSummary.invalidatePrefetched();
+        });
+    }
+
+    // returning the shared store itself, for bulk tools such as the test data generator
+    SqlInventoryStore getStore() {
+        return store;
+    }
+
+    // returning the backup helper for this database (backups go to the app's private "backups" folder)
+    public DatabaseBackup getBackup() {
+        return new DatabaseBackup(backupDirectory, this::copyDatabaseFile, DatabaseHelper::checkDatabaseFile);
+    }
+
+    // copying the database for a backup on a read-only connection of its own. execSQL on the helper's database would
+    // run the copy on its primary connection, and every write (and the sale journal's drain) would wait for it.
+    // this does not take the helper's lock either, so the screens can open the database while the copy runs
+    private void copyDatabaseFile(File target) {
+        getWritableDatabase(); // making sure the file exists and is upgraded before it is copied
+        SQLiteDatabase db = null;
+        try {
+            db = SQLiteDatabase.openDatabase(databaseFile.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+            DatabaseBackup.vacuumInto(new AndroidStoreDatabase(db), target);
+        } catch (SQLiteException e) {
+            throw new StoreException("could not copy the database", e);
+        } finally {
+            if (db != null) {
+                db.close();
+            }
+        }
+    }
+
+    // checking a database file (e.g. a backup) on a read-only connection of its own
+    static String checkDatabaseFile(File file) {
+        SQLiteDatabase db = null;
+        try {
+            db = SQLiteDatabase.openDatabase(file.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+            return DatabaseBackup.check(new AndroidStoreDatabase(db));
+        } catch (SQLiteException e) {
+            return e.getMessage();
+        } finally {
+            if (db != null) {
+                db.close();
+            }
+        }
+    }
+
+    // how long a restore waits for the journaled sales to reach the database
+    private static final long RESTORE_JOURNAL_WAIT_MILLIS = 10_000;
+
+    // replacing the database with a backup. new sales are held back first and the journaled ones written into the
+    // current database (outside the helper's lock, which the journal's writes need), so none is lost with it
+    public void restoreBackup(File backup) {
+        if (!store.pauseSaleJournal(RESTORE_JOURNAL_WAIT_MILLIS)) {
+            throw new StoreException("sales are still being saved, try the restore again");
+        }
+        try {
+            replaceDatabase(backup);
+        } finally {
+            store.resumeSaleJournal();
+        }
+    }
+
+    // replacing the database file, after the backup has been unpacked and checked next to it.
+    // this holds the helper's lock, so no screen can reopen the database until the new file is in place;
+    // the replaced file is kept as "<name>.before-restore" until the next restore
+    private synchronized void replaceDatabase(File backup) {
+        File restored = new File(databaseFile.getPath() + ".restore");
+        getBackup().prepareRestore(backup, restored);
+
+        close(); // closing the database checkpoints and removes its WAL
+        new File(databaseFile.getPath() + "-wal").delete();
+        new File(databaseFile.getPath() + "-shm").delete();
+        new File(databaseFile.getPath() + "-journal").delete();
+        File previous = new File(databaseFile.getPath() + ".before-restore");
+        previous.delete();
+        if (!databaseFile.renameTo(previous) || !restored.renameTo(databaseFile)) {
+            previous.renameTo(databaseFile);
+            restored.delete();
+            throw new StoreException("could not move the restored database into place");
+        }
+        // the next query reopens (and if needed upgrades) the restored file, and the next use of the archive drops the
+        // sales archived after the backup was taken (see SqlInventoryStore.trimArchive())
+        store.databaseReplaced();
+    }
+
+    // closing the archive connection first, so it never outlives the database file it was opened on
+    @Override
+    public synchronized void close() {
+        storeDatabase.closeAttached();
+        super.close();
+    }
+
+    // the time the database started opening, used for the "db.open" trace span (0 when not tracing)
+    private long openStartNanos;
+
+    // onConfigure is called first when the database is being opened, so the open trace starts here
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        openStartNanos = PerfTrace.begin();
+        // a new database is created with incremental vacuum on, so maintenance can free pages a few at a time
+        // (on an existing database this does nothing; DatabaseMaintenance switches it over when the device is idle)
+        db.execSQL(InventorySchema.ENABLE_INCREMENTAL_VACUUM);
+    }
+
+    // onOpen is called last when the database has been opened (and created or upgraded if needed)
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        PerfTrace.end("db.open", openStartNanos);
+    }
+
+    // onCreate is called automatically when the database is created for the first time
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        long traceStart = PerfTrace.begin();
+        //creating both tables and the sample products (STechies, 2017)
+        SqlInventoryStore.createSchema(new AndroidStoreDatabase(db));
+        PerfTrace.end("db.create", traceStart);
+    }
+
+    // onUpgrade is called automatically when the database version changes (STechies, 2017)
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        long traceStart = PerfTrace.begin();
+        SqlInventoryStore.upgradeSchema(new AndroidStoreDatabase(db), oldVersion, newVersion);
+        PerfTrace.end("db.migrate", traceStart);
+    }
+
+    //crud operations for products
+
+    @Override
+    public long addProduct(String name, double price, int stock, String category, double cost) {
+        return store.addProduct(name, price, stock, category, cost);
+    }
+
+    @Override
+    public List<Product> getAllProducts() {
+        return store.getAllProducts();
+    }
+
+    @Override
+    public Product getProduct(int id) {
+        return store.getProduct(id);
+    }
+
+    @Override
+    public int updateProduct(int id, String name, double price, int stock, String category, double cost) {
+        return store.updateProduct(id, name, price, stock, category, cost);
+    }
+
+    @Override
+    public PatchResult patchProduct(int id, int expectedVersion, ProductPatch patch) {
+        return store.patchProduct(id, expectedVersion, patch);
+    }
+
+    @Override
+    public int adjustStock(int productId, int delta, String reason) {
+        return store.adjustStock(productId, delta, reason);
+    }
+
+    @Override
+    public void deleteProduct(int id) {
+        store.deleteProduct(id);
+    }
+
+    @Override
+    public List<Product> getLowStockProducts() {
+        return store.getLowStockProducts();
+    }
+
+    @Override
+    public List<ReorderSuggestion> getReorderSuggestions() {
+        return store.getReorderSuggestions();
+    }
+
+    //product codes (SKUs and barcodes)
+
+    @Override
+    public Product getProductByCode(String code) {
+        return store.getProductByCode(code);
+    }
+
+    @Override
+    public boolean setProductCode(int id, String code) {
+        return store.setProductCode(id, code);
+    }
+
+    //stock history
+
+    @Override
+    public int getStockAt(int productId, String storedDate) {
+        return store.getStockAt(productId, storedDate);
+    }
+
+    @Override
+    public int takeStockSnapshots() {
+        return store.takeStockSnapshots();
+    }
+
+    //sales operations
+
+    @Override
+    public long recordSale(int productId, String productName, int quantity, double salePrice, double cost) {
+        return store.recordSale(productId, productName, quantity, salePrice, cost);
+    }
+
+    @Override
+    public List<Sale> getAllSales() {
+        return store.getAllSales();
+    }
+
+    @Override
+    public List<Sale> getRecentSales(int limit) {
+        return store.getRecentSales(limit);
+    }
+
+    @Override
+    public List<Sale> getSalesBetween(String from, String to) {
+        return store.getSalesBetween(from, to);
+    }
+
+    //sales archive
+
+    @Override
+    public int archiveSales(int olderThanDays) {
+        return store.archiveSales(olderThanDays);
+    }
+
+    //aggregates used by the dashboard and reports
+
+    @Override
+    public double getTotalSales() {
+        return store.getTotalSales();
+    }
+
+    @Override
+    public double getTotalProfit() {
+        return store.getTotalProfit();
+    }
+
+    @Override
+    public double getInventoryValue() {
+        return store.getInventoryValue();
+    }
+
+    @Override
+    public int getLowStockCount() {
+        return store.getLowStockCount();
+    }
+
+    @Override
+    public int getTotalProducts() {
+        return store.getTotalProducts();
+    }
+
+    @Override
+    public List<BranchTotals> getBranchTotals(String fromDay, String toDay) {
+        return store.getBranchTotals(fromDay, toDay);
+    }
+}
@@ -0,0 +1,209 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to run and record the tasks
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+//importing the shared table and column names
+import static com.businesspro.inventorymanager.InventorySchema.*;
+
+//the DatabaseMaintenance class keeps the database healthy in the background:
+//
+//  - optimize: gathers the query planner statistics (ANALYZE the first time, then PRAGMA optimize,
+//    which only re-analyzes tables whose size changed a lot), with a row limit so it stays quick
+//  - checkpoint: copies the WAL back into the database file without waiting for readers or writers
+//  - incremental_vacuum: gives free pages (e.g., after deleteProduct or archiving) back to the file system
+//    a few hundred pages at a time, with a pause between steps so a till's sale never waits long
+//  - stock_snapshots: records stock snapshots so getStockAt() stays fast
+//  - backup: a DatabaseBackup, when asked for with backup() after run()
+//
+//every task that ran is written to the maintenance_log table with when it started, how long it took
+//and what it did. it is run by MaintenanceJobService when the device is idle or charging, and can be
+//stopped at any time (the task in progress finishes its current step and the rest are skipped).
+public class DatabaseMaintenance {
+
+    //the shortest time between two runs, so the idle and the charging job do not both run on the same day
+    private static final long MIN_INTERVAL_MILLIS = 12 * 60 * 60 * 1000L;
+
+    //how many rows ANALYZE samples per index (keeps it to milliseconds on large tables)
+    private static final int ANALYSIS_LIMIT = 1000;
+
+    //how many pages one incremental vacuum step frees, the pause between steps and the time allowed in total
+    private static final int VACUUM_STEP_PAGES = 256;
+    private static final long VACUUM_PAUSE_MILLIS = 50;
+    private static final long VACUUM_BUDGET_MILLIS = 5000;
+
+    //how many maintenance log rows are kept
+    private static final int LOG_RETENTION = 500;
+
+    //the values of PRAGMA auto_vacuum
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    //one task that ran, as written to the maintenance log
+    public static final class TaskResult {
+        public final String task;
+        public final long durationMillis;
+        public final String detail;
+        public final RuntimeException error; //what made the task fail (null if it did not)
+
+        TaskResult(String task, long durationMillis, String detail, RuntimeException error) {
+            this.task = task;
+            this.durationMillis = durationMillis;
+            this.detail = detail;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return task + " (" + durationMillis + " ms): " + detail;
+        }
+    }
+
+    private final SqlInventoryStore store;
+    private final StoreDatabase db;
+
+    //whether a full VACUUM may run to switch an older database to incremental vacuum (blocks writers while it runs)
+    private boolean allowFullVacuum;
+
+    //set by stop() to skip the remaining work
+    private volatile boolean stopped;
+
+    //creating the maintenance for a store
+    public DatabaseMaintenance(SqlInventoryStore store) {
+        this.store = store;
+        this.db = store.database();
+    }
+
+    //allowing a one-off full VACUUM for databases created before incremental vacuum was switched on.
+    //only set this when nobody can be using the app (e.g., the device is idle), because VACUUM rewrites the whole file
+    public DatabaseMaintenance setAllowFullVacuum(boolean allowFullVacuum) {
+        this.allowFullVacuum = allowFullVacuum;
+        return this;
+    }
+
+    //asking a running run() to stop after its current step
+    public void stop() {
+        stopped = true;
+    }
+
+    //returns true if maintenance has not run in the last MIN_INTERVAL_MILLIS
+    public boolean isDue() {
+        String lastRun = store.readMeta(META_MAINTENANCE_LAST_RUN);
+        return lastRun == null || System.currentTimeMillis() - Long.parseLong(lastRun) >= MIN_INTERVAL_MILLIS;
+    }
+
+    //running every task in turn (skipping the rest once stopped) and returning what each one did
+    public List<TaskResult> run() {
+        List<TaskResult> results = new ArrayList<>();
+        runTask(results, "optimize", this::optimize);
+        runTask(results, "checkpoint", this::checkpoint);
+        runTask(results, "incremental_vacuum", this::incrementalVacuum);
+        runTask(results, "stock_snapshots", () -> store.takeStockSnapshots() + " products");
+        if (!stopped) {
+            db.inTransaction(() -> {
+                store.writeMeta(META_MAINTENANCE_LAST_RUN, Long.toString(System.currentTimeMillis()));
+                return null;
+            });
+        }
+        pruneLog();
+        return results;
+    }
+
+    //taking a backup as one more logged task (run() first, so the copy has the fresh statistics and free pages).
+    //returns what it did, with the error if it failed, or null if the maintenance was stopped before it
+    public TaskResult backup(DatabaseBackup backup) {
+        List<TaskResult> results = new ArrayList<>();
+        runTask(results, "backup", () -> backup.backup().getName());
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    //one maintenance task, returning a short description of what it did
+    private interface Task {
+        String run();
+    }
+
+    //timing one task and writing it to the log (a failed task is logged and the others still run)
+    private void runTask(List<TaskResult> results, String name, Task task) {
+        if (stopped) {
+            return;
+        }
+        String startedAt = DisplayFormats.formatStoredDate(new Date());
+        long traceStart = PerfTrace.begin();
+        long start = System.nanoTime();
+        String detail;
+        RuntimeException error = null;
+        try {
+            detail = task.run();
+        } catch (RuntimeException e) {
+            detail = "failed: " + e.getMessage();
+            error = e;
+        }
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        PerfTrace.end("maintenance:" + name, traceStart);
+        db.insert("INSERT INTO " + TABLE_MAINTENANCE_LOG + " (" + COL_TASK + ", " + COL_STARTED_AT + ", " + COL_DURATION_MS
+                        + ", " + COL_DETAIL + ") VALUES (?, ?, ?, ?)",
+                new Object[]{name, startedAt, durationMillis, detail});
+        results.add(new TaskResult(name, durationMillis, detail, error));
+    }
+
+    //refreshing the planner statistics: a full ANALYZE if there are none yet, otherwise PRAGMA optimize
+    private String optimize() {
+        //PRAGMA statements that report a value are run as queries (Android's execSQL refuses them)
+        db.query("PRAGMA analysis_limit = " + ANALYSIS_LIMIT, null, row -> 1);
+        boolean hasStatistics = db.queryLong("SELECT COUNT(*) FROM sqlite_master WHERE name = 'sqlite_stat1'", null) > 0;
+        if (!hasStatistics) {
+            db.execute("ANALYZE");
+            return "analyze";
+        }
+        db.query("PRAGMA optimize", null, row -> 1);
+        return "optimize";
+    }
+
+    //checkpointing the WAL in PASSIVE mode, which copies what it can without blocking anybody
+    private String checkpoint() {
+        List<long[]> result = db.query("PRAGMA wal_checkpoint(PASSIVE)", null,
+                row -> new long[]{row.getLong("log"), row.getLong("checkpointed")});
+        if (result.isEmpty() || result.get(0)[0] < 0) {
+            return "not in wal mode";
+        }
+        return result.get(0)[1] + " of " + result.get(0)[0] + " wal frames checkpointed";
+    }
+
+    //freeing unused pages in bounded steps until none are left, the time budget is used up, or we are stopped
+    private String incrementalVacuum() {
+        if (db.queryLong("PRAGMA auto_vacuum", null) != AUTO_VACUUM_INCREMENTAL) {
+            if (!allowFullVacuum) {
+                return "skipped (incremental vacuum is not enabled on this database yet)";
+            }
+            //switching an older database over; the setting only takes effect through one full VACUUM
+            long before = db.queryLong("PRAGMA page_count", null);
+            db.execute(ENABLE_INCREMENTAL_VACUUM);
+            db.execute("VACUUM");
+            return "enabled incremental vacuum with a full vacuum, " + before + " -> " + db.queryLong("PRAGMA page_count", null) + " pages";
+        }
+        long freeBefore = db.queryLong("PRAGMA freelist_count", null);
+        long deadline = System.nanoTime() + VACUUM_BUDGET_MILLIS * 1_000_000;
+        int steps = 0;
+        while (!stopped && System.nanoTime() < deadline && db.queryLong("PRAGMA freelist_count", null) > 0) {
+            //each step is its own short write; the query is read to the end so every page in the step is freed
+            db.query("PRAGMA incremental_vacuum(" + VACUUM_STEP_PAGES + ")", null, row -> 1);
+            steps++;
+            try {
+                Thread.sleep(VACUUM_PAUSE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        long freeAfter = db.queryLong("PRAGMA freelist_count", null);
+        return String.format(Locale.ROOT, "freed %d pages in %d steps, %d free pages left", freeBefore - freeAfter, steps, freeAfter);
+    }
+
+    //keeping only the newest LOG_RETENTION log rows
+    private void pruneLog() {
+        db.update("DELETE FROM " + TABLE_MAINTENANCE_LOG + " WHERE " + COL_LOG_ID + " <= (SELECT MAX(" + COL_LOG_ID + ") FROM "
+                + TABLE_MAINTENANCE_LOG + ") - ?", new Object[]{LOG_RETENTION});
+    }
+}
@@ -0,0 +1,332 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to build the data
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+//importing the shared table and column names
+import static com.businesspro.inventorymanager.InventorySchema.*;
+
+//the DatasetGenerator class fills a store with a large, realistic data set for load and scale testing.
+//the same seed, sizes and last day always produce exactly the same rows, so runs can be compared.
+//
+//  - products are spread over categories, each with its own typical price (log-normal) and margin
+//  - product popularity follows a Zipf distribution: a few products make most of the sales
+//  - sales follow the shop's week (busier Fridays and Saturdays) and day (lunch and after-work peaks)
+//  - rows are written in batches, one transaction per batch, with each INSERT compiled once per batch
+//
+//generated sales are history: they do not reduce stock, which is generated separately.
+//it is used by the debug menu on the dashboard and by main() below for JVM runs, e.g.
+//  java -cp build/bench:sqlite-jdbc.jar com.businesspro.inventorymanager.DatasetGenerator /tmp/load.db 100000 5000000 42
+public final class DatasetGenerator {
+
+    //the categories, their typical (median) price in rand, how much prices spread around it, and their nouns
+    private static final String[] CATEGORIES = {"Electronics", "Accessories", "Groceries", "Beverages", "Household",
+            "Stationery", "Clothing", "Toys", "Tools", "Personal Care"};
+    private static final double[] CATEGORY_MEDIAN_PRICE = {3500, 250, 45, 25, 120, 35, 400, 300, 600, 80};
+    private static final double[] CATEGORY_PRICE_SPREAD = {0.8, 0.6, 0.5, 0.4, 0.6, 0.5, 0.5, 0.6, 0.7, 0.5};
+    private static final String[][] CATEGORY_NOUNS = {
+            {"Laptop", "Monitor", "Tablet", "Speaker", "Router", "Headphones"},
+            {"Mouse", "Keyboard", "USB Cable", "Charger", "Phone Case", "Adapter"},
+            {"Rice", "Maize Meal", "Sugar", "Flour", "Pasta", "Cereal"},
+            {"Coffee", "Tea", "Juice", "Cola", "Water", "Energy Drink"},
+            {"Detergent", "Broom", "Sponge", "Bin Bags", "Light Bulb", "Candles"},
+            {"Notebook", "Pen Set", "Stapler", "Printer Paper", "Marker", "Files"},
+            {"T-Shirt", "Jeans", "Jacket", "Socks", "Cap", "Sneakers"},
+            {"Puzzle", "Building Blocks", "Doll", "Toy Car", "Board Game", "Ball"},
+            {"Drill", "Hammer", "Screwdriver Set", "Tape Measure", "Spanner", "Saw"},
+            {"Shampoo", "Soap", "Toothpaste", "Deodorant", "Lotion", "Razor"}};
+    private static final String[] BRANDS = {"Acme", "Nova", "Zenith", "Umoja", "Karoo", "Summit", "Baobab", "Protea"};
+
+    //how busy each day of the week is, indexed by Calendar.DAY_OF_WEEK (Sunday = 1)
+    private static final double[] WEEKDAY_WEIGHTS = {0, 0.80, 0.85, 0.90, 0.95, 1.00, 1.25, 1.35};
+
+    //how busy each hour of the day is (the shop is closed at night)
+    private static final double[] HOUR_WEIGHTS = {0, 0, 0, 0, 0, 0, 0, 2, 4, 6, 7, 8, 10, 10, 7, 6, 7, 9, 8, 5, 3, 1, 0, 0};
+
+    //the Zipf exponent: around 1 means the most popular product sells about twice as often as the second
+    private static final double ZIPF_EXPONENT = 1.07;
+
+    //the generation settings
+    private final long seed;
+    private final int productCount;
+    private final long saleCount;
+    private int days = 365;
+    private int batchSize = 5000;
+    private Calendar lastDay = Calendar.getInstance();
+
+    //the result of a run
+    public static final class Result {
+        public final int products;
+        public final long sales;
+        public final long elapsedMillis;
+
+        Result(int products, long sales, long elapsedMillis) {
+            this.products = products;
+            this.sales = sales;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = Math.max(elapsedMillis, 1) / 1000.0;
+            return String.format(Locale.ROOT, "%d products and %d sales in %.1f s (%.0f sales/s)",
+                    products, sales, seconds, sales / seconds);
+        }
+    }
+
+    //creating a generator for the given number of products and sales
+    public DatasetGenerator(long seed, int productCount, long saleCount) {
+        this.seed = seed;
+        this.productCount = productCount;
+        this.saleCount = saleCount;
+    }
+
+    //setting how many days of sales history to generate (default 365)
+    public DatasetGenerator setDays(int days) {
+        this.days = days;
+        return this;
+    }
+
+    //setting the last day of the sales history (default today); fix it to make runs on different days identical
+    public DatasetGenerator setLastDay(int year, int month, int dayOfMonth) {
+        lastDay = Calendar.getInstance();
+        lastDay.clear();
+        lastDay.set(year, month - 1, dayOfMonth);
+        return this;
+    }
+
+    //setting how many rows are written per transaction (default 5000)
+    public DatasetGenerator setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    //writing the products and then the sales into the store
+    public Result generate(SqlInventoryStore store) {
+        long start = System.nanoTime();
+        StoreDatabase db = store.database();
+        Random random = new Random(seed);
+
+        //products: picking each product's category, name, price, cost and stock
+        String[] names = new String[productCount];
+        double[] prices = new double[productCount];
+        double[] costs = new double[productCount];
+        //everything is generated for the store's current branch
+        int branch = store.getCurrentBranchId();
+        String productSql = "INSERT INTO " + TABLE_PRODUCTS + " (" + COL_NAME + ", " + COL_PRICE + ", " + COL_STOCK + ", "
+                + COL_CATEGORY + ", " + COL_COST + ", " + COL_BRANCH_ID + ", " + COL_SKU + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+        long firstNewId = db.queryLong("SELECT IFNULL(MAX(" + COL_ID + "), 0) FROM " + TABLE_PRODUCTS, null) + 1;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < productCount; i++) {
+            int category = random.nextInt(CATEGORIES.length);
+            String[] nouns = CATEGORY_NOUNS[category];
+            names[i] = BRANDS[random.nextInt(BRANDS.length)] + " " + nouns[random.nextInt(nouns.length)] + " " + (100 + i);
+            prices[i] = roundPrice(CATEGORY_MEDIAN_PRICE[category] * Math.exp(random.nextGaussian() * CATEGORY_PRICE_SPREAD[category]));
+            costs[i] = roundCents(prices[i] * (0.55 + random.nextDouble() * 0.30)); //a 15% to 45% margin
+            //an in-store barcode (the "20" prefix is kept for a shop's own codes), unique because it follows the product ID
+            String sku = String.format(Locale.ROOT, "20%010d", firstNewId + i);
+            batch.add(new Object[]{names[i], prices[i], randomStock(random), CATEGORIES[category], costs[i], branch, sku});
+            if (batch.size() == batchSize) {
+                writeBatch(db, productSql, batch);
+            }
+        }
+        writeBatch(db, productSql, batch);
+        //the generated stock levels are the products' opening balances in the stock ledger
+        //(the generated sales are history from before the ledger, so they get no movements)
+        db.update(INSERT_OPENING_MOVEMENTS + " AND " + COL_ID + " >= ?", new Object[]{firstNewId});
+
+        //the new product IDs in insertion order (normally firstNewId, firstNewId + 1, ...)
+        final List<Integer> idList = db.query("SELECT " + COL_ID + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID
+                + " >= ? ORDER BY " + COL_ID, new Object[]{firstNewId}, row -> row.getInt(COL_ID));
+        int[] ids = new int[idList.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idList.get(i);
+        }
+
+        //popularity: the Zipf rank of each product is shuffled so popular products are spread over the IDs
+        double[] popularity = zipfCumulative(productCount);
+        int[] productByRank = new int[productCount];
+        for (int i = 0; i < productCount; i++) {
+            productByRank[i] = i;
+        }
+        for (int i = productCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = productByRank[i];
+            productByRank[i] = productByRank[j];
+            productByRank[j] = swap;
+        }
+
+        //sales: spreading them over the days by weekday, then over each day by hour, in time order
+        String saleSql = "INSERT INTO " + TABLE_SALES + " (" + COL_PRODUCT_ID + ", " + COL_PRODUCT_NAME + ", " + COL_QUANTITY + ", "
+                + COL_SALE_PRICE + ", " + COL_TOTAL + ", " + COL_DATE + ", " + COL_PROFIT + ", " + COL_BRANCH_ID
+                + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        double[] hourCumulative = cumulative(HOUR_WEIGHTS);
+        Calendar day = (Calendar) lastDay.clone();
+        day.add(Calendar.DAY_OF_MONTH, -(days - 1));
+        double[] dayWeights = new double[days];
+        double totalWeight = 0;
+        Calendar probe = (Calendar) day.clone();
+        for (int d = 0; d < days; d++) {
+            dayWeights[d] = WEEKDAY_WEIGHTS[probe.get(Calendar.DAY_OF_WEEK)];
+            totalWeight += dayWeights[d];
+            probe.add(Calendar.DAY_OF_MONTH, 1);
+        }
+
+        long written = 0;
+        double runningWeight = 0;
+        StringBuilder date = new StringBuilder(19);
+        for (int d = 0; d < days; d++) {
+            //rounding the running total, so the per-day counts add up to exactly saleCount
+            runningWeight += dayWeights[d];
+            long target = Math.round(saleCount * (runningWeight / totalWeight));
+            int salesToday = (int) (target - written);
+
+            int[] secondsOfDay = new int[salesToday];
+            for (int s = 0; s < salesToday; s++) {
+                int hour = pick(hourCumulative, random.nextDouble());
+                secondsOfDay[s] = hour * 3600 + random.nextInt(3600);
+            }
+            Arrays.sort(secondsOfDay);
+
+            String dayPrefix = String.format(Locale.ROOT, "%04d-%02d-%02d ",
+                    day.get(Calendar.YEAR), day.get(Calendar.MONTH) + 1, day.get(Calendar.DAY_OF_MONTH));
+            for (int s = 0; s < salesToday; s++) {
+                int product = productByRank[pick(popularity, random.nextDouble())];
+                int quantity = randomQuantity(random);
+                double salePrice = prices[product];
+                if (random.nextInt(10) == 0) {
+                    salePrice = roundCents(salePrice * (0.80 + random.nextDouble() * 0.15)); //an occasional 5% to 20% discount
+                }
+                date.setLength(0);
+                date.append(dayPrefix);
+                appendTime(date, secondsOfDay[s]);
+                batch.add(new Object[]{ids[product], names[product], quantity, salePrice,
+                        ReportCalculator.saleTotal(salePrice, quantity), date.toString(),
+                        ReportCalculator.saleProfit(salePrice, costs[product], quantity), branch});
+                if (batch.size() == batchSize) {
+                    writeBatch(db, saleSql, batch);
+                }
+            }
+            written += salesToday;
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        writeBatch(db, saleSql, batch);
+        //the sales were written directly rather than through recordSale(), so the branch rollups, the sales velocity
+        //and the sale sketches are worked out once at the end
+        store.rebuildBranchRollups();
+        store.rebuildSalesVelocity();
+        store.rebuildSaleSketches();
+
+        store.catalogChanged();
+        store.onDataChanged();
+        return new Result(productCount, written, (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    //writing one batch of rows in its own transaction and emptying the batch
+    private static void writeBatch(final StoreDatabase db, final String sql, final List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        db.inTransaction(() -> db.insertBatch(sql, batch));
+        batch.clear();
+    }
+
+    //the cumulative Zipf distribution over ranks 1..n, normalised to end at 1
+    private static double[] zipfCumulative(int n) {
+        double[] weights = new double[n];
+        for (int rank = 0; rank < n; rank++) {
+            weights[rank] = 1.0 / Math.pow(rank + 1, ZIPF_EXPONENT);
+        }
+        return cumulative(weights);
+    }
+
+    //turning weights into a cumulative distribution that ends at 1
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    //picking the index whose cumulative range contains u (0 <= u < 1), by binary search
+    private static int pick(double[] cumulative, double u) {
+        int index = Arrays.binarySearch(cumulative, u);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        //skipping entries with no weight (e.g. closed hours) that share the same cumulative value
+        while (index < cumulative.length - 1 && cumulative[index] <= u) {
+            index++;
+        }
+        return index;
+    }
+
+    //most baskets hold one or two of an item, a few hold more (a geometric distribution, capped at 12)
+    private static int randomQuantity(Random random) {
+        int quantity = 1;
+        while (quantity < 12 && random.nextDouble() < 0.35) {
+            quantity++;
+        }
+        return quantity;
+    }
+
+    //most products are well stocked, some are low and a few are sold out
+    private static int randomStock(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 5) {
+            return 0;
+        } else if (roll < 20) {
+            return 1 + random.nextInt(LOW_STOCK_THRESHOLD);
+        }
+        return LOW_STOCK_THRESHOLD + 1 + random.nextInt(300);
+    }
+
+    //shop prices end in .99 (R0.99 and up) and never go below R1
+    private static double roundPrice(double price) {
+        return Math.max(1, Math.floor(price)) + 0.99;
+    }
+
+    //rounding to whole cents
+    private static double roundCents(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    //adding HH:mm:ss for a time of day given in seconds
+    private static void appendTime(StringBuilder date, int secondsOfDay) {
+        appendTwoDigits(date, secondsOfDay / 3600).append(':');
+        appendTwoDigits(date, secondsOfDay / 60 % 60).append(':');
+        appendTwoDigits(date, secondsOfDay % 60);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder date, int value) {
+        return date.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    //generating a data set into a sqlite file on a plain JVM:
+    //  DatasetGenerator <database file> [products] [sales] [seed]
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("usage: DatasetGenerator <database file> [products] [sales] [seed]");
+            System.exit(2);
+        }
+        int products = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        long sales = args.length > 2 ? Long.parseLong(args[2]) : 5_000_000L;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        try (JdbcInventoryStore store = JdbcInventoryStore.open(new File(args[0]))) {
+            Result result = new DatasetGenerator(seed, products, sales).generate(store);
+            System.out.println(result);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.businesspro.inventorymanager;
+
+//importing the java formatting classes shared by every screen and adapter
+import java.text.NumberFormat; //this formats numbers as South African currency
+import java.text.ParseException; //this handles errors during date parsing
+import java.text.SimpleDateFormat; //this formats and parses the stored sale dates
+import java.util.Date; //this represents a specific moment in time
+import java.util.Locale; //this represents the region used for currency and dates
+
+//the DisplayFormats class holds the formatters shared across the app instead of every adapter building its own.
+//NumberFormat and SimpleDateFormat are not thread-safe, so each thread gets its own cached copy through a ThreadLocal.
+public final class DisplayFormats {
+
+    //the format dates are stored in inside the sales table (e.g., 2025-11-03 10:45:00)
+    public static final String STORED_DATE_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    //the format dates are shown in on screen (e.g., 03 Nov 2025, 10:45)
+    public static final String DISPLAY_DATE_PATTERN = "dd MMM yyyy, HH:mm";
+
+    //one currency formatter for South Africa (ZAR) per thread
+    private static final ThreadLocal<NumberFormat> CURRENCY = new ThreadLocal<NumberFormat>() {
+        @Override
+        protected NumberFormat initialValue() {
+            return NumberFormat.getCurrencyInstance(new Locale("en", "ZA"));
+        }
+    };
+
+    //one parser for the stored database date format per thread
+    private static final ThreadLocal<SimpleDateFormat> STORED_DATE = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat(STORED_DATE_PATTERN, Locale.getDefault());
+        }
+    };
+
+    //one formatter for the on-screen date format per thread
+    private static final ThreadLocal<SimpleDateFormat> DISPLAY_DATE = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat(DISPLAY_DATE_PATTERN, Locale.getDefault());
+        }
+    };
+
+    //private constructor because this class only has static helpers
+    private DisplayFormats() {
+    }
+
+    //returns the currency formatter for the calling thread
+    public static NumberFormat currency() {
+        return CURRENCY.get();
+    }
+
+    //formats an amount as currency (e.g., R150.00)
+    public static String formatCurrency(double amount) {
+        return CURRENCY.get().format(amount);
+    }
+
+    //formats the current time in the stored database date format
+    public static String formatStoredDate(Date date) {
+        return STORED_DATE.get().format(date);
+    }
+
+    //converting a stored date string into the on-screen format, falling back to the raw string if it cannot be parsed
+    public static String formatStoredDateForDisplay(String storedDate) {
+        if (storedDate == null) {
+            return "";
+        }
+        try {
+            Date date = STORED_DATE.get().parse(storedDate);
+            return date != null ? DISPLAY_DATE.get().format(date) : storedDate;
+        } catch (ParseException e) {
+            return storedDate;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to keep the table versions and the observers
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//the InvalidationTracker class tells observers which tables a committed write changed.
+//the store reports the tables of every write transaction once it has committed (see SqlInventoryStore.onDataChanged()),
+//and each observer is told only about writes to the tables it watches, so a screen showing sales is not woken up
+//by a product being renamed. every table also has a version that goes up with each write to it, so an observer
+//that was away (e.g., a screen in the background) can tell whether anything it shows changed in the meantime.
+//
+//observers are called on the thread that made the write, so they should only note the change and hand any work
+//to another thread (ObservableQuery does exactly that).
+public final class InvalidationTracker {
+
+    //receives the tables changed by one write
+    public interface Observer {
+        void onTablesChanged(Set<String> tables);
+    }
+
+    //an observer and the tables it watches
+    private static final class Observation {
+        final Observer observer;
+        final Set<String> tables;
+
+        Observation(Observer observer, Set<String> tables) {
+            this.observer = observer;
+            this.tables = tables;
+        }
+    }
+
+    private final List<Observation> observations = new CopyOnWriteArrayList<>();
+
+    //the number of writes to each table, and to every table at once (guarded by this tracker's lock)
+    private final Map<String, Long> versions = new HashMap<>();
+    private long everyTableVersion;
+
+    //watching the given tables; the observer is told about every later write to any of them
+    public void addObserver(Observer observer, String... tables) {
+        observations.add(new Observation(observer, Collections.unmodifiableSet(new HashSet<>(Arrays.asList(tables)))));
+    }
+
+    //removing an observer added with addObserver()
+    public void removeObserver(Observer observer) {
+        for (Observation observation : observations) {
+            if (observation.observer == observer) {
+                observations.remove(observation);
+            }
+        }
+    }
+
+    //returning the version of the given tables, which goes up with every write to any of them
+    public synchronized long getVersion(String... tables) {
+        long version = everyTableVersion;
+        for (String table : tables) {
+            Long tableVersion = versions.get(table);
+            if (tableVersion != null) {
+                version += tableVersion;
+            }
+        }
+        return version;
+    }
+
+    //reporting a committed write to the given tables (none means every table, e.g., after a restore),
+    //then telling the observers watching any of them
+    public void tablesChanged(String... tables) {
+        Set<String> changed = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(tables)));
+        //the versions go up before the observers are told, so one that reads them while being told sees the write
+        synchronized (this) {
+            if (changed.isEmpty()) {
+                everyTableVersion++;
+            }
+            for (String table : changed) {
+                Long version = versions.get(table);
+                versions.put(table, version == null ? 1 : version + 1);
+            }
+        }
+        for (Observation observation : observations) {
+            if (changed.isEmpty() || !Collections.disjoint(observation.tables, changed)) {
+                observation.observer.onTablesChanged(changed.isEmpty() ? observation.tables : changed);
+            }
+        }
+    }
+}
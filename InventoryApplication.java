@@ -0,0 +1,98 @@
+package com.businesspro.inventorymanager;
+
+//importing the android classes used to hook into the app and activity lifecycles
+import android.app.Activity; //this is the screen the lifecycle callbacks are about
+import android.app.Application; //this is the base class for the app-wide object created before any screen
+import android.content.pm.ApplicationInfo; //this is used to check whether the app is a debuggable build
+import android.os.Build; //this is used to check the android version
+import android.os.Bundle; //this is passed to the lifecycle callbacks
+import android.os.Process; //this gives the time the app process was started
+import android.os.SystemClock; //this is the clock the process start time is measured on
+import android.view.View; //this is the window's root view
+import android.view.ViewTreeObserver; //this tells us when the first frame is about to be drawn
+
+//the InventoryApplication class is created before any activity.
+//it subscribes the app-wide low stock alerts, schedules the database maintenance and the sync, and in debuggable builds it switches on PerfTrace, records the time from process start to here,
+//and records the time from each activity's creation to its first drawn frame.
+public class InventoryApplication extends Application {
+
+    //calling onCreate() when the app process starts
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        //showing low stock alerts for the whole life of the app, on the main thread
+        StockEvents.subscribe(new StockAlertNotifier(this), AppExecutors.mainThread());
+
+        //keeping the database maintained in the background while the device is idle or charging
+        MaintenanceJobService.schedule(this);
+
+        //sending the changes to the central server every hour while there is a network (once a sync address is set)
+        SyncJobService.schedule(this);
+
+        //only tracing debuggable builds, so release builds pay nothing
+        boolean debuggable = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        PerfTrace.setEnabled(debuggable);
+        if (!debuggable) {
+            return;
+        }
+
+        //converting the process start time onto the System.nanoTime() clock used by PerfTrace
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            long now = System.nanoTime();
+            long sinceStartMs = SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+            long processStart = now - sinceStartMs * 1_000_000L;
+            PerfTrace.setOrigin(processStart);
+            PerfTrace.record("process.start_to_application", processStart, now);
+        }
+
+        registerActivityLifecycleCallbacks(new FirstFrameTracker());
+    }
+
+    //records "first_frame:<Activity>" from the moment an activity is created until its first frame is drawn
+    private static final class FirstFrameTracker implements ActivityLifecycleCallbacks {
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            long start = PerfTrace.begin();
+            String spanName = "first_frame:" + activity.getClass().getSimpleName();
+            View decorView = activity.getWindow().getDecorView();
+            decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    //only the first frame matters, so the listener removes itself straight away
+                    ViewTreeObserver observer = decorView.getViewTreeObserver();
+                    if (observer.isAlive()) {
+                        observer.removeOnPreDrawListener(this);
+                    }
+                    PerfTrace.end(spanName, start);
+                    return true;
+                }
+            });
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+        }
+    }
+}
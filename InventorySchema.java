@@ -0,0 +1,381 @@
+package com.businesspro.inventorymanager;
+
+//the InventorySchema class holds the database schema shared by every InventoryStore implementation:
+//the file name and version, the table and column names, the CREATE statements and the sample data.
+//it has no Android imports, so the JVM (JDBC) store builds exactly the same tables as the app.
+public final class InventorySchema {
+
+    // creating the database configuration constants
+    public static final String DATABASE_NAME = "InventoryManager.db"; // This is the database file name
+    public static final int DATABASE_VERSION = 10; //this is version number (used for upgrades, see migrationTo())
+
+    // the archive database that old sales are moved into (a separate file, attached as ARCHIVE_SCHEMA when needed)
+    public static final String ARCHIVE_DATABASE_NAME = "InventoryManager-archive.db";
+    public static final String ARCHIVE_SCHEMA = "archive";
+
+    // sales older than this many days are moved to the archive by default
+    public static final int ARCHIVE_AFTER_DAYS = 365;
+
+    // the write-behind sale journal file (in the app's files folder, see SaleJournal)
+    public static final String SALE_JOURNAL_NAME = "sale-journal.bin";
+
+    // the branch every product and sale belonged to before branches were added, and the first branch of a new database
+    public static final int DEFAULT_BRANCH_ID = 1;
+    public static final String DEFAULT_BRANCH_NAME = "Main branch";
+
+    // a product with this many units or fewer in stock is counted as low stock
+    public static final int LOW_STOCK_THRESHOLD = 10;
+
+    // creating the product table constants (Tutlane.com, 2018)
+    public static final String TABLE_PRODUCTS = "products"; //this is the table name for products
+    public static final String COL_ID = "id";               //this is the primary key for product
+    public static final String COL_NAME = "name";           //this is the product name
+    public static final String COL_PRICE = "price";         //this is the selling price of product
+    public static final String COL_STOCK = "stock";         //this is the available quantity in stock
+    public static final String COL_CATEGORY = "category";   //this is the product category (like electronics)
+    public static final String COL_COST = "cost";           //this is the cost price of the product
+    public static final String COL_VERSION = "version";     //this goes up by one on every edit of the product's details
+    public static final String COL_BRANCH_ID = "branch_id"; //this is the branch the product (and its stock) belongs to
+    public static final String COL_SKU = "sku";             //this is the product's SKU or barcode (null if it has none)
+    public static final String COL_VELOCITY = "velocity";   //this is the average daily units sold, up to the day before velocity_day
+    public static final String COL_VELOCITY_DAY = "velocity_day"; //this is the last day the product sold ("yyyy-MM-dd", null if never)
+    public static final String COL_DAY_UNITS = "day_units"; //this is how many units were sold on velocity_day
+
+    // creating the sales table constants (Tutlane.com, 2018)
+    public static final String TABLE_SALES = "sales";       //this is the table name for sales
+    public static final String COL_SALE_ID = "sale_id";     //this is the unique ID for each sale
+    public static final String COL_PRODUCT_ID = "product_id"; //this will link the sale to its product
+    public static final String COL_PRODUCT_NAME = "product_name"; //this is the name of product sold
+    public static final String COL_QUANTITY = "quantity";         //this is the number of items sold
+    public static final String COL_SALE_PRICE = "sale_price";     //this is the selling price per unit
+    public static final String COL_TOTAL = "total";               //this is the total sale amount (price * quantity)
+    public static final String COL_DATE = "date";                 //this is the date and time of sale
+    public static final String COL_PROFIT = "profit";             //this is the profit made on that sale
+    // (sales also have a COL_BRANCH_ID column: the branch of the product that was sold)
+
+    // creating the branches table constants: every branch (shop) whose products and sales are in this database
+    public static final String TABLE_BRANCHES = "branches";      //this is the table name for branches
+    public static final String COL_BRANCH_NAME = "name";         //this is the branch name shown to the user
+
+    // creating the branch rollup constants: one row per branch per day with that day's sales added up,
+    // kept up to date by recordSale() so the reports never have to scan the sales themselves
+    public static final String TABLE_BRANCH_ROLLUPS = "branch_rollups"; //this is the table name for the rollups
+    public static final String COL_DAY = "day";                  //this is the day of the sales ("yyyy-MM-dd")
+    public static final String COL_SALE_COUNT = "sale_count";    //this is how many sales were made that day
+    public static final String COL_UNITS = "units";              //this is how many units were sold that day
+    public static final String COL_SALES_TOTAL = "sales_total";  //this is the value of that day's sales
+    public static final String COL_PROFIT_TOTAL = "profit_total"; //this is the profit of that day's sales
+
+    // creating the sale sketch constants: one row per product per day with quantile sketches of that day's sale values
+    // and quantities (see QuantileSketch), kept up to date by recordSale() so the distributions never scan the sales
+    public static final String TABLE_SALE_SKETCHES = "sale_sketches"; //this is the table name for the sketches
+    public static final String COL_VALUE_SKETCH = "value_sketch"; //this is the sketch of the sale values (encoded as text)
+    public static final String COL_QUANTITY_SKETCH = "quantity_sketch"; //this is the sketch of the quantities
+
+    // creating the stock movement ledger constants: one row per stock change, never updated or deleted
+    public static final String TABLE_STOCK_MOVEMENTS = "stock_movements"; //this is the table name for the ledger
+    public static final String COL_MOVEMENT_ID = "movement_id"; //this is the ledger position (increases with every change)
+    public static final String COL_DELTA = "delta";             //this is the change in stock (negative for sales)
+    public static final String COL_REASON = "reason";           //this is why the stock changed (see StockReason)
+    public static final String COL_CREATED_AT = "created_at";   //this is when the change was made (stored date format)
+
+    // creating the stock snapshot constants: the stock of a product as of a ledger position
+    public static final String TABLE_STOCK_SNAPSHOTS = "stock_snapshots"; //this is the table name for snapshots
+    public static final String COL_TAKEN_AT = "taken_at";       //this is when the snapshot was taken
+
+    // creating the meta table constants: small named values the store keeps next to the data
+    public static final String TABLE_META = "meta";             //this is the table name for the values
+    public static final String COL_KEY = "key";                 //this is the name of the value
+    public static final String COL_VALUE = "value";             //this is the value itself
+
+    // the meta key of the sales archive: sales dated before META_SALES_ARCHIVED_BEFORE live in the archive
+    // (the report totals come from the branch rollups, which archiving leaves alone, so the archive is never read for them)
+    public static final String META_SALES_ARCHIVED_BEFORE = "sales_archived_before";
+
+    // the meta keys of the branches: the branch this device works in, and a flag set when the database was upgraded
+    // with sales already in the archive, so the rollups still have to take them in (see SqlInventoryStore.rebuildBranchRollups())
+    public static final String META_CURRENT_BRANCH = "current_branch";
+    public static final String META_ROLLUPS_NEED_ARCHIVE = "rollups_need_archive";
+
+    // creating the maintenance log constants: one row per maintenance task that ran (see DatabaseMaintenance)
+    public static final String TABLE_MAINTENANCE_LOG = "maintenance_log"; //this is the table name for the log
+    public static final String COL_LOG_ID = "log_id";           //this is the unique ID for each log row
+    public static final String COL_TASK = "task";               //this is the task that ran (e.g. "optimize")
+    public static final String COL_STARTED_AT = "started_at";   //this is when the task started (stored date format)
+    public static final String COL_DURATION_MS = "duration_ms"; //this is how long the task took
+    public static final String COL_DETAIL = "detail";           //this is what the task did (e.g. pages freed)
+
+    // the meta key holding when maintenance last ran
+    public static final String META_MAINTENANCE_LAST_RUN = "maintenance_last_run";
+
+    // creating the change log constants: one row per changed sale or product, in the order the changes were made,
+    // read by SyncEngine to push only what changed since the server last acknowledged a sequence number
+    public static final String TABLE_CHANGE_LOG = "change_log"; //this is the table name for the change log
+    public static final String COL_SEQ = "seq";                 //this is the sequence number (only ever increases)
+    public static final String COL_ENTITY = "entity";           //this is what changed (ENTITY_SALE or ENTITY_PRODUCT)
+    public static final String COL_ENTITY_ID = "entity_id";     //this is the sale ID or product ID
+    public static final String ENTITY_SALE = "sale";
+    public static final String ENTITY_PRODUCT = "product";
+
+    // the meta keys of the sync: this device's ID, the server address, the last sequence number it acknowledged
+    // and the epoch those numbers belong to (a new one after every restore)
+    public static final String META_DEVICE_ID = "device_id";
+    public static final String META_SYNC_ENDPOINT = "sync_endpoint";
+    public static final String META_SYNC_CURSOR = "sync_cursor";
+    public static final String META_SYNC_EPOCH = "sync_epoch";
+
+    // the meta key of a flag set when the database was upgraded with sales already recorded, so the sales velocity
+    // still has to be worked out from them once (see SqlInventoryStore.rebuildSalesVelocity())
+    public static final String META_VELOCITY_NEEDS_REBUILD = "velocity_needs_rebuild";
+
+    // the meta key of a flag set when the database was upgraded with sales already recorded, so the sale sketches
+    // still have to be worked out from them once (see SqlInventoryStore.rebuildSaleSketches())
+    public static final String META_SKETCHES_NEED_REBUILD = "sketches_need_rebuild";
+
+    // the meta key holding the sequence number of the last journaled sale written into the sales table,
+    // updated in the same transaction as the sales, so a sale left in the journal after a crash is written exactly once
+    public static final String META_JOURNAL_DRAINED = "journal_drained";
+
+    // the meta keys of the report cache: a counter that goes up with every change to the products or the rollups
+    // that is not a sale (a sale moves the highest sale ID instead), and the prefix of each branch's stored report
+    // snapshot, followed by the branch ID (see ReportSnapshot)
+    public static final String META_DATA_VERSION = "data_version";
+    public static final String META_REPORT_SNAPSHOT_PREFIX = "report_snapshot_";
+
+    // SQL command to create the Products table (STechies, 2017)
+    public static final String CREATE_PRODUCTS_TABLE = "CREATE TABLE " + TABLE_PRODUCTS + " (" +
+            COL_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +  //this is the auto-generated product ID
+            COL_NAME + " TEXT NOT NULL, " +                    //this is the product name (required)
+            COL_PRICE + " REAL NOT NULL, " +                   //this is the product selling price
+            COL_STOCK + " INTEGER NOT NULL, " +                //this is the stock quantity
+            COL_CATEGORY + " TEXT NOT NULL, " +                //this is the product category
+            COL_COST + " REAL DEFAULT 0, " +                   //this is the product cost (default 0)
+            COL_VERSION + " INTEGER NOT NULL DEFAULT 1, " +    //this is the edit version (for optimistic concurrency)
+            COL_BRANCH_ID + " INTEGER NOT NULL DEFAULT " + DEFAULT_BRANCH_ID + ", " + //this is the branch (added in version 7)
+            COL_SKU + " TEXT, " +                              //this is the SKU or barcode (added in version 8)
+            COL_VELOCITY + " REAL NOT NULL DEFAULT 0, " +      //this is the sales velocity (see SalesVelocity)
+            COL_VELOCITY_DAY + " TEXT, " +                     //this is the day the velocity is being added up for
+            COL_DAY_UNITS + " INTEGER NOT NULL DEFAULT 0)";    //this is that day's units (last, as added in version 9)
+
+    // SQL command to create the Sales table (STechies, 2017)
+    public static final String CREATE_SALES_TABLE = "CREATE TABLE " + TABLE_SALES + " (" +
+            COL_SALE_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " + //this is the auto-generated sale ID
+            COL_PRODUCT_ID + " INTEGER, " +                        //this is the product ID (foreign key reference)
+            COL_PRODUCT_NAME + " TEXT, " +                         //this is the product name sold
+            COL_QUANTITY + " INTEGER, " +                          //this is the quantity sold
+            COL_SALE_PRICE + " REAL, " +                           //this is the selling price per item
+            COL_TOTAL + " REAL, " +                                //this is the total sale value
+            COL_DATE + " TEXT, " +                                 //this is the date of sale
+            COL_PROFIT + " REAL, " +                               //this is the profit made
+            COL_BRANCH_ID + " INTEGER NOT NULL DEFAULT " + DEFAULT_BRANCH_ID + ")"; //this is the branch (last, as added in version 7)
+
+    // sales are read by date (newest first, date ranges, and archiving by age)
+    public static final String CREATE_SALES_DATE_INDEX = "CREATE INDEX idx_sales_date ON " + TABLE_SALES + " (" + COL_DATE + ")";
+
+    // each branch's products are listed by name, and its sales by date
+    public static final String CREATE_PRODUCTS_BRANCH_INDEX = "CREATE INDEX idx_products_branch ON " + TABLE_PRODUCTS
+            + " (" + COL_BRANCH_ID + ", " + COL_NAME + ")";
+    // a code identifies one product of a branch; products without a code (NULL) never clash
+    public static final String CREATE_PRODUCTS_SKU_INDEX = "CREATE UNIQUE INDEX idx_products_sku ON " + TABLE_PRODUCTS
+            + " (" + COL_BRANCH_ID + ", " + COL_SKU + ")";
+    public static final String CREATE_SALES_BRANCH_INDEX = "CREATE INDEX idx_sales_branch_date ON " + TABLE_SALES
+            + " (" + COL_BRANCH_ID + ", " + COL_DATE + ")";
+
+    // SQL command to create the branches table
+    public static final String CREATE_BRANCHES_TABLE = "CREATE TABLE " + TABLE_BRANCHES + " (" +
+            COL_BRANCH_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +  //this is the branch ID
+            COL_BRANCH_NAME + " TEXT NOT NULL)";                      //this is the branch name
+
+    // SQL command that adds the first branch (the one every existing row belongs to)
+    public static final String INSERT_DEFAULT_BRANCH = "INSERT INTO " + TABLE_BRANCHES + " (" + COL_BRANCH_ID + ", "
+            + COL_BRANCH_NAME + ") VALUES (" + DEFAULT_BRANCH_ID + ", '" + DEFAULT_BRANCH_NAME + "')";
+
+    // SQL command to create the branch rollups table
+    public static final String CREATE_BRANCH_ROLLUPS_TABLE = "CREATE TABLE " + TABLE_BRANCH_ROLLUPS + " (" +
+            COL_BRANCH_ID + " INTEGER NOT NULL, " +                   //this is the branch
+            COL_DAY + " TEXT NOT NULL, " +                            //this is the day
+            COL_SALE_COUNT + " INTEGER NOT NULL, " +                  //this is the number of sales
+            COL_UNITS + " INTEGER NOT NULL, " +                       //this is the number of units sold
+            COL_SALES_TOTAL + " REAL NOT NULL, " +                    //this is the value of the sales
+            COL_PROFIT_TOTAL + " REAL NOT NULL, " +                   //this is the profit of the sales
+            "PRIMARY KEY (" + COL_BRANCH_ID + ", " + COL_DAY + "))";
+
+    // the part of a SELECT that adds up sales into rollup rows (the stored date starts with "yyyy-MM-dd")
+    public static final String ROLLUP_COLUMNS = COL_BRANCH_ID + ", substr(" + COL_DATE + ", 1, 10), COUNT(*), IFNULL(SUM("
+            + COL_QUANTITY + "), 0), IFNULL(SUM(" + COL_TOTAL + "), 0), IFNULL(SUM(" + COL_PROFIT + "), 0)";
+    public static final String ROLLUP_GROUP_BY = " GROUP BY " + COL_BRANCH_ID + ", substr(" + COL_DATE + ", 1, 10)";
+
+    // SQL command that fills the rollups from the sales in the main database
+    public static final String INSERT_ROLLUPS_FROM_SALES = "INSERT INTO " + TABLE_BRANCH_ROLLUPS + " SELECT " + ROLLUP_COLUMNS
+            + " FROM " + TABLE_SALES + ROLLUP_GROUP_BY;
+
+    // SQL command to create the sale sketches table, and its index for reading a branch's days
+    public static final String CREATE_SALE_SKETCHES_TABLE = "CREATE TABLE " + TABLE_SALE_SKETCHES + " (" +
+            COL_PRODUCT_ID + " INTEGER NOT NULL, " +                  //this is the product
+            COL_DAY + " TEXT NOT NULL, " +                            //this is the day ("yyyy-MM-dd")
+            COL_BRANCH_ID + " INTEGER NOT NULL, " +                   //this is the product's branch
+            COL_VALUE_SKETCH + " TEXT NOT NULL, " +                   //this is the sketch of the sale values
+            COL_QUANTITY_SKETCH + " TEXT NOT NULL, " +                //this is the sketch of the quantities
+            "PRIMARY KEY (" + COL_PRODUCT_ID + ", " + COL_DAY + "))";
+    public static final String CREATE_SALE_SKETCHES_INDEX = "CREATE INDEX idx_sale_sketches_branch_day ON " + TABLE_SALE_SKETCHES
+            + " (" + COL_BRANCH_ID + ", " + COL_DAY + ")";
+
+    // SQL command to create the meta table
+    public static final String CREATE_META_TABLE = "CREATE TABLE " + TABLE_META + " (" +
+            COL_KEY + " TEXT PRIMARY KEY, " +                         //this is the name of the value
+            COL_VALUE + " TEXT)";                                     //this is the value
+
+    // SQL command to create the maintenance log
+    public static final String CREATE_MAINTENANCE_LOG_TABLE = "CREATE TABLE " + TABLE_MAINTENANCE_LOG + " (" +
+            COL_LOG_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +     //this is the log row ID
+            COL_TASK + " TEXT NOT NULL, " +                           //this is the task that ran
+            COL_STARTED_AT + " TEXT NOT NULL, " +                     //this is when it started
+            COL_DURATION_MS + " INTEGER NOT NULL, " +                 //this is how long it took
+            COL_DETAIL + " TEXT)";                                    //this is what it did
+
+    // SQL command to create the change log
+    public static final String CREATE_CHANGE_LOG_TABLE = "CREATE TABLE " + TABLE_CHANGE_LOG + " (" +
+            COL_SEQ + " INTEGER PRIMARY KEY AUTOINCREMENT, " +        //this is the sequence number
+            COL_ENTITY + " TEXT NOT NULL, " +                         //this is what changed
+            COL_ENTITY_ID + " INTEGER NOT NULL, " +                   //this is which one changed
+            COL_CREATED_AT + " TEXT NOT NULL)";                       //this is when it changed
+
+    // SQL command to create the stock movement ledger
+    public static final String CREATE_STOCK_MOVEMENTS_TABLE = "CREATE TABLE " + TABLE_STOCK_MOVEMENTS + " (" +
+            COL_MOVEMENT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " + //this is the ledger position
+            COL_PRODUCT_ID + " INTEGER NOT NULL, " +                   //this is the product whose stock changed
+            COL_DELTA + " INTEGER NOT NULL, " +                        //this is the change in stock
+            COL_REASON + " TEXT NOT NULL, " +                          //this is why it changed
+            COL_CREATED_AT + " TEXT NOT NULL)";                        //this is when it changed
+
+    // the ledger is always read per product, in ledger order
+    public static final String CREATE_STOCK_MOVEMENTS_INDEX = "CREATE INDEX idx_stock_movements_product ON "
+            + TABLE_STOCK_MOVEMENTS + " (" + COL_PRODUCT_ID + ", " + COL_MOVEMENT_ID + ")";
+
+    // SQL command to create the stock snapshots table
+    public static final String CREATE_STOCK_SNAPSHOTS_TABLE = "CREATE TABLE " + TABLE_STOCK_SNAPSHOTS + " (" +
+            COL_PRODUCT_ID + " INTEGER NOT NULL, " +                   //this is the product
+            COL_MOVEMENT_ID + " INTEGER NOT NULL, " +                  //this is the last ledger row included
+            COL_STOCK + " INTEGER NOT NULL, " +                        //this is the stock after that row
+            COL_TAKEN_AT + " TEXT NOT NULL, " +                        //this is when the snapshot was taken
+            "PRIMARY KEY (" + COL_PRODUCT_ID + ", " + COL_MOVEMENT_ID + "))";
+
+    // switches on incremental vacuum; it only takes effect before the first table is created (or through a full VACUUM),
+    // so it runs when the database file is opened rather than inside the create transaction
+    public static final String ENABLE_INCREMENTAL_VACUUM = "PRAGMA auto_vacuum = INCREMENTAL";
+
+    // SQL command that gives every product with stock an opening ledger row for its current stock
+    // (used for a new database and when the ledger is added to an existing one)
+    public static final String INSERT_OPENING_MOVEMENTS = "INSERT INTO " + TABLE_STOCK_MOVEMENTS + " (" + COL_PRODUCT_ID + ", "
+            + COL_DELTA + ", " + COL_REASON + ", " + COL_CREATED_AT + ") SELECT " + COL_ID + ", " + COL_STOCK + ", '"
+            + StockReason.OPENING + "', datetime('now', 'localtime') FROM " + TABLE_PRODUCTS + " WHERE " + COL_STOCK + " <> 0";
+
+    //the sample products inserted when the database is created, for demonstration (STechies, 2017)
+    static final String[] SAMPLE_NAMES = {"Laptop", "Mouse", "Keyboard", "Monitor", "USB Cable"};
+    static final double[] SAMPLE_PRICES = {15000, 350, 650, 4500, 120};
+    static final int[] SAMPLE_STOCKS = {15, 45, 30, 8, 100};
+    static final String[] SAMPLE_CATEGORIES = {"Electronics", "Accessories", "Accessories", "Electronics", "Accessories"};
+    static final double[] SAMPLE_COSTS = {12000, 200, 400, 3500, 60};
+
+    //private constructor because this class only holds constants
+    private InventorySchema() {
+    }
+
+    //returns the statements that create every table, in order
+    public static String[] createStatements() {
+        return new String[]{CREATE_PRODUCTS_TABLE, CREATE_SALES_TABLE, CREATE_SALES_DATE_INDEX,
+                CREATE_STOCK_MOVEMENTS_TABLE, CREATE_STOCK_MOVEMENTS_INDEX, CREATE_STOCK_SNAPSHOTS_TABLE, CREATE_META_TABLE,
+                CREATE_MAINTENANCE_LOG_TABLE, CREATE_CHANGE_LOG_TABLE, CREATE_PRODUCTS_BRANCH_INDEX, CREATE_SALES_BRANCH_INDEX,
+                CREATE_BRANCHES_TABLE, INSERT_DEFAULT_BRANCH, CREATE_BRANCH_ROLLUPS_TABLE, CREATE_PRODUCTS_SKU_INDEX,
+                CREATE_SALE_SKETCHES_TABLE, CREATE_SALE_SKETCHES_INDEX};
+    }
+
+    //returns the statements that create the archive's tables inside the attached ARCHIVE_SCHEMA
+    //(the archive's sales table has the same columns as the main one, so rows are copied with SELECT *)
+    public static String[] createArchiveStatements() {
+        return new String[]{
+                CREATE_SALES_TABLE.replaceFirst("^CREATE TABLE ", "CREATE TABLE IF NOT EXISTS " + ARCHIVE_SCHEMA + "."),
+                CREATE_SALES_DATE_INDEX.replaceFirst("^CREATE INDEX ", "CREATE INDEX IF NOT EXISTS " + ARCHIVE_SCHEMA + ".")
+        };
+    }
+
+    //returns the statements that upgrade the schema from (version - 1) to version.
+    //each upgrade keeps the existing rows; SqlInventoryStore.upgradeSchema() runs them one version at a time
+    public static String[] migrationTo(int version) {
+        switch (version) {
+            case 2:
+                //version 2: the edit version used by patchProduct()
+                return new String[]{
+                        "ALTER TABLE " + TABLE_PRODUCTS + " ADD COLUMN " + COL_VERSION + " INTEGER NOT NULL DEFAULT 1"
+                };
+            case 3:
+                //version 3: the stock movement ledger and its snapshots, starting from the current stock
+                return new String[]{
+                        CREATE_STOCK_MOVEMENTS_TABLE,
+                        CREATE_STOCK_MOVEMENTS_INDEX,
+                        CREATE_STOCK_SNAPSHOTS_TABLE,
+                        INSERT_OPENING_MOVEMENTS
+                };
+            case 4:
+                //version 4: the sales date index and the meta table used by the sales archive
+                return new String[]{
+                        CREATE_SALES_DATE_INDEX,
+                        CREATE_META_TABLE
+                };
+            case 5:
+                //version 5: the log written by the background maintenance
+                return new String[]{
+                        CREATE_MAINTENANCE_LOG_TABLE
+                };
+            case 6:
+                //version 6: the change log read by the sync
+                return new String[]{
+                        CREATE_CHANGE_LOG_TABLE
+                };
+            case 7:
+                //version 7: branches; every existing product and sale belongs to the default branch, and the rollups
+                //start from the sales in the main database (archived sales are added when the archive is next attached)
+                return new String[]{
+                        "ALTER TABLE " + TABLE_PRODUCTS + " ADD COLUMN " + COL_BRANCH_ID + " INTEGER NOT NULL DEFAULT " + DEFAULT_BRANCH_ID,
+                        "ALTER TABLE " + TABLE_SALES + " ADD COLUMN " + COL_BRANCH_ID + " INTEGER NOT NULL DEFAULT " + DEFAULT_BRANCH_ID,
+                        CREATE_PRODUCTS_BRANCH_INDEX,
+                        CREATE_SALES_BRANCH_INDEX,
+                        CREATE_BRANCHES_TABLE,
+                        INSERT_DEFAULT_BRANCH,
+                        CREATE_BRANCH_ROLLUPS_TABLE,
+                        INSERT_ROLLUPS_FROM_SALES,
+                        "INSERT INTO " + TABLE_META + " SELECT '" + META_ROLLUPS_NEED_ARCHIVE + "', '1' WHERE EXISTS (SELECT 1 FROM "
+                                + TABLE_META + " WHERE " + COL_KEY + " = '" + META_SALES_ARCHIVED_BEFORE + "')",
+                        //the archived sales totals of version 4, replaced by the rollups
+                        "DELETE FROM " + TABLE_META + " WHERE " + COL_KEY + " IN ('archived_sales_total', 'archived_profit_total')"
+                };
+            case 8:
+                //version 8: product SKUs and barcodes, looked up when a sale is entered by code
+                return new String[]{
+                        "ALTER TABLE " + TABLE_PRODUCTS + " ADD COLUMN " + COL_SKU + " TEXT",
+                        CREATE_PRODUCTS_SKU_INDEX
+                };
+            case 9:
+                //version 9: the sales velocity behind the reorder suggestions, worked out from the existing sales on first use
+                return new String[]{
+                        "ALTER TABLE " + TABLE_PRODUCTS + " ADD COLUMN " + COL_VELOCITY + " REAL NOT NULL DEFAULT 0",
+                        "ALTER TABLE " + TABLE_PRODUCTS + " ADD COLUMN " + COL_VELOCITY_DAY + " TEXT",
+                        "ALTER TABLE " + TABLE_PRODUCTS + " ADD COLUMN " + COL_DAY_UNITS + " INTEGER NOT NULL DEFAULT 0",
+                        "INSERT INTO " + TABLE_META + " SELECT '" + META_VELOCITY_NEEDS_REBUILD + "', '1' WHERE EXISTS (SELECT 1 FROM "
+                                + TABLE_SALES + ")"
+                };
+            case 10:
+                //version 10: the daily sale sketches behind the sale size distributions, worked out from the existing sales on first use
+                //(including archived ones, which may be all there are once the main sales table has been archived)
+                return new String[]{
+                        CREATE_SALE_SKETCHES_TABLE,
+                        CREATE_SALE_SKETCHES_INDEX,
+                        "INSERT INTO " + TABLE_META + " SELECT '" + META_SKETCHES_NEED_REBUILD + "', '1' WHERE EXISTS (SELECT 1 FROM "
+                                + TABLE_SALES + ") OR EXISTS (SELECT 1 FROM " + TABLE_META + " WHERE " + COL_KEY + " = '"
+                                + META_SALES_ARCHIVED_BEFORE + "')"
+                };
+            default:
+                throw new IllegalArgumentException("no migration to database version " + version);
+        }
+    }
+}
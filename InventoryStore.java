@@ -0,0 +1,139 @@
+package com.businesspro.inventorymanager;
+
+//importing the list interface used for query results
+import java.util.List;
+
+//the InventoryStore interface lists every data operation the app uses on products and sales.
+//products, sales and the aggregates are those of the current branch; getBranchTotals() covers every branch.
+//DatabaseHelper is the Android implementation and JdbcInventoryStore the plain-JVM one;
+//both run the same SQL through SqlInventoryStore, so the storage layer can be tested off-device.
+public interface InventoryStore {
+
+    //returned by recordSale() when there is not enough stock for the sale
+    long SALE_REJECTED = -1;
+
+    //returned by recordSale() when the sale was taken by the write-behind sale journal: it is durable and is
+    //given its sale ID when it reaches the sales table moments later (no sale ID is ever this high)
+    long SALE_JOURNALED = Long.MAX_VALUE;
+
+    //returned by recordSale() when the write-behind sale journal could not take the sale in time, because it stayed
+    //paused by a restore or full while its sales could not be written; nothing was recorded and the sale can be tried again
+    long SALE_UNAVAILABLE = -2;
+
+    //returned by adjustStock() when the change would take the stock below zero (or the product does not exist)
+    int STOCK_REJECTED = -1;
+
+    //the outcome of patchProduct()
+    enum PatchResult {
+        //the patch was written
+        APPLIED,
+        //the patch was empty, so nothing was written
+        UNCHANGED,
+        //the product's details were edited by someone else since expectedVersion; nothing was written
+        CONFLICT,
+        //the product does not exist (it was deleted)
+        NOT_FOUND,
+        //the stock delta would take the stock below zero; nothing was written
+        INSUFFICIENT_STOCK
+    }
+
+    //crud operations for products
+
+    //adding a new product and returning its ID, or -1 if it could not be added
+    long addProduct(String name, double price, int stock, String category, double cost);
+
+    //returning every product ordered by name
+    List<Product> getAllProducts();
+
+    //returning a single product by its ID, or null if it does not exist
+    Product getProduct(int id);
+
+    //updating every field of a product (overwriting the stock) and returning the number of rows changed
+    int updateProduct(int id, String name, double price, int stock, String category, double cost);
+
+    //writing only the changed fields of a product, if it is still at expectedVersion, and moving its stock
+    //by the patch's delta, all in one transaction
+    PatchResult patchProduct(int id, int expectedVersion, ProductPatch patch);
+
+    //moving a product's stock by delta units (negative to remove stock) for the given StockReason;
+    //returns the new stock, or STOCK_REJECTED if the stock would go below zero
+    int adjustStock(int productId, int delta, String reason);
+
+    //deleting a product by its ID
+    void deleteProduct(int id);
+
+    //returning the products at or below the low stock threshold, lowest stock first
+    List<Product> getLowStockProducts();
+
+    //returning the products that should be ordered now, from their sales velocity (see SalesVelocity),
+    //fewest days of cover first
+    List<ReorderSuggestion> getReorderSuggestions();
+
+    //product codes (SKUs and barcodes)
+
+    //returning the product of the current branch with the given SKU or barcode, or null if no product has it
+    Product getProductByCode(String code);
+
+    //setting a product's SKU or barcode (a blank code clears it); returns false, and changes nothing,
+    //if another product of the same branch already has the code or the product does not exist
+    boolean setProductCode(int id, String code);
+
+    //stock history
+
+    //returning a product's stock at a point in time (a date in the stored format, e.g. "2025-11-01 00:00:00"),
+    //worked out from the stock movement ledger; 0 if the product had no stock recorded by then
+    int getStockAt(int productId, String storedDate);
+
+    //recording the current stock of every product that moved since the last snapshots, so getStockAt()
+    //only has to add up the movements after them (also done automatically as the ledger grows)
+    int takeStockSnapshots();
+
+    //sales operations
+
+    //recording a sale and reducing the product's stock in one transaction; returns the new sale ID,
+    //or SALE_REJECTED (and changes nothing) if the product does not have quantity units left.
+    //with the write-behind sale journal on, an accepted sale returns SALE_JOURNALED instead of its ID, and a sale
+    //the journal could not take in time returns SALE_UNAVAILABLE; a positive result means the sale went through
+    //and will not be lost
+    long recordSale(int productId, String productName, int quantity, double salePrice, double cost);
+
+    //returning every sale, newest first
+    List<Sale> getAllSales();
+
+    //returning the most recent sales, newest first
+    List<Sale> getRecentSales(int limit);
+
+    //returning the sales dated from 'from' (inclusive) up to 'to' (exclusive), newest first.
+    //dates are in the stored format (e.g. "2025-11-01 00:00:00") and either may be null for no limit
+    List<Sale> getSalesBetween(String from, String to);
+
+    //sales archive
+
+    //moving the sales older than the given number of days into the archive database, so the main database
+    //stays small; returns the number of sales moved. archived sales are still returned by the sales queries
+    //whose date range reaches back to them, and still counted in the totals
+    int archiveSales(int olderThanDays);
+
+    //aggregates used by the dashboard and reports
+
+    //returning the total value of all sales
+    double getTotalSales();
+
+    //returning the total profit of all sales
+    double getTotalProfit();
+
+    //returning the value of the stock on hand (price × stock for every product)
+    double getInventoryValue();
+
+    //returning the number of products at or below the low stock threshold
+    int getLowStockCount();
+
+    //returning the number of products
+    int getTotalProducts();
+
+    //consolidated reporting
+
+    //returning every branch's sales added up from the daily branch rollups, for the days from 'fromDay' (inclusive)
+    //up to 'toDay' (exclusive), as "yyyy-MM-dd" and either may be null for no limit; one entry per branch
+    List<BranchTotals> getBranchTotals(String fromDay, String toDay);
+}
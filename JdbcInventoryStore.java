@@ -0,0 +1,71 @@
+package com.businesspro.inventorymanager;
+
+//importing the file class for the database location
+import java.io.File;
+
+//the JdbcInventoryStore class is the plain-JVM InventoryStore: it opens a sqlite file over JDBC
+//(the sqlite-jdbc driver must be on the classpath) and runs the same SqlInventoryStore code as the app.
+//it is used by benchmarks, dataset generators and stress harnesses that run off the device.
+public class JdbcInventoryStore extends SqlInventoryStore implements AutoCloseable {
+
+    //the adapter that owns the jdbc connections, and the database file it opened
+    private final JdbcStoreDatabase jdbc;
+    private final File file;
+
+    //creating a store over an opened adapter (use open() to also create or upgrade the schema)
+    private JdbcInventoryStore(JdbcStoreDatabase jdbc, File file) {
+        super(jdbc);
+        this.jdbc = jdbc;
+        this.file = file;
+    }
+
+    //opening the database file, creating or upgrading the schema the same way SQLiteOpenHelper does
+    public static JdbcInventoryStore open(File file) {
+        JdbcStoreDatabase jdbc = new JdbcStoreDatabase("jdbc:sqlite:" + file.getAbsolutePath());
+        final int version = jdbc.pragmaInt("user_version");
+        if (version == 0) {
+            //before the first table is created, the same as DatabaseHelper.onConfigure()
+            jdbc.execute(InventorySchema.ENABLE_INCREMENTAL_VACUUM);
+        }
+        if (version != InventorySchema.DATABASE_VERSION) {
+            jdbc.inTransaction(() -> {
+                if (version == 0) {
+                    createSchema(jdbc);
+                } else {
+                    upgradeSchema(jdbc, version, InventorySchema.DATABASE_VERSION);
+                }
+                jdbc.execute("PRAGMA user_version = " + InventorySchema.DATABASE_VERSION);
+                return null;
+            });
+        }
+        JdbcInventoryStore store = new JdbcInventoryStore(jdbc, file);
+        //the archive sits next to the database file, e.g. inventory.db -> inventory-archive.db
+        String name = file.getName().replaceFirst("\\.db$", "");
+        store.setArchivePath(new File(file.getAbsoluteFile().getParentFile(), name + "-archive.db").getPath());
+        return store;
+    }
+
+    //checking a database file (e.g. a backup) on a connection of its own, for DatabaseBackup
+    public static String checkDatabaseFile(File file) {
+        try (JdbcStoreDatabase check = new JdbcStoreDatabase("jdbc:sqlite:" + file.getAbsolutePath())) {
+            return DatabaseBackup.check(check);
+        } catch (StoreException e) {
+            return e.getMessage();
+        }
+    }
+
+    //copying the database for a backup on a connection of its own, for DatabaseBackup
+    //(the store's own connections stay free for writes while the copy runs)
+    public void copyDatabaseFile(File target) {
+        try (JdbcStoreDatabase copy = new JdbcStoreDatabase("jdbc:sqlite:" + file.getAbsolutePath())) {
+            DatabaseBackup.vacuumInto(copy, target);
+        }
+    }
+
+    //closing the sale journal (if it was on) and every connection to the database file
+    @Override
+    public void close() {
+        closeSaleJournal();
+        jdbc.close();
+    }
+}
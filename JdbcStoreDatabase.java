@@ -0,0 +1,371 @@
+package com.businesspro.inventorymanager;
+
+//importing the jdbc classes used to talk to sqlite on a plain JVM
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+//importing the java collections used for results and connection bookkeeping
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//the JdbcStoreDatabase class runs StoreDatabase operations over JDBC (for example the sqlite-jdbc driver),
+//so the inventory store can run in benchmarks and harnesses on a normal JVM.
+//each thread gets its own connection, like each Android thread gets its own SQLiteSession,
+//and prepared statements are cached per connection.
+public class JdbcStoreDatabase implements StoreDatabase, AutoCloseable {
+
+    //the sqlite error code for a constraint failure
+    private static final int SQLITE_CONSTRAINT = 19;
+
+    //how long a connection waits for another writer before giving up
+    private static final int BUSY_TIMEOUT_MS = 5000;
+
+    //the jdbc url of the database, e.g. "jdbc:sqlite:/tmp/inventory.db"
+    private final String url;
+
+    //one connection per thread
+    private final ThreadLocal<ThreadConnection> connections = new ThreadLocal<>();
+
+    //every connection opened so far, so close() can close them all
+    private final List<ThreadConnection> opened = new CopyOnWriteArrayList<>();
+
+    //the databases added with attach(), by schema name (every connection attaches them before its next statement)
+    private final Map<String, String> attachments = new ConcurrentHashMap<>();
+
+    //creating an adapter for the database at the given jdbc url (the driver is found by DriverManager)
+    public JdbcStoreDatabase(String url) {
+        this.url = url;
+    }
+
+    //returning this thread's connection, opening it on first use
+    private ThreadConnection connection() {
+        ThreadConnection connection = connections.get();
+        if (connection == null) {
+            try {
+                Connection jdbc = DriverManager.getConnection(url);
+                try (Statement statement = jdbc.createStatement()) {
+                    statement.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MS);
+                    statement.execute("PRAGMA journal_mode = WAL"); //the same journal mode Android uses by default
+                }
+                connection = new ThreadConnection(jdbc);
+            } catch (SQLException e) {
+                throw new StoreException("could not open " + url, e);
+            }
+            connections.set(connection);
+            opened.add(connection);
+        }
+        if (connection.attached.size() < attachments.size() && connection.transactionDepth == 0) {
+            attachMissing(connection);
+        }
+        return connection;
+    }
+
+    //attaching the databases this connection does not have yet (ATTACH is not allowed inside a transaction)
+    private void attachMissing(ThreadConnection connection) {
+        for (Map.Entry<String, String> attachment : attachments.entrySet()) {
+            String schemaName = attachment.getKey();
+            if (connection.attached.contains(schemaName)) {
+                continue;
+            }
+            try (PreparedStatement statement = connection.jdbc.prepareStatement("ATTACH DATABASE ? AS " + schemaName)) {
+                statement.setString(1, attachment.getValue());
+                statement.execute();
+            } catch (SQLException e) {
+                throw new StoreException("could not attach " + attachment.getValue(), e);
+            }
+            connection.attached.add(schemaName);
+        }
+    }
+
+    @Override
+    public <T> List<T> query(String sql, Object[] args, RowMapper<T> mapper) {
+        List<T> results = new ArrayList<>();
+        try {
+            PreparedStatement statement = connection().prepare(sql);
+            bind(statement, args);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetRow row = new ResultSetRow(resultSet);
+                while (resultSet.next()) {
+                    results.add(mapper.map(row));
+                }
+            }
+        } catch (SQLException e) {
+            throw new StoreException("query failed: " + sql, e);
+        }
+        return results;
+    }
+
+    @Override
+    public void scan(String sql, Object[] args, RowHandler handler) {
+        try {
+            PreparedStatement statement = connection().prepare(sql);
+            bind(statement, args);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetRow row = new ResultSetRow(resultSet);
+                while (resultSet.next()) {
+                    handler.handle(row);
+                }
+            }
+        } catch (SQLException e) {
+            throw new StoreException("query failed: " + sql, e);
+        }
+    }
+
+    @Override
+    public double queryDouble(String sql, Object[] args) {
+        try {
+            PreparedStatement statement = connection().prepare(sql);
+            bind(statement, args);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getDouble(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new StoreException("query failed: " + sql, e);
+        }
+    }
+
+    @Override
+    public long queryLong(String sql, Object[] args) {
+        try {
+            PreparedStatement statement = connection().prepare(sql);
+            bind(statement, args);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new StoreException("query failed: " + sql, e);
+        }
+    }
+
+    @Override
+    public long insert(String sql, Object[] args) {
+        ThreadConnection connection = connection();
+        try {
+            PreparedStatement statement = connection.prepare(sql);
+            bind(statement, args);
+            statement.executeUpdate();
+            return connection.lastInsertRowId();
+        } catch (SQLException e) {
+            if (e.getErrorCode() == SQLITE_CONSTRAINT) {
+                return -1; //same result as SQLiteDatabase.insert() when a constraint fails
+            }
+            throw new StoreException("insert failed: " + sql, e);
+        }
+    }
+
+    @Override
+    public int insertBatch(String sql, List<Object[]> rows) {
+        try {
+            PreparedStatement statement = connection().prepare(sql);
+            statement.clearBatch(); //dropping rows left behind by a batch that failed
+            for (Object[] args : rows) {
+                bind(statement, args);
+                statement.addBatch();
+            }
+            int inserted = 0;
+            for (int count : statement.executeBatch()) {
+                inserted += Math.max(count, 0);
+            }
+            return inserted;
+        } catch (SQLException e) {
+            throw new StoreException("batch insert failed: " + sql, e);
+        }
+    }
+
+    @Override
+    public int update(String sql, Object[] args) {
+        try {
+            PreparedStatement statement = connection().prepare(sql);
+            bind(statement, args);
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new StoreException("update failed: " + sql, e);
+        }
+    }
+
+    @Override
+    public void execute(String sql) {
+        try (Statement statement = connection().jdbc.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new StoreException("statement failed: " + sql, e);
+        }
+    }
+
+    @Override
+    public void attach(String schemaName, String path) {
+        attachments.putIfAbsent(schemaName, path);
+        connection(); //this thread's connection attaches it now, the others before their next statement
+    }
+
+    @Override
+    public <T> T withAttached(Work<T> work) {
+        connection(); //every thread's connection attaches them before its next statement, so the work runs as it is
+        return work.run();
+    }
+
+    @Override
+    public <T> T inTransaction(Work<T> work) {
+        ThreadConnection connection = connection();
+        if (connection.transactionDepth == 0) {
+            //taking the write lock up front, like Android's beginTransaction(), so two
+            //read-then-write transactions cannot deadlock on the lock upgrade
+            execute("BEGIN IMMEDIATE");
+        }
+        connection.transactionDepth++;
+        boolean success = false;
+        try {
+            T result = work.run();
+            success = true;
+            return result;
+        } finally {
+            if (--connection.transactionDepth == 0) {
+                execute(success && !connection.rollbackOnly ? "COMMIT" : "ROLLBACK");
+                connection.rollbackOnly = false;
+            } else if (!success) {
+                connection.rollbackOnly = true; //a failed inner transaction rolls back the outer one too
+            }
+        }
+    }
+
+    //returning the value of a PRAGMA that reports a single number (e.g. user_version)
+    public int pragmaInt(String name) {
+        return (int) queryLong("PRAGMA " + name, null);
+    }
+
+    //closing every connection opened by this adapter
+    @Override
+    public void close() {
+        for (ThreadConnection connection : opened) {
+            connection.close();
+        }
+        opened.clear();
+    }
+
+    //binding each argument with its own type
+    private static void bind(PreparedStatement statement, Object[] args) throws SQLException {
+        statement.clearParameters();
+        if (args == null) {
+            return;
+        }
+        for (int i = 0; i < args.length; i++) {
+            statement.setObject(i + 1, args[i]);
+        }
+    }
+
+    //one thread's connection, its prepared statements and its transaction state
+    private static final class ThreadConnection {
+        final Connection jdbc;
+        final Map<String, PreparedStatement> statements = new HashMap<>();
+        final Set<String> attached = new HashSet<>();
+        int transactionDepth;
+        boolean rollbackOnly;
+
+        ThreadConnection(Connection jdbc) {
+            this.jdbc = jdbc;
+        }
+
+        //returning the cached prepared statement for this sql, preparing it on first use
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = jdbc.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        //returning the row ID of the last insert on this connection
+        long lastInsertRowId() throws SQLException {
+            try (ResultSet resultSet = prepare("SELECT last_insert_rowid()").executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1;
+            }
+        }
+
+        void close() {
+            try {
+                for (PreparedStatement statement : statements.values()) {
+                    statement.close();
+                }
+                jdbc.close();
+            } catch (SQLException ignored) {
+                //closing is best effort
+            }
+        }
+    }
+
+    //a row backed by the result set's current position, with column indexes looked up once
+    private static final class ResultSetRow implements Row {
+        private final ResultSet resultSet;
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        ResultSetRow(ResultSet resultSet) {
+            this.resultSet = resultSet;
+        }
+
+        private int index(String column) throws SQLException {
+            Integer index = indexes.get(column);
+            if (index == null) {
+                index = resultSet.findColumn(column);
+                indexes.put(column, index);
+            }
+            return index;
+        }
+
+        @Override
+        public int getInt(String column) {
+            try {
+                return resultSet.getInt(index(column));
+            } catch (SQLException e) {
+                throw new StoreException("could not read " + column, e);
+            }
+        }
+
+        @Override
+        public long getLong(String column) {
+            try {
+                return resultSet.getLong(index(column));
+            } catch (SQLException e) {
+                throw new StoreException("could not read " + column, e);
+            }
+        }
+
+        @Override
+        public double getDouble(String column) {
+            try {
+                return resultSet.getDouble(index(column));
+            } catch (SQLException e) {
+                throw new StoreException("could not read " + column, e);
+            }
+        }
+
+        @Override
+        public String getString(String column) {
+            try {
+                return resultSet.getString(index(column));
+            } catch (SQLException e) {
+                throw new StoreException("could not read " + column, e);
+            }
+        }
+
+        @Override
+        public boolean isNull(String column) {
+            try {
+                resultSet.getObject(index(column));
+                return resultSet.wasNull();
+            } catch (SQLException e) {
+                throw new StoreException("could not read " + column, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.businesspro.inventorymanager;
+
+//the LatencyHistogram class counts durations in log-linear buckets, in the style of an HDR histogram.
+//every power of two is split into SUB_BUCKETS equal buckets, so any recorded value is off by at most ~3%,
+//while the whole range from 1 microsecond to over an hour fits in a small fixed array.
+//recording is a few shifts and an array increment, so it is cheap enough to run on every query.
+public final class LatencyHistogram {
+
+    //the number of buckets each power of two is split into (must be a power of two)
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    //the number of powers of two covered (2^32 microseconds is over an hour)
+    private static final int MAGNITUDES = 32;
+
+    //the total number of buckets (the exact range 0..63 plus SUB_BUCKETS per magnitude)
+    private static final int BUCKET_COUNT = (MAGNITUDES + 2) * SUB_BUCKETS;
+
+    //the bucket counts
+    private final long[] counts = new long[BUCKET_COUNT];
+
+    //the summary values kept next to the buckets
+    private long totalCount;
+    private long maxMicros;
+    private long sumMicros;
+
+    //recording one duration given in nanoseconds
+    public synchronized void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts[bucketFor(micros)]++;
+        totalCount++;
+        sumMicros += micros;
+        if (micros > maxMicros) {
+            maxMicros = micros;
+        }
+    }
+
+    //adding every count from another histogram into this one
+    public synchronized void add(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherTotal, otherMax, otherSum;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherTotal = other.totalCount;
+            otherMax = other.maxMicros;
+            otherSum = other.sumMicros;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += otherCounts[i];
+        }
+        totalCount += otherTotal;
+        sumMicros += otherSum;
+        maxMicros = Math.max(maxMicros, otherMax);
+    }
+
+    //returns how many values were recorded
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    //returns the largest recorded value in microseconds
+    public synchronized long getMaxMicros() {
+        return maxMicros;
+    }
+
+    //returns the mean of the recorded values in microseconds
+    public synchronized double getMeanMicros() {
+        return totalCount == 0 ? 0 : (double) sumMicros / totalCount;
+    }
+
+    //returns the value (in microseconds) below which the given percentage of recorded values fall, e.g. 95.0
+    public synchronized long getPercentileMicros(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                //reporting the top of the bucket, but never more than the real maximum
+                return Math.min(highestValueIn(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    //working out which bucket a value falls into
+    private static int bucketFor(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            //small values are counted exactly
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        if (magnitude > MAGNITUDES) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (micros >>> magnitude) - SUB_BUCKETS;
+        return (magnitude + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    //the largest value that falls into a bucket
+    private static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << magnitude) - 1;
+    }
+}
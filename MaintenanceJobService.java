@@ -0,0 +1,103 @@
+package com.businesspro.inventorymanager;
+
+//importing the android classes used to schedule and run the background job
+import android.app.job.JobInfo; //this describes when the job may run
+import android.app.job.JobParameters; //this identifies the job that was started
+import android.app.job.JobScheduler; //this is the system service that runs jobs
+import android.app.job.JobService; //this is the base class for a scheduled job
+import android.content.ComponentName; //this points the job at this service
+import android.content.Context; //this is used to reach the job scheduler
+import android.util.Log; //this logs maintenance and backups that failed
+
+//importing the java classes used to run the maintenance off the main thread
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//the MaintenanceJobService class runs DatabaseMaintenance in the background, followed by a backup.
+//it is scheduled as two daily jobs: one that needs the device to be idle and one that needs
+//it to be charging, so maintenance runs when either is true (DatabaseMaintenance.isDue() stops both
+//running on the same day). only the idle job may do the one-off full VACUUM, because then nobody is selling.
+public class MaintenanceJobService extends JobService {
+
+    //the tag used for log messages
+    private static final String TAG = "MaintenanceJobService";
+
+    //the job IDs
+    private static final int JOB_ID_IDLE = 1001;
+    private static final int JOB_ID_CHARGING = 1002;
+
+    //how often each job may run
+    private static final long PERIOD_MILLIS = 24 * 60 * 60 * 1000L;
+
+    //its own background thread, so a long maintenance step never delays the screens' loads on diskIO()
+    private static final ExecutorService MAINTENANCE = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //the maintenance that is running (null when none is)
+    private volatile DatabaseMaintenance running;
+
+    //scheduling both jobs, unless they are already scheduled (scheduling again would restart their period)
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        boolean idleScheduled = false;
+        boolean chargingScheduled = false;
+        for (JobInfo job : scheduler.getAllPendingJobs()) {
+            idleScheduled |= job.getId() == JOB_ID_IDLE;
+            chargingScheduled |= job.getId() == JOB_ID_CHARGING;
+        }
+        ComponentName service = new ComponentName(context, MaintenanceJobService.class);
+        if (!idleScheduled) {
+            scheduler.schedule(new JobInfo.Builder(JOB_ID_IDLE, service)
+                    .setRequiresDeviceIdle(true)
+                    .setPeriodic(PERIOD_MILLIS)
+                    .build());
+        }
+        if (!chargingScheduled) {
+            scheduler.schedule(new JobInfo.Builder(JOB_ID_CHARGING, service)
+                    .setRequiresCharging(true)
+                    .setPeriodic(PERIOD_MILLIS)
+                    .build());
+        }
+    }
+
+    //starting the maintenance on the background thread; returns true because the work carries on after this returns
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        final DatabaseMaintenance maintenance = new DatabaseMaintenance(DatabaseHelper.getInstance(this).getStore())
+                .setAllowFullVacuum(params.getJobId() == JOB_ID_IDLE);
+        running = maintenance;
+        MAINTENANCE.execute(() -> {
+            try {
+                if (maintenance.isDue()) {
+                    maintenance.run();
+                    //a fresh backup every day the maintenance runs (the last 7 are kept); a failed one (e.g., SQLite
+                    //before 3.27 has no VACUUM INTO) is in the maintenance log, and the next run tries again
+                    DatabaseMaintenance.TaskResult backup = maintenance.backup(DatabaseHelper.getInstance(this).getBackup());
+                    if (backup != null && backup.error != null) {
+                        Log.w(TAG, "Backup failed", backup.error);
+                    }
+                }
+            } catch (StoreException e) {
+                //the database itself could not be used (e.g., to write the maintenance log); the next run tries again
+                Log.w(TAG, "Maintenance failed", e);
+            } finally {
+                running = null;
+                jobFinished(params, false);
+            }
+        });
+        return true;
+    }
+
+    //the device is no longer idle or charging: stopping after the current step, and asking to be run again
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        DatabaseMaintenance maintenance = running;
+        if (maintenance != null) {
+            maintenance.stop();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,165 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to watch the tables and to run and deliver the loads
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//the ObservableQuery class keeps a screen's data up to date while the screen is showing.
+//it loads its result on a background executor and delivers it on another one (the main thread for a screen),
+//then watches the tables the result comes from through the store's InvalidationTracker and loads it again only
+//when one of them is written. writes that arrive while a load is running (e.g., a burst of journaled sales)
+//make exactly one more load once it finishes, however many there were.
+//
+//a screen starts the query when it becomes visible and stops it when it is hidden; starting it again loads the
+//result only if its tables were written in the meantime, so a screen that comes back to unchanged data does no work.
+public final class ObservableQuery<T> implements InvalidationTracker.Observer {
+
+    //where loads that fail are reported
+    private static final Logger LOG = Logger.getLogger(ObservableQuery.class.getName());
+
+    //loads the result (runs on the query executor)
+    public interface Loader<T> {
+        T load();
+    }
+
+    //receives each new result (runs on the result executor)
+    public interface Listener<T> {
+        void onResult(T result);
+    }
+
+    //the tracker, the tables the result comes from, and how it is loaded and delivered
+    private final InvalidationTracker tracker;
+    private final String[] tables;
+    private final Loader<T> loader;
+    private final Executor queryExecutor;
+    private final Executor resultExecutor;
+    private final Listener<T> listener;
+
+    //the version of the tables the last delivered result was loaded at (-1 before the first load)
+    private volatile long loadedVersion = -1;
+
+    //goes up on every start() and stop(), so a result loaded before a stop is not delivered after it
+    private int session;
+    private boolean active;
+
+    //true while a load is queued or running, and true when the tables changed after it read their version
+    private boolean loading;
+    private boolean loadAgain;
+
+    //creating a query of the given tables; nothing is loaded until start()
+    public ObservableQuery(InvalidationTracker tracker, Loader<T> loader, Executor queryExecutor, Executor resultExecutor,
+                           Listener<T> listener, String... tables) {
+        this.tracker = tracker;
+        this.tables = tables;
+        this.loader = loader;
+        this.queryExecutor = queryExecutor;
+        this.resultExecutor = resultExecutor;
+        this.listener = listener;
+    }
+
+    //returning the current version of the query's tables (read it before taking a result loaded elsewhere,
+    //such as a prefetched one, and pass it to start(long))
+    public long getTablesVersion() {
+        return tracker.getVersion(tables);
+    }
+
+    //watching the tables and loading the result if they changed since the last one was delivered
+    public void start() {
+        start(loadedVersion);
+    }
+
+    //watching the tables, with the caller already showing a result loaded at the given version
+    public void start(long shownVersion) {
+        synchronized (this) {
+            if (active) {
+                return;
+            }
+            active = true;
+            session++;
+            loadedVersion = shownVersion;
+        }
+        tracker.addObserver(this, tables);
+        //checked after the observer was added, so a write in between is either seen here or reported to it
+        if (tracker.getVersion(tables) != shownVersion) {
+            load();
+        }
+    }
+
+    //no longer watching the tables; a load still running finishes, but its result is not delivered
+    public void stop() {
+        tracker.removeObserver(this);
+        synchronized (this) {
+            active = false;
+            session++;
+        }
+    }
+
+    //loading the result again after a write to one of the tables
+    @Override
+    public void onTablesChanged(Set<String> changed) {
+        load();
+    }
+
+    //queueing a load, or asking the running one for another when it finishes
+    private void load() {
+        synchronized (this) {
+            if (!active) {
+                return;
+            }
+            if (loading) {
+                loadAgain = true;
+                return;
+            }
+            loading = true;
+        }
+        queryExecutor.execute(this::runLoads);
+    }
+
+    //loading until no write arrived during the last load
+    private void runLoads() {
+        while (true) {
+            final int loadSession;
+            synchronized (this) {
+                loadAgain = false;
+                loadSession = session;
+            }
+            //the version is read before the data, so a write during the load makes another load
+            final long version = tracker.getVersion(tables);
+            final T result;
+            try {
+                result = loader.load();
+            } catch (RuntimeException e) {
+                //a failed load (e.g., a StoreException while a restore swaps the file) must not take the executor's
+                //thread, and the app, down with it: the screen keeps its last result and the next write tries again
+                LOG.log(Level.WARNING, "Query load failed", e);
+                synchronized (this) {
+                    if (!loadAgain || !active) {
+                        loading = false;
+                        return;
+                    }
+                }
+                continue; //a write arrived during the failed load, so it may succeed now
+            }
+            resultExecutor.execute(() -> deliver(result, version, loadSession));
+            synchronized (this) {
+                if (!loadAgain || !active) {
+                    loading = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    //handing a result to the listener, unless the query was stopped since it was loaded
+    private void deliver(T result, long version, int loadSession) {
+        synchronized (this) {
+            if (!active || session != loadSession) {
+                return;
+            }
+            loadedVersion = version;
+        }
+        listener.onResult(result);
+    }
+}
@@ -0,0 +1,131 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to store and write out the recorded spans
+import java.io.IOException; //this handles errors while dumping the trace
+import java.io.Writer; //this is where the trace is written to (a file or a string)
+import java.util.ArrayList; //this is used to return a copy of the recorded spans
+import java.util.List; //this is the list of recorded spans
+import java.util.Locale; //this keeps number formatting the same on every device
+
+//the PerfTrace class is a lightweight timing facility for start-up and screen loads.
+//spans (a name, a start and an end on the monotonic System.nanoTime() clock) are kept in a fixed-size
+//ring buffer in memory, so the newest spans are always available and old ones are overwritten.
+//when tracing is disabled, begin() returns 0 and end() returns straight away, so the calls cost almost nothing.
+public final class PerfTrace {
+
+    //the number of spans kept before the oldest ones are overwritten
+    private static final int CAPACITY = 512;
+
+    //whether spans are being recorded (switched on for debuggable builds by InventoryApplication)
+    private static volatile boolean enabled;
+
+    //the ring buffer, stored as parallel arrays so recording a span does not allocate a new object
+    private static final String[] names = new String[CAPACITY];
+    private static final String[] threads = new String[CAPACITY];
+    private static final long[] startNanos = new long[CAPACITY];
+    private static final long[] endNanos = new long[CAPACITY];
+
+    //the total number of spans recorded (the next write goes to count % CAPACITY)
+    private static long count;
+
+    //the time everything in the dump is shown relative to (the process start, once it is known)
+    private static long originNanos = System.nanoTime();
+
+    //a single recorded span, used when reading the buffer back
+    public static final class Span {
+        public final String name;
+        public final String thread;
+        public final long startNanos;
+        public final long endNanos;
+
+        Span(String name, String thread, long startNanos, long endNanos) {
+            this.name = name;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+        }
+
+        //returns how long the span took in milliseconds
+        public double durationMillis() {
+            return (endNanos - startNanos) / 1_000_000.0;
+        }
+    }
+
+    //private constructor because this class only has static helpers
+    private PerfTrace() {
+    }
+
+    //switching span recording on or off
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    //returns true if spans are being recorded
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    //setting the time the dump is shown relative to (normally the process start)
+    public static synchronized void setOrigin(long nanos) {
+        originNanos = nanos;
+    }
+
+    //starting a span: returns the current time, or 0 when tracing is disabled
+    public static long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    //ending a span that was started with begin()
+    public static void end(String name, long startNanos) {
+        if (startNanos == 0 || !enabled) {
+            return;
+        }
+        record(name, startNanos, System.nanoTime());
+    }
+
+    //recording a span whose start and end are already known
+    public static synchronized void record(String name, long start, long end) {
+        if (!enabled) {
+            return;
+        }
+        int slot = (int) (count % CAPACITY);
+        names[slot] = name;
+        threads[slot] = Thread.currentThread().getName();
+        startNanos[slot] = start;
+        endNanos[slot] = end;
+        count++;
+    }
+
+    //returning a copy of the spans still in the buffer, oldest first
+    public static synchronized List<Span> snapshot() {
+        int size = (int) Math.min(count, CAPACITY);
+        List<Span> spans = new ArrayList<>(size);
+        for (long i = count - size; i < count; i++) {
+            int slot = (int) (i % CAPACITY);
+            spans.add(new Span(names[slot], threads[slot], startNanos[slot], endNanos[slot]));
+        }
+        return spans;
+    }
+
+    //clearing the buffer
+    public static synchronized void clear() {
+        count = 0;
+    }
+
+    //writing the buffer as a plain-text table: start offset, duration, thread and span name
+    public static void dump(Writer writer) throws IOException {
+        long origin;
+        synchronized (PerfTrace.class) {
+            origin = originNanos;
+        }
+        writer.append(String.format(Locale.US, "%10s %10s  %-22s %s%n", "start_ms", "dur_ms", "thread", "span"));
+        for (Span span : snapshot()) {
+            writer.append(String.format(Locale.US, "%10.1f %10.2f  %-22s %s%n",
+                    (span.startNanos - origin) / 1_000_000.0,
+                    span.durationMillis(),
+                    span.thread,
+                    span.name));
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,260 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to run the tills and check the results
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//importing the shared table and column names
+import static com.businesspro.inventorymanager.InventorySchema.*;
+
+//the PosStressHarness class runs several tills against one store at the same time and then checks
+//that no stock was lost or oversold. each till works like RecordSaleActivity: it reads the product,
+//checks the stock it sees, and records the sale; most sales go to a few hot products so the tills
+//keep competing for the same rows. it runs headless on a plain JVM with the sqlite-jdbc driver:
+//
+//  java -cp build/bench:sqlite-jdbc.jar com.businesspro.inventorymanager.PosStressHarness \
+//       /tmp/stress.db [tills=8] [seconds=30] [products=20] [stock=5000] [--journal]
+//
+//with --journal the sales go through the write-behind SaleJournal, and the checks run once it has drained.
+//
+//one platform thread runs each till, because each till holds its own SQLite connection and a native
+//SQLite call blocks its thread either way. the process exits with status 1 if an invariant fails.
+public final class PosStressHarness {
+
+    //what one till did during the run
+    private static final class Till implements Runnable {
+        final InventoryStore store;
+        final int[] productIds;
+        final Random random;
+        final AtomicBoolean stop;
+        final CountDownLatch startSignal;
+
+        //the harness's own record of every accepted sale, per product index
+        final long[] soldQuantity;
+        final long[] soldCount;
+        final LatencyHistogram latency = new LatencyHistogram();
+        long attempts;
+        long accepted;
+        long rejectedByTill; //the till's own stock check said no
+        long rejectedByStore; //recordSale() said no (the stock changed after the till read it)
+        long errors;
+        Throwable firstError;
+
+        Till(InventoryStore store, int[] productIds, long seed, AtomicBoolean stop, CountDownLatch startSignal) {
+            this.store = store;
+            this.productIds = productIds;
+            this.random = new Random(seed);
+            this.stop = stop;
+            this.startSignal = startSignal;
+            this.soldQuantity = new long[productIds.length];
+            this.soldCount = new long[productIds.length];
+        }
+
+        @Override
+        public void run() {
+            try {
+                startSignal.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            while (!stop.get()) {
+                //three products in four sales go to the first quarter of the products
+                int index = random.nextInt(4) < 3
+                        ? random.nextInt(Math.max(1, productIds.length / 4))
+                        : random.nextInt(productIds.length);
+                int quantity = 1 + random.nextInt(3);
+                attempts++;
+                long start = System.nanoTime();
+                try {
+                    Product product = store.getProduct(productIds[index]);
+                    if (product == null || quantity > product.getStock()) {
+                        rejectedByTill++;
+                    } else {
+                        long saleId = store.recordSale(product.getId(), product.getName(), quantity,
+                                product.getPrice(), product.getCost());
+                        if (saleId > 0) {
+                            accepted++;
+                            soldQuantity[index] += quantity;
+                            soldCount[index]++;
+                        } else {
+                            rejectedByStore++;
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    errors++;
+                    if (firstError == null) {
+                        firstError = e;
+                    }
+                }
+                latency.recordNanos(System.nanoTime() - start);
+            }
+        }
+    }
+
+    //private constructor because this class only has static helpers
+    private PosStressHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean journal = args.length > 0 && args[args.length - 1].equals("--journal");
+        if (journal) {
+            args = Arrays.copyOf(args, args.length - 1);
+        }
+        if (args.length < 1) {
+            System.err.println("usage: PosStressHarness <database file> [tills] [seconds] [products] [stock] [--journal]");
+            System.exit(2);
+        }
+        File file = new File(args[0]);
+        int tills = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int productCount = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int initialStock = args.length > 4 ? Integer.parseInt(args[4]) : 5000;
+
+        //starting from an empty database every run, so the checks only see this run's sales
+        file.delete();
+        new File(file.getPath() + "-wal").delete();
+        new File(file.getPath() + "-shm").delete();
+        File journalFile = new File(file.getPath() + "-sales.journal");
+        journalFile.delete();
+
+        boolean passed;
+        try (JdbcInventoryStore store = JdbcInventoryStore.open(file)) {
+            if (journal) {
+                store.setSaleJournalFile(journalFile);
+            }
+            int[] productIds = new int[productCount];
+            for (int i = 0; i < productCount; i++) {
+                productIds[i] = (int) store.addProduct("Stress item " + i, 100 + i, initialStock, "Stress", 60 + i);
+            }
+
+            //starting every till at the same moment, then stopping them after the run time
+            AtomicBoolean stop = new AtomicBoolean();
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Till> workers = new ArrayList<>(tills);
+            List<Thread> threads = new ArrayList<>(tills);
+            for (int t = 0; t < tills; t++) {
+                Till till = new Till(store, productIds, 1000L + t, stop, startSignal);
+                Thread thread = new Thread(till, "till-" + t);
+                workers.add(till);
+                threads.add(thread);
+                thread.start();
+            }
+            long start = System.nanoTime();
+            startSignal.countDown();
+            Thread.sleep(seconds * 1000L);
+            stop.set(true);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            if (journal && !store.flushSaleJournal(60_000)) {
+                System.out.println("  the sale journal did not drain within 60 s");
+            }
+
+            passed = report(store, productIds, initialStock, workers, tills, elapsedSeconds);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    //printing the throughput and latency summary, then checking the invariants; returns true if they all hold
+    private static boolean report(JdbcInventoryStore store, int[] productIds, int initialStock, List<Till> workers,
+                                  int tills, double elapsedSeconds) {
+        long attempts = 0, accepted = 0, rejectedByTill = 0, rejectedByStore = 0, errors = 0;
+        long[] soldQuantity = new long[productIds.length];
+        long[] soldCount = new long[productIds.length];
+        LatencyHistogram latency = new LatencyHistogram();
+        Throwable firstError = null;
+        for (Till till : workers) {
+            attempts += till.attempts;
+            accepted += till.accepted;
+            rejectedByTill += till.rejectedByTill;
+            rejectedByStore += till.rejectedByStore;
+            errors += till.errors;
+            latency.add(till.latency);
+            for (int i = 0; i < productIds.length; i++) {
+                soldQuantity[i] += till.soldQuantity[i];
+                soldCount[i] += till.soldCount[i];
+            }
+            if (firstError == null) {
+                firstError = till.firstError;
+            }
+        }
+
+        System.out.println("POS stress run");
+        System.out.println(String.format(Locale.ROOT, "  tills %d, products %d, initial stock %d, %.1f s",
+                tills, productIds.length, initialStock, elapsedSeconds));
+        System.out.println(String.format(Locale.ROOT, "  attempts %d, sales %d (%.0f sales/s), rejected by till %d, rejected by store %d, errors %d",
+                attempts, accepted, accepted / elapsedSeconds, rejectedByTill, rejectedByStore, errors));
+        System.out.println(String.format(Locale.ROOT, "  latency per attempt (us): p50 %d, p95 %d, p99 %d, max %d",
+                latency.getPercentileMicros(50), latency.getPercentileMicros(95),
+                latency.getPercentileMicros(99), latency.getMaxMicros()));
+        if (firstError != null) {
+            System.out.println("  first error: " + firstError);
+        }
+        if (store.getJournalOversoldCount() > 0) {
+            System.out.println("  journaled sales that oversold their stock at drain: " + store.getJournalOversoldCount());
+        }
+        if (store.getJournalDrainFailureCount() > 0) {
+            System.out.println("  failed journal drains (retried): " + store.getJournalDrainFailureCount());
+        }
+
+        //reading what the database says happened to each product
+        StoreDatabase db = store.database();
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < productIds.length; i++) {
+            Object[] id = {productIds[i]};
+            long stock = db.queryLong("SELECT " + COL_STOCK + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?", id);
+            long salesQuantity = db.queryLong("SELECT IFNULL(SUM(" + COL_QUANTITY + "), 0) FROM " + TABLE_SALES
+                    + " WHERE " + COL_PRODUCT_ID + " = ?", id);
+            long salesRows = db.queryLong("SELECT COUNT(*) FROM " + TABLE_SALES + " WHERE " + COL_PRODUCT_ID + " = ?", id);
+            long ledgerStock = db.queryLong("SELECT IFNULL(SUM(" + COL_DELTA + "), 0) FROM " + TABLE_STOCK_MOVEMENTS
+                    + " WHERE " + COL_PRODUCT_ID + " = ?", id);
+
+            //final stock = initial stock - units sold, according to the sales table
+            if (stock != initialStock - salesQuantity) {
+                failures.add("product " + productIds[i] + ": stock " + stock + " but initial " + initialStock
+                        + " - sold " + salesQuantity + " = " + (initialStock - salesQuantity) + " (lost update)");
+            }
+            //no negative stock
+            if (stock < 0) {
+                failures.add("product " + productIds[i] + ": negative stock " + stock + " (oversold)");
+            }
+            //the stock movement ledger adds up to the stock
+            if (ledgerStock != stock) {
+                failures.add("product " + productIds[i] + ": stock " + stock + " but the ledger adds up to " + ledgerStock);
+            }
+            //the sales rows match the sales the tills were told succeeded
+            if (salesRows != soldCount[i] || salesQuantity != soldQuantity[i]) {
+                failures.add("product " + productIds[i] + ": " + salesRows + " sales rows for " + salesQuantity
+                        + " units, but the tills recorded " + soldCount[i] + " sales for " + soldQuantity[i] + " units");
+            }
+        }
+
+        //the branch rollups add up to the sales rows (the tills update the same day's rollup row all the time)
+        long rollupSales = db.queryLong("SELECT IFNULL(SUM(" + COL_SALE_COUNT + "), 0) FROM " + TABLE_BRANCH_ROLLUPS, null);
+        long rollupUnits = db.queryLong("SELECT IFNULL(SUM(" + COL_UNITS + "), 0) FROM " + TABLE_BRANCH_ROLLUPS, null);
+        long allSales = db.queryLong("SELECT COUNT(*) FROM " + TABLE_SALES, null);
+        long allUnits = db.queryLong("SELECT IFNULL(SUM(" + COL_QUANTITY + "), 0) FROM " + TABLE_SALES, null);
+        if (rollupSales != allSales || rollupUnits != allUnits) {
+            failures.add("branch rollups add up to " + rollupSales + " sales for " + rollupUnits + " units, but the sales table has "
+                    + allSales + " sales for " + allUnits + " units");
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("  invariants: PASS (stock = initial - sold, no negative stock, ledger = stock, sales rows match the tills,"
+                    + " rollups = sales)");
+            return errors == 0;
+        }
+        System.out.println("  invariants: FAIL");
+        for (String failure : failures) {
+            System.out.println("    " + failure);
+        }
+        return false;
+    }
+}
@@ -1,122 +1,223 @@
-package com.businesspro.inventorymanager;
-
-//importing necessary android and java classes used in this adapter (Medium.com, 2025)
-import android.content.Context;
-import android.view.LayoutInflater;
-import android.view.View;
-import android.view.ViewGroup;
-import android.widget.ImageButton;
-import android.widget.TextView;
-import androidx.annotation.NonNull;
-import androidx.recyclerview.widget.RecyclerView;
-import java.text.NumberFormat;
-import java.util.List;
-import java.util.Locale;
-
-//the ProductAdapter is a custom adapter for displaying product data inside a RecyclerView.
-//it connects (binds) the Product model data to the UI layout (item_product.xml) for each product item.
-public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductViewHolder> {
-
-    //creating a context object to access app resources and inflate layouts
-    private Context context;
-
-    //creating a list of Product objects that will be displayed in the RecyclerView
-    private List<Product> products;
-
-    //adding the interface reference to handle button clicks (edit and delete)
-    private OnProductClickListener listener;
-
-    //creating a NumberFormat object to format prices as South African currency (R)
-    private NumberFormat currencyFormat;
-
-    //the interface will  defines click event methods for edit and delete actions
-    public interface OnProductClickListener {
-        void onEditClick(Product product);    //this is called when edit button is clicked
-        void onDeleteClick(Product product);  //this is called when delete button is clicked
-    }
-
-    //creating a constructor to initialize the adapter with a context, list of products, and click listener
-    public ProductAdapter(Context context, List<Product> products, OnProductClickListener listener) {
-        this.context = context;          //Saving the context for later use (e.g., inflating layouts)
-        this.products = products;        //storing the list of products to display
-        this.listener = listener;        //assigning the listener that handles user clicks
-        this.currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "ZA")); // Formats prices in ZAR currency (e.g., R150.00)
-    }
-
-    //the ProductViewHolder is called by RecyclerView when it needs a new view to display an item.
-    @NonNull
-    @Override
-    public ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        //it inflates the xml layout for a single product row (item_product.xml)
-        View view = LayoutInflater.from(context).inflate(R.layout.item_product, parent, false);
-
-        //it returns a new ViewHolder instance that holds references to the layout's views
-        return new ProductViewHolder(view);
-    }
-
-    //calling the onBindViewHolder to bind data from a Product object to a ViewHolder (one item in the list)
-    @Override
-    public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
-        //getting the current product object based on its position in the list
-        Product product = products.get(position);
-
-        //setting the product name text
-        holder.tvName.setText(product.getName());
-
-        //formatting and displaying the product’s price as South African currency
-        holder.tvPrice.setText(currencyFormat.format(product.getPrice()));
-
-        //displaying the  current stock level
-        holder.tvStock.setText("Stock: " + product.getStock());
-
-        //displaying the product category (e.g., Electronics, Food, etc.)
-        holder.tvCategory.setText(product.getCategory());
-
-        //checking if the product has low stock (≤ 10)
-        if (product.isLowStock()) {
-            //changing the text color to a warning color (defined in colors.xml as R.color.low_stock)
-            holder.tvStock.setTextColor(context.getResources().getColor(R.color.low_stock));
-
-            //adding a warning emoji and label the stock as LOW
-            holder.tvStock.setText("⚠ Stock: " + product.getStock() + " (LOW)");
-        } else {
-            //if stock is normal, it will show a success (green) color
-            holder.tvStock.setTextColor(context.getResources().getColor(R.color.success));
-
-            //it will then display normal stock message
-            holder.tvStock.setText("Stock: " + product.getStock());
-        }
-
-        //when the user clicks the edit button, it will call the listener’s edit method
-        holder.btnEdit.setOnClickListener(v -> listener.onEditClick(product));
-
-        //when the user clicks the delete button, it will call the listener’s delete method
-        holder.btnDelete.setOnClickListener(v -> listener.onDeleteClick(product));
-    }
-
-    // getItemCount will return the total number of items (products) in the RecyclerView
-    @Override
-    public int getItemCount() {
-        return products.size();
-    }
-
-    //The ViewHolder class holds references to all views inside a single RecyclerView item.
-    //this improves performance by avoiding repeated findViewById() calls.
-    static class ProductViewHolder extends RecyclerView.ViewHolder {
-        //declaring all the TextViews and Buttons used in each row layout
-        TextView tvName, tvPrice, tvStock, tvCategory;
-        ImageButton btnEdit, btnDelete;
-
-        //creating a constructor taht  connects Java variables to the actual views from item_product.xml
-        ProductViewHolder(View itemView) {
-            super(itemView);
-            //assigning  UI components by their IDs defined in item_product.xml
-            tvName = itemView.findViewById(R.id.tv_product_name);
-            tvPrice = itemView.findViewById(R.id.tv_product_price);
-            tvStock = itemView.findViewById(R.id.tv_product_stock);
-            tvCategory = itemView.findViewById(R.id.tv_product_category);
-            btnEdit = itemView.findViewById(R.id.btn_edit);
-            btnDelete = itemView.findViewById(R.id.btn_delete);
-        }
-    }
-}
+package com.businesspro.inventorymanager;
+
+//importing necessary android and java classes used in this adapter (Medium.com, 2025)
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageButton;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+//the ProductAdapter is a custom adapter for displaying product data inside a RecyclerView.
+//it connects (binds) the Product model data to the UI layout (item_product.xml) for each product item.
+//rows use stable ids (the product ID), so when only a product's stock changes the row is rebound with
+//PAYLOAD_STOCK and just the stock TextView is updated instead of the whole row.
+public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductViewHolder> {
+
+    //creating a context object to access app resources and inflate layouts
+    private Context context;
+
+    //creating a list of Product objects that will be displayed in the RecyclerView
+    private List<Product> products;
+
+    //adding the interface reference to handle button clicks (edit and delete)
+    private OnProductClickListener listener;
+
+    //creating a NumberFormat object to format prices as South African currency (R)
+    private NumberFormat currencyFormat;
+
+    //the payload sent with notifyItemChanged when only the stock level of a product changed
+    public static final Object PAYLOAD_STOCK = new Object();
+
+    //the stock colours are resolved once here instead of looking them up on every bind
+    private final int lowStockColor;
+    private final int normalStockColor;
+
+    //the interface will  defines click event methods for edit and delete actions
+    public interface OnProductClickListener {
+        void onEditClick(Product product);    //this is called when edit button is clicked
+        void onDeleteClick(Product product);  //this is called when delete button is clicked
+    }
+
+    //creating a constructor to initialize the adapter with a context, list of products, and click listener
+    public ProductAdapter(Context context, List<Product> products, OnProductClickListener listener) {
+        this.context = context;          //Saving the context for later use (e.g., inflating layouts)
+        this.products = new ArrayList<>(products); //storing a copy of the list of products to display
+        this.listener = listener;        //assigning the listener that handles user clicks
+        this.currencyFormat = DisplayFormats.currency(); // Formats prices in ZAR currency (e.g., R150.00)
+
+        //resolving the colours from colors.xml once for the lifetime of the adapter
+        this.lowStockColor = ContextCompat.getColor(context, R.color.low_stock);
+        this.normalStockColor = ContextCompat.getColor(context, R.color.success);
+
+        //each product ID is unique, so RecyclerView can keep track of rows when the list is refreshed
+        setHasStableIds(true);
+    }
+
+    //the ProductViewHolder is called by RecyclerView when it needs a new view to display an item.
+    @NonNull
+    @Override
+    public ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        //it inflates the xml layout for a single product row (item_product.xml)
+        View view = LayoutInflater.from(context).inflate(R.layout.item_product, parent, false);
+        ProductViewHolder holder = new ProductViewHolder(view);
+
+        //attaching the click listeners once per view holder; they look up the product at click time,
+        //so binding a row never has to create new listener objects
+        holder.btnEdit.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                listener.onEditClick(products.get(position));
+            }
+        });
+        holder.btnDelete.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                listener.onDeleteClick(products.get(position));
+            }
+        });
+
+        //it returns a new ViewHolder instance that holds references to the layout's views
+        return holder;
+    }
+
+    //calling the onBindViewHolder to bind data from a Product object to a ViewHolder (one item in the list)
+    @Override
+    public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
+        //getting the current product object based on its position in the list
+        Product product = products.get(position);
+
+        //setting the product name text
+        holder.tvName.setText(product.getName());
+
+        //formatting and displaying the product’s price as South African currency
+        holder.tvPrice.setText(currencyFormat.format(product.getPrice()));
+
+        //displaying the product category (e.g., Electronics, Food, etc.)
+        holder.tvCategory.setText(product.getCategory());
+
+        //displaying the current stock level
+        bindStock(holder, product);
+    }
+
+    //calling the payload version of onBindViewHolder so a stock-only change rebinds just the stock TextView
+    @Override
+    public void onBindViewHolder(@NonNull ProductViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty() || !onlyStockChanged(payloads)) {
+            //no payload (or a different change) means the whole row needs binding
+            onBindViewHolder(holder, position);
+            return;
+        }
+        bindStock(holder, products.get(position));
+    }
+
+    //checking whether every payload queued for this row is a stock-only change
+    private boolean onlyStockChanged(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_STOCK) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //displaying the stock level and colour for a product
+    private void bindStock(ProductViewHolder holder, Product product) {
+        //checking if the product has low stock (≤ 10)
+        if (product.isLowStock()) {
+            //changing the text color to a warning color and label the stock as LOW
+            holder.tvStock.setTextColor(lowStockColor);
+            holder.tvStock.setText("⚠ Stock: " + product.getStock() + " (LOW)");
+        } else {
+            //if stock is normal, it will show a success (green) color and the normal stock message
+            holder.tvStock.setTextColor(normalStockColor);
+            holder.tvStock.setText("Stock: " + product.getStock());
+        }
+    }
+
+    //returning the product ID as the stable id for a row
+    @Override
+    public long getItemId(int position) {
+        return products.get(position).getId();
+    }
+
+    //returns the list currently shown by the adapter (read this on the main thread)
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    //replacing the list with a fresh one and dispatching only the rows that actually changed.
+    //the diff should come from diffProducts(getProducts(), newProducts), which is safe to run off the main thread
+    public void updateProducts(List<Product> newProducts, DiffUtil.DiffResult diff) {
+        products = new ArrayList<>(newProducts);
+        diff.dispatchUpdatesTo(this);
+    }
+
+    //calculating the differences between two product lists; stock-only changes are reported with PAYLOAD_STOCK
+    public static DiffUtil.DiffResult diffProducts(List<Product> oldProducts, List<Product> newProducts) {
+        return DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldProducts.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newProducts.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return oldProducts.get(oldPosition).getId() == newProducts.get(newPosition).getId();
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                Product oldProduct = oldProducts.get(oldPosition);
+                Product newProduct = newProducts.get(newPosition);
+                return oldProduct.getStock() == newProduct.getStock() && oldProduct.hasSameDetails(newProduct);
+            }
+
+            @Override
+            public Object getChangePayload(int oldPosition, int newPosition) {
+                //if only the stock differs, the row can be partially rebound
+                Product oldProduct = oldProducts.get(oldPosition);
+                Product newProduct = newProducts.get(newPosition);
+                return oldProduct.hasSameDetails(newProduct) ? PAYLOAD_STOCK : null;
+            }
+        });
+    }
+
+    // getItemCount will return the total number of items (products) in the RecyclerView
+    @Override
+    public int getItemCount() {
+        return products.size();
+    }
+
+    //The ViewHolder class holds references to all views inside a single RecyclerView item.
+    //this improves performance by avoiding repeated findViewById() calls.
+    static class ProductViewHolder extends RecyclerView.ViewHolder {
+        //declaring all the TextViews and Buttons used in each row layout
+        TextView tvName, tvPrice, tvStock, tvCategory;
+        ImageButton btnEdit, btnDelete;
+
+        //creating a constructor taht  connects Java variables to the actual views from item_product.xml
+        ProductViewHolder(View itemView) {
+            super(itemView);
+            //assigning  UI components by their IDs defined in item_product.xml
+            tvName = itemView.findViewById(R.id.tv_product_name);
+            tvPrice = itemView.findViewById(R.id.tv_product_price);
+            tvStock = itemView.findViewById(R.id.tv_product_stock);
+            tvCategory = itemView.findViewById(R.id.tv_product_category);
+            btnEdit = itemView.findViewById(R.id.btn_edit);
+            btnDelete = itemView.findViewById(R.id.btn_delete);
+        }
+    }
+}
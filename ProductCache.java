@@ -0,0 +1,54 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to hold the cached product list
+import java.util.Collections; //this wraps the cached list so nobody can modify it
+import java.util.List; //this is the list of cached products
+
+//the ProductCache class keeps the last product list loaded from the database in memory.
+//it is primed by the splash warm-up and dropped by DatabaseHelper after every write,
+//so screens that open right after start-up do not have to query the products table again.
+public final class ProductCache {
+
+    //the cached products (null when nothing is cached)
+    private static List<Product> products;
+
+    //increases on every invalidate(), so a load that raced with a write is not stored
+    private static long generation;
+
+    //private constructor because this class only has static helpers
+    private ProductCache() {
+    }
+
+    //returning the cached products, loading them from the database first if needed (call this off the main thread)
+    public static List<Product> getProducts(InventoryStore dbHelper) {
+        long loadGeneration;
+        synchronized (ProductCache.class) {
+            if (products != null) {
+                return products;
+            }
+            loadGeneration = generation;
+        }
+
+        //loading outside the lock so a slow query does not block invalidate()
+        List<Product> loaded = Collections.unmodifiableList(dbHelper.getAllProducts());
+
+        synchronized (ProductCache.class) {
+            //only keeping the result if no write happened while it was loading
+            if (generation == loadGeneration) {
+                products = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    //loading the products into the cache ahead of time (used by the splash warm-up)
+    public static void prime(InventoryStore dbHelper) {
+        getProducts(dbHelper);
+    }
+
+    //dropping the cached products after the products table changed
+    public static synchronized void invalidate() {
+        generation++;
+        products = null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to hold the code map
+import java.util.Map; //this maps each product code to its product ID
+
+//the ProductCodeIndex class keeps every product code (SKU or barcode) of the current branch in memory, mapped to
+//its product ID, so a scanned or typed code is resolved with one hash lookup instead of a query or a catalog scan.
+//only the codes and IDs are held (not the products), and the map is reloaded only after the catalog changed:
+//sales and stock changes leave it alone, so a till scanning item after item never reloads it.
+public final class ProductCodeIndex {
+
+    //the product ID of every code (null when nothing is loaded)
+    private static Map<String, Integer> codes;
+
+    //the store's catalog version the map was loaded at
+    private static long loadedVersion = -1;
+
+    //returned by findProductId() when no product has the code
+    public static final int NOT_FOUND = -1;
+
+    //private constructor because this class only has static helpers
+    private ProductCodeIndex() {
+    }
+
+    //returning the ID of the product with the given code, or NOT_FOUND
+    //(call this off the main thread: the first lookup after a catalog change reloads the map)
+    public static int findProductId(SqlInventoryStore store, String code) {
+        String key = SqlInventoryStore.normalizeCode(code);
+        if (key == null) {
+            return NOT_FOUND;
+        }
+        Integer id = getCodes(store).get(key);
+        return id == null ? NOT_FOUND : id;
+    }
+
+    //returning the code map, loading it first if the catalog changed since it was loaded
+    private static Map<String, Integer> getCodes(SqlInventoryStore store) {
+        long version = store.getCatalogVersion();
+        synchronized (ProductCodeIndex.class) {
+            if (codes != null && loadedVersion == version) {
+                return codes;
+            }
+        }
+
+        //loading outside the lock so a slow query does not hold up other lookups
+        Map<String, Integer> loaded = store.getProductCodes();
+
+        synchronized (ProductCodeIndex.class) {
+            //only keeping the result if the catalog did not change while it was loading
+            if (store.getCatalogVersion() == version) {
+                codes = loaded;
+                loadedVersion = version;
+            }
+        }
+        return loaded;
+    }
+
+    //loading the code map ahead of time (used by the splash warm-up)
+    public static void prime(SqlInventoryStore store) {
+        getCodes(store);
+    }
+}
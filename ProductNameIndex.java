@@ -0,0 +1,320 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to build and search the index
+import java.text.Normalizer; //this separates accents from letters, so "café" is found by typing "cafe"
+import java.util.ArrayList; //this holds the matching products
+import java.util.Arrays; //this copies the index arrays when products change
+import java.util.HashMap; //this maps product IDs to their slots
+import java.util.List; //this is the interface of the results
+import java.util.Map; //this is the interface of the slot map
+
+//the ProductNameIndex class finds products by the start of any word of their name, for the typeahead on the
+//sale screen. every word start of every normalized name (lower case, no accents, punctuation as spaces) is one
+//entry in a sorted array, so a search is a binary search for the typed prefix followed by a short scan;
+//on 50,000 products that is a few microseconds per keystroke, with no query and no walk over the catalog.
+//
+//an entry is a long (the product's slot << 16 | the word's offset in the normalized name) rather than a string,
+//so the index costs eight bytes per word on top of the names themselves. the index is immutable: when products
+//change, a new one is made from the old one by dropping the changed products' entries and merging in their new
+//ones (see update()), so only the changed products are read and sorted, never the whole catalog.
+public final class ProductNameIndex {
+
+    //the index of the store's current catalog version (null until first needed)
+    private static ProductNameIndex current;
+
+    //the store's catalog version the current index was brought up to
+    private static long loadedVersion = -1;
+
+    //the most matches a search returns
+    public static final int MAX_MATCHES = 50;
+
+    //names longer than this are only indexed by the words starting within it
+    private static final int MAX_OFFSET = 0xFFFF;
+
+    //products by slot (null for the slot of a product that was removed), and their normalized names
+    private final Product[] products;
+    private final String[] names;
+
+    //the slot of every product in the index
+    private final Map<Integer, Integer> slots;
+
+    //the word starts, sorted by the text from the word to the end of the name
+    private final long[] entries;
+
+    //creating an index from its parts (see build() and update())
+    private ProductNameIndex(Product[] products, String[] names, Map<Integer, Integer> slots, long[] entries) {
+        this.products = products;
+        this.names = names;
+        this.slots = slots;
+        this.entries = entries;
+    }
+
+    //returning the products of the current branch with a word starting with the query, at most 'limit' of them,
+    //in the order of the matched text. the products are as they were when last indexed: their names and prices
+    //are current, but read the product again before using its stock (call this off the main thread, because the
+    //first search after a catalog change brings the index up to date)
+    public static List<Product> search(SqlInventoryStore store, String query, int limit) {
+        return get(store).find(query, limit);
+    }
+
+    //loading the index ahead of time (used by the sale screen when it opens)
+    public static void prime(SqlInventoryStore store) {
+        get(store);
+    }
+
+    //returning the index of the store's current catalog, building it or catching it up first if needed
+    private static ProductNameIndex get(SqlInventoryStore store) {
+        long version = store.getCatalogVersion();
+        ProductNameIndex base;
+        long baseVersion;
+        synchronized (ProductNameIndex.class) {
+            if (current != null && loadedVersion == version) {
+                return current;
+            }
+            base = current;
+            baseVersion = loadedVersion;
+        }
+
+        //working outside the lock so a rebuild does not hold up searches of the previous index.
+        //products are read after 'version' was taken, so the index may already include later changes;
+        //catching up reads those products again, which changes nothing
+        int[] changed = base == null ? null : store.getProductsChangedSince(baseVersion);
+        ProductNameIndex index = changed == null ? build(store.getAllProducts()) : base.update(store, changed);
+
+        synchronized (ProductNameIndex.class) {
+            //an index from an older version than the stored one is still returned, but not kept
+            if (version > loadedVersion) {
+                current = index;
+                loadedVersion = version;
+            }
+        }
+        return index;
+    }
+
+    //building the index of the given products
+    static ProductNameIndex build(List<Product> catalog) {
+        int count = catalog.size();
+        Product[] products = catalog.toArray(new Product[count]);
+        String[] names = new String[count];
+        Map<Integer, Integer> slots = new HashMap<>(count * 2);
+        long[] entries = new long[Math.max(16, count * 4)];
+        int size = 0;
+        for (int slot = 0; slot < count; slot++) {
+            names[slot] = normalize(products[slot].getName());
+            slots.put(products[slot].getId(), slot);
+            entries = ensureRoom(entries, size, names[slot]);
+            size = addEntries(names[slot], slot, entries, size);
+        }
+        entries = Arrays.copyOf(entries, size);
+        sort(entries, names);
+        return new ProductNameIndex(products, names, slots, entries);
+    }
+
+    //making a new index with the given products read again from the store: a deleted product, or one that moved
+    //to another branch, is dropped; every other one takes its old slot (or a new one) and its new name's entries
+    ProductNameIndex update(SqlInventoryStore store, int[] changedIds) {
+        int branch = store.getCurrentBranchId();
+        Product[] newProducts = Arrays.copyOf(products, products.length + changedIds.length);
+        String[] newNames = Arrays.copyOf(names, newProducts.length);
+        Map<Integer, Integer> newSlots = new HashMap<>(slots);
+        int nextSlot = products.length;
+
+        //re-reading every changed product once, and noting the slots whose entries are replaced
+        boolean[] touched = new boolean[newProducts.length];
+        long[] added = new long[16];
+        int addedSize = 0;
+        for (int id : changedIds) {
+            Integer oldSlot = newSlots.get(id);
+            if (oldSlot != null && touched[oldSlot]) {
+                continue; //changed more than once
+            }
+            Product product = store.getProduct(id);
+            if (product != null && product.getBranchId() != branch) {
+                product = null;
+            }
+            if (product == null && oldSlot == null) {
+                continue; //not in this index before or after
+            }
+            int slot = oldSlot != null ? oldSlot : nextSlot++;
+            touched[slot] = true;
+            newProducts[slot] = product;
+            newNames[slot] = product == null ? null : normalize(product.getName());
+            if (product == null) {
+                newSlots.remove(id);
+            } else {
+                newSlots.put(id, slot);
+                added = ensureRoom(added, addedSize, newNames[slot]);
+                addedSize = addEntries(newNames[slot], slot, added, addedSize);
+            }
+        }
+        added = Arrays.copyOf(added, addedSize);
+        sort(added, newNames);
+
+        //merging the kept entries (still in order, because their names did not change) with the new ones
+        long[] merged = new long[entries.length + addedSize];
+        int size = 0;
+        int a = 0;
+        for (long entry : entries) {
+            if (touched[slotOf(entry)]) {
+                continue;
+            }
+            while (a < addedSize && compare(added[a], entry, newNames) < 0) {
+                merged[size++] = added[a++];
+            }
+            merged[size++] = entry;
+        }
+        while (a < addedSize) {
+            merged[size++] = added[a++];
+        }
+        return new ProductNameIndex(Arrays.copyOf(newProducts, nextSlot), Arrays.copyOf(newNames, nextSlot), newSlots,
+                Arrays.copyOf(merged, size));
+    }
+
+    //returning the products with a word starting with the query (see search())
+    List<Product> find(String query, int limit) {
+        String prefix = normalize(query);
+        List<Product> matches = new ArrayList<>();
+        if (prefix.isEmpty()) {
+            return matches;
+        }
+        limit = Math.min(limit, MAX_MATCHES);
+
+        //finding the first entry whose text is not before the prefix
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(entries[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        //every entry from there that starts with the prefix is a match (a product matched by two of its words
+        //is only returned once)
+        for (int i = low; i < entries.length && matches.size() < limit; i++) {
+            long entry = entries[i];
+            if (comparePrefix(entry, prefix) != 0) {
+                break;
+            }
+            Product product = products[slotOf(entry)];
+            if (!matches.contains(product)) {
+                matches.add(product);
+            }
+        }
+        return matches;
+    }
+
+    //returning the number of products in the index
+    public int size() {
+        return slots.size();
+    }
+
+    //turning a name or a query into its indexed form: lower case, accents removed, and every run of
+    //characters that are not letters or digits turned into one space (none at the start or end)
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    //returning the entries array, or a larger copy of it, with room after 'size' for every word of the name
+    private static long[] ensureRoom(long[] entries, int size, String name) {
+        int words = 1;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) == ' ') {
+                words++;
+            }
+        }
+        return size + words <= entries.length ? entries : Arrays.copyOf(entries, Math.max(entries.length * 2, size + words));
+    }
+
+    //adding an entry for every word start of a normalized name, returning the new size
+    private static int addEntries(String name, int slot, long[] entries, int size) {
+        for (int offset = 0; offset < name.length() && offset <= MAX_OFFSET; offset++) {
+            if (offset == 0 || name.charAt(offset - 1) == ' ') {
+                entries[size++] = (long) slot << 16 | offset;
+            }
+        }
+        return size;
+    }
+
+    private static int slotOf(long entry) {
+        return (int) (entry >>> 16);
+    }
+
+    private static int offsetOf(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    //comparing the text of an entry with a prefix: 0 if the text starts with it
+    private int comparePrefix(long entry, String prefix) {
+        String name = names[slotOf(entry)];
+        int offset = offsetOf(entry);
+        int length = Math.min(name.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int difference = name.charAt(offset + i) - prefix.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return name.length() - offset < prefix.length() ? -1 : 0;
+    }
+
+    //comparing the texts of two entries (by slot when the texts are equal, so the order is always the same)
+    private static int compare(long a, long b, String[] names) {
+        String nameA = names[slotOf(a)];
+        String nameB = names[slotOf(b)];
+        int i = offsetOf(a);
+        int j = offsetOf(b);
+        while (i < nameA.length() && j < nameB.length()) {
+            int difference = nameA.charAt(i++) - nameB.charAt(j++);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        int difference = (nameA.length() - i) - (nameB.length() - j);
+        return difference != 0 ? difference : Integer.compare(slotOf(a), slotOf(b));
+    }
+
+    //sorting entries by their text (a merge sort, because the entries are primitives compared through the names)
+    private static void sort(long[] entries, String[] names) {
+        long[] buffer = new long[entries.length];
+        for (int width = 1; width < entries.length; width *= 2) {
+            for (int start = 0; start < entries.length; start += 2 * width) {
+                int middle = Math.min(start + width, entries.length);
+                int end = Math.min(start + 2 * width, entries.length);
+                int i = start;
+                int j = middle;
+                int k = start;
+                while (i < middle && j < end) {
+                    buffer[k++] = compare(entries[j], entries[i], names) < 0 ? entries[j++] : entries[i++];
+                }
+                while (i < middle) {
+                    buffer[k++] = entries[i++];
+                }
+                while (j < end) {
+                    buffer[k++] = entries[j++];
+                }
+            }
+            System.arraycopy(buffer, 0, entries, 0, entries.length);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.businesspro.inventorymanager;
+
+//the ProductPatch class describes an edit to a product as only the fields that changed,
+//plus an optional stock delta. it is applied by InventoryStore.patchProduct():
+//  - the changed detail fields are written only if the product is still at the version the edit started from
+//  - the stock is moved by the delta rather than overwritten, so sales recorded during the edit are kept
+public final class ProductPatch {
+
+    //the changed detail fields (null when the field is unchanged)
+    private String name;
+    private Double price;
+    private String category;
+    private Double cost;
+
+    //the change to the stock level and why it was made (0 and null when the stock is unchanged)
+    private int stockDelta;
+    private String stockReason;
+
+    //building the patch that turns the product as it was loaded into the values now in the form
+    public static ProductPatch between(Product original, String name, double price, int stock, String category, double cost) {
+        ProductPatch patch = new ProductPatch();
+        if (!original.getName().equals(name)) {
+            patch.name = name;
+        }
+        if (Double.compare(original.getPrice(), price) != 0) {
+            patch.price = price;
+        }
+        if (!original.getCategory().equals(category)) {
+            patch.category = category;
+        }
+        if (Double.compare(original.getCost(), cost) != 0) {
+            patch.cost = cost;
+        }
+        if (stock != original.getStock()) {
+            patch.stockDelta = stock - original.getStock();
+            patch.stockReason = StockReason.CORRECTION;
+        }
+        return patch;
+    }
+
+    //setting a new name
+    public ProductPatch setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    //setting a new selling price
+    public ProductPatch setPrice(double price) {
+        this.price = price;
+        return this;
+    }
+
+    //setting a new category
+    public ProductPatch setCategory(String category) {
+        this.category = category;
+        return this;
+    }
+
+    //setting a new cost price
+    public ProductPatch setCost(double cost) {
+        this.cost = cost;
+        return this;
+    }
+
+    //moving the stock by delta units (negative to remove stock) for the given StockReason
+    public ProductPatch setStockDelta(int delta, String reason) {
+        this.stockDelta = delta;
+        this.stockReason = reason;
+        return this;
+    }
+
+    //returns true if any detail field changed (these are the fields guarded by the version)
+    public boolean hasFieldChanges() {
+        return name != null || price != null || category != null || cost != null;
+    }
+
+    //returns true if the patch changes nothing
+    public boolean isEmpty() {
+        return !hasFieldChanges() && stockDelta == 0;
+    }
+
+    //returns the new name, or null if unchanged
+    public String getName() { return name; }
+
+    //returns the new selling price, or null if unchanged
+    public Double getPrice() { return price; }
+
+    //returns the new category, or null if unchanged
+    public String getCategory() { return category; }
+
+    //returns the new cost price, or null if unchanged
+    public Double getCost() { return cost; }
+
+    //returns the change to the stock level
+    public int getStockDelta() { return stockDelta; }
+
+    //returns the reason for the stock change
+    public String getStockReason() { return stockReason; }
+}
@@ -0,0 +1,103 @@
+package com.businesspro.inventorymanager;
+
+//importing necessary android and java classes used in this adapter
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+import android.widget.TextView;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+//the ProductSuggestionAdapter shows the typeahead suggestions under the sale screen's product search field.
+//Android runs its filter on a background thread after every keystroke; the filter asks ProductNameIndex for the
+//products with a word starting with the typed text, instead of going through a list of every product name
+//the way an ArrayAdapter's filter would.
+public class ProductSuggestionAdapter extends BaseAdapter implements Filterable {
+
+    //how many suggestions are shown at most
+    private static final int MAX_SUGGESTIONS = 20;
+
+    //creating the inflater for the suggestion rows and the store the index is built from
+    private final LayoutInflater inflater;
+    private final SqlInventoryStore store;
+
+    //formatting the price shown next to each name
+    private final NumberFormat currencyFormat = DisplayFormats.currency();
+
+    //the suggestions currently shown (only replaced on the main thread)
+    private List<Product> suggestions = new ArrayList<>();
+
+    //the filter that looks the typed text up in the name index
+    private final Filter filter = new Filter() {
+        //running on the filter's background thread
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            List<Product> matches = constraint == null ? new ArrayList<Product>()
+                    : ProductNameIndex.search(store, constraint.toString(), MAX_SUGGESTIONS);
+            FilterResults results = new FilterResults();
+            results.values = matches;
+            results.count = matches.size();
+            return results;
+        }
+
+        //running on the main thread with the matches
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            suggestions = results != null && results.values != null ? (List<Product>) results.values : new ArrayList<Product>();
+            if (suggestions.isEmpty()) {
+                notifyDataSetInvalidated();
+            } else {
+                notifyDataSetChanged();
+            }
+        }
+
+        //putting the product's name in the search field when its suggestion is picked
+        @Override
+        public CharSequence convertResultToString(Object result) {
+            return ((Product) result).getName();
+        }
+    };
+
+    //creating the adapter for the given screen and store
+    public ProductSuggestionAdapter(Context context, SqlInventoryStore store) {
+        this.inflater = LayoutInflater.from(context);
+        this.store = store;
+    }
+
+    @Override
+    public int getCount() {
+        return suggestions.size();
+    }
+
+    @Override
+    public Product getItem(int position) {
+        return suggestions.get(position);
+    }
+
+    //the product ID, passed to the search field's item click listener
+    @Override
+    public long getItemId(int position) {
+        return suggestions.get(position).getId();
+    }
+
+    //showing the product's name and price (not its stock, which the index does not keep up to date)
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        TextView row = (TextView) (convertView != null ? convertView
+                : inflater.inflate(android.R.layout.simple_dropdown_item_1line, parent, false));
+        Product product = suggestions.get(position);
+        row.setText(product.getName() + "  " + currencyFormat.format(product.getPrice()));
+        return row;
+    }
+
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+}
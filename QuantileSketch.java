@@ -0,0 +1,171 @@
+package com.businesspro.inventorymanager;
+
+//importing the array helper used to grow the bucket counts
+import java.util.Arrays;
+
+//the QuantileSketch class estimates percentiles (median, p95, ...) of a stream of values without keeping the values.
+//it is a DDSketch: a positive value x is counted in bucket i = ceil(log(x) / log(GAMMA)), and every value of a bucket
+//is reported as the same representative value, which is never more than RELATIVE_ACCURACY (1%) away from any of them.
+//so adding a value is one logarithm and one counter, two sketches are merged by adding their bucket counts (the
+//merged sketch is exactly the one the combined values would give), and the size depends only on the range of the
+//values: sale totals from R1 to R100,000 fit in under 600 buckets, and one product's day usually needs a handful.
+//
+//the buckets are a dense array from the lowest used index to the highest, stored as text by encode() with a run
+//of empty buckets written as its length after a '-', e.g. "0;1.0;3.0;0:5,-54,1" for five 1s and a 3 (see decode())
+public final class QuantileSketch {
+
+    //the largest relative error of a reported percentile
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    //the ratio between the bounds of neighbouring buckets
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    //values below this (including zero and negative values, e.g. a free item) are counted as 0
+    private static final double MIN_COUNTED_VALUE = 1e-6;
+
+    private static final long[] NO_BUCKETS = new long[0];
+
+    //the bucket index of counts[0], and the counts of the buckets from there up
+    private int offset;
+    private long[] counts = NO_BUCKETS;
+
+    //the values counted as 0, the number of values and the smallest and largest value added
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    //adding one value
+    public void add(double value) {
+        if (value < MIN_COUNTED_VALUE) {
+            zeroCount++;
+        } else {
+            int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+            ensureBucket(index);
+            counts[index - offset]++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    //adding every value counted by another sketch
+    public void merge(QuantileSketch other) {
+        if (other.counts.length > 0) {
+            ensureBucket(other.offset);
+            ensureBucket(other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    //returns the number of values added
+    public long getCount() {
+        return count;
+    }
+
+    //returning the value below which the given fraction of the values fall (0.5 for the median, 0.95 for p95),
+    //within RELATIVE_ACCURACY, or NaN when no values were added
+    public double quantile(double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (Math.max(0, Math.min(1, fraction)) * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return Math.max(min, 0);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                //the middle of the bucket in relative terms, kept inside the range of the values actually added
+                double value = 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    //making room for the given bucket index in the counts array
+    private void ensureBucket(int index) {
+        if (counts.length == 0) {
+            offset = index;
+            counts = new long[1];
+        } else if (index < offset) {
+            long[] grown = new long[counts.length + offset - index];
+            System.arraycopy(counts, 0, grown, offset - index, counts.length);
+            counts = grown;
+            offset = index;
+        } else if (index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, index - offset + 1);
+        }
+    }
+
+    //turning the sketch into its stored text: "zero count;min;max;offset:count,count,..." (the bucket part is
+    //empty when every value was counted as 0, and "-n" stands for n empty buckets in a row)
+    public String encode() {
+        StringBuilder text = new StringBuilder(32);
+        text.append(zeroCount).append(';').append(count == 0 ? 0 : min).append(';').append(count == 0 ? 0 : max).append(';');
+        if (counts.length > 0) {
+            text.append(offset).append(':');
+            int i = 0;
+            while (i < counts.length) {
+                if (i > 0) {
+                    text.append(',');
+                }
+                if (counts[i] != 0) {
+                    text.append(counts[i++]);
+                } else {
+                    int empty = 0;
+                    while (counts[i] == 0) { //the last bucket is never empty
+                        empty++;
+                        i++;
+                    }
+                    text.append('-').append(empty);
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    //reading a sketch back from the text made by encode() (an empty sketch for null)
+    public static QuantileSketch decode(String text) {
+        QuantileSketch sketch = new QuantileSketch();
+        if (text == null) {
+            return sketch;
+        }
+        String[] parts = text.split(";", -1);
+        sketch.zeroCount = Long.parseLong(parts[0]);
+        sketch.count = sketch.zeroCount;
+        if (parts.length > 3 && !parts[3].isEmpty()) {
+            int colon = parts[3].indexOf(':');
+            sketch.offset = Integer.parseInt(parts[3].substring(0, colon));
+            String[] entries = parts[3].substring(colon + 1).split(",");
+            int buckets = 0;
+            for (String entry : entries) {
+                buckets += entry.charAt(0) == '-' ? Integer.parseInt(entry.substring(1)) : 1;
+            }
+            sketch.counts = new long[buckets];
+            int i = 0;
+            for (String entry : entries) {
+                if (entry.charAt(0) == '-') {
+                    i += Integer.parseInt(entry.substring(1));
+                } else {
+                    sketch.counts[i] = Long.parseLong(entry);
+                    sketch.count += sketch.counts[i++];
+                }
+            }
+        }
+        if (sketch.count > 0) {
+            sketch.min = Double.parseDouble(parts[1]);
+            sketch.max = Double.parseDouble(parts[2]);
+        }
+        return sketch;
+    }
+}
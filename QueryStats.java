@@ -0,0 +1,180 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to collect and export the query statistics
+import java.io.IOException; //this handles errors while writing the export
+import java.io.Writer; //this is where the csv export is written to
+import java.text.SimpleDateFormat; //this formats the time a slow query happened
+import java.util.ArrayDeque; //this keeps the most recent slow queries
+import java.util.ArrayList; //this is used to return copies of the collected data
+import java.util.Date; //this represents the time a slow query happened
+import java.util.List; //this is the interface for the returned lists
+import java.util.Locale; //this keeps number formatting the same on every device
+import java.util.Map; //this maps operation names to their statistics
+import java.util.TreeMap; //this keeps the exported operations sorted by name
+import java.util.concurrent.ConcurrentHashMap; //this lets several threads record at the same time
+
+//the QueryStats class collects timing for every database operation.
+//each operation (e.g., "getAllSales") gets a LatencyHistogram plus row counts, and any call slower than the
+//configurable threshold is kept in a small slow-query log together with its SQL and EXPLAIN QUERY PLAN output.
+//the statistics can be exported as a csv file next to the sales reports.
+public final class QueryStats {
+
+    //the number of slow queries kept before the oldest ones are dropped
+    private static final int SLOW_LOG_CAPACITY = 50;
+
+    //calls taking longer than this (in milliseconds) are added to the slow-query log
+    private static volatile long slowThresholdMillis = 100;
+
+    //the statistics for each operation name
+    private static final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    //the most recent slow queries, oldest first
+    private static final ArrayDeque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    //the statistics collected for one database operation
+    public static final class OperationStats {
+        public final String operation;
+        public final LatencyHistogram latency = new LatencyHistogram();
+        private long totalRows;
+        private long maxRows;
+
+        OperationStats(String operation) {
+            this.operation = operation;
+        }
+
+        synchronized void addRows(long rows) {
+            totalRows += rows;
+            maxRows = Math.max(maxRows, rows);
+        }
+
+        //returns the total number of rows returned or changed by this operation
+        public synchronized long getTotalRows() {
+            return totalRows;
+        }
+
+        //returns the largest number of rows a single call returned or changed
+        public synchronized long getMaxRows() {
+            return maxRows;
+        }
+    }
+
+    //one entry in the slow-query log
+    public static final class SlowQuery {
+        public final long timestamp;
+        public final String operation;
+        public final String sql;
+        public final double durationMillis;
+        public final long rows;
+        public final String queryPlan;
+
+        SlowQuery(long timestamp, String operation, String sql, double durationMillis, long rows, String queryPlan) {
+            this.timestamp = timestamp;
+            this.operation = operation;
+            this.sql = sql;
+            this.durationMillis = durationMillis;
+            this.rows = rows;
+            this.queryPlan = queryPlan;
+        }
+    }
+
+    //private constructor because this class only has static helpers
+    private QueryStats() {
+    }
+
+    //setting how slow (in milliseconds) a call must be to be added to the slow-query log
+    public static void setSlowThresholdMillis(long millis) {
+        slowThresholdMillis = millis;
+    }
+
+    //returns the current slow-query threshold in milliseconds
+    public static long getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    //recording one call; returns true if it was slower than the threshold, so the caller can log its query plan
+    public static boolean record(String operation, long elapsedNanos, long rows) {
+        OperationStats stats = operations.get(operation);
+        if (stats == null) {
+            OperationStats created = new OperationStats(operation);
+            stats = operations.putIfAbsent(operation, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        stats.latency.recordNanos(elapsedNanos);
+        stats.addRows(rows);
+        return elapsedNanos >= slowThresholdMillis * 1_000_000L;
+    }
+
+    //adding a call to the slow-query log
+    public static void logSlowQuery(String operation, String sql, long elapsedNanos, long rows, String queryPlan) {
+        SlowQuery entry = new SlowQuery(System.currentTimeMillis(), operation, sql,
+                elapsedNanos / 1_000_000.0, rows, queryPlan);
+        synchronized (slowQueries) {
+            if (slowQueries.size() == SLOW_LOG_CAPACITY) {
+                slowQueries.removeFirst();
+            }
+            slowQueries.addLast(entry);
+        }
+    }
+
+    //returning the statistics for every operation, sorted by name
+    public static List<OperationStats> getOperationStats() {
+        return new ArrayList<>(new TreeMap<>(operations).values());
+    }
+
+    //returning a copy of the slow-query log, oldest first
+    public static List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    //clearing every collected statistic
+    public static void reset() {
+        operations.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    //writing the per-operation statistics and the slow-query log as csv
+    public static void writeCsv(Writer writer) throws IOException {
+        writer.append("Operation,Count,Mean ms,P50 ms,P95 ms,P99 ms,Max ms,Total Rows,Max Rows\n");
+        for (OperationStats stats : getOperationStats()) {
+            LatencyHistogram h = stats.latency;
+            writer.append(stats.operation).append(",");
+            writer.append(String.valueOf(h.getCount())).append(",");
+            writer.append(millis(h.getMeanMicros())).append(",");
+            writer.append(millis(h.getPercentileMicros(50))).append(",");
+            writer.append(millis(h.getPercentileMicros(95))).append(",");
+            writer.append(millis(h.getPercentileMicros(99))).append(",");
+            writer.append(millis(h.getMaxMicros())).append(",");
+            writer.append(String.valueOf(stats.getTotalRows())).append(",");
+            writer.append(String.valueOf(stats.getMaxRows())).append("\n");
+        }
+
+        writer.append("\nSlow queries (over ").append(String.valueOf(slowThresholdMillis)).append(" ms)\n");
+        writer.append("Time,Operation,Duration ms,Rows,SQL,Query Plan\n");
+        SimpleDateFormat timeFormat = new SimpleDateFormat(DisplayFormats.STORED_DATE_PATTERN, Locale.getDefault());
+        for (SlowQuery query : getSlowQueries()) {
+            writer.append(timeFormat.format(new Date(query.timestamp))).append(",");
+            writer.append(query.operation).append(",");
+            writer.append(String.format(Locale.US, "%.2f", query.durationMillis)).append(",");
+            writer.append(String.valueOf(query.rows)).append(",");
+            writer.append(quote(query.sql)).append(",");
+            writer.append(quote(query.queryPlan)).append("\n");
+        }
+        writer.flush();
+    }
+
+    //formatting a microsecond value as milliseconds for the export
+    private static String millis(double micros) {
+        return String.format(Locale.US, "%.3f", micros / 1000.0);
+    }
+
+    //quoting a text value for csv, doubling any quotes inside it
+    private static String quote(String value) {
+        return "\"" + (value == null ? "" : value.replace("\"", "\"\"")) + "\"";
+    }
+}
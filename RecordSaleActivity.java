@@ -1,161 +1,355 @@
-package com.businesspro.inventorymanager;
-
-//importing necessary android and java libraries used in this class
-import android.os.Bundle;
-import android.widget.ArrayAdapter;
-import android.widget.Button;
-import android.widget.EditText;
-import android.widget.Spinner;
-import android.widget.Toast;
-import androidx.appcompat.app.AppCompatActivity;
-import java.util.ArrayList;
-import java.util.List;
-
-//this activity handles recording a sale transaction for a selected product.
-//it allows the user to select a product, enter a quantity sold, and updates the database accordingly.
-public class RecordSaleActivity extends AppCompatActivity {
-
-    //declaring the UI components
-    private Spinner spProduct; //this is for the dropdown spinner for selecting a product
-    private EditText etQuantity; //this will be the input field for quantity sold
-
-    //declaring helper and data variables
-    private DatabaseHelper dbHelper; //this will be used for interacting with the database
-    private List<Product> products;  //this stores all products loaded from the database
-
-    //calling the onCreate() method is the entry point when the activity is started
-    @Override
-    protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState); //calling the parent class method
-        setContentView(R.layout.activity_record_sale); //loading the XML layout file for this screen
-
-        //setting up the action bar with a title and a back button
-        getSupportActionBar().setTitle("Record Sale");
-        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
-
-        //initialising the database helper to perform database operations
-        dbHelper = new DatabaseHelper(this);
-
-        //linking the java variables to xml UI elements using their IDs (sp_product)
-        spProduct = findViewById(R.id.sp_product);
-        etQuantity = findViewById(R.id.et_quantity);
-
-        //loading all products from the database into the spinner
-        loadProducts();
-
-        //setting up the button and define what happens when clicked
-        Button btnRecord = findViewById(R.id.btn_record_sale);
-        btnRecord.setOnClickListener(v -> recordSale()); //when clicked, it will record the sale
-    }
-
-    //loading all products from the database and displays them in the spinner dropdown
-    private void loadProducts() {
-        products = dbHelper.getAllProducts(); //fetching all products from the database
-
-        //creating a list of product names (with stock info) to display in the dropdown
-        List<String> productNames = new ArrayList<>();
-        for (Product p : products) {
-            productNames.add(p.getName() + " (Stock: " + p.getStock() + ")");
-        }
-
-        //creating  an ArrayAdapter to connect the product list to the spinner UI
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                this, //context (this activity)
-                android.R.layout.simple_spinner_item, //using a built-in simple layout for spinner items
-                productNames //the data to show
-        );
-
-        //setting the layout for the dropdown view when the spinner is opened
-        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-
-        //attaching the adapter to the spinner
-        spProduct.setAdapter(adapter);
-    }
-
-    //handling recording a sale and updating the database accordingly
-    private void recordSale() {
-        //checking if there are any products available in the system
-        if (products.isEmpty()) {
-            Toast.makeText(this, "No products available", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        //getting the entered quantity value as text and remove spaces
-        String quantityStr = etQuantity.getText().toString().trim();
-
-        // If the quantity field is empty, it will show an error message
-        if (quantityStr.isEmpty()) {
-            Toast.makeText(this, "Please enter quantity", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        try {
-            //changing the entered text into an integer quantity
-            int quantity = Integer.parseInt(quantityStr);
-
-            //getting the product that the user selected from the spinner
-            Product selectedProduct = products.get(spProduct.getSelectedItemPosition());
-
-            //ensuring the quantity is a positive number
-            if (quantity <= 0) {
-                Toast.makeText(this, "Quantity must be greater than 0", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            //checking that the requested sale quantity does not exceed available stock
-            if (quantity > selectedProduct.getStock()) {
-                Toast.makeText(
-                        this,
-                        "Insufficient stock! Available: " + selectedProduct.getStock(),
-                        Toast.LENGTH_LONG
-                ).show();
-                return;
-            }
-
-            //recording the sale in the database
-            //parameters will be : product ID, name, quantity, price, and cost
-            long result = dbHelper.recordSale(
-                    selectedProduct.getId(),
-                    selectedProduct.getName(),
-                    quantity,
-                    selectedProduct.getPrice(),
-                    selectedProduct.getCost()
-            );
-
-            //if the database insert was successful (result > 0)
-            if (result > 0) {
-                Toast.makeText(this, "Sale recorded successfully", Toast.LENGTH_SHORT).show();
-
-                //retrieving the updated product to check its new stock level
-                Product updatedProduct = dbHelper.getProduct(selectedProduct.getId());
-
-                //if the stock is low after the sale, it will  alert the user
-                if (updatedProduct.isLowStock()) {
-                    Toast.makeText(
-                            this,
-                            "WARNING: Low stock alert for " + updatedProduct.getName() +
-                                    "! Only " + updatedProduct.getStock() + " remaining.",
-                            Toast.LENGTH_LONG
-                    ).show();
-                }
-
-                //closing the activity and returning to the previous screen
-                finish();
-            } else {
-                //showing a message if database insertion failed
-                Toast.makeText(this, "Failed to record sale", Toast.LENGTH_SHORT).show();
-            }
-
-        } catch (NumberFormatException e) {
-            //if the entered quantity is not a valid number
-            Toast.makeText(this, "Invalid quantity", Toast.LENGTH_SHORT).show();
-        }
-    }
-
-    //allows the back button (arrow in the top bar) to return to the previous screen
-    @Override
-    public boolean onSupportNavigateUp() {
-        finish(); //closing this activity
-        return true; //returns true to indicate the navigation was handled
-    }
-}
+package com.businesspro.inventorymanager;
+
+//importing necessary android and java libraries used in this class
+import android.os.Bundle;
+import android.view.KeyEvent;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.inputmethod.EditorInfo;
+import android.widget.ArrayAdapter;
+import android.widget.AutoCompleteTextView;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.Spinner;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+import java.util.ArrayList;
+import java.util.List;
+
+//this activity handles recording a sale transaction for a selected product.
+//it allows the user to select a product, enter a quantity sold, and updates the database accordingly.
+//the product is either picked from the spinner or searched for: a scanned or typed SKU/barcode, or the start of
+//any word of its name with typeahead suggestions. large catalogs start in search, so the whole catalog is never
+//loaded into the spinner just to sell one item.
+public class RecordSaleActivity extends AppCompatActivity {
+
+    //the options menu item that switches between the spinner and search
+    private static final int MENU_SEARCH_ENTRY = 1;
+
+    //above this many products the screen starts in search instead of loading every product into the spinner
+    private static final int SPINNER_PRODUCT_LIMIT = 500;
+
+    //declaring the UI components
+    private Spinner spProduct; //this is for the dropdown spinner for selecting a product
+    private EditText etQuantity; //this will be the input field for quantity sold
+    private AutoCompleteTextView etProductSearch; //this is the input field for a product code or name
+    private Button btnRecord; //this is the record button, turned off while a sale is being written
+
+    //true when the product is searched for rather than picked from the spinner
+    private boolean searchEntry;
+
+    //the product found by the last search, and the search field's text when it was found (null until one is found)
+    private Product pickedProduct;
+    private String pickedText;
+
+    //declaring helper and data variables
+    private DatabaseHelper dbHelper; //this will be used for interacting with the database
+    private List<Product> products = new ArrayList<>();  //this stores all products loaded from the database
+
+    //calling the onCreate() method is the entry point when the activity is started
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState); //calling the parent class method
+        setContentView(R.layout.activity_record_sale); //loading the XML layout file for this screen
+
+        //setting up the action bar with a title and a back button
+        getSupportActionBar().setTitle("Record Sale");
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+
+        //initialising the database helper to perform database operations
+        dbHelper = DatabaseHelper.getInstance(this);
+
+        //linking the java variables to xml UI elements using their IDs (sp_product)
+        spProduct = findViewById(R.id.sp_product);
+        etQuantity = findViewById(R.id.et_quantity);
+
+        //creating the product search field above the spinner: a barcode scanner types the code and presses enter,
+        //and typing a name shows the products with a word starting with it (from ProductNameIndex, off the main thread)
+        etProductSearch = new AutoCompleteTextView(this);
+        etProductSearch.setHint("Scan a code or type a product name");
+        etProductSearch.setSingleLine(true);
+        etProductSearch.setImeOptions(EditorInfo.IME_ACTION_GO);
+        etProductSearch.setThreshold(1);
+        etProductSearch.setAdapter(new ProductSuggestionAdapter(this, dbHelper.getStore()));
+        etProductSearch.setOnItemClickListener((parent, view, position, id) ->
+                pickProduct((int) id, etProductSearch.getText().toString()));
+        etProductSearch.setOnEditorActionListener((v, actionId, event) -> {
+            //a hardware enter key sends a down and an up event; only the first one looks the code up
+            if (event == null || event.getAction() == KeyEvent.ACTION_DOWN) {
+                lookUpCode();
+            }
+            return true;
+        });
+        etProductSearch.setVisibility(View.GONE);
+        ViewGroup form = (ViewGroup) spProduct.getParent();
+        form.addView(etProductSearch, form.indexOfChild(spProduct));
+
+        //counting the products first, and only loading them into the spinner if there are few enough
+        chooseEntryMode();
+
+        //setting up the button and define what happens when clicked
+        btnRecord = findViewById(R.id.btn_record_sale);
+        btnRecord.setOnClickListener(v -> recordSale()); //when clicked, it will record the sale
+    }
+
+    //starting in search when the catalog is too large for the spinner
+    private void chooseEntryMode() {
+        AppExecutors.diskIO().execute(() -> {
+            int productCount = dbHelper.getTotalProducts();
+            AppExecutors.mainThread().execute(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                setSearchEntry(productCount > SPINNER_PRODUCT_LIMIT);
+                invalidateOptionsMenu();
+            });
+        });
+    }
+
+    //showing either the search field or the spinner, loading the spinner's products the first time it is shown
+    private void setSearchEntry(boolean on) {
+        searchEntry = on;
+        etProductSearch.setVisibility(on ? View.VISIBLE : View.GONE);
+        spProduct.setVisibility(on ? View.GONE : View.VISIBLE);
+        getSupportActionBar().setSubtitle(on && pickedProduct != null ? describe(pickedProduct) : null);
+        if (on) {
+            etProductSearch.requestFocus();
+            //building the name index while the cashier reaches for the first item, so the first keystroke is instant
+            AppExecutors.diskIO().execute(() -> ProductNameIndex.prime(dbHelper.getStore()));
+        } else if (products.isEmpty()) {
+            loadProducts();
+        }
+    }
+
+    //resolving the entered code to its product: one lookup in the in-memory code map for the product ID,
+    //then one primary key read for its current price and stock
+    private void lookUpCode() {
+        String text = etProductSearch.getText().toString();
+        if (SqlInventoryStore.normalizeCode(text) == null) {
+            return;
+        }
+        AppExecutors.diskIO().execute(() -> {
+            int id = ProductCodeIndex.findProductId(dbHelper.getStore(), text);
+            if (id == ProductCodeIndex.NOT_FOUND) {
+                AppExecutors.mainThread().execute(() -> {
+                    if (!isFinishing() && !isDestroyed()) {
+                        etProductSearch.setError("No product has this code");
+                    }
+                });
+                return;
+            }
+            showPicked(dbHelper.getProduct(id), text);
+        });
+    }
+
+    //reading the suggestion the cashier tapped again, for its current price and stock
+    private void pickProduct(int productId, String text) {
+        AppExecutors.diskIO().execute(() -> showPicked(dbHelper.getProduct(productId), text));
+    }
+
+    //remembering the product a search found (null if it was deleted meanwhile) and showing it in the action bar
+    private void showPicked(Product found, String text) {
+        AppExecutors.mainThread().execute(() -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
+            pickedProduct = found;
+            pickedText = found == null ? null : text;
+            if (found == null) {
+                etProductSearch.setError("This product no longer exists");
+                getSupportActionBar().setSubtitle(null);
+                return;
+            }
+            etProductSearch.dismissDropDown();
+            getSupportActionBar().setSubtitle(describe(found));
+            etQuantity.requestFocus();
+        });
+    }
+
+    //the product's name with its stock, as shown in the spinner
+    private static String describe(Product product) {
+        return product.getName() + " (Stock: " + product.getStock() + ")";
+    }
+
+    //returning the product found by the search or selected in the spinner, or showing why there is none
+    private Product selectedProduct() {
+        if (searchEntry) {
+            //the search field must still hold what found the product, so a half-edited search never sells the previous one
+            if (pickedProduct == null || !pickedText.equals(etProductSearch.getText().toString())) {
+                Toast.makeText(this, "Scan a code (or type it and press enter), or pick a product from the suggestions",
+                        Toast.LENGTH_SHORT).show();
+                return null;
+            }
+            return pickedProduct;
+        }
+        //checking if there are any products available in the system
+        if (products.isEmpty()) {
+            Toast.makeText(this, "No products available", Toast.LENGTH_SHORT).show();
+            return null;
+        }
+        return products.get(spProduct.getSelectedItemPosition());
+    }
+
+    //loading all products from the database and displays them in the spinner dropdown
+    private void loadProducts() {
+        long traceStart = PerfTrace.begin();
+        AppExecutors.diskIO().execute(() -> {
+            //fetching all products (from the cache primed at start-up, if nothing changed since)
+            List<Product> loaded = ProductCache.getProducts(dbHelper);
+
+            //creating a list of product names (with stock info) to display in the dropdown
+            List<String> productNames = new ArrayList<>();
+            for (Product p : loaded) {
+                productNames.add(describe(p));
+            }
+
+            AppExecutors.mainThread().execute(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                products = loaded;
+                showProducts(productNames);
+                PerfTrace.end("load.record_sale", traceStart);
+            });
+        });
+    }
+
+    //displaying the product names in the spinner dropdown
+    private void showProducts(List<String> productNames) {
+
+        //creating  an ArrayAdapter to connect the product list to the spinner UI
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                this, //context (this activity)
+                android.R.layout.simple_spinner_item, //using a built-in simple layout for spinner items
+                productNames //the data to show
+        );
+
+        //setting the layout for the dropdown view when the spinner is opened
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+
+        //attaching the adapter to the spinner
+        spProduct.setAdapter(adapter);
+    }
+
+    //handling recording a sale and updating the database accordingly
+    private void recordSale() {
+        //getting the product to sell (found by its code or selected from the spinner)
+        Product selectedProduct = selectedProduct();
+        if (selectedProduct == null) {
+            return;
+        }
+
+        //getting the entered quantity value as text and remove spaces
+        String quantityStr = etQuantity.getText().toString().trim();
+
+        // If the quantity field is empty, it will show an error message
+        if (quantityStr.isEmpty()) {
+            Toast.makeText(this, "Please enter quantity", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        try {
+            //changing the entered text into an integer quantity
+            int quantity = Integer.parseInt(quantityStr);
+
+            //ensuring the quantity is a positive number
+            if (quantity <= 0) {
+                Toast.makeText(this, "Quantity must be greater than 0", Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            //checking that the requested sale quantity does not exceed available stock
+            //(recordSale() checks again in the database, in case another till sold units since this list loaded)
+            if (quantity > selectedProduct.getStock()) {
+                Toast.makeText(
+                        this,
+                        "Insufficient stock! Available: " + selectedProduct.getStock(),
+                        Toast.LENGTH_LONG
+                ).show();
+                return;
+            }
+
+            //recording the sale in the database off the main thread (the journal may have to wait for a restore to
+            //finish), with the button off so the sale cannot be sent twice
+            //parameters will be : product ID, name, quantity, price, and cost
+            btnRecord.setEnabled(false);
+            AppExecutors.diskIO().execute(() -> {
+                long recorded;
+                try {
+                    recorded = dbHelper.recordSale(
+                            selectedProduct.getId(),
+                            selectedProduct.getName(),
+                            quantity,
+                            selectedProduct.getPrice(),
+                            selectedProduct.getCost()
+                    );
+                } catch (StoreException e) {
+                    recorded = 0; //shown as a failed sale
+                }
+                final long result = recorded;
+                AppExecutors.mainThread().execute(() -> {
+                    if (isFinishing() || isDestroyed()) {
+                        return;
+                    }
+                    showSaleResult(result);
+                });
+            });
+
+        } catch (NumberFormatException e) {
+            //if the entered quantity is not a valid number
+            Toast.makeText(this, "Invalid quantity", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    //telling the user how the sale went, once recordSale() has returned
+    private void showSaleResult(long result) {
+        //if the sale was recorded (result > 0: its sale ID, or SALE_JOURNALED when the journal took it)
+        if (result > 0) {
+            Toast.makeText(this, "Sale recorded successfully", Toast.LENGTH_SHORT).show();
+            //a low stock alert, if the sale crossed the threshold, comes from StockAlertNotifier
+
+            //closing the activity and returning to the previous screen
+            finish();
+            return;
+        }
+        btnRecord.setEnabled(true);
+        if (result == InventoryStore.SALE_REJECTED) {
+            //another sale took the stock since this screen loaded, so the sale was not recorded
+            Toast.makeText(this, "Insufficient stock! The stock changed, please check the available quantity",
+                    Toast.LENGTH_LONG).show();
+        } else if (result == InventoryStore.SALE_UNAVAILABLE) {
+            //the sale journal is paused by a restore, or full because its sales cannot be written yet
+            Toast.makeText(this, "Sales are on hold for a moment, please try again", Toast.LENGTH_LONG).show();
+        } else {
+            //showing a message if database insertion failed
+            Toast.makeText(this, "Failed to record sale", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    //adding the switch between the spinner and search to the action bar menu
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        menu.add(Menu.NONE, MENU_SEARCH_ENTRY, Menu.NONE, "Search by code or name").setCheckable(true).setChecked(searchEntry);
+        return true;
+    }
+
+    //switching between the spinner and search
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == MENU_SEARCH_ENTRY) {
+            setSearchEntry(!searchEntry);
+            item.setChecked(searchEntry);
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    //allows the back button (arrow in the top bar) to return to the previous screen
+    @Override
+    public boolean onSupportNavigateUp() {
+        finish(); //closing this activity
+        return true; //returns true to indicate the navigation was handled
+    }
+}
@@ -0,0 +1,60 @@
+package com.businesspro.inventorymanager;
+
+//importing the comparator used to sort the reorder list
+import java.util.Comparator;
+
+//the ReorderSuggestion class holds one product's sales velocity, how many days its stock will last at that rate,
+//and how many units to order now (0 when it does not need ordering yet). see SalesVelocity for how they are worked out.
+public class ReorderSuggestion {
+
+    //the ways the reorder list can be sorted: fewest days of cover first, most units to order first, or by name
+    public static final Comparator<ReorderSuggestion> BY_DAYS_OF_COVER =
+            (a, b) -> Double.compare(a.daysOfCover, b.daysOfCover);
+    public static final Comparator<ReorderSuggestion> BY_SUGGESTED_QUANTITY =
+            (a, b) -> Integer.compare(b.suggestedQuantity, a.suggestedQuantity);
+    public static final Comparator<ReorderSuggestion> BY_NAME =
+            (a, b) -> a.name.compareToIgnoreCase(b.name);
+
+    //the product ID and name, and its stock
+    private final int productId;
+    private final String name;
+    private final int stock;
+
+    //the average units sold per day, and how many days the stock lasts at that rate (infinite if it is not selling)
+    private final double dailyUnits;
+    private final double daysOfCover;
+
+    //the units to order now
+    private final int suggestedQuantity;
+
+    //creating the suggestion for one product
+    public ReorderSuggestion(int productId, String name, int stock, double dailyUnits, double daysOfCover, int suggestedQuantity) {
+        this.productId = productId;
+        this.name = name;
+        this.stock = stock;
+        this.dailyUnits = dailyUnits;
+        this.daysOfCover = daysOfCover;
+        this.suggestedQuantity = suggestedQuantity;
+    }
+
+    //returns the product ID
+    public int getProductId() { return productId; }
+
+    //returns the product name
+    public String getName() { return name; }
+
+    //returns the stock the suggestion was worked out from
+    public int getStock() { return stock; }
+
+    //returns the average units sold per day
+    public double getDailyUnits() { return dailyUnits; }
+
+    //returns how many days the stock lasts at the current rate
+    public double getDaysOfCover() { return daysOfCover; }
+
+    //returns how many units to order now
+    public int getSuggestedQuantity() { return suggestedQuantity; }
+
+    //returns whether the product should be ordered now
+    public boolean isDue() { return suggestedQuantity > 0; }
+}
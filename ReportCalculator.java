@@ -0,0 +1,121 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes for the low stock, branch, sales analysis and sale size reports
+import java.text.NumberFormat;
+import java.util.List;
+import java.util.Locale;
+
+//the ReportCalculator class holds the pricing and report calculations used by the store and the reports screen.
+//it has no Android imports, so the same maths is measured by CoreBenchmarks on a plain JVM.
+public final class ReportCalculator {
+
+    //private constructor because this class only has static helpers
+    private ReportCalculator() {
+    }
+
+    //the total value of a sale (price × quantity)
+    public static double saleTotal(double salePrice, int quantity) {
+        return salePrice * quantity;
+    }
+
+    //the profit made on a sale ((price - cost) × quantity)
+    public static double saleProfit(double salePrice, double cost, int quantity) {
+        return (salePrice - cost) * quantity;
+    }
+
+    //the profit margin as a percentage of sales (0 when nothing has been sold)
+    public static double profitMargin(double totalSales, double totalProfit) {
+        return totalSales > 0 ? (totalProfit / totalSales) * 100 : 0;
+    }
+
+    //building the low stock report shown on the reports screen, one line per product
+    public static String lowStockReport(List<Product> lowStockProducts) {
+        //if no low stock products exist, it will show default message
+        if (lowStockProducts.isEmpty()) {
+            return "No low stock items";
+        }
+        //otherwise, it will list all low stock products with their remaining stock
+        StringBuilder report = new StringBuilder(lowStockProducts.size() * 32);
+        for (Product p : lowStockProducts) {
+            report.append("• ").append(p.getName())
+                    .append(" - ").append(p.getStock()).append(" units\n");
+        }
+        return report.toString();
+    }
+
+    //building the per-branch lines of the consolidated report: each branch's sales, profit and margin
+    public static String branchReport(List<BranchTotals> branches, NumberFormat currency) {
+        if (branches.isEmpty()) {
+            return "No branches";
+        }
+        StringBuilder report = new StringBuilder(branches.size() * 64);
+        for (BranchTotals branch : branches) {
+            report.append("• ").append(branch.getName())
+                    .append(" - ").append(currency.format(branch.getSalesTotal()))
+                    .append(" sales, ").append(currency.format(branch.getProfitTotal()))
+                    .append(" profit (").append(String.format(Locale.ROOT, "%.1f%%",
+                            profitMargin(branch.getSalesTotal(), branch.getProfitTotal()))).append(")\n");
+        }
+        return report.toString();
+    }
+
+    //building one line of the reorder list: the units to order, the stock, the daily sales and the days the stock lasts
+    public static String reorderLine(ReorderSuggestion suggestion) {
+        return String.format(Locale.getDefault(), "%s - order %d (stock %d, %.1f/day, %.1f days left)",
+                suggestion.getName(), suggestion.getSuggestedQuantity(), suggestion.getStock(),
+                suggestion.getDailyUnits(), suggestion.getDaysOfCover());
+    }
+
+    //building the sales analysis from a columnar snapshot: the totals, top products and busiest hours of the sales
+    //from 'from' (inclusive) up to 'to' (exclusive), as snapshot timestamps
+    public static String salesAnalysisReport(SalesSnapshot snapshot, long from, long to, int topCount, NumberFormat currency) {
+        SalesSnapshot.Groups totals = snapshot.totals(from, to);
+        if (totals.count(0) == 0) {
+            return "No sales in this period";
+        }
+        StringBuilder report = new StringBuilder(512);
+        report.append(totals.count(0)).append(" sales, ").append(totals.units(0)).append(" units, ")
+                .append(currency.format(totals.totalCents(0) / 100.0)).append(" (")
+                .append(currency.format(totals.profitCents(0) / 100.0)).append(" profit)\n\nTop products\n");
+        SalesSnapshot.Groups products = snapshot.byProduct(from, to);
+        for (int code : products.topByTotal(topCount)) {
+            report.append("• ").append(snapshot.productName(code))
+                    .append(" - ").append(products.units(code)).append(" units, ")
+                    .append(currency.format(products.totalCents(code) / 100.0)).append('\n');
+        }
+        report.append("\nBusiest hours\n");
+        SalesSnapshot.Groups hours = snapshot.byHourOfDay(from, to, -1);
+        for (int hour : hours.topByTotal(3)) {
+            report.append("• ").append(String.format(Locale.ROOT, "%02d:00-%02d:00", hour, hour + 1))
+                    .append(" - ").append(hours.count(hour)).append(" sales, ")
+                    .append(currency.format(hours.totalCents(hour) / 100.0)).append('\n');
+        }
+        return report.toString();
+    }
+
+    //building the sale size report: the median and p95 sale value and quantity of every product together,
+    //then of the 'topCount' products with the most sales (the distributions are listed most sales first)
+    public static String distributionReport(List<SaleDistribution> products, int topCount, NumberFormat currency) {
+        if (products.isEmpty()) {
+            return "No sales in this period";
+        }
+        SaleDistribution all = SaleDistribution.total(products);
+        StringBuilder report = new StringBuilder(512);
+        report.append(all.getSaleCount()).append(" sales\n");
+        appendDistribution(report, all, currency);
+        report.append("\nTop products\n");
+        for (SaleDistribution product : products.subList(0, Math.min(topCount, products.size()))) {
+            report.append("• ").append(product.getProductName()).append(" - ").append(product.getSaleCount()).append(" sales\n");
+            appendDistribution(report, product, currency);
+        }
+        return report.toString();
+    }
+
+    //adding the value and quantity lines of one distribution to the sale size report
+    private static void appendDistribution(StringBuilder report, SaleDistribution distribution, NumberFormat currency) {
+        report.append("   value: median ").append(currency.format(distribution.getMedianValue()))
+                .append(", p95 ").append(currency.format(distribution.getP95Value()))
+                .append(String.format(Locale.getDefault(), "\n   quantity: median %.1f, p95 %.1f\n",
+                        distribution.getMedianQuantity(), distribution.getP95Quantity()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.businesspro.inventorymanager;
+
+//the ReportSnapshot class holds one branch's report as it was last worked out: the total sales and profit and the
+//low stock report, with the data version they were worked out at. the version is the highest sale ID (every sale
+//moves the totals and the stock) and the store's data version (which goes up with every other change to the products
+//or the rollups), so a snapshot whose version still matches the database's is the report the data would give again.
+//
+//the store keeps the last snapshot in memory and in the meta table as text (see encode()), so the reports screen
+//only works the report out again after something changed, even after the app was restarted.
+public class ReportSnapshot {
+
+    //the format of the stored text, so a snapshot stored by another version of the app is worked out again
+    private static final String FORMAT = "report1";
+
+    //the branch and the data version the report was worked out at
+    private final int branchId;
+    private final long saleHighWater;
+    private final long dataVersion;
+
+    //the branch's total sales and profit, and the low stock report
+    private final double totalSales;
+    private final double totalProfit;
+    private final String lowStockReport;
+
+    //creating the snapshot of a report worked out at the given version
+    public ReportSnapshot(int branchId, long saleHighWater, long dataVersion, double totalSales, double totalProfit,
+                          String lowStockReport) {
+        this.branchId = branchId;
+        this.saleHighWater = saleHighWater;
+        this.dataVersion = dataVersion;
+        this.totalSales = totalSales;
+        this.totalProfit = totalProfit;
+        this.lowStockReport = lowStockReport;
+    }
+
+    //returns whether this is the report of the given branch at the given version
+    public boolean isFor(int branchId, long saleHighWater, long dataVersion) {
+        return this.branchId == branchId && this.saleHighWater == saleHighWater && this.dataVersion == dataVersion;
+    }
+
+    //returns the branch ID
+    public int getBranchId() { return branchId; }
+
+    //returns the total sales value
+    public double getTotalSales() { return totalSales; }
+
+    //returns the total profit
+    public double getTotalProfit() { return totalProfit; }
+
+    //returns the profit margin in %
+    public double getProfitMargin() { return ReportCalculator.profitMargin(totalSales, totalProfit); }
+
+    //returns the low stock report text
+    public String getLowStockReport() { return lowStockReport; }
+
+    //turning the snapshot into the text stored in the meta table: one line of values, then the low stock report
+    public String encode() {
+        return FORMAT + "\t" + branchId + "\t" + saleHighWater + "\t" + dataVersion + "\t" + Double.toString(totalSales)
+                + "\t" + Double.toString(totalProfit) + "\n" + lowStockReport;
+    }
+
+    //reading a snapshot back from its stored text (null if there is none or it is not in this format)
+    public static ReportSnapshot decode(String text) {
+        if (text == null) {
+            return null;
+        }
+        int lineEnd = text.indexOf('\n');
+        if (lineEnd < 0) {
+            return null;
+        }
+        String[] values = text.substring(0, lineEnd).split("\t");
+        if (values.length != 6 || !FORMAT.equals(values[0])) {
+            return null;
+        }
+        try {
+            return new ReportSnapshot(Integer.parseInt(values[1]), Long.parseLong(values[2]), Long.parseLong(values[3]),
+                    Double.parseDouble(values[4]), Double.parseDouble(values[5]), text.substring(lineEnd + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,234 +1,443 @@
-package com.businesspro.inventorymanager;
-
-//importing necessary android and java libraries
-import android.Manifest;
-import android.content.Intent;
-import android.content.pm.PackageManager;
-import android.net.Uri;
-import android.os.Build;
-import android.os.Bundle;
-import android.os.Environment;
-import android.widget.Button;
-import android.widget.TextView;
-import android.widget.Toast;
-import androidx.appcompat.app.AppCompatActivity;
-import androidx.core.app.ActivityCompat;
-import androidx.core.content.ContextCompat;
-import androidx.core.content.FileProvider;
-import com.google.android.material.bottomnavigation.BottomNavigationView;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
-import java.util.Locale;
-
-//this  class represents the "Reports & Analytics" section of the inventory management app.
-//it allows users to view total revenue, profit, profit margins, low stock alerts, and export sales data to a CSV file.
-public class ReportsActivity extends AppCompatActivity {
-
-    //requesting the code used when asking for permissions (used on Android 9 and below)
-    private static final int PERMISSION_REQUEST_CODE = 100;
-
-    //declaring the database helper that manages database operations
-    private DatabaseHelper dbHelper;
-
-    //declaring TextView UI elements for displaying report data
-    private TextView tvTotalRevenue, tvTotalProfit, tvProfitMargin, tvLowStockReport;
-
-    //creating a formatter to format numbers into the South African Rand currency format
-    private NumberFormat currencyFormat;
-
-    //calling onCreate() for when the activity is first launched.
-    @Override
-    protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-        //setting the layout for this activity
-        setContentView(R.layout.activity_reports);
-        //setting the action bar title
-        getSupportActionBar().setTitle("Reports & Analytics");
-
-        //initialising the database helper for performing SQL operations
-        dbHelper = new DatabaseHelper(this);
-
-        //setting up currency formatting for ZAR
-        currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "ZA"));
-
-        //initializing all TextView components
-        initViews();
-        //setting up the navigation menu at the bottom
-        setupBottomNavigation();
-        //loading the financial data and stock reports
-        loadReports();
-
-        //finding the export button from the layout and attach an event listener
-        Button btnExport = findViewById(R.id.btn_export_csv);
-        btnExport.setOnClickListener(v -> exportToCSV());
-    }
-
-    //initialising  all the TextView UI components
-    private void initViews() {
-        tvTotalRevenue = findViewById(R.id.tv_total_revenue);
-        tvTotalProfit = findViewById(R.id.tv_total_profit);
-        tvProfitMargin = findViewById(R.id.tv_profit_margin);
-        tvLowStockReport = findViewById(R.id.tv_low_stock_report);
-    }
-
-    //configuring the bottom navigation bar and handling the  user navigation between app sections
-    private void setupBottomNavigation() {
-        BottomNavigationView bottomNav = findViewById(R.id.bottom_navigation);
-        bottomNav.setSelectedItemId(R.id.nav_reports); //highlights the current tab (Reports)
-
-        //defining the actions for each navigation item
-        bottomNav.setOnItemSelectedListener(item -> {
-            int itemId = item.getItemId();
-            if (itemId == R.id.nav_dashboard) {
-                startActivity(new Intent(this, DashboardActivity.class)); //allows users to navigate to Dashboard
-                overridePendingTransition(0, 0);
-                finish();
-                return true;
-            } else if (itemId == R.id.nav_inventory) {
-                startActivity(new Intent(this, InventoryActivity.class)); //allows users to navigate to Inventory
-                overridePendingTransition(0, 0);
-                finish();
-                return true;
-            } else if (itemId == R.id.nav_sales) {
-                startActivity(new Intent(this, SalesActivity.class)); //allows users to navigate to Sales screen
-                overridePendingTransition(0, 0);
-                finish();
-                return true;
-            }
-            return false; //default case: do nothing
-        });
-    }
-
-    //loading report data such as total revenue, total profit, profit margin, and low stock products
-    private void loadReports() {
-        // Get data from the database
-        double totalSales = dbHelper.getTotalSales();   //gives the total revenue from sales
-        double totalProfit = dbHelper.getTotalProfit(); //gives the total profit calculated from cost vs. price
-        double profitMargin = totalSales > 0 ? (totalProfit / totalSales) * 100 : 0; //gives the profit margin in %
-
-        //displaying the formatted financial data in TextViews
-        tvTotalRevenue.setText(currencyFormat.format(totalSales));
-        tvTotalProfit.setText(currencyFormat.format(totalProfit));
-        tvProfitMargin.setText(String.format(Locale.getDefault(), "%.2f%%", profitMargin));
-
-        //getting teh list of products with low stock from the database
-        List<Product> lowStockProducts = dbHelper.getLowStockProducts();
-        StringBuilder lowStockReport = new StringBuilder();
-
-        //if no low stock products exist, it will show default message
-        if (lowStockProducts.isEmpty()) {
-            lowStockReport.append("No low stock items");
-        } else {
-            //otherwise, it will list all low stock products with their remaining stock
-            for (Product p : lowStockProducts) {
-                lowStockReport.append("• ").append(p.getName())
-                        .append(" - ").append(p.getStock()).append(" units\n");
-            }
-        }
-
-        //displaying the low stock report on screen
-        tvLowStockReport.setText(lowStockReport.toString());
-    }
-
-    //exporting all sales data into a csv file
-    private void exportToCSV() {
-        try {
-            File exportDir;
-
-            //choosing the export directory depending on my android version
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                //for Android 10+ (Scoped Storage), it will use app-specific directory
-                exportDir = new File(getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS), "InventoryReports");
-            } else {
-                //then for Android 9 and below it will use Downloads folder ( and it needs permission thats why I created file_paths.xml)
-                exportDir = new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS), "InventoryReports");
-            }
-
-            //creating a directory if it doesn’t exist
-            if (!exportDir.exists()) {
-                exportDir.mkdirs();
-            }
-
-            // Create a timestamped filename (e.g., sales_report_20251103_103000.csv)
-            String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
-            File file = new File(exportDir, "sales_report_" + timeStamp + ".csv");
-
-            //creating a FileWriter to write csv data into the file
-            FileWriter writer = new FileWriter(file);
-
-            //writing a csv header (column names)
-            writer.append("Sale ID,Product Name,Quantity,Price,Total,Date,Profit\n");
-
-            //getting all sales data from the database
-            List<Sale> sales = dbHelper.getAllSales();
-
-            //using a for loop to loop through all sales and write them as csv rows
-            for (Sale sale : sales) {
-                writer.append(String.valueOf(sale.getSaleId())).append(",");
-                writer.append("\"").append(sale.getProductName()).append("\"").append(",");
-                writer.append(String.valueOf(sale.getQuantity())).append(",");
-                writer.append(String.valueOf(sale.getSalePrice())).append(",");
-                writer.append(String.valueOf(sale.getTotal())).append(",");
-                writer.append("\"").append(sale.getDate()).append("\"").append(",");
-                writer.append(String.valueOf(sale.getProfit())).append("\n");
-            }
-
-            //saving and close file
-            writer.flush();
-            writer.close();
-
-            //it will show the success dialog with the file name and path
-            String message = "Report exported successfully!\n\nFile: " + file.getName() + "\nLocation: " + exportDir.getAbsolutePath();
-
-            new android.app.AlertDialog.Builder(this)
-                    .setTitle("Export Successful")
-                    .setMessage(message)
-                    .setPositiveButton("Open Folder", (dialog, which) -> openFileLocation(file))
-                    .setNegativeButton("OK", null)
-                    .show();
-
-        } catch (IOException e) {
-            //handling file writing errors
-            Toast.makeText(this, "Export failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
-            e.printStackTrace();
-        }
-    }
-
-    //opens the folder where the exported csv file is stored
-    private void openFileLocation(File file) {
-        try {
-            Intent intent = new Intent(Intent.ACTION_VIEW);
-            Uri uri;
-
-            //for Android 7.0+ , it will use FileProvider to safely expose file paths
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-                uri = FileProvider.getUriForFile(this,
-                        getApplicationContext().getPackageName() + ".provider",
-                        file.getParentFile());
-            } else {
-                //fo r older Android versions, it will use direct file URI
-                uri = Uri.fromFile(file.getParentFile());
-            }
-
-            //telling Android we want to open a folder (not a single file)
-            intent.setDataAndType(uri, "resource/folder");
-            intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
-
-            //attempting to open the folder with a file manager app
-            if (intent.resolveActivity(getPackageManager()) != null) {
-                startActivity(Intent.createChooser(intent, "Open folder with"));
-            } else {
-                //if no file manager available, show file path instead
-                Toast.makeText(this, "File saved at: " + file.getParentFile().getAbsolutePath(), Toast.LENGTH_LONG).show();
-            }
-        } catch (Exception e) {
-            //in case of an unexpected error, still show the file location
-            Toast.makeText(this, "File saved at: " + file.getParentFile().getAbsolutePath(), Toast.LENGTH_LONG).show();
-        }
-    }
-}
+package com.businesspro.inventorymanager;
+
+//importing necessary android and java libraries
+import android.Manifest;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Environment;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+import androidx.core.content.FileProvider;
+import com.google.android.material.bottomnavigation.BottomNavigationView;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+//this  class represents the "Reports & Analytics" section of the inventory management app.
+//it allows users to view total revenue, profit, profit margins, low stock alerts, and export sales data to a CSV file.
+public class ReportsActivity extends AppCompatActivity {
+
+    //requesting the code used when asking for permissions (used on Android 9 and below)
+    private static final int PERMISSION_REQUEST_CODE = 100;
+
+    //the action bar menu item ID that switches between this branch and all branches
+    private static final int MENU_CONSOLIDATED = 1;
+
+    //the action bar menu item ID that analyses the last ANALYSIS_DAYS days of sales
+    private static final int MENU_ANALYSIS = 2;
+
+    //how many days back the sales analysis looks, and how many top products it lists
+    private static final int ANALYSIS_DAYS = 30;
+    private static final int ANALYSIS_TOP_PRODUCTS = 5;
+
+    //the action bar menu item ID that lists the products to reorder now
+    private static final int MENU_REORDER = 3;
+
+    //the orders the reorder list can be sorted in, and their names on the sort button
+    private static final List<Comparator<ReorderSuggestion>> REORDER_SORTS = Arrays.asList(
+            ReorderSuggestion.BY_DAYS_OF_COVER, ReorderSuggestion.BY_SUGGESTED_QUANTITY, ReorderSuggestion.BY_NAME);
+    private static final String[] REORDER_SORT_NAMES = {"days left", "quantity", "name"};
+
+    //the action bar menu item ID that shows the median and p95 sale value and quantity over a range of days,
+    //and how many products the sale size report lists on their own
+    private static final int MENU_SALE_SIZES = 4;
+    private static final int SALE_SIZES_TOP_PRODUCTS = 5;
+
+    //the position in REORDER_SORTS the reorder list is sorted by
+    private int reorderSort;
+
+    //true while the reports add up every branch (head office view) instead of only the current one
+    private boolean consolidated;
+
+    //declaring the database helper that manages database operations
+    private DatabaseHelper dbHelper;
+
+    //declaring TextView UI elements for displaying report data
+    private TextView tvTotalRevenue, tvTotalProfit, tvProfitMargin, tvLowStockReport;
+
+    //creating a formatter to format numbers into the South African Rand currency format
+    private NumberFormat currencyFormat;
+
+    //calling onCreate() for when the activity is first launched.
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        //setting the layout for this activity
+        setContentView(R.layout.activity_reports);
+        //setting the action bar title
+        getSupportActionBar().setTitle("Reports & Analytics");
+
+        //initialising the database helper for performing SQL operations
+        dbHelper = DatabaseHelper.getInstance(this);
+
+        //setting up currency formatting for ZAR
+        currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "ZA"));
+
+        //initializing all TextView components
+        initViews();
+        //setting up the navigation menu at the bottom
+        setupBottomNavigation();
+        //loading the financial data and stock reports
+        loadReports();
+
+        //finding the export button from the layout and attach an event listener
+        Button btnExport = findViewById(R.id.btn_export_csv);
+        btnExport.setOnClickListener(v -> exportToCSV());
+    }
+
+    //initialising  all the TextView UI components
+    private void initViews() {
+        tvTotalRevenue = findViewById(R.id.tv_total_revenue);
+        tvTotalProfit = findViewById(R.id.tv_total_profit);
+        tvProfitMargin = findViewById(R.id.tv_profit_margin);
+        tvLowStockReport = findViewById(R.id.tv_low_stock_report);
+    }
+
+    //configuring the bottom navigation bar and handling the  user navigation between app sections
+    private void setupBottomNavigation() {
+        BottomNavigationView bottomNav = findViewById(R.id.bottom_navigation);
+        bottomNav.setSelectedItemId(R.id.nav_reports); //highlights the current tab (Reports)
+
+        //defining the actions for each navigation item
+        bottomNav.setOnItemSelectedListener(item -> {
+            int itemId = item.getItemId();
+            if (itemId == R.id.nav_dashboard) {
+                startActivity(new Intent(this, DashboardActivity.class)); //allows users to navigate to Dashboard
+                overridePendingTransition(0, 0);
+                finish();
+                return true;
+            } else if (itemId == R.id.nav_inventory) {
+                startActivity(new Intent(this, InventoryActivity.class)); //allows users to navigate to Inventory
+                overridePendingTransition(0, 0);
+                finish();
+                return true;
+            } else if (itemId == R.id.nav_sales) {
+                startActivity(new Intent(this, SalesActivity.class)); //allows users to navigate to Sales screen
+                overridePendingTransition(0, 0);
+                finish();
+                return true;
+            }
+            return false; //default case: do nothing
+        });
+    }
+
+    //adding the switch between this branch and all branches to the action bar menu
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        menu.add(Menu.NONE, MENU_CONSOLIDATED, Menu.NONE, "All branches").setCheckable(true).setChecked(consolidated);
+        menu.add(Menu.NONE, MENU_ANALYSIS, Menu.NONE, "Sales analysis");
+        menu.add(Menu.NONE, MENU_REORDER, Menu.NONE, "Reorder now");
+        menu.add(Menu.NONE, MENU_SALE_SIZES, Menu.NONE, "Sale sizes");
+        return true;
+    }
+
+    //switching the reports between this branch and all branches
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == MENU_CONSOLIDATED) {
+            consolidated = !consolidated;
+            item.setChecked(consolidated);
+            getSupportActionBar().setTitle(consolidated ? "Reports - All Branches" : "Reports & Analytics");
+            loadReports();
+            return true;
+        } else if (item.getItemId() == MENU_ANALYSIS) {
+            analyseSales();
+            return true;
+        } else if (item.getItemId() == MENU_REORDER) {
+            loadReorderSuggestions();
+            return true;
+        } else if (item.getItemId() == MENU_SALE_SIZES) {
+            chooseSaleSizeDays();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    //loading report data such as total revenue, total profit, profit margin, and low stock products.
+    //the report comes from the store's report snapshot on the background thread, which is only worked out again
+    //when a sale was recorded or a product changed since the last time, so reopening the screen is two small reads
+    private void loadReports() {
+        if (consolidated) {
+            loadConsolidatedReports();
+            return;
+        }
+        final long traceStart = PerfTrace.begin();
+        AppExecutors.diskIO().execute(() -> {
+            ReportSnapshot report = dbHelper.getStore().getReportSnapshot();
+            AppExecutors.mainThread().execute(() -> {
+                if (isFinishing() || isDestroyed() || consolidated) {
+                    return; //the head office view was chosen while the report loaded
+                }
+                //displaying the formatted financial data in TextViews
+                tvTotalRevenue.setText(currencyFormat.format(report.getTotalSales()));
+                tvTotalProfit.setText(currencyFormat.format(report.getTotalProfit()));
+                tvProfitMargin.setText(String.format(Locale.getDefault(), "%.2f%%", report.getProfitMargin()));
+
+                //displaying the low stock report on screen
+                tvLowStockReport.setText(report.getLowStockReport());
+                PerfTrace.end("load.reports", traceStart);
+            });
+        });
+    }
+
+    //loading the head office view: every branch's totals from the daily branch rollups (no sales are scanned),
+    //added up for the whole business, with one line per branch in place of the low stock report
+    private void loadConsolidatedReports() {
+        final long traceStart = PerfTrace.begin();
+        AppExecutors.diskIO().execute(() -> {
+            List<BranchTotals> branches = dbHelper.getBranchTotals(null, null);
+            double sales = 0;
+            double profit = 0;
+            for (BranchTotals branch : branches) {
+                sales += branch.getSalesTotal();
+                profit += branch.getProfitTotal();
+            }
+            final double totalSales = sales;
+            final double totalProfit = profit;
+            AppExecutors.mainThread().execute(() -> {
+                if (isFinishing() || isDestroyed() || !consolidated) {
+                    return; //the branch view was chosen again while the totals loaded
+                }
+                tvTotalRevenue.setText(currencyFormat.format(totalSales));
+                tvTotalProfit.setText(currencyFormat.format(totalProfit));
+                tvProfitMargin.setText(String.format(Locale.getDefault(), "%.2f%%", ReportCalculator.profitMargin(totalSales, totalProfit)));
+                tvLowStockReport.setText(ReportCalculator.branchReport(branches, currencyFormat));
+                PerfTrace.end("load.reports.consolidated", traceStart);
+            });
+        });
+    }
+
+    //analysing the current branch's last ANALYSIS_DAYS days of sales on the background thread: the sales are
+    //loaded into a columnar snapshot and grouped by product and by hour across the cores, then shown with the timings
+    private void analyseSales() {
+        Toast.makeText(this, "Analysing sales...", Toast.LENGTH_SHORT).show();
+        final long now = SalesSnapshot.toTimestamp(DisplayFormats.formatStoredDate(new Date()));
+        final long from = now - ANALYSIS_DAYS * 86_400L;
+        AppExecutors.diskIO().execute(() -> {
+            long start = System.nanoTime();
+            SalesSnapshot snapshot = dbHelper.getStore().loadSalesSnapshot(SalesSnapshot.toStoredDate(from), null);
+            long loaded = System.nanoTime();
+            String report = ReportCalculator.salesAnalysisReport(snapshot, from, Long.MAX_VALUE, ANALYSIS_TOP_PRODUCTS, currencyFormat);
+            long analysed = System.nanoTime();
+            String message = report + String.format(Locale.ROOT, "\nLoaded %d sales (%d KB) in %d ms, analysed in %d ms",
+                    snapshot.size(), snapshot.bytesUsed() / 1024, (loaded - start) / 1_000_000, (analysed - loaded) / 1_000_000);
+            AppExecutors.mainThread().execute(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                new android.app.AlertDialog.Builder(this)
+                        .setTitle("Sales - Last " + ANALYSIS_DAYS + " Days")
+                        .setMessage(message)
+                        .setPositiveButton("OK", null)
+                        .show();
+            });
+        });
+    }
+
+    //reading the current branch's reorder suggestions on the background thread; they come from each product's
+    //sales velocity kept up to date by every sale, so this is one read of the products and no sales are scanned
+    private void loadReorderSuggestions() {
+        AppExecutors.diskIO().execute(() -> {
+            List<ReorderSuggestion> due = dbHelper.getReorderSuggestions();
+            AppExecutors.mainThread().execute(() -> {
+                if (!isFinishing() && !isDestroyed()) {
+                    showReorderSuggestions(new ArrayList<>(due));
+                }
+            });
+        });
+    }
+
+    //showing the products to reorder in the chosen order; the sort button switches to the next order,
+    //and tapping a product opens it for editing
+    private void showReorderSuggestions(List<ReorderSuggestion> due) {
+        if (due.isEmpty()) {
+            new android.app.AlertDialog.Builder(this)
+                    .setTitle("Reorder Now")
+                    .setMessage("No products need ordering yet. Products are suggested once their stock will last fewer than "
+                            + (SalesVelocity.LEAD_TIME_DAYS + SalesVelocity.SAFETY_DAYS) + " days at their recent sales rate.")
+                    .setPositiveButton("OK", null)
+                    .show();
+            return;
+        }
+        Collections.sort(due, REORDER_SORTS.get(reorderSort));
+        String[] lines = new String[due.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = ReportCalculator.reorderLine(due.get(i));
+        }
+        int nextSort = (reorderSort + 1) % REORDER_SORTS.size();
+        new android.app.AlertDialog.Builder(this)
+                .setTitle("Reorder Now (" + due.size() + ")")
+                .setItems(lines, (dialog, which) -> {
+                    Intent intent = new Intent(this, EditProductActivity.class);
+                    intent.putExtra("product_id", due.get(which).getProductId());
+                    startActivity(intent);
+                })
+                .setNeutralButton("Sort by " + REORDER_SORT_NAMES[nextSort], (dialog, which) -> {
+                    reorderSort = nextSort;
+                    showReorderSuggestions(due);
+                })
+                .setPositiveButton("Close", null)
+                .show();
+    }
+
+    //asking for the days to show the sale sizes of, starting with the last ANALYSIS_DAYS days
+    private void chooseSaleSizeDays() {
+        Calendar from = Calendar.getInstance();
+        from.add(Calendar.DAY_OF_YEAR, -(ANALYSIS_DAYS - 1));
+        EditText etFrom = new EditText(this);
+        etFrom.setHint("From (yyyy-mm-dd)");
+        etFrom.setText(DisplayFormats.formatStoredDate(from.getTime()).substring(0, 10));
+        EditText etTo = new EditText(this);
+        etTo.setHint("To (yyyy-mm-dd)");
+        etTo.setText(DisplayFormats.formatStoredDate(new Date()).substring(0, 10));
+        LinearLayout fields = new LinearLayout(this);
+        fields.setOrientation(LinearLayout.VERTICAL);
+        fields.addView(etFrom);
+        fields.addView(etTo);
+        new android.app.AlertDialog.Builder(this)
+                .setTitle("Sale Sizes")
+                .setMessage("Show the sales from and to these days (both included)")
+                .setView(fields)
+                .setPositiveButton("Show", (dialog, which) -> {
+                    String fromDay = etFrom.getText().toString().trim();
+                    String toDay = etTo.getText().toString().trim();
+                    if (!fromDay.matches("\\d{4}-\\d{2}-\\d{2}") || !toDay.matches("\\d{4}-\\d{2}-\\d{2}")) {
+                        Toast.makeText(this, "Enter the days as yyyy-mm-dd", Toast.LENGTH_LONG).show();
+                        return;
+                    }
+                    loadSaleSizes(fromDay, toDay);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    //reading the sale size distributions of the chosen days on the background thread; each product's daily
+    //quantile sketches are merged, so no sales are scanned however many days are chosen
+    private void loadSaleSizes(String fromDay, String toDay) {
+        AppExecutors.diskIO().execute(() -> {
+            List<SaleDistribution> products = dbHelper.getStore().getSaleDistributions(fromDay, toDay);
+            String report = ReportCalculator.distributionReport(products, SALE_SIZES_TOP_PRODUCTS, currencyFormat);
+            AppExecutors.mainThread().execute(() -> {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                new android.app.AlertDialog.Builder(this)
+                        .setTitle("Sale Sizes " + fromDay + " to " + toDay)
+                        .setMessage(report)
+                        .setPositiveButton("OK", null)
+                        .show();
+            });
+        });
+    }
+
+    //exporting all sales data into a csv file
+    private void exportToCSV() {
+        try {
+            File exportDir;
+
+            //choosing the export directory depending on my android version
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                //for Android 10+ (Scoped Storage), it will use app-specific directory
+                exportDir = new File(getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS), "InventoryReports");
+            } else {
+                //then for Android 9 and below it will use Downloads folder ( and it needs permission thats why I created file_paths.xml)
+                exportDir = new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS), "InventoryReports");
+            }
+
+            //creating a directory if it doesn’t exist
+            if (!exportDir.exists()) {
+                exportDir.mkdirs();
+            }
+
+            // Create a timestamped filename (e.g., sales_report_20251103_103000.csv)
+            String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
+            File file = new File(exportDir, "sales_report_" + timeStamp + ".csv");
+
+            //creating a FileWriter to write csv data into the file
+            FileWriter writer = new FileWriter(file);
+
+            //getting all sales data from the database and writing the header and one csv row per sale
+            List<Sale> sales = dbHelper.getAllSales();
+            SalesCsvWriter.write(writer, sales);
+
+            //closing the file
+            writer.close();
+
+            //writing the database query timings (histograms and slow-query log) next to the sales report
+            File statsFile = new File(exportDir, "query_stats_" + timeStamp + ".csv");
+            FileWriter statsWriter = new FileWriter(statsFile);
+            QueryStats.writeCsv(statsWriter);
+            statsWriter.close();
+
+            //it will show the success dialog with the file name and path
+            String message = "Report exported successfully!\n\nFile: " + file.getName() + "\nQuery stats: " + statsFile.getName()
+                    + "\nLocation: " + exportDir.getAbsolutePath();
+
+            new android.app.AlertDialog.Builder(this)
+                    .setTitle("Export Successful")
+                    .setMessage(message)
+                    .setPositiveButton("Open Folder", (dialog, which) -> openFileLocation(file))
+                    .setNegativeButton("OK", null)
+                    .show();
+
+        } catch (IOException e) {
+            //handling file writing errors
+            Toast.makeText(this, "Export failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            e.printStackTrace();
+        }
+    }
+
+    //opens the folder where the exported csv file is stored
+    private void openFileLocation(File file) {
+        try {
+            Intent intent = new Intent(Intent.ACTION_VIEW);
+            Uri uri;
+
+            //for Android 7.0+ , it will use FileProvider to safely expose file paths
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                uri = FileProvider.getUriForFile(this,
+                        getApplicationContext().getPackageName() + ".provider",
+                        file.getParentFile());
+            } else {
+                //fo r older Android versions, it will use direct file URI
+                uri = Uri.fromFile(file.getParentFile());
+            }
+
+            //telling Android we want to open a folder (not a single file)
+            intent.setDataAndType(uri, "resource/folder");
+            intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+
+            //attempting to open the folder with a file manager app
+            if (intent.resolveActivity(getPackageManager()) != null) {
+                startActivity(Intent.createChooser(intent, "Open folder with"));
+            } else {
+                //if no file manager available, show file path instead
+                Toast.makeText(this, "File saved at: " + file.getParentFile().getAbsolutePath(), Toast.LENGTH_LONG).show();
+            }
+        } catch (Exception e) {
+            //in case of an unexpected error, still show the file location
+            Toast.makeText(this, "File saved at: " + file.getParentFile().getAbsolutePath(), Toast.LENGTH_LONG).show();
+        }
+    }
+}
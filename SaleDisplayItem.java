@@ -0,0 +1,89 @@
+package com.businesspro.inventorymanager;
+
+//importing the list classes used when converting a whole page of sales
+import java.util.ArrayList;
+import java.util.List;
+
+//the SaleDisplayItem class is the immutable, ready-to-show version of a Sale.
+//every string the sales row needs is formatted once when the item is built (off the main thread),
+//so binding a row in SalesAdapter is only setText calls with no parsing or string building.
+public final class SaleDisplayItem {
+
+    //the unique ID of the sale this row was built from
+    private final int saleId;
+
+    //the name of the product sold
+    private final String productName;
+
+    //the quantity label (e.g., "Qty: 3")
+    private final String quantityText;
+
+    //the sale total formatted as currency
+    private final String totalText;
+
+    //the profit label formatted as currency (e.g., "Profit: R300.00")
+    private final String profitText;
+
+    //the sale date converted into the on-screen format
+    private final String dateText;
+
+    //creating a constructor that stores the pre-formatted values
+    public SaleDisplayItem(int saleId, String productName, String quantityText,
+                           String totalText, String profitText, String dateText) {
+        this.saleId = saleId;
+        this.productName = productName;
+        this.quantityText = quantityText;
+        this.totalText = totalText;
+        this.profitText = profitText;
+        this.dateText = dateText;
+    }
+
+    //converting a single Sale into its display model using the shared formatters
+    public static SaleDisplayItem from(Sale sale) {
+        return new SaleDisplayItem(
+                sale.getSaleId(),
+                sale.getProductName(),
+                "Qty: " + sale.getQuantity(),
+                DisplayFormats.formatCurrency(sale.getTotal()),
+                "Profit: " + DisplayFormats.formatCurrency(sale.getProfit()),
+                DisplayFormats.formatStoredDateForDisplay(sale.getDate())
+        );
+    }
+
+    //converting a list of sales into display models (call this on a background thread)
+    public static List<SaleDisplayItem> fromSales(List<Sale> sales) {
+        List<SaleDisplayItem> items = new ArrayList<>(sales.size());
+        for (Sale sale : sales) {
+            items.add(from(sale));
+        }
+        return items;
+    }
+
+    //returns the unique sale ID
+    public int getSaleId() { return saleId; }
+
+    //returns the name of the product that was sold
+    public String getProductName() { return productName; }
+
+    //returns the quantity label
+    public String getQuantityText() { return quantityText; }
+
+    //returns the formatted sale total
+    public String getTotalText() { return totalText; }
+
+    //returns the formatted profit label
+    public String getProfitText() { return profitText; }
+
+    //returns the formatted sale date
+    public String getDateText() { return dateText; }
+
+    //checking whether another row shows exactly the same text (used to skip rebinding unchanged rows)
+    public boolean hasSameText(SaleDisplayItem other) {
+        return saleId == other.saleId
+                && productName.equals(other.productName)
+                && quantityText.equals(other.quantityText)
+                && totalText.equals(other.totalText)
+                && profitText.equals(other.profitText)
+                && dateText.equals(other.dateText);
+    }
+}
@@ -0,0 +1,69 @@
+package com.businesspro.inventorymanager;
+
+//importing the classes used to add up and sort the distributions
+import java.util.Comparator;
+import java.util.List;
+
+//the SaleDistribution class holds the spread of one product's sales over a range of days: a quantile sketch of
+//the sale values and one of the quantities, merged from the product's daily sketches (see QuantileSketch), so the
+//median and p95 are known to within 1% without reading the sales themselves.
+public class SaleDistribution {
+
+    //the order the report lists products in: most sales first
+    public static final Comparator<SaleDistribution> BY_SALE_COUNT =
+            (a, b) -> Long.compare(b.values.getCount(), a.values.getCount());
+
+    //the product ID and name (0 and null for the distribution of every product)
+    private final int productId;
+    private final String productName;
+
+    //the sketches of the sale values and of the quantities
+    private final QuantileSketch values;
+    private final QuantileSketch quantities;
+
+    //creating the distribution of one product from its sketches
+    public SaleDistribution(int productId, String productName, QuantileSketch values, QuantileSketch quantities) {
+        this.productId = productId;
+        this.productName = productName;
+        this.values = values;
+        this.quantities = quantities;
+    }
+
+    //adding up the distributions of several products into the distribution of all of them
+    public static SaleDistribution total(List<SaleDistribution> distributions) {
+        QuantileSketch values = new QuantileSketch();
+        QuantileSketch quantities = new QuantileSketch();
+        for (SaleDistribution distribution : distributions) {
+            values.merge(distribution.values);
+            quantities.merge(distribution.quantities);
+        }
+        return new SaleDistribution(0, null, values, quantities);
+    }
+
+    //adding another day's sketches of the same product
+    public void merge(QuantileSketch dayValues, QuantileSketch dayQuantities) {
+        values.merge(dayValues);
+        quantities.merge(dayQuantities);
+    }
+
+    //returns the product ID
+    public int getProductId() { return productId; }
+
+    //returns the product name
+    public String getProductName() { return productName; }
+
+    //returns the number of sales
+    public long getSaleCount() { return values.getCount(); }
+
+    //returns the median sale value
+    public double getMedianValue() { return values.quantile(0.5); }
+
+    //returns the sale value 95% of the sales are at or below
+    public double getP95Value() { return values.quantile(0.95); }
+
+    //returns the median quantity
+    public double getMedianQuantity() { return quantities.quantile(0.5); }
+
+    //returns the quantity 95% of the sales are at or below
+    public double getP95Quantity() { return quantities.quantile(0.95); }
+}
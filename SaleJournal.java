@@ -0,0 +1,541 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used by the journal
+import java.io.File; //this is the journal file
+import java.io.IOException; //this is thrown when the journal file cannot be mapped
+import java.io.RandomAccessFile; //this opens the journal file for reading and writing
+import java.nio.ByteBuffer; //this encodes one sale into a record
+import java.nio.MappedByteBuffer; //this is the journal file mapped into memory
+import java.nio.channels.FileChannel; //this maps the journal file
+import java.nio.charset.StandardCharsets; //this encodes the product name and date
+import java.util.ArrayDeque; //this holds the sales that are not in the database yet, oldest first
+import java.util.ArrayList; //this collects a batch of sales for the drain
+import java.util.List; //this is the interface of a batch
+import java.util.logging.Level; //this is the level drain failures are logged at
+import java.util.logging.Logger; //this logs the batches the drain cannot write
+import java.util.zip.CRC32; //this checksums each record, so a torn write is not replayed
+
+//the SaleJournal class is a write-behind log for sales: a till appends its sale to a memory-mapped file,
+//waits for the file to be flushed to disk, and is done, without waiting for a SQLite transaction.
+//a background thread then writes the sales into the database in batches (one transaction per batch),
+//and the database records the sequence number of the last sale it took in the same transaction, so a
+//sale is never written twice. sales still in the file when the app stops are written on the next start.
+//a sale is never dropped either: once append() has returned its sequence number the till has been told the sale
+//went through, so the drain writes it even if a change made in the meantime has taken its stock.
+//
+//flushes are grouped: while one till's flush is running, the sales appended by the others queue behind it
+//and are all made durable by the next single flush, so a burst of checkouts costs a few flushes, not one each.
+//the file is reused from the start whenever every sale in it has reached the database.
+//
+//record layout: payload length (int), CRC32 of the payload (int), then the payload: sequence number (long),
+//product ID (int), quantity (int), sale price (double), cost (double), product name and date (short length + UTF-8).
+//a record with a bad checksum, or one that does not follow on from the sequence number before it, ends the log.
+public final class SaleJournal {
+
+    //where the drain reports the batches it cannot write
+    private static final Logger LOG = Logger.getLogger(SaleJournal.class.getName());
+
+    //the size of the journal file; when it is full, new sales wait until the drain has emptied it
+    static final int CAPACITY = 4 * 1024 * 1024;
+
+    //the file header: a marker and the layout version
+    private static final int MAGIC = 0x534A4E4C; //"SJNL"
+    private static final int LAYOUT_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    //the bytes before each record's payload (its length and checksum)
+    static final int RECORD_HEADER_SIZE = 8;
+
+    //the most sales written to the database in one transaction
+    private static final int MAX_DRAIN_BATCH = 256;
+
+    //how long the drain waits before trying a batch again after the database refused it
+    static final long DRAIN_RETRY_MILLIS = 500;
+
+    //while a batch keeps failing, every this many failed tries is logged again (about once a minute)
+    private static final int DRAIN_LOG_INTERVAL = 120;
+
+    //the longest append() waits for the journal to be resumed or to have room, so a till is never stuck behind a
+    //long restore or a drain that cannot write
+    static final long APPEND_WAIT_MILLIS = 5000;
+
+    //returned by append() when the product does not have enough units left (nothing was appended)
+    public static final long NOT_AVAILABLE = -1;
+
+    //returned by append() when the stock was read before sales that have since been drained, so must be read again
+    public static final long STALE_STOCK = -2;
+
+    //returned by append() when the journal stayed paused or full for APPEND_WAIT_MILLIS, so the sale could not be
+    //taken now whatever the stock (nothing was appended; the till can try again)
+    public static final long BUSY = -3;
+
+    //one journaled sale
+    public static final class Entry {
+        final long seq;
+        final int productId;
+        final String productName;
+        final int quantity;
+        final double salePrice;
+        final double cost;
+        final String date; //when the sale was made (stored date format), not when it was drained
+
+        Entry(long seq, int productId, String productName, int quantity, double salePrice, double cost, String date) {
+            this.seq = seq;
+            this.productId = productId;
+            this.productName = productName;
+            this.quantity = quantity;
+            this.salePrice = salePrice;
+            this.cost = cost;
+            this.date = date;
+        }
+    }
+
+    //writes a batch of sales into the database in one transaction, together with the batch's last sequence number
+    public interface Sink {
+        void drain(List<Entry> batch);
+    }
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer buffer;
+
+    //the sales appended but not drained yet, oldest first (guarded by this)
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+
+    //where the next record goes, the last sequence number appended, the last one flushed to disk and the
+    //last one drained into the database (all guarded by this)
+    private int position;
+    private long lastSeq;
+    private long durableSeq;
+    private long drainedSeq;
+    private boolean closed;
+
+    //true while new sales are held back (e.g. while the database file is being replaced), and the end of the
+    //furthest record ever written since the file was last cleared (both guarded by this)
+    private boolean paused;
+    private int highWater;
+
+    //the number of times the file has been flushed to disk, and the number of times the drain failed to write a
+    //batch (both guarded by this)
+    private long flushes;
+    private long drainFailures;
+
+    //held while the file is being flushed, so a till that arrives during a flush waits and then usually finds
+    //its sale already covered by it
+    private final Object flushLock = new Object();
+
+    //the thread that writes the sales into the database (null until start())
+    private Thread drainThread;
+
+    private SaleJournal(File file, RandomAccessFile raf, MappedByteBuffer buffer) {
+        this.file = file;
+        this.raf = raf;
+        this.buffer = buffer;
+    }
+
+    //opening (or creating) the journal file. drainedSeq is the last sequence number the database has taken;
+    //the sales after it that are still in the file become pending, to be written again by the drain
+    public static SaleJournal open(File file, long drainedSeq) {
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            boolean created = raf.length() < CAPACITY;
+            if (created) {
+                raf.setLength(CAPACITY);
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, CAPACITY);
+            SaleJournal journal = new SaleJournal(file, raf, buffer);
+            if (buffer.getInt(0) != MAGIC) {
+                if (!created && buffer.getInt(0) != 0) {
+                    throw new StoreException("not a sale journal: " + file);
+                }
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, LAYOUT_VERSION);
+                buffer.putInt(HEADER_SIZE, 0);
+                buffer.force();
+            }
+            journal.replay(drainedSeq);
+            return journal;
+        } catch (IOException e) {
+            closeQuietly(raf);
+            throw new StoreException("could not open the sale journal " + file, e);
+        } catch (RuntimeException e) {
+            closeQuietly(raf);
+            throw e;
+        }
+    }
+
+    //reading the records left in the file; the ones after drainedSeq are pending again
+    private void replay(long drained) {
+        drainedSeq = drained;
+        lastSeq = drained;
+        int offset = HEADER_SIZE;
+        long expected = -1;
+        while (true) {
+            Entry entry = readRecord(offset);
+            if (entry == null || (expected >= 0 && entry.seq != expected)) {
+                break;
+            }
+            if (entry.seq > drained) {
+                pending.add(entry);
+            }
+            lastSeq = Math.max(lastSeq, entry.seq);
+            expected = entry.seq + 1;
+            offset += RECORD_HEADER_SIZE + buffer.getInt(offset);
+        }
+        durableSeq = lastSeq; //everything read back from the file is on disk
+        position = pending.isEmpty() ? HEADER_SIZE : offset;
+        highWater = offset;
+    }
+
+    //decoding the record at offset, or null if there is none (or it was torn)
+    private Entry readRecord(int offset) {
+        if (offset + RECORD_HEADER_SIZE > CAPACITY) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > CAPACITY - offset - RECORD_HEADER_SIZE) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + RECORD_HEADER_SIZE);
+        view.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, length);
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            return null;
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(payload);
+            long seq = in.getLong();
+            int productId = in.getInt();
+            int quantity = in.getInt();
+            double salePrice = in.getDouble();
+            double cost = in.getDouble();
+            String productName = readString(in);
+            String date = readString(in);
+            return new Entry(seq, productId, productName, quantity, salePrice, cost, date);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    //starting the background thread that writes the pending sales into the database through the sink
+    public synchronized void start(final Sink sink) {
+        if (drainThread != null) {
+            return;
+        }
+        drainThread = new Thread(() -> drainLoop(sink), "inventory-sale-journal");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    //appending a sale if the product has enough units left, and returning its sequence number once it is on disk.
+    //stock and stockDrainedSeq must be read from the database together (in one query), so the sales still only in
+    //the journal can be taken off the stock. returns NOT_AVAILABLE if there are not enough units, BUSY if the journal
+    //stayed paused or full for APPEND_WAIT_MILLIS, or STALE_STOCK if the drain has moved on since the stock was read
+    //(read it again and retry)
+    public long append(int productId, String productName, int quantity, double salePrice, double cost, String date,
+                       int stock, long stockDrainedSeq) {
+        long seq;
+        synchronized (this) {
+            byte[] record;
+            boolean waitedForResume = false;
+            long deadline = System.nanoTime() + APPEND_WAIT_MILLIS * 1_000_000L;
+            while (true) {
+                if (closed) {
+                    throw new StoreException("the sale journal is closed");
+                }
+                if (paused) {
+                    waitedForResume = true;
+                    if (!waitUntil(deadline)) {
+                        return BUSY; //still paused (e.g. a restore is running)
+                    }
+                    continue;
+                }
+                record = encode(lastSeq + 1, productId, productName, quantity, salePrice, cost, date);
+                if (record.length + 4 > CAPACITY - HEADER_SIZE) {
+                    throw new StoreException("sale is too large for the journal");
+                }
+                if (position + record.length + 4 <= CAPACITY) {
+                    break;
+                }
+                //the file is full: waiting for the drain to empty it (it then starts again from the beginning)
+                if (!waitUntil(deadline)) {
+                    return BUSY; //the drain did not make room in time
+                }
+            }
+            if (waitedForResume || stockDrainedSeq < drainedSeq) {
+                return STALE_STOCK; //the database may have changed (or been replaced) while this sale waited
+            }
+            if (stock - pendingQuantity(productId, stockDrainedSeq) < quantity) {
+                return NOT_AVAILABLE;
+            }
+            seq = lastSeq + 1;
+            ByteBuffer view = buffer.duplicate();
+            view.position(position);
+            view.put(record);
+            view.putInt(0); //an empty record after the last one, so a replay stops there
+            position += record.length;
+            highWater = Math.max(highWater, position);
+            lastSeq = seq;
+            pending.add(new Entry(seq, productId, productName, quantity, salePrice, cost, date));
+        }
+        awaitDurable(seq);
+        return seq;
+    }
+
+    //flushing the file until the sale with this sequence number is on disk; one flush covers every sale appended
+    //before it started, so the tills waiting behind it are usually done as soon as it finishes
+    private void awaitDurable(long seq) {
+        synchronized (flushLock) {
+            long target;
+            synchronized (this) {
+                if (durableSeq >= seq) {
+                    return;
+                }
+                target = lastSeq;
+            }
+            buffer.force();
+            synchronized (this) {
+                durableSeq = Math.max(durableSeq, target);
+                flushes++;
+                notifyAll(); //the drain only takes sales that are on disk
+            }
+        }
+    }
+
+    //waiting on this journal until notified or until the deadline (a System.nanoTime() value); returns false once the
+    //deadline has passed. call it holding the journal's lock
+    private boolean waitUntil(long deadline) {
+        long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+        if (remaining <= 0) {
+            return false;
+        }
+        try {
+            wait(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StoreException("interrupted while waiting to append to the sale journal", e);
+        }
+        return true;
+    }
+
+    //encoding one sale as a record (length, checksum, payload)
+    private static byte[] encode(long seq, int productId, String productName, int quantity, double salePrice,
+                                 double cost, String date) {
+        byte[] name = productName == null ? new byte[0] : productName.getBytes(StandardCharsets.UTF_8);
+        byte[] when = date.getBytes(StandardCharsets.UTF_8);
+        int length = 8 + 4 + 4 + 8 + 8 + 2 + name.length + 2 + when.length;
+        ByteBuffer out = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        out.putInt(length).putInt(0);
+        out.putLong(seq).putInt(productId).putInt(quantity).putDouble(salePrice).putDouble(cost);
+        out.putShort((short) name.length).put(name);
+        out.putShort((short) when.length).put(when);
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), RECORD_HEADER_SIZE, length);
+        out.putInt(4, (int) crc.getValue());
+        return out.array();
+    }
+
+    //reading a short-length-prefixed UTF-8 string
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //draining
+
+    //the drain thread: takes batches of flushed sales and hands them to the sink until the journal is closed
+    private void drainLoop(Sink sink) {
+        int failedTries = 0; //the failures in a row of the batch at the head of the journal
+        while (true) {
+            List<Entry> batch = awaitBatch();
+            if (batch == null) {
+                return;
+            }
+            try {
+                sink.drain(batch);
+                markDrained(batch.get(batch.size() - 1).seq);
+                if (failedTries > 0) {
+                    LOG.info("Sale journal drain wrote its batch after " + failedTries + " failed tries");
+                    failedTries = 0;
+                }
+            } catch (RuntimeException e) {
+                //the database could not be written (e.g. it is being restored): the batch stays pending and is tried
+                //again, because its sales were acknowledged. a batch that keeps failing is logged with its cause on
+                //the first try and then once every DRAIN_LOG_INTERVAL tries, while tills get BUSY once the file fills
+                failedTries++;
+                int waiting = drainFailed();
+                if (failedTries == 1 || failedTries % DRAIN_LOG_INTERVAL == 0) {
+                    LOG.log(Level.SEVERE, "Sale journal drain failed (try " + failedTries + ") at sale " + batch.get(0).seq
+                            + "; " + waiting + " sales are waiting", e);
+                }
+                try {
+                    Thread.sleep(DRAIN_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    //waiting for sales that are on disk but not drained, and returning up to MAX_DRAIN_BATCH of them (null once closed)
+    private synchronized List<Entry> awaitBatch() {
+        while (!closed && (pending.isEmpty() || pending.peekFirst().seq > durableSeq)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                return null;
+            }
+        }
+        if (closed) {
+            return null;
+        }
+        List<Entry> batch = new ArrayList<>(Math.min(pending.size(), MAX_DRAIN_BATCH));
+        for (Entry entry : pending) {
+            if (entry.seq > durableSeq || batch.size() == MAX_DRAIN_BATCH) {
+                break;
+            }
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    //forgetting the sales up to seq once the database has committed them; when none are left, the file is reused
+    //from the start (the database remembers seq, so the old records are skipped if they are ever read again)
+    private synchronized void markDrained(long seq) {
+        drainedSeq = Math.max(drainedSeq, seq);
+        while (!pending.isEmpty() && pending.peekFirst().seq <= seq) {
+            pending.removeFirst();
+        }
+        if (pending.isEmpty()) {
+            position = HEADER_SIZE;
+        }
+        notifyAll();
+    }
+
+    //counting a failed drain; returns the number of sales still waiting for the database
+    private synchronized int drainFailed() {
+        drainFailures++;
+        return pending.size();
+    }
+
+    //returns the number of times the drain failed to write a batch (each failure is tried again)
+    public synchronized long drainFailureCount() {
+        return drainFailures;
+    }
+
+    //returns the number of times the file has been flushed, which grouping keeps below the number of sales appended
+    public synchronized long flushCount() {
+        return flushes;
+    }
+
+    //returns the number of sales that are not in the database yet
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    //returns the units of a product sold by the sales after afterSeq that are not in the database yet.
+    //a change that takes stock away reads the drained sequence number in its own write transaction and keeps
+    //these units back, so it cannot take stock a journaled sale has already been promised
+    public synchronized int pendingQuantity(int productId, long afterSeq) {
+        int units = 0;
+        for (Entry entry : pending) {
+            if (entry.productId == productId && entry.seq > afterSeq) {
+                units += entry.quantity;
+            }
+        }
+        return units;
+    }
+
+    //waiting up to timeoutMillis until every sale appended so far is in the database, so a read that follows a
+    //checkout sees its sale; returns false if sales are still pending (or the wait was interrupted).
+    //the drain thread itself never waits, because it is the one that empties the journal
+    public synchronized boolean awaitDrained(long timeoutMillis) {
+        if (Thread.currentThread() == drainThread) {
+            return pending.isEmpty();
+        }
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        while (!closed && !pending.isEmpty()) {
+            long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return pending.isEmpty();
+    }
+
+    //holding back new sales (appends wait) until resume(); the drain carries on, so awaitDrained() can empty the journal
+    public synchronized void pause() {
+        paused = true;
+    }
+
+    //letting new sales in again; the ones that waited read their stock again first
+    public synchronized void resume() {
+        paused = false;
+        notifyAll();
+    }
+
+    //starting the numbering again from the drained sequence number of a replaced database file. the journal must be
+    //empty; every old record is cleared from the file, so none of them can be mistaken for a new one on a replay
+    public synchronized void rebase(long drained) {
+        if (!pending.isEmpty()) {
+            throw new StoreException("the sale journal still has sales to write");
+        }
+        for (int offset = HEADER_SIZE; offset < highWater; offset++) {
+            buffer.put(offset, (byte) 0);
+        }
+        buffer.force();
+        position = HEADER_SIZE;
+        highWater = HEADER_SIZE;
+        lastSeq = drained;
+        durableSeq = drained;
+        drainedSeq = drained;
+    }
+
+    //stopping the drain (after the batch it is writing) and closing the file; pending sales stay in the file
+    //and are written when it is next opened
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+            thread = drainThread;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeQuietly(raf);
+    }
+
+    //returns the journal file
+    public File getFile() {
+        return file;
+    }
+
+    private static void closeQuietly(RandomAccessFile raf) {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException ignored) {
+                //nothing more can be done with a file that will not close
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to build the journal files and run the tills
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//importing the shared table and column names
+import static com.businesspro.inventorymanager.InventorySchema.*;
+
+//the SaleJournalCheck class checks the behaviour of the write-behind SaleJournal and of the store's drain:
+//a torn record ends the replay after a crash, the file is reused once it has drained, a paused journal holds
+//appends back (and gives up on them after APPEND_WAIT_MILLIS), a batch the database refuses is counted and tried
+//again, concurrent tills share flushes, and a journaled sale whose stock was taken before it was drained is still written. it runs headless on a plain JVM:
+//
+//  java -cp build/bench:sqlite-jdbc.jar com.businesspro.inventorymanager.SaleJournalCheck
+//
+//the journal checks need nothing else; the store checks need the sqlite-jdbc driver and are skipped without it.
+//the process exits with status 1 if a check fails.
+public final class SaleJournalCheck {
+
+    //the date every journaled sale in the checks is made at
+    private static final String DATE = "2025-11-01 10:00:00";
+
+    //the drained sequence number passed with the stock when a drain is running, as if the stock had been read after
+    //every sale the drain has written (so append() never asks for it to be read again)
+    private static final long STOCK_READ_AFTER_DRAIN = Long.MAX_VALUE;
+
+    //the failures found so far
+    private final List<String> failures = new ArrayList<>();
+
+    //the directory the journal and database files are made in
+    private final File dir;
+
+    private SaleJournalCheck(File dir) {
+        this.dir = dir;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File dir = Files.createTempDirectory("sale-journal-check").toFile();
+        dir.deleteOnExit();
+        SaleJournalCheck check = new SaleJournalCheck(dir);
+        check.replayStopsAtTornRecord();
+        check.replaySkipsDrainedSales();
+        check.fileIsReusedAfterFullDrain();
+        check.pausedAppendWaitsForResume();
+        check.pausedAppendGivesUp();
+        check.failedDrainIsCountedAndRetried();
+        check.concurrentAppendsShareFlushes();
+        if (hasSqliteDriver()) {
+            check.journaledSaleIsWrittenAfterCrash();
+            check.stockChangeKeepsJournaledUnits();
+        } else {
+            System.out.println("  store checks skipped: the sqlite-jdbc driver is not on the classpath");
+        }
+
+        if (check.failures.isEmpty()) {
+            System.out.println("sale journal checks: PASS");
+            System.exit(0);
+        }
+        System.out.println("sale journal checks: FAIL");
+        for (String failure : check.failures) {
+            System.out.println("  " + failure);
+        }
+        System.exit(1);
+    }
+
+    //journal checks
+
+    //three sales are appended and the app dies while the last record is being written: only the first two come back
+    private void replayStopsAtTornRecord() throws IOException {
+        File file = newFile("torn.journal");
+        SaleJournal journal = SaleJournal.open(file, 0);
+        for (int i = 0; i < 3; i++) {
+            journal.append(1, "Torn item", 1, 10, 6, DATE, 100, 0);
+        }
+        journal.close();
+
+        //flipping a byte of the third record's payload, so its checksum no longer matches
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long offset = SaleJournal.HEADER_SIZE;
+            for (int i = 0; i < 2; i++) {
+                raf.seek(offset);
+                offset += SaleJournal.RECORD_HEADER_SIZE + raf.readInt();
+            }
+            long payloadStart = offset + SaleJournal.RECORD_HEADER_SIZE;
+            raf.seek(payloadStart);
+            int b = raf.read();
+            raf.seek(payloadStart);
+            raf.write(b ^ 0xFF);
+        }
+
+        journal = SaleJournal.open(file, 0);
+        check(journal.pendingCount() == 2, "torn record: " + journal.pendingCount() + " sales replayed, expected 2");
+        //the next sale carries on from the last good record, over the torn one
+        long seq = journal.append(1, "Torn item", 1, 10, 6, DATE, 100, 0);
+        check(seq == 3, "torn record: the next sale got sequence number " + seq + ", expected 3");
+        journal.close();
+
+        journal = SaleJournal.open(file, 0);
+        check(journal.pendingCount() == 3, "torn record: " + journal.pendingCount() + " sales after the rewrite, expected 3");
+        journal.close();
+    }
+
+    //the sales the database already took (up to its drained sequence number) are not replayed again
+    private void replaySkipsDrainedSales() {
+        File file = newFile("drained.journal");
+        SaleJournal journal = SaleJournal.open(file, 0);
+        for (int i = 0; i < 5; i++) {
+            journal.append(1, "Drained item", 1, 10, 6, DATE, 100, 0);
+        }
+        journal.close();
+
+        journal = SaleJournal.open(file, 3);
+        check(journal.pendingCount() == 2, "drained replay: " + journal.pendingCount() + " sales pending, expected 2");
+        journal.close();
+    }
+
+    //once every sale has drained the file starts again from the beginning, and a crash after that replays only
+    //the new sales (the old records after them are never read)
+    private void fileIsReusedAfterFullDrain() {
+        File file = newFile("reuse.journal");
+        List<Long> drained = new CopyOnWriteArrayList<>();
+        AtomicBoolean accept = new AtomicBoolean(true);
+        SaleJournal journal = SaleJournal.open(file, 0);
+        journal.start(batch -> {
+            if (!accept.get()) {
+                throw new StoreException("the database is not taking sales"); //the batch stays pending
+            }
+            for (SaleJournal.Entry entry : batch) {
+                drained.add(entry.seq);
+            }
+        });
+        for (int i = 0; i < 10; i++) {
+            journal.append(1, "Reused item", 1, 10, 6, DATE, 100, STOCK_READ_AFTER_DRAIN);
+        }
+        check(journal.awaitDrained(5000), "reuse: the first sales did not drain");
+        check(drained.size() == 10, "reuse: " + drained.size() + " sales drained, expected 10");
+
+        //the next sale goes to the start of the file and is not drained before the "crash"
+        accept.set(false);
+        long seq = journal.append(1, "Reused item", 1, 10, 6, DATE, 100, STOCK_READ_AFTER_DRAIN);
+        journal.close();
+
+        journal = SaleJournal.open(file, 10);
+        check(journal.pendingCount() == 1, "reuse: " + journal.pendingCount() + " sales replayed, expected 1 (sequence " + seq + ")");
+        journal.close();
+    }
+
+    //a sale appended while the journal is paused waits, and reads its stock again once it is resumed
+    private void pausedAppendWaitsForResume() throws InterruptedException {
+        SaleJournal journal = SaleJournal.open(newFile("paused.journal"), 0);
+        journal.pause();
+        long[] result = new long[1];
+        Thread till = new Thread(() -> result[0] = journal.append(1, "Paused item", 1, 10, 6, DATE, 100, 0));
+        till.start();
+        till.join(200);
+        check(till.isAlive(), "pause: the append did not wait for the journal to be resumed");
+        journal.resume();
+        till.join(5000);
+        check(result[0] == SaleJournal.STALE_STOCK, "pause: the append returned " + result[0] + " after the resume, expected STALE_STOCK");
+        check(journal.pendingCount() == 0, "pause: the append that waited wrote a sale before reading its stock again");
+        journal.close();
+    }
+
+    //a sale appended while the journal stays paused gives up after APPEND_WAIT_MILLIS instead of blocking its till
+    private void pausedAppendGivesUp() {
+        SaleJournal journal = SaleJournal.open(newFile("stuck.journal"), 0);
+        journal.pause();
+        long start = System.nanoTime();
+        long result = journal.append(1, "Stuck item", 1, 10, 6, DATE, 100, 0);
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000L;
+        check(result == SaleJournal.BUSY, "stuck pause: the append returned " + result + ", expected BUSY");
+        check(waitedMillis < SaleJournal.APPEND_WAIT_MILLIS * 2, "stuck pause: the append waited " + waitedMillis + " ms");
+        journal.resume();
+        journal.close();
+    }
+
+    //a batch the database refuses stays pending: each failure is counted, and the same sales are written once it
+    //takes them
+    private void failedDrainIsCountedAndRetried() {
+        final int refusals = 2;
+        AtomicInteger tries = new AtomicInteger();
+        List<Long> drained = new CopyOnWriteArrayList<>();
+        SaleJournal journal = SaleJournal.open(newFile("refused.journal"), 0);
+        journal.start(batch -> {
+            if (tries.incrementAndGet() <= refusals) {
+                throw new StoreException("the database is not taking sales");
+            }
+            for (SaleJournal.Entry entry : batch) {
+                drained.add(entry.seq);
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            journal.append(1, "Refused item", 1, 10, 6, DATE, 100, STOCK_READ_AFTER_DRAIN);
+        }
+        check(journal.awaitDrained(SaleJournal.DRAIN_RETRY_MILLIS * (refusals + 4)), "refused drain: the sales were not written after the retries");
+        check(journal.drainFailureCount() == refusals, "refused drain: " + journal.drainFailureCount() + " failures counted, expected " + refusals);
+        check(drained.size() == 3, "refused drain: " + drained.size() + " sales written, expected 3");
+        journal.close();
+    }
+
+    //many tills appending at once each get their own sequence number, and their sales share flushes
+    private void concurrentAppendsShareFlushes() throws InterruptedException {
+        final int tills = 8;
+        final int salesPerTill = 200;
+        File file = newFile("group.journal");
+        SaleJournal journal = SaleJournal.open(file, 0);
+        journal.start(batch -> { });
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < tills; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < salesPerTill; i++) {
+                    seen.add(journal.append(1, "Group item", 1, 10, 6, DATE, Integer.MAX_VALUE, STOCK_READ_AFTER_DRAIN));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int sales = tills * salesPerTill;
+        check(seen.size() == sales, "group flush: " + seen.size() + " distinct sequence numbers for " + sales + " sales");
+        check(journal.flushCount() <= sales, "group flush: " + journal.flushCount() + " flushes for " + sales + " sales");
+        System.out.println("  group flush: " + journal.flushCount() + " flushes for " + sales + " sales");
+        journal.close();
+    }
+
+    //store checks (need the sqlite-jdbc driver)
+
+    //a till journals a sale, then the app dies before the drain and the stock is taken by an adjustment made
+    //before the journal is opened again: the sale is still written (overselling the stock) and counted
+    private void journaledSaleIsWrittenAfterCrash() {
+        File dbFile = newFile("crash.db");
+        File journalFile = newFile("crash.journal");
+        try (JdbcInventoryStore store = JdbcInventoryStore.open(dbFile)) {
+            int productId = (int) store.addProduct("Crash item", 10, 5, "Check", 6);
+
+            //the sale the till was told went through (5 in stock, none pending) before the app died
+            SaleJournal journal = SaleJournal.open(journalFile, 0);
+            long seq = journal.append(productId, "Crash item", 3, 10, 6, DATE, 5, 0);
+            journal.close();
+            check(seq == 1, "crash: the journaled sale got sequence number " + seq + ", expected 1");
+
+            //after the restart, a stock-take takes 4 units before the journal is opened
+            check(store.adjustStock(productId, -4, StockReason.CORRECTION) == 1, "crash: the adjustment was not applied");
+
+            store.setSaleJournalFile(journalFile);
+            store.openSaleJournal();
+            check(store.flushSaleJournal(5000), "crash: the journal did not drain");
+
+            StoreDatabase db = store.database();
+            Object[] id = {productId};
+            long stock = db.queryLong("SELECT " + COL_STOCK + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?", id);
+            long saleRows = db.queryLong("SELECT COUNT(*) FROM " + TABLE_SALES + " WHERE " + COL_PRODUCT_ID + " = ?", id);
+            long ledger = db.queryLong("SELECT IFNULL(SUM(" + COL_DELTA + "), 0) FROM " + TABLE_STOCK_MOVEMENTS
+                    + " WHERE " + COL_PRODUCT_ID + " = ?", id);
+            check(saleRows == 1, "crash: " + saleRows + " sales rows, expected the journaled sale");
+            check(stock == -2, "crash: stock " + stock + ", expected -2 (oversold by the journaled sale)");
+            check(ledger == stock, "crash: the ledger adds up to " + ledger + " but the stock is " + stock);
+            check(store.getJournalOversoldCount() == 1, "crash: " + store.getJournalOversoldCount() + " oversold sales counted, expected 1");
+        }
+    }
+
+    //a stock decrease made while a journaled sale may still be pending cannot take the units the sale was promised
+    private void stockChangeKeepsJournaledUnits() {
+        File dbFile = newFile("pending.db");
+        try (JdbcInventoryStore store = JdbcInventoryStore.open(dbFile)) {
+            store.setSaleJournalFile(newFile("pending.journal"));
+            int productId = (int) store.addProduct("Pending item", 10, 5, "Check", 6);
+            long result = store.recordSale(productId, "Pending item", 3, 10, 6);
+            check(result == InventoryStore.SALE_JOURNALED, "pending: recordSale returned " + result + ", expected SALE_JOURNALED");
+
+            //whether or not the sale has drained yet, only 2 units are left to take
+            check(store.adjustStock(productId, -5, StockReason.CORRECTION) == InventoryStore.STOCK_REJECTED,
+                    "pending: an adjustment took units already sold through the journal");
+            check(store.adjustStock(productId, -2, StockReason.CORRECTION) != InventoryStore.STOCK_REJECTED,
+                    "pending: an adjustment of the units still free was rejected");
+            check(store.flushSaleJournal(5000), "pending: the journal did not drain");
+
+            long stock = store.database().queryLong("SELECT " + COL_STOCK + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID
+                    + " = ?", new Object[]{productId});
+            check(stock == 0, "pending: stock " + stock + ", expected 0");
+            check(store.getJournalOversoldCount() == 0, "pending: a journaled sale oversold its stock");
+        }
+    }
+
+    //helpers
+
+    //returning a new file in the check directory, removed when the JVM exits
+    private File newFile(String name) {
+        File file = new File(dir, name);
+        file.deleteOnExit();
+        return file;
+    }
+
+    //noting a failure when a condition does not hold
+    private void check(boolean condition, String failure) {
+        if (!condition) {
+            failures.add(failure);
+        }
+    }
+
+    //returns whether the sqlite-jdbc driver can be loaded
+    private static boolean hasSqliteDriver() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
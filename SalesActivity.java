@@ -1,111 +1,159 @@
-package com.businesspro.inventorymanager;
-
-//importing necessary android and java classes
-import android.content.Intent; //it is used to navigate between activities
-import android.os.Bundle; //it is used to pass data and manage activity state
-import androidx.appcompat.app.AppCompatActivity; //this adds the base class for activities using the AppCompat library
-import androidx.recyclerview.widget.LinearLayoutManager; //this is the layout manager to display items vertically in RecyclerView
-import androidx.recyclerview.widget.RecyclerView; //this is the UI component to display lists efficiently
-import com.google.android.material.bottomnavigation.BottomNavigationView; //this is the bottom navigation bar widget
-import com.google.android.material.floatingactionbutton.FloatingActionButton; //this load the floating action button for quick actions
-import java.util.List; // Used for handling collections like lists of sales
-
-//this is the main Activity class for managing and displaying sales data
-public class SalesActivity extends AppCompatActivity {
-
-    //declaring variables for database operations and UI components
-    private DatabaseHelper dbHelper; //handles database interactions (CRUD)
-    private RecyclerView rvSales; //displays sales records in a list format
-
-    //calling the onCreate method when the activity is created so it initialises UI and logic
-    @Override
-    protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState); //it calls the parent class method to maintain lifecycle integrity
-        setContentView(R.layout.activity_sales); //it also sts the layout xml file for this activity
-
-        //it sets the title shown in the app bar
-        getSupportActionBar().setTitle("Sales Management");
-
-        //initialises database helper for accessing SQLite database
-        dbHelper = new DatabaseHelper(this);
-
-        //using findView method to find the RecyclerView from the xml layout
-        rvSales = findViewById(R.id.rv_sales);
-
-        //setting the layout manager to display items vertically (one below another)
-        rvSales.setLayoutManager(new LinearLayoutManager(this));
-
-        //using the findView method to find the floating action button used to add/record a new sale
-        FloatingActionButton fab = findViewById(R.id.fab_record_sale);
-
-        //when the FAB is clicked, it starts the RecordSaleActivity to record a new sale
-        fab.setOnClickListener(v -> startActivity(new Intent(this, RecordSaleActivity.class)));
-
-        //initialising the bottom navigation menu and set up navigation logic
-        setupBottomNavigation();
-
-        //loading and displaying the list of sales from the database
-        loadSales();
-    }
-
-    //configuring the bottom navigation bar and handles tab switching between screens
-    private void setupBottomNavigation() {
-        //using findView to find the bottom navigation view in the layout
-        BottomNavigationView bottomNav = findViewById(R.id.bottom_navigation);
-
-        //setting the currently selected menu item (Sales tab)
-        bottomNav.setSelectedItemId(R.id.nav_sales);
-
-        //setting a listener to handle navigation when different tabs are selected
-        bottomNav.setOnItemSelectedListener(item -> {
-            // Gets the ID of the selected item
-            int itemId = item.getItemId();
-
-            //when the user navigates to the Dashboard screen
-            if (itemId == R.id.nav_dashboard) {
-                startActivity(new Intent(this, DashboardActivity.class)); //start Dashboard activity
-                overridePendingTransition(0, 0); //therno e's animation for transition
-                finish(); //closing the current activity to avoid stacking
-                return true;
-
-                //when the user navigates to the Inventory screen
-            } else if (itemId == R.id.nav_inventory) {
-                startActivity(new Intent(this, InventoryActivity.class)); //start inventory activity
-                overridePendingTransition(0, 0);
-                finish();
-                return true;
-
-                //when the user navigates to the Reports screen
-            } else if (itemId == R.id.nav_reports) {
-                startActivity(new Intent(this, ReportsActivity.class)); //start reports activity
-                overridePendingTransition(0, 0);
-                finish();
-                return true;
-            }
-
-            //return false if no valid menu item is selected
-            return false;
-        });
-    }
-
-    //Loading the sales records from the database and displays them in the RecyclerView
-    private void loadSales() {
-        //retrieving all sales from the database using the helper class
-        List<Sale> sales = dbHelper.getAllSales();
-
-        //creating an adapter to bind sales data to RecyclerView items
-        SalesAdapter adapter = new SalesAdapter(this, sales);
-
-        //setting the adapter to RecyclerView to display the data
-        rvSales.setAdapter(adapter);
-    }
-
-    //calling the onResume method every time the activity becomes visible again (e.g., after recording a new sale)
-    @Override
-    protected void onResume() {
-        super.onResume();
-
-        //reloading the latest sales data to ensure the UI is up-to-date
-        loadSales();
-    }
-}
+package com.businesspro.inventorymanager;
+
+//importing necessary android and java classes
+import android.content.Intent; //it is used to navigate between activities
+import android.os.Bundle; //it is used to pass data and manage activity state
+import androidx.appcompat.app.AppCompatActivity; //this adds the base class for activities using the AppCompat library
+import androidx.recyclerview.widget.DiffUtil; //this works out which sales rows changed since the last load
+import androidx.recyclerview.widget.LinearLayoutManager; //this is the layout manager to display items vertically in RecyclerView
+import androidx.recyclerview.widget.RecyclerView; //this is the UI component to display lists efficiently
+import com.google.android.material.bottomnavigation.BottomNavigationView; //this is the bottom navigation bar widget
+import com.google.android.material.floatingactionbutton.FloatingActionButton; //this load the floating action button for quick actions
+import java.util.ArrayList; // Used for the empty list the adapter starts with
+import java.util.List; // Used for handling collections like lists of sales
+
+//this is the main Activity class for managing and displaying sales data
+public class SalesActivity extends AppCompatActivity {
+
+    //declaring variables for database operations and UI components
+    private DatabaseHelper dbHelper; //handles database interactions (CRUD)
+    private RecyclerView rvSales; //displays sales records in a list format
+    private SalesAdapter adapter; //binds the sales rows, kept for the life of the screen so reloads keep the scroll position
+
+    //the sales rows, loaded again whenever a sale is written while this screen is showing (e.g., at another till),
+    //and not at all while it is hidden
+    private ObservableQuery<SalesLoad> salesQuery;
+
+    //a loaded list of sales rows and its differences from the list that was on screen when the load started
+    private static final class SalesLoad {
+        final List<SaleDisplayItem> shown;
+        final List<SaleDisplayItem> items;
+        final DiffUtil.DiffResult diff;
+
+        SalesLoad(List<SaleDisplayItem> shown, List<SaleDisplayItem> items, DiffUtil.DiffResult diff) {
+            this.shown = shown;
+            this.items = items;
+            this.diff = diff;
+        }
+    }
+
+    //calling the onCreate method when the activity is created so it initialises UI and logic
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState); //it calls the parent class method to maintain lifecycle integrity
+        setContentView(R.layout.activity_sales); //it also sts the layout xml file for this activity
+
+        //it sets the title shown in the app bar
+        getSupportActionBar().setTitle("Sales Management");
+
+        //initialises database helper for accessing SQLite database
+        dbHelper = DatabaseHelper.getInstance(this);
+
+        //using findView method to find the RecyclerView from the xml layout
+        rvSales = findViewById(R.id.rv_sales);
+
+        //setting the layout manager to display items vertically (one below another)
+        rvSales.setLayoutManager(new LinearLayoutManager(this));
+
+        //attaching the adapter once; each load only updates the rows that changed
+        adapter = new SalesAdapter(this, new ArrayList<>());
+        rvSales.setAdapter(adapter);
+
+        //using the findView method to find the floating action button used to add/record a new sale
+        FloatingActionButton fab = findViewById(R.id.fab_record_sale);
+
+        //when the FAB is clicked, it starts the RecordSaleActivity to record a new sale
+        fab.setOnClickListener(v -> startActivity(new Intent(this, RecordSaleActivity.class)));
+
+        //initialising the bottom navigation menu and set up navigation logic
+        setupBottomNavigation();
+
+        //the list of sales is loaded in onStart(), which always runs right after onCreate()
+        salesQuery = new ObservableQuery<>(dbHelper.getStore().getInvalidationTracker(), this::loadSales,
+                AppExecutors.diskIO(), AppExecutors.mainThread(), this::showSales, InventorySchema.TABLE_SALES);
+    }
+
+    //configuring the bottom navigation bar and handles tab switching between screens
+    private void setupBottomNavigation() {
+        //using findView to find the bottom navigation view in the layout
+        BottomNavigationView bottomNav = findViewById(R.id.bottom_navigation);
+
+        //setting the currently selected menu item (Sales tab)
+        bottomNav.setSelectedItemId(R.id.nav_sales);
+
+        //setting a listener to handle navigation when different tabs are selected
+        bottomNav.setOnItemSelectedListener(item -> {
+            // Gets the ID of the selected item
+            int itemId = item.getItemId();
+
+            //when the user navigates to the Dashboard screen
+            if (itemId == R.id.nav_dashboard) {
+                startActivity(new Intent(this, DashboardActivity.class)); //start Dashboard activity
+                overridePendingTransition(0, 0); //therno e's animation for transition
+                finish(); //closing the current activity to avoid stacking
+                return true;
+
+                //when the user navigates to the Inventory screen
+            } else if (itemId == R.id.nav_inventory) {
+                startActivity(new Intent(this, InventoryActivity.class)); //start inventory activity
+                overridePendingTransition(0, 0);
+                finish();
+                return true;
+
+                //when the user navigates to the Reports screen
+            } else if (itemId == R.id.nav_reports) {
+                startActivity(new Intent(this, ReportsActivity.class)); //start reports activity
+                overridePendingTransition(0, 0);
+                finish();
+                return true;
+            }
+
+            //return false if no valid menu item is selected
+            return false;
+        });
+    }
+
+    //Loading the sales records from the database (run by the sales query on the background thread, so the UI thread
+    //only applies the result)
+    private SalesLoad loadSales() {
+        long traceStart = PerfTrace.begin();
+
+        //the list currently on screen (the adapter replaces it rather than changing it, so it can be read here)
+        List<SaleDisplayItem> current = adapter.getSales();
+
+        //retrieving all sales from the database using the helper class
+        List<Sale> sales = dbHelper.getAllSales();
+
+        //converting the sales into ready-to-show rows once, instead of on every bind
+        List<SaleDisplayItem> items = SaleDisplayItem.fromSales(sales);
+
+        //working out which rows changed, so a new sale inserts one row instead of rebinding the list
+        DiffUtil.DiffResult diff = SalesAdapter.diffSales(current, items);
+        PerfTrace.end("load.sales", traceStart);
+        return new SalesLoad(current, items, diff);
+    }
+
+    //displaying the loaded sales rows in the RecyclerView, only rebinding the rows that changed
+    private void showSales(SalesLoad load) {
+        //if the list changed since the load started, the diff is stale, so it is recalculated here
+        DiffUtil.DiffResult diff = adapter.getSales() == load.shown
+                ? load.diff
+                : SalesAdapter.diffSales(adapter.getSales(), load.items);
+        adapter.updateSales(load.items, diff);
+    }
+
+    //calling the onStart method every time the activity becomes visible (e.g., after recording a new sale):
+    //the sales are loaded if any were written while it was hidden, then kept up to date
+    @Override
+    protected void onStart() {
+        super.onStart();
+        salesQuery.start();
+    }
+
+    //calling the onStop method when the activity is hidden, so it stops watching the sales
+    @Override
+    protected void onStop() {
+        salesQuery.stop();
+        super.onStop();
+    }
+}
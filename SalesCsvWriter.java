@@ -0,0 +1,57 @@
+package com.businesspro.inventorymanager;
+
+//importing the writer classes the csv is written to
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+//the SalesCsvWriter class writes sales as csv rows (the sales report export).
+//rows are built in one reusable StringBuilder and written in a single call each,
+//instead of one small Writer.append() per field.
+public final class SalesCsvWriter {
+
+    //the csv header (column names)
+    public static final String HEADER = "Sale ID,Product Name,Quantity,Price,Total,Date,Profit\n";
+
+    //private constructor because this class only has static helpers
+    private SalesCsvWriter() {
+    }
+
+    //writing the header and one row per sale
+    public static void write(Writer writer, List<Sale> sales) throws IOException {
+        writer.write(HEADER);
+        StringBuilder row = new StringBuilder(128);
+        for (Sale sale : sales) {
+            row.setLength(0);
+            appendRow(row, sale);
+            writer.append(row);
+        }
+        writer.flush();
+    }
+
+    //adding one sale as a csv row (text fields are quoted, and quotes inside them are doubled)
+    static void appendRow(StringBuilder row, Sale sale) {
+        row.append(sale.getSaleId()).append(',');
+        appendQuoted(row, sale.getProductName()).append(',');
+        row.append(sale.getQuantity()).append(',');
+        row.append(sale.getSalePrice()).append(',');
+        row.append(sale.getTotal()).append(',');
+        appendQuoted(row, sale.getDate()).append(',');
+        row.append(sale.getProfit()).append('\n');
+    }
+
+    //adding a quoted text field
+    private static StringBuilder appendQuoted(StringBuilder row, String value) {
+        row.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    row.append('"'); //a quote inside a field is written twice
+                }
+                row.append(c);
+            }
+        }
+        return row.append('"');
+    }
+}
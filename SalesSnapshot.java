@@ -0,0 +1,482 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used by the snapshot
+import java.text.ParseException; //this is thrown when a stored date cannot be read
+import java.text.SimpleDateFormat; //this turns stored dates into timestamps and back
+import java.util.Arrays; //this sorts the rows by time and trims the columns
+import java.util.HashMap; //this maps product IDs to their dictionary codes while loading
+import java.util.Locale; //this keeps the date format independent of the device language
+import java.util.Map; //this is the interface of the product dictionary
+import java.util.PriorityQueue; //this picks the largest groups without sorting them all
+import java.util.TimeZone; //this reads stored dates the same way SQLite's strftime('%s') does
+import java.util.concurrent.ForkJoinPool; //this runs the aggregation on every core
+import java.util.concurrent.RecursiveTask; //this splits the rows between the cores
+
+//the SalesSnapshot class is a read-only, in-memory copy of a branch's sales held column by column in primitive
+//arrays, so analytics can scan millions of sales without a database query or an object per sale.
+//each sale takes about 32 bytes (a product code, the quantity, a timestamp and the total and profit in cents);
+//product names are dictionary encoded, so each product's name is stored once however many sales it has.
+//rows are kept in time order, so a date range is found with a binary search, and the filters and group-bys
+//are split across the cores with fork-join.
+//timestamps are the stored local dates read as UTC seconds (what strftime('%s', date) returns), so the hour
+//and day of a timestamp are the shop's wall-clock hour and day.
+//the aggregations use their own ForkJoinPool because ForkJoinPool.commonPool() needs API level 24.
+public final class SalesSnapshot {
+
+    //the rows one fork-join task adds up before it stops splitting
+    private static final int LEAF_ROWS = 32 * 1024;
+
+    //above this many groups each task allocates large accumulators, so the rows are only split once per core
+    private static final int LARGE_GROUP_COUNT = 1024;
+
+    //the fork-join pool the aggregations run on, one worker per core (created on first use)
+    private static final class Pool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    private static final long SECONDS_PER_HOUR = 3600;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    //the number of sales in the snapshot
+    private final int size;
+
+    //the columns: one entry per sale, oldest first
+    private final int[] product; //the product's dictionary code
+    private final int[] quantity;
+    private final long[] timestamp;
+    private final long[] totalCents;
+    private final long[] profitCents;
+
+    //the product dictionary: a code's product ID and its name in the newest sale
+    private final int[] productIds;
+    private final String[] productNames;
+
+    private SalesSnapshot(Builder builder, int[] order) {
+        size = builder.size;
+        product = reorder(builder.product, order, size);
+        quantity = reorder(builder.quantity, order, size);
+        timestamp = reorder(builder.timestamp, order, size);
+        totalCents = reorder(builder.totalCents, order, size);
+        profitCents = reorder(builder.profitCents, order, size);
+        productIds = Arrays.copyOf(builder.productIds, builder.productCount);
+        productNames = Arrays.copyOf(builder.productNames, builder.productCount);
+    }
+
+    //returns the number of sales in the snapshot
+    public int size() {
+        return size;
+    }
+
+    //returns the number of different products sold
+    public int productCount() {
+        return productIds.length;
+    }
+
+    //returns the product ID of a dictionary code (a group of byProduct())
+    public int productId(int code) {
+        return productIds[code];
+    }
+
+    //returns the product name of a dictionary code (a group of byProduct())
+    public String productName(int code) {
+        return productNames[code];
+    }
+
+    //returns the timestamp of the oldest sale, or 0 if the snapshot is empty
+    public long firstTimestamp() {
+        return size == 0 ? 0 : timestamp[0];
+    }
+
+    //returns the timestamp of the newest sale, or 0 if the snapshot is empty
+    public long lastTimestamp() {
+        return size == 0 ? 0 : timestamp[size - 1];
+    }
+
+    //returns roughly how many bytes the columns and the dictionary take up
+    public long bytesUsed() {
+        long bytes = (long) size * (4 + 4 + 8 + 8 + 8) + (long) productIds.length * (4 + 4);
+        for (String name : productNames) {
+            bytes += 40 + 2L * name.length();
+        }
+        return bytes;
+    }
+
+    //aggregations; 'from' (inclusive) and 'to' (exclusive) are timestamps, Long.MIN_VALUE / Long.MAX_VALUE for no limit
+
+    //adding up every sale in the range
+    public Groups totals(long from, long to) {
+        return groupBy(from, to, 1, 0, row -> 0);
+    }
+
+    //adding up the sales in the range per product; group i is dictionary code i
+    public Groups byProduct(long from, long to) {
+        final int[] codes = product;
+        return groupBy(from, to, productIds.length, 0, row -> codes[row]);
+    }
+
+    //adding up the sales in the range of one product, by hour of the day (group 0 is midnight to 1am);
+    //a productId below 0 includes every product
+    public Groups byHourOfDay(long from, long to, int productId) {
+        final long[] times = timestamp;
+        return groupBy(from, to, 24, 0, filtered(productId, row -> (int) (times[row] % SECONDS_PER_DAY / SECONDS_PER_HOUR)));
+    }
+
+    //adding up the sales in the range by day; group i is the day starting at Groups.base() + i days
+    public Groups byDay(long from, long to) {
+        int[] range = rowRange(from, to);
+        if (range[0] == range[1]) {
+            return new Groups(0, 0);
+        }
+        final long firstDay = timestamp[range[0]] / SECONDS_PER_DAY;
+        int days = (int) (timestamp[range[1] - 1] / SECONDS_PER_DAY - firstDay + 1);
+        final long[] times = timestamp;
+        return groupBy(from, to, days, firstDay * SECONDS_PER_DAY, row -> (int) (times[row] / SECONDS_PER_DAY - firstDay));
+    }
+
+    //wrapping a key so rows of other products are skipped (a key below 0 skips the row)
+    private GroupKey filtered(int productId, final GroupKey key) {
+        if (productId < 0) {
+            return key;
+        }
+        final int wanted = codeOf(productId);
+        if (wanted < 0) {
+            return row -> -1;
+        }
+        final int[] codes = product;
+        return row -> codes[row] == wanted ? key.of(row) : -1;
+    }
+
+    //returning the dictionary code of a product ID, or -1 if it has no sales in the snapshot
+    private int codeOf(int productId) {
+        for (int code = 0; code < productIds.length; code++) {
+            if (productIds[code] == productId) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    //the group-by engine: finds the rows of the range and adds every row into the group its key returns
+    private Groups groupBy(long from, long to, int groupCount, long base, GroupKey key) {
+        int[] range = rowRange(from, to);
+        int rows = range[1] - range[0];
+        ForkJoinPool pool = Pool.INSTANCE;
+        int parallelism = pool.getParallelism();
+        int leafRows = groupCount > LARGE_GROUP_COUNT
+                ? Math.max(LEAF_ROWS, (rows + parallelism - 1) / parallelism)
+                : LEAF_ROWS;
+        Groups groups = rows <= leafRows
+                ? new GroupTask(range[0], range[1], groupCount, leafRows, key).compute()
+                : pool.invoke(new GroupTask(range[0], range[1], groupCount, leafRows, key));
+        groups.base = base;
+        return groups;
+    }
+
+    //returning {first row, end row} of the sales from 'from' (inclusive) up to 'to' (exclusive)
+    private int[] rowRange(long from, long to) {
+        int first = lowerBound(from);
+        int end = Math.max(first, lowerBound(to));
+        return new int[]{first, end};
+    }
+
+    //returning the first row with a timestamp at or after t (size if there is none)
+    private int lowerBound(long t) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamp[mid] < t) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    //returns the group a row is added to, or a negative number to leave the row out
+    private interface GroupKey {
+        int of(int row);
+    }
+
+    //adds up one slice of rows, splitting it in half while it is larger than a leaf
+    private final class GroupTask extends RecursiveTask<Groups> {
+        private static final long serialVersionUID = 1L;
+
+        private final int first;
+        private final int end;
+        private final int groupCount;
+        private final int leafRows;
+        private final GroupKey key;
+
+        GroupTask(int first, int end, int groupCount, int leafRows, GroupKey key) {
+            this.first = first;
+            this.end = end;
+            this.groupCount = groupCount;
+            this.leafRows = leafRows;
+            this.key = key;
+        }
+
+        @Override
+        protected Groups compute() {
+            if (end - first <= leafRows) {
+                return addRows();
+            }
+            int mid = (first + end) >>> 1;
+            GroupTask left = new GroupTask(first, mid, groupCount, leafRows, key);
+            left.fork();
+            Groups right = new GroupTask(mid, end, groupCount, leafRows, key).compute();
+            return left.join().merge(right);
+        }
+
+        //the inner loop: only primitive array reads and adds
+        private Groups addRows() {
+            Groups groups = new Groups(groupCount, 0);
+            long[] count = groups.count;
+            long[] units = groups.units;
+            long[] total = groups.totalCents;
+            long[] profit = groups.profitCents;
+            for (int row = first; row < end; row++) {
+                int group = key.of(row);
+                if (group >= 0) {
+                    count[group]++;
+                    units[group] += quantity[row];
+                    total[group] += totalCents[row];
+                    profit[group] += profitCents[row];
+                }
+            }
+            return groups;
+        }
+    }
+
+    //the result of an aggregation: the number of sales, units sold, value and profit of each group
+    public static final class Groups {
+        private final long[] count;
+        private final long[] units;
+        private final long[] totalCents;
+        private final long[] profitCents;
+
+        //what group 0 stands for (the first day's timestamp for byDay(), 0 otherwise)
+        private long base;
+
+        Groups(int groupCount, long base) {
+            count = new long[groupCount];
+            units = new long[groupCount];
+            totalCents = new long[groupCount];
+            profitCents = new long[groupCount];
+            this.base = base;
+        }
+
+        //adding another slice's groups into this one
+        Groups merge(Groups other) {
+            for (int i = 0; i < count.length; i++) {
+                count[i] += other.count[i];
+                units[i] += other.units[i];
+                totalCents[i] += other.totalCents[i];
+                profitCents[i] += other.profitCents[i];
+            }
+            return this;
+        }
+
+        //returns the number of groups
+        public int size() { return count.length; }
+
+        //returns what group 0 stands for (the first day's timestamp for byDay(), 0 otherwise)
+        public long base() { return base; }
+
+        //returns the number of sales in a group
+        public long count(int group) { return count[group]; }
+
+        //returns the units sold in a group
+        public long units(int group) { return units[group]; }
+
+        //returns the value of a group's sales in cents
+        public long totalCents(int group) { return totalCents[group]; }
+
+        //returns the profit of a group's sales in cents
+        public long profitCents(int group) { return profitCents[group]; }
+
+        //returning the groups with the highest sales value, highest first (at most n, only groups with sales)
+        public int[] topByTotal(int n) {
+            PriorityQueue<Integer> top = new PriorityQueue<>(n + 1, (a, b) -> Long.compare(totalCents[a], totalCents[b]));
+            for (int group = 0; group < count.length; group++) {
+                if (count[group] > 0) {
+                    top.add(group);
+                    if (top.size() > n) {
+                        top.poll();
+                    }
+                }
+            }
+            int[] groups = new int[top.size()];
+            for (int i = groups.length - 1; i >= 0; i--) {
+                groups[i] = top.poll();
+            }
+            return groups;
+        }
+    }
+
+    //timestamps
+
+    //turning a stored date ("2025-11-01 14:30:00") into a snapshot timestamp
+    public static long toTimestamp(String storedDate) {
+        try {
+            return utcFormat().parse(storedDate).getTime() / 1000;
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("not a stored date: " + storedDate, e);
+        }
+    }
+
+    //turning a snapshot timestamp back into a stored date
+    public static String toStoredDate(long timestamp) {
+        return utcFormat().format(new java.util.Date(timestamp * 1000));
+    }
+
+    //a new format each time because SimpleDateFormat is not thread-safe
+    private static SimpleDateFormat utcFormat() {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.ROOT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    //copying the first 'size' values of a column, in the given row order (null keeps the order)
+    private static int[] reorder(int[] column, int[] order, int size) {
+        if (order == null) {
+            return Arrays.copyOf(column, size);
+        }
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = column[order[i]];
+        }
+        return sorted;
+    }
+
+    private static long[] reorder(long[] column, int[] order, int size) {
+        if (order == null) {
+            return Arrays.copyOf(column, size);
+        }
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = column[order[i]];
+        }
+        return sorted;
+    }
+
+    //the Builder collects sales one at a time (in any order) into growing columns
+    public static final class Builder {
+        //the bits of a sort key that hold the row index (so up to 16 million rows are sorted as primitives)
+        private static final int ORDER_INDEX_BITS = 24;
+
+        private int size;
+        private int[] product;
+        private int[] quantity;
+        private long[] timestamp;
+        private long[] totalCents;
+        private long[] profitCents;
+        private boolean ordered = true;
+
+        private final Map<Integer, Integer> codes = new HashMap<>();
+        private int productCount;
+        private int[] productIds = new int[64];
+        private String[] productNames = new String[64];
+        private long[] productNewest = new long[64];
+
+        //creating a builder sized for about 'expectedRows' sales (it grows if there are more)
+        public Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            product = new int[capacity];
+            quantity = new int[capacity];
+            timestamp = new long[capacity];
+            totalCents = new long[capacity];
+            profitCents = new long[capacity];
+        }
+
+        //returns the number of sales added so far
+        public int size() {
+            return size;
+        }
+
+        //adding one sale; the product name of the newest sale of each product is kept
+        public Builder add(int productId, String productName, int units, long time, long total, long profit) {
+            if (size == product.length) {
+                int capacity = size + (size >> 1);
+                product = Arrays.copyOf(product, capacity);
+                quantity = Arrays.copyOf(quantity, capacity);
+                timestamp = Arrays.copyOf(timestamp, capacity);
+                totalCents = Arrays.copyOf(totalCents, capacity);
+                profitCents = Arrays.copyOf(profitCents, capacity);
+            }
+            if (size > 0 && time < timestamp[size - 1]) {
+                ordered = false;
+            }
+            int code = codeFor(productId, productName, time);
+            product[size] = code;
+            quantity[size] = units;
+            timestamp[size] = time;
+            totalCents[size] = total;
+            profitCents[size] = profit;
+            size++;
+            return this;
+        }
+
+        //returning a product's dictionary code, adding the product the first time it is seen
+        private int codeFor(int productId, String productName, long time) {
+            Integer code = codes.get(productId);
+            if (code != null) {
+                if (time >= productNewest[code] && productName != null) {
+                    productNames[code] = productName;
+                    productNewest[code] = time;
+                }
+                return code;
+            }
+            if (productCount == productIds.length) {
+                productIds = Arrays.copyOf(productIds, productCount * 2);
+                productNames = Arrays.copyOf(productNames, productCount * 2);
+                productNewest = Arrays.copyOf(productNewest, productCount * 2);
+            }
+            productIds[productCount] = productId;
+            productNames[productCount] = productName == null ? "" : productName;
+            productNewest[productCount] = time;
+            codes.put(productId, productCount);
+            return productCount++;
+        }
+
+        //creating the snapshot, sorting the rows by time first if they were not added in order
+        public SalesSnapshot build() {
+            return new SalesSnapshot(this, ordered ? null : timeOrder());
+        }
+
+        //returning the row indexes in time order (rows with the same time keep the order they were added in).
+        //each row's time (from the oldest) and index are packed into one long, so a primitive sort does the work
+        private int[] timeOrder() {
+            long oldest = Long.MAX_VALUE;
+            long newest = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                oldest = Math.min(oldest, timestamp[i]);
+                newest = Math.max(newest, timestamp[i]);
+            }
+            int[] order = new int[size];
+            if (size >= 1 << ORDER_INDEX_BITS || newest - oldest >= 1L << (63 - ORDER_INDEX_BITS)) {
+                //too many rows or too long a span to pack: sorting boxed indexes instead
+                Integer[] rows = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    rows[i] = i;
+                }
+                final long[] times = timestamp;
+                Arrays.sort(rows, (x, y) -> Long.compare(times[x], times[y]));
+                for (int i = 0; i < size; i++) {
+                    order[i] = rows[i];
+                }
+                return order;
+            }
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (timestamp[i] - oldest) << ORDER_INDEX_BITS | i;
+            }
+            Arrays.sort(keys);
+            for (int i = 0; i < size; i++) {
+                order[i] = (int) (keys[i] & ((1 << ORDER_INDEX_BITS) - 1));
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.businesspro.inventorymanager;
+
+//the SalesVelocity class holds the maths of a product's sales velocity: an exponentially weighted average of the
+//units it sells per day, kept on the product row and brought forward one day at a time as sales are recorded.
+//
+//each product keeps three values: the average up to the end of the day before velocity_day, velocity_day itself
+//(the last day it sold) and the units sold that day. a sale on the same day only adds to day_units; the first
+//sale of a later day folds day_units into the average, then lets it fade over the days with no sales in between.
+//reading the velocity does the same fold up to today, so no sales history is ever read again.
+public final class SalesVelocity {
+
+    //the span of the average in days: each day's units weigh ALPHA = 2 / (SPAN_DAYS + 1) in it and then fade,
+    //so the last two weeks carry most of the weight and one unusually busy or quiet day barely moves it
+    public static final int SPAN_DAYS = 14;
+    static final double ALPHA = 2.0 / (SPAN_DAYS + 1);
+
+    //how many days an order takes to arrive, the days of extra stock kept against a busier week than usual,
+    //and how many days of sales one order is meant to last
+    public static final int LEAD_TIME_DAYS = 7;
+    public static final int SAFETY_DAYS = 3;
+    public static final int ORDER_COVER_DAYS = 28;
+
+    //private constructor because this class only has static helpers
+    private SalesVelocity() {
+    }
+
+    //the days since 1970-01-01 of a day in the stored format ("yyyy-MM-dd", anything after it is ignored)
+    public static long epochDay(String storedDate) {
+        int year = Integer.parseInt(storedDate.substring(0, 4));
+        int month = Integer.parseInt(storedDate.substring(5, 7));
+        int day = Integer.parseInt(storedDate.substring(8, 10));
+        //counting from March, so the leap day is the last day of the counted year
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    //the weight the average keeps after the given number of days without sales
+    static double decay(long days) {
+        return Math.pow(1 - ALPHA, days);
+    }
+
+    //the average daily units up to the end of the day before 'today', from a product's stored values
+    //(velocityDay is an epoch day, ignored while dayUnits is 0)
+    public static double dailyUnits(double velocity, long velocityDay, int dayUnits, long today) {
+        if (velocityDay >= today) {
+            return velocity; //today's units are not a whole day yet
+        }
+        return ((1 - ALPHA) * velocity + ALPHA * dayUnits) * decay(today - velocityDay - 1);
+    }
+
+    //the reorder suggestion for a product selling dailyUnits a day with the given stock
+    public static ReorderSuggestion suggest(int productId, String name, int stock, double dailyUnits) {
+        double daysOfCover = dailyUnits > 0 ? Math.max(stock, 0) / dailyUnits : Double.POSITIVE_INFINITY;
+        int quantity = 0;
+        if (daysOfCover < LEAD_TIME_DAYS + SAFETY_DAYS) {
+            //ordering up to enough stock for the wait, the safety days and the order's own days of sales
+            quantity = Math.max(1, (int) Math.ceil(dailyUnits * (LEAD_TIME_DAYS + SAFETY_DAYS + ORDER_COVER_DAYS) - stock));
+        }
+        return new ReorderSuggestion(productId, name, stock, dailyUnits, daysOfCover, quantity);
+    }
+}
@@ -1,40 +1,81 @@
-package com.businesspro.inventorymanager;
-
-//importing statements to include the necessary Android classes
-import android.content.Intent; //this is used to switch between activities (screens)
-import android.os.Bundle; //this is used to pass data between activities and manage saved states
-import android.os.Handler; //this is used to execute code after a specified delay
-import androidx.appcompat.app.AppCompatActivity; //creating a base class for activities that use the AppCompat support library
-
-//splashActivity class that extends AppCompatActivity
-//this activity displays a splash screen when the app starts before moving to the main dashboard
-public class SplashActivity extends AppCompatActivity {
-
-    //calling the onCreate() method is called when this activity is first created
-    @Override
-    protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState); //this calls the parent class's onCreate() to set up the activity lifecycle
-
-        //sets the UI layout for this activity to the file "activity_splash.xml"
-        //this xml defines the splash screen's design (logo, background color)
-        setContentView(R.layout.activity_splash);
-
-        //creating a new Handler that will execute code after a short delay
-        //this delay allows the splash screen to be visible for a few seconds before continuing
-        new Handler().postDelayed(new Runnable() {
-
-            //the runnable defines the code that should run after the delay
-            @Override
-            public void run() {
-                //creating an Intent to navigate from SplashActivity → DashboardActivity
-                //this means once the splash screen finishes, the user is taken to the main dashboard
-                startActivity(new Intent(SplashActivity.this, DashboardActivity.class));
-
-                //finish the SplashActivity so that the user cannot go back to it using the back button
-                finish();
-            }
-
-            //the delay is set to 2500 milliseconds (2.5 seconds)
-        }, 2500);
-    }
-}
+package com.businesspro.inventorymanager;
+
+//importing statements to include the necessary Android classes
+import android.content.Intent; //this is used to switch between activities (screens)
+import android.os.Bundle; //this is used to pass data between activities and manage saved states
+import android.os.Handler; //this is used to execute code after a specified delay
+import android.os.Looper; //this gives the Handler the main thread's message loop
+import android.os.SystemClock; //this gives a clock that is not affected by changes to the device time
+import androidx.appcompat.app.AppCompatActivity; //creating a base class for activities that use the AppCompat support library
+
+//splashActivity class that extends AppCompatActivity
+//this activity displays a splash screen while the app warms up (see AppWarmup) and then moves to the main dashboard
+//as soon as the database is open and the dashboard data is ready, instead of waiting a fixed delay
+public class SplashActivity extends AppCompatActivity {
+
+    //the minimum time the splash screen stays visible, in milliseconds.
+    //0 means move on as soon as the warm-up is finished; set this above 0 to always show the logo for a while
+    private static final long MIN_DISPLAY_MS = 0;
+
+    //the time (on the uptime clock) when the splash screen was created
+    private long shownAt;
+
+    //the start of the "splash.warmup" trace span (0 when not tracing)
+    private long warmupTraceStart;
+
+    //the Handler used if the minimum display time still needs to run out
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    //the runnable that opens the dashboard
+    private final Runnable openDashboard = this::openDashboard;
+
+    //calling the onCreate() method is called when this activity is first created
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState); //this calls the parent class's onCreate() to set up the activity lifecycle
+
+        //sets the UI layout for this activity to the file "activity_splash.xml"
+        //this xml defines the splash screen's design (logo, background color)
+        setContentView(R.layout.activity_splash);
+
+        //remembering when the splash screen appeared
+        shownAt = SystemClock.uptimeMillis();
+        warmupTraceStart = PerfTrace.begin();
+
+        //starting the parallel warm-up; the callback runs on the main thread when it is done
+        AppWarmup.start(this, this::onWarmupFinished);
+    }
+
+    //called when the database is open, the product cache is primed and the dashboard summary is ready
+    private void onWarmupFinished() {
+        PerfTrace.end("splash.warmup", warmupTraceStart);
+
+        //the user may have left the splash screen already
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+
+        //waiting out whatever is left of the minimum display time (nothing, unless MIN_DISPLAY_MS is set)
+        long remaining = MIN_DISPLAY_MS - (SystemClock.uptimeMillis() - shownAt);
+        if (remaining > 0) {
+            handler.postDelayed(openDashboard, remaining);
+        } else {
+            openDashboard();
+        }
+    }
+
+    //navigating from SplashActivity → DashboardActivity
+    private void openDashboard() {
+        startActivity(new Intent(SplashActivity.this, DashboardActivity.class));
+
+        //finish the SplashActivity so that the user cannot go back to it using the back button
+        finish();
+    }
+
+    //removing the pending callback if the splash screen is destroyed before it fires
+    @Override
+    protected void onDestroy() {
+        handler.removeCallbacks(openDashboard);
+        super.onDestroy();
+    }
+}
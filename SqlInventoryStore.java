@@ -0,0 +1,1738 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used by the store
+import java.io.File; //this is the sale journal file
+import java.util.ArrayList; //this collects the arguments of a patch
+import java.util.Calendar; //this works out the archive cut-off date
+import java.util.Collections; //this sorts the reorder suggestions
+import java.util.Date; //this represents current date and time for timestamps
+import java.util.HashMap; //this maps product codes to product IDs
+import java.util.List; //this is the interface for holding collections of objects
+import java.util.Locale; //this upper-cases product codes the same way in every locale
+import java.util.Map; //this is the interface of the code map
+import java.util.UUID; //this names the new sync epoch after a restore
+import java.util.concurrent.atomic.AtomicBoolean; //this makes sure the first query is only traced once
+import java.util.concurrent.atomic.AtomicLong; //this counts the movements written since the last snapshot
+
+//importing the shared table and column names
+import static com.businesspro.inventorymanager.InventorySchema.*;
+
+//the SqlInventoryStore class holds the SQL for every inventory operation.
+//it only talks to a StoreDatabase, so the Android app (through DatabaseHelper) and the JVM build
+//(through JdbcInventoryStore) run exactly the same statements against the same schema.
+//every operation is timed into QueryStats, and the first query after start-up is traced with PerfTrace.
+public class SqlInventoryStore implements InventoryStore {
+
+    //the database the statements run against
+    private final StoreDatabase db;
+
+    //called after every write so in-memory copies of the data can be dropped (may be null)
+    private volatile Runnable dataChangeListener;
+
+    //told which tables every committed write changed, for the screens that show live data
+    private final InvalidationTracker invalidationTracker = new InvalidationTracker();
+
+    //how many ledger movements are written between automatic snapshots
+    private static final int SNAPSHOT_INTERVAL = 10_000;
+
+    //the ledger movements written by this store since it last took snapshots
+    private final AtomicLong movementsSinceSnapshot = new AtomicLong();
+
+    //how many sales one archiving transaction moves at most, so tills are never blocked for long
+    private static final int ARCHIVE_CHUNK = 20_000;
+
+    //the archive database file that old sales are moved into (null when this store has no archive)
+    private volatile String archivePath;
+
+    //true once the archive has been attached and its tables created, and once the main database has been seen
+    //to keep its WAL journal after the archive was first read
+    private boolean archiveAttached;
+    private volatile boolean walCheckedAfterArchive;
+
+    //the archive watermark and totals read from the meta table (null until first needed)
+    private volatile ArchiveState archiveState;
+
+    //whether a sync server is set, read from the meta table (null until first needed)
+    private volatile Boolean syncConfigured;
+
+    //the branch this store's products, sales and totals are read for, from the meta table (null until first needed)
+    private volatile Integer currentBranch;
+
+    //true once the rollups are known to include the sales archived before they were added
+    private volatile boolean rollupsComplete;
+
+    //true once the sales velocity is known to include the sales recorded before it was added
+    private volatile boolean velocityComplete;
+
+    //the last report worked out or read back by getReportSnapshot() (null until first needed)
+    private volatile ReportSnapshot reportSnapshot;
+
+    //how many days of sales rebuildSalesVelocity() reads; older days weigh less than a millionth in the average
+    private static final int VELOCITY_HISTORY_DAYS = 90;
+
+    //true once the sale sketches are known to include the sales recorded before they were added, and true when they
+    //were rebuilt from the main sales only because there was no archive to read
+    private volatile boolean sketchesComplete;
+    private volatile boolean sketchesRebuiltWithoutArchive;
+
+    //how many sketch rows rebuildSaleSketches() writes at a time
+    private static final int SKETCH_REBUILD_BATCH = 10_000;
+
+    //the write-behind sale journal file (null when sales are written straight to the database), and the journal
+    //once it has been opened
+    private volatile File saleJournalFile;
+    private volatile SaleJournal saleJournal;
+    private final Object saleJournalLock = new Object();
+
+    //every write that reports a stock change to StockEvents commits and reports it under this lock, so the reports
+    //arrive in the order the writes committed in (StockEvents nets each product's changes inside a window from the
+    //first report's old stock to the last report's new stock, which a direct sale reported after a later drained
+    //batch would get wrong)
+    private final Object stockEventOrder = new Object();
+
+    //how long a read waits for journaled sales to reach the database, so a screen opened after a checkout shows it
+    private static final long JOURNAL_READ_WAIT_MILLIS = 2000;
+
+    //the journaled sales the drain wrote although their stock had been taken by another change first (or their
+    //product had been deleted); they are never dropped, because the till was already told they went through
+    private final AtomicLong journalOversold = new AtomicLong();
+
+    //the new stock insertSale() reports for a journaled sale whose product was deleted before it was drained
+    private static final int NO_STOCK = Integer.MIN_VALUE;
+
+    //goes up whenever a product is added, edited, given a code or deleted (but not when only its stock moves),
+    //so ProductCodeIndex and ProductNameIndex know when they are out of date
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    //the product changed at each of the last CATALOG_CHANGES_KEPT catalog versions (0 for a change to the whole
+    //catalog), so the in-memory indexes can catch up by reading just those products again
+    private static final int CATALOG_CHANGES_KEPT = 1024;
+    private final int[] catalogChanges = new int[CATALOG_CHANGES_KEPT];
+
+    //becomes true once the first query after start-up has been traced
+    private final AtomicBoolean firstQueryTraced = new AtomicBoolean();
+
+    //creating a store that runs its statements against the given database
+    public SqlInventoryStore(StoreDatabase db) {
+        this.db = db;
+    }
+
+    //returns the database this store runs against
+    protected StoreDatabase database() {
+        return db;
+    }
+
+    //setting the archive database file that old sales are moved into (see archiveSales())
+    public void setArchivePath(String path) {
+        this.archivePath = path;
+    }
+
+    //forgetting everything this store remembers about the database, after the file was replaced (e.g., a restore)
+    public synchronized void databaseReplaced() {
+        archiveAttached = false;
+        walCheckedAfterArchive = false;
+        archiveState = null;
+        syncConfigured = null;
+        currentBranch = null;
+        rollupsComplete = false;
+        velocityComplete = false;
+        sketchesComplete = false;
+        sketchesRebuiltWithoutArchive = false;
+        reportSnapshot = null;
+        movementsSinceSnapshot.set(0);
+        catalogChanged();
+        //the restored change log and sale IDs repeat numbers that were already sent from the replaced database, so the
+        //sync starts a new epoch and sends everything again (see SyncEngine)
+        final String epoch = UUID.randomUUID().toString();
+        db.inTransaction(() -> {
+            writeMeta(META_SYNC_EPOCH, epoch);
+            return db.update("DELETE FROM " + TABLE_META + " WHERE " + COL_KEY + " = ?", new Object[]{META_SYNC_CURSOR});
+        });
+        //the journal (drained and paused by the restore) carries on from the new file's drained sequence number
+        SaleJournal journal = saleJournal;
+        if (journal != null) {
+            journal.rebase(readDrainedSeq());
+        }
+        onDataChanged();
+    }
+
+    //setting the callback run after every write (e.g., to drop cached products)
+    public void setDataChangeListener(Runnable listener) {
+        this.dataChangeListener = listener;
+    }
+
+    //returning the tracker that reports the tables changed by each write (see ObservableQuery)
+    public InvalidationTracker getInvalidationTracker() {
+        return invalidationTracker;
+    }
+
+    //schema creation, shared by DatabaseHelper.onCreate() and the JDBC store
+
+    //creating every table and adding the default sample products (STechies, 2017)
+    public static void createSchema(StoreDatabase db) {
+        for (String statement : InventorySchema.createStatements()) {
+            db.execute(statement);
+        }
+        insertSampleData(db);
+    }
+
+    //upgrading the schema one version at a time, keeping every row (see InventorySchema.migrationTo())
+    public static void upgradeSchema(StoreDatabase db, int oldVersion, int newVersion) {
+        for (int version = oldVersion + 1; version <= newVersion; version++) {
+            for (String statement : InventorySchema.migrationTo(version)) {
+                db.execute(statement);
+            }
+        }
+    }
+
+    //inserting the sample products into a new database
+    private static void insertSampleData(StoreDatabase db) {
+        String sql = "INSERT INTO " + TABLE_PRODUCTS + " (" + COL_NAME + ", " + COL_PRICE + ", " + COL_STOCK + ", "
+                + COL_CATEGORY + ", " + COL_COST + ") VALUES (?, ?, ?, ?, ?)";
+        for (int i = 0; i < SAMPLE_NAMES.length; i++) {
+            db.insert(sql, new Object[]{SAMPLE_NAMES[i], SAMPLE_PRICES[i], SAMPLE_STOCKS[i], SAMPLE_CATEGORIES[i], SAMPLE_COSTS[i]});
+        }
+        db.execute(INSERT_OPENING_MOVEMENTS);
+    }
+
+    //crud operations for products
+    // Adding a new product record to the database  (Techotopia.com, 2025)
+    @Override
+    public long addProduct(final String name, final double price, final int stock, final String category, final double cost) {
+        long start = System.nanoTime();
+        final String sql = "INSERT INTO " + TABLE_PRODUCTS + " (" + COL_NAME + ", " + COL_PRICE + ", " + COL_STOCK + ", "
+                + COL_CATEGORY + ", " + COL_COST + ", " + COL_BRANCH_ID + ") VALUES (?, ?, ?, ?, ?, ?)";
+        final int branch = getCurrentBranchId();
+        long id = db.inTransaction(() -> {
+            long newId = db.insert(sql, new Object[]{name, price, stock, category, cost, branch});
+            if (newId > 0) {
+                if (stock != 0) {
+                    appendMovement((int) newId, stock, StockReason.OPENING);
+                }
+                appendChange(ENTITY_PRODUCT, newId);
+                bumpDataVersion();
+            }
+            return newId;
+        });
+        if (id > 0) {
+            catalogChanged(id);
+        }
+        onDataChanged(TABLE_PRODUCTS);
+        snapshotIfDue();
+        recordQuery("addProduct", start, id > 0 ? 1 : 0, sql, null);
+        return id; //returning the new row ID or -1 if failed
+    }
+
+    // retrieving all the product records of the current branch, ordered alphabetically by name  (Techotopia.com, 2025)
+    @Override
+    public List<Product> getAllProducts() {
+        awaitSaleJournal();
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM " + TABLE_PRODUCTS + " WHERE " + COL_BRANCH_ID + " = ? ORDER BY " + COL_NAME + " ASC";
+        Object[] args = {getCurrentBranchId()};
+        List<Product> products = db.query(sql, args, SqlInventoryStore::readProduct);
+        recordQuery("getAllProducts", start, products.size(), sql, args);
+        return products;
+    }
+
+    //retrieve a single product record by its ID (Panjuta, 2020)
+    @Override
+    public Product getProduct(int id) {
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?";
+        Object[] args = {id};
+        List<Product> products = db.query(sql, args, SqlInventoryStore::readProduct);
+        recordQuery("getProduct", start, products.size(), sql, args);
+        return products.isEmpty() ? null : products.get(0);
+    }
+
+    //updating an existing product record (Panjuta, 2020)
+    @Override
+    public int updateProduct(final int id, final String name, final double price, final int stock,
+                             final String category, final double cost) {
+        //the new stock is a count that replaces the old one, so the journaled sales go in first and are counted in it
+        awaitSaleJournal();
+        long start = System.nanoTime();
+        final String sql = "UPDATE " + TABLE_PRODUCTS + " SET " + COL_NAME + " = ?, " + COL_PRICE + " = ?, " + COL_STOCK + " = ?, "
+                + COL_CATEGORY + " = ?, " + COL_COST + " = ?, " + COL_VERSION + " = " + COL_VERSION + " + 1 WHERE " + COL_ID + " = ?";
+        final int[] oldStock = new int[1];
+        int rows = writeStock(() -> {
+            //reading the stock being replaced, so a threshold crossing can be reported
+            oldStock[0] = (int) db.queryLong("SELECT " + COL_STOCK + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?",
+                    new Object[]{id});
+            int updated = db.update(sql, new Object[]{name, price, stock, category, cost, id});
+            if (updated > 0 && stock != oldStock[0]) {
+                appendMovement(id, stock - oldStock[0], StockReason.CORRECTION);
+            }
+            if (updated > 0) {
+                appendChange(ENTITY_PRODUCT, id);
+                bumpDataVersion();
+            }
+            return updated;
+        }, updated -> {
+            if (updated > 0) {
+                StockEvents.stockChanged(id, name, oldStock[0], stock);
+            }
+        });
+        catalogChanged(id);
+        onDataChanged(TABLE_PRODUCTS);
+        snapshotIfDue();
+        recordQuery("updateProduct", start, rows, sql, null);
+        // Return number of rows affected
+        return rows;
+    }
+
+    //writing only the changed fields of a product and moving its stock by the patch's delta, in one transaction.
+    //the detail fields are guarded by the product's version; the stock delta is not, because deltas
+    //from different tills and editors add up in any order without losing each other's changes
+    @Override
+    public PatchResult patchProduct(final int id, final int expectedVersion, final ProductPatch patch) {
+        if (patch.isEmpty()) {
+            return PatchResult.UNCHANGED;
+        }
+        long start = System.nanoTime();
+
+        //building "SET name = ?, price = ?, ..." from the changed fields only
+        final List<Object> args = new ArrayList<>();
+        StringBuilder set = new StringBuilder();
+        appendAssignment(set, args, COL_NAME, patch.getName());
+        appendAssignment(set, args, COL_PRICE, patch.getPrice());
+        appendAssignment(set, args, COL_CATEGORY, patch.getCategory());
+        appendAssignment(set, args, COL_COST, patch.getCost());
+        final String sql = "UPDATE " + TABLE_PRODUCTS + " SET " + set + COL_VERSION + " = " + COL_VERSION + " + 1 WHERE "
+                + COL_ID + " = ? AND " + COL_VERSION + " = ?";
+        args.add(id);
+        args.add(expectedVersion);
+
+        final Product[] before = new Product[1];
+        final int[] newStock = new int[1];
+        PatchResult result = writeStock(() -> {
+            //reading the current row under the write lock, so the checks below cannot go stale
+            Product current = readProductRow(id);
+            if (current == null) {
+                return PatchResult.NOT_FOUND;
+            }
+            if (patch.hasFieldChanges() && current.getVersion() != expectedVersion) {
+                return PatchResult.CONFLICT;
+            }
+            //units already sold through the journal but not drained yet are not available to a decrease
+            int available = current.getStock() - (patch.getStockDelta() < 0 ? pendingJournalUnits(id) : 0);
+            if (available + patch.getStockDelta() < 0) {
+                return PatchResult.INSUFFICIENT_STOCK;
+            }
+            before[0] = current;
+            if (patch.hasFieldChanges()) {
+                db.update(sql, args.toArray());
+                appendChange(ENTITY_PRODUCT, id);
+            }
+            newStock[0] = current.getStock();
+            if (patch.getStockDelta() != 0) {
+                newStock[0] = applyStockDelta(id, patch.getStockDelta(), patch.getStockReason());
+            }
+            bumpDataVersion();
+            return PatchResult.APPLIED;
+        }, applied -> {
+            if (applied == PatchResult.APPLIED) {
+                String name = patch.getName() != null ? patch.getName() : before[0].getName();
+                StockEvents.stockChanged(id, name, before[0].getStock(), newStock[0]);
+            }
+        });
+        if (result == PatchResult.APPLIED) {
+            catalogChanged(id);
+            onDataChanged(TABLE_PRODUCTS);
+            snapshotIfDue();
+        }
+        recordQuery("patchProduct", start, result == PatchResult.APPLIED ? 1 : 0, sql, null);
+        return result;
+    }
+
+    //adding "column = ?, " and its value when the patch changes that column
+    private static void appendAssignment(StringBuilder set, List<Object> args, String column, Object value) {
+        if (value != null) {
+            set.append(column).append(" = ?, ");
+            args.add(value);
+        }
+    }
+
+    //moving a product's stock by delta units in its own transaction (e.g., a delivery or a stock-take correction)
+    @Override
+    public int adjustStock(final int productId, final int delta, final String reason) {
+        long start = System.nanoTime();
+        final Product[] before = new Product[1];
+        int newStock = writeStock(() -> {
+            before[0] = readProductRow(productId);
+            if (before[0] == null || (delta < 0 && before[0].getStock() - pendingJournalUnits(productId) + delta < 0)) {
+                return STOCK_REJECTED; //gone, or the units are already sold through the journal
+            }
+            int stock = applyStockDelta(productId, delta, reason);
+            if (stock != STOCK_REJECTED) {
+                bumpDataVersion();
+            }
+            return stock;
+        }, stock -> {
+            if (stock != STOCK_REJECTED) {
+                StockEvents.stockChanged(productId, before[0].getName(), before[0].getStock(), stock);
+            }
+        });
+        if (newStock != STOCK_REJECTED) {
+            onDataChanged(TABLE_PRODUCTS);
+            snapshotIfDue();
+        }
+        recordQuery("adjustStock", start, newStock != STOCK_REJECTED ? 1 : 0, "UPDATE " + TABLE_PRODUCTS, null);
+        return newStock;
+    }
+
+    //what a stock write reports to StockEvents once its transaction has committed
+    private interface StockReport<T> {
+        void committed(T result);
+    }
+
+    //running a transaction that changes stock and then its report, both under stockEventOrder, so the reports are in
+    //commit order; returns what the transaction returned
+    private <T> T writeStock(StoreDatabase.Work<T> work, StockReport<T> report) {
+        synchronized (stockEventOrder) {
+            T result = db.inTransaction(work);
+            report.committed(result);
+            return result;
+        }
+    }
+
+    //moving the stock by delta inside the caller's transaction, only if it stays at zero or above,
+    //and adding the change to the movement ledger in the same transaction.
+    //the check is part of the UPDATE itself, so it holds even without a read beforehand.
+    //returns the new stock, or STOCK_REJECTED if nothing was changed
+    private int applyStockDelta(int productId, int delta, String reason) {
+        if (reason == null) {
+            throw new IllegalArgumentException("a stock change needs a StockReason");
+        }
+        int updated = db.update("UPDATE " + TABLE_PRODUCTS + " SET " + COL_STOCK + " = " + COL_STOCK + " + ? WHERE "
+                + COL_ID + " = ? AND " + COL_STOCK + " + ? >= 0", new Object[]{delta, productId, delta});
+        if (updated == 0) {
+            return STOCK_REJECTED;
+        }
+        appendMovement(productId, delta, reason);
+        appendChange(ENTITY_PRODUCT, productId);
+        return (int) db.queryLong("SELECT " + COL_STOCK + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?",
+                new Object[]{productId});
+    }
+
+    //stock movement ledger
+
+    //adding one row to the ledger (call inside the transaction that changes products.stock)
+    private void appendMovement(int productId, int delta, String reason) {
+        db.insert("INSERT INTO " + TABLE_STOCK_MOVEMENTS + " (" + COL_PRODUCT_ID + ", " + COL_DELTA + ", " + COL_REASON + ", "
+                        + COL_CREATED_AT + ") VALUES (?, ?, ?, ?)",
+                new Object[]{productId, delta, reason, DisplayFormats.formatStoredDate(new Date())});
+        movementsSinceSnapshot.incrementAndGet();
+    }
+
+    //adding one row to the change log read by SyncEngine (call inside the transaction that made the change)
+    private void appendChange(String entity, long entityId) {
+        if (!isSyncConfigured()) {
+            return; //nothing reads the log until a server is set, and the first sync sends everything anyway
+        }
+        db.insert("INSERT INTO " + TABLE_CHANGE_LOG + " (" + COL_ENTITY + ", " + COL_ENTITY_ID + ", " + COL_CREATED_AT
+                + ") VALUES (?, ?, ?)", new Object[]{entity, entityId, DisplayFormats.formatStoredDate(new Date())});
+    }
+
+    //moving the data version on by one (call inside the transaction of any change to the products or the rollups
+    //that does not add a sale), so a report snapshot worked out before the change is not served again
+    private void bumpDataVersion() {
+        db.update("INSERT OR REPLACE INTO " + TABLE_META + " (" + COL_KEY + ", " + COL_VALUE + ") VALUES (?, IFNULL((SELECT "
+                + COL_VALUE + " FROM " + TABLE_META + " WHERE " + COL_KEY + " = ?), 0) + 1)",
+                new Object[]{META_DATA_VERSION, META_DATA_VERSION});
+    }
+
+    //taking snapshots once enough movements have been written since the last ones, so that
+    //getStockAt() never has to add up more than about SNAPSHOT_INTERVAL movements of a product
+    private void snapshotIfDue() {
+        if (movementsSinceSnapshot.get() >= SNAPSHOT_INTERVAL) {
+            movementsSinceSnapshot.set(0);
+            takeStockSnapshots();
+        }
+    }
+
+    //recording the current stock of every product that moved since the last snapshots.
+    //the last snapshot's ledger position is the watermark: all products are snapshotted together,
+    //so every movement at or below it is already covered. returns the number of snapshots written
+    @Override
+    public int takeStockSnapshots() {
+        long start = System.nanoTime();
+        final String sql = "INSERT INTO " + TABLE_STOCK_SNAPSHOTS + " (" + COL_PRODUCT_ID + ", " + COL_MOVEMENT_ID + ", "
+                + COL_STOCK + ", " + COL_TAKEN_AT + ") SELECT m." + COL_PRODUCT_ID + ", MAX(m." + COL_MOVEMENT_ID + "), p." + COL_STOCK
+                + ", ? FROM " + TABLE_STOCK_MOVEMENTS + " m JOIN " + TABLE_PRODUCTS + " p ON p." + COL_ID + " = m." + COL_PRODUCT_ID
+                + " WHERE m." + COL_MOVEMENT_ID + " > (SELECT IFNULL(MAX(" + COL_MOVEMENT_ID + "), 0) FROM " + TABLE_STOCK_SNAPSHOTS + ")"
+                + " GROUP BY m." + COL_PRODUCT_ID;
+        //inside a write transaction, products.stock is exactly the stock after each product's last movement
+        int written = db.inTransaction(() -> db.update(sql, new Object[]{DisplayFormats.formatStoredDate(new Date())}));
+        recordQuery("takeStockSnapshots", start, written, sql, null);
+        return written;
+    }
+
+    //working out a product's stock at a point in time (a date in the stored format, e.g. "2025-11-01 00:00:00"):
+    //the newest snapshot taken by then, plus the movements after it up to that time
+    @Override
+    public int getStockAt(int productId, String storedDate) {
+        long start = System.nanoTime();
+        Object[] snapshotArgs = {productId, storedDate};
+        List<long[]> snapshot = db.query("SELECT " + COL_MOVEMENT_ID + ", " + COL_STOCK + " FROM " + TABLE_STOCK_SNAPSHOTS
+                        + " WHERE " + COL_PRODUCT_ID + " = ? AND " + COL_TAKEN_AT + " <= ? ORDER BY " + COL_MOVEMENT_ID + " DESC LIMIT 1",
+                snapshotArgs, row -> new long[]{row.getLong(COL_MOVEMENT_ID), row.getLong(COL_STOCK)});
+        long fromMovement = snapshot.isEmpty() ? 0 : snapshot.get(0)[0];
+        long stock = snapshot.isEmpty() ? 0 : snapshot.get(0)[1];
+
+        String sql = "SELECT IFNULL(SUM(" + COL_DELTA + "), 0) FROM " + TABLE_STOCK_MOVEMENTS + " WHERE " + COL_PRODUCT_ID
+                + " = ? AND " + COL_MOVEMENT_ID + " > ? AND " + COL_CREATED_AT + " <= ?";
+        Object[] args = {productId, fromMovement, storedDate};
+        stock += db.queryLong(sql, args);
+        recordQuery("getStockAt", start, 1, sql, args);
+        return (int) stock;
+    }
+
+    //reading one product row inside a transaction, without timing it as a separate query
+    private Product readProductRow(int id) {
+        List<Product> products = db.query("SELECT * FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?",
+                new Object[]{id}, SqlInventoryStore::readProduct);
+        return products.isEmpty() ? null : products.get(0);
+    }
+
+    //deleting a product by its ID (Panjuta, 2020)
+    @Override
+    public void deleteProduct(final int id) {
+        awaitSaleJournal(); //so the product's journaled sales still find it
+        long start = System.nanoTime();
+        final String sql = "DELETE FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?";
+        int rows = db.inTransaction(() -> {
+            int deleted = db.update(sql, new Object[]{id});
+            if (deleted > 0) {
+                appendChange(ENTITY_PRODUCT, id); //a product that is gone when the change is pushed is sent as deleted
+                bumpDataVersion();
+            }
+            return deleted;
+        });
+        catalogChanged(id);
+        onDataChanged(TABLE_PRODUCTS);
+        recordQuery("deleteProduct", start, rows, sql, null);
+    }
+
+    //retrieve all products of the current branch with stock less than or equal to 10 (low stock) (Panjuta, 2020)
+    @Override
+    public List<Product> getLowStockProducts() {
+        awaitSaleJournal();
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM " + TABLE_PRODUCTS + " WHERE " + COL_BRANCH_ID + " = ? AND " + COL_STOCK + " <= ? ORDER BY "
+                + COL_STOCK + " ASC";
+        Object[] args = {getCurrentBranchId(), LOW_STOCK_THRESHOLD};
+        List<Product> products = db.query(sql, args, SqlInventoryStore::readProduct);
+        recordQuery("getLowStockProducts", start, products.size(), sql, args);
+        return products;
+    }
+
+    //creating a product object from a products row
+    static Product readProduct(StoreDatabase.Row row) {
+        return new Product(
+                row.getInt(COL_ID),
+                row.getString(COL_NAME),
+                row.getDouble(COL_PRICE),
+                row.getInt(COL_STOCK),
+                row.getString(COL_CATEGORY),
+                row.getDouble(COL_COST),
+                row.getInt(COL_VERSION),
+                row.getInt(COL_BRANCH_ID),
+                row.getString(COL_SKU)
+        );
+    }
+
+    //product codes (SKUs and barcodes)
+
+    //turning a typed or scanned code into its stored form: trimmed and in upper case, or null if it is blank
+    public static String normalizeCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        String trimmed = code.trim();
+        return trimmed.isEmpty() ? null : trimmed.toUpperCase(Locale.ROOT);
+    }
+
+    //returning the catalog version (see catalogVersion)
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    //noting that products were added, edited, given codes or deleted without saying which (also called by DatasetGenerator)
+    void catalogChanged() {
+        catalogChanged(0);
+    }
+
+    //noting that one product was added, edited, given a code or deleted
+    private void catalogChanged(long productId) {
+        synchronized (catalogChanges) {
+            long version = catalogVersion.incrementAndGet();
+            catalogChanges[(int) (version % CATALOG_CHANGES_KEPT)] = (int) productId;
+        }
+    }
+
+    //returning the IDs of the products changed after the given catalog version (oldest first, possibly repeated),
+    //or null if they are not all known any more (too many changes since, or a change to the whole catalog),
+    //in which case the caller reloads everything
+    public int[] getProductsChangedSince(long version) {
+        synchronized (catalogChanges) {
+            long latest = catalogVersion.get();
+            if (version < 0 || version > latest || latest - version > CATALOG_CHANGES_KEPT) {
+                return null;
+            }
+            int[] ids = new int[(int) (latest - version)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = catalogChanges[(int) ((version + 1 + i) % CATALOG_CHANGES_KEPT)];
+                if (ids[i] == 0) {
+                    return null;
+                }
+            }
+            return ids;
+        }
+    }
+
+    //retrieving the product of the current branch with the given code, through the unique code index
+    @Override
+    public Product getProductByCode(String code) {
+        String key = normalizeCode(code);
+        if (key == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        String sql = "SELECT * FROM " + TABLE_PRODUCTS + " WHERE " + COL_BRANCH_ID + " = ? AND " + COL_SKU + " = ?";
+        Object[] args = {getCurrentBranchId(), key};
+        List<Product> products = db.query(sql, args, SqlInventoryStore::readProduct);
+        recordQuery("getProductByCode", start, products.size(), sql, args);
+        return products.isEmpty() ? null : products.get(0);
+    }
+
+    //retrieving every code of the current branch with its product ID, for ProductCodeIndex
+    //(two narrow columns from the code index, so even a large catalog is read quickly)
+    public Map<String, Integer> getProductCodes() {
+        long start = System.nanoTime();
+        String sql = "SELECT " + COL_SKU + ", " + COL_ID + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_BRANCH_ID + " = ? AND "
+                + COL_SKU + " IS NOT NULL";
+        Object[] args = {getCurrentBranchId()};
+        final Map<String, Integer> codes = new HashMap<>();
+        db.scan(sql, args, row -> codes.put(row.getString(COL_SKU), row.getInt(COL_ID)));
+        recordQuery("getProductCodes", start, codes.size(), sql, args);
+        return codes;
+    }
+
+    //setting or clearing a product's code. the duplicate check and the update share a transaction, so two
+    //products cannot be given the same code at once (the unique index would reject the second one anyway)
+    @Override
+    public boolean setProductCode(final int id, String code) {
+        long start = System.nanoTime();
+        final String key = normalizeCode(code);
+        final String sql = "UPDATE " + TABLE_PRODUCTS + " SET " + COL_SKU + " = ? WHERE " + COL_ID + " = ?";
+        boolean updated = db.inTransaction(() -> {
+            if (key != null && db.queryLong("SELECT COUNT(*) FROM " + TABLE_PRODUCTS + " p WHERE p." + COL_SKU + " = ? AND p."
+                    + COL_ID + " <> ? AND p." + COL_BRANCH_ID + " = (SELECT " + COL_BRANCH_ID + " FROM " + TABLE_PRODUCTS
+                    + " WHERE " + COL_ID + " = ?)", new Object[]{key, id, id}) > 0) {
+                return false;
+            }
+            if (db.update(sql, new Object[]{key, id}) == 0) {
+                return false;
+            }
+            appendChange(ENTITY_PRODUCT, id);
+            return true;
+        });
+        if (updated) {
+            catalogChanged(id);
+            onDataChanged(TABLE_PRODUCTS);
+        }
+        recordQuery("setProductCode", start, updated ? 1 : 0, sql, null);
+        return updated;
+    }
+
+    //sales operations:
+    //recording a sale and update stock levels (Tutorialspoint.com, 2019).
+    //the stock check and the decrement are one conditional UPDATE inside the same transaction as the
+    //sale insert, so two tills selling the last units at the same time cannot both succeed.
+    //the sale belongs to the product's branch, and is added to that branch's rollup in the same transaction.
+    //with the sale journal on, the sale is appended to the journal instead (see journalSale())
+    @Override
+    public long recordSale(final int productId, final String productName, final int quantity,
+                           final double salePrice, final double cost) {
+        SaleJournal journal = saleJournal();
+        if (journal != null) {
+            return journalSale(journal, productId, productName, quantity, salePrice, cost);
+        }
+        long start = System.nanoTime();
+        final String date = DisplayFormats.formatStoredDate(new Date());
+        final int[] newStock = new int[1];
+        long saleId = writeStock(() -> insertSale(productId, productName, quantity, salePrice, cost, date, newStock, false), id -> {
+            if (id > 0) {
+                StockEvents.stockChanged(productId, productName, newStock[0] + quantity, newStock[0]);
+            }
+        });
+        if (saleId > 0) {
+            onDataChanged(TABLE_SALES, TABLE_PRODUCTS, TABLE_BRANCH_ROLLUPS);
+            snapshotIfDue();
+        }
+        recordQuery("recordSale", start, saleId > 0 ? 1 : 0, INSERT_SALE, null);
+        return saleId;
+    }
+
+    //the statement that inserts one sale
+    private static final String INSERT_SALE = "INSERT INTO " + TABLE_SALES + " (" + COL_PRODUCT_ID + ", " + COL_PRODUCT_NAME + ", "
+            + COL_QUANTITY + ", " + COL_SALE_PRICE + ", " + COL_TOTAL + ", " + COL_DATE + ", " + COL_PROFIT + ", " + COL_BRANCH_ID
+            + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    //inserting a sale made at 'date' and taking its units off the stock, inside the caller's transaction.
+    //returns the new sale ID, or SALE_REJECTED (having written nothing) if the product does not have quantity
+    //units left; newStock[0] is set to the stock after the sale.
+    //an acknowledged sale (a journaled one, which the till was already told went through) is never rejected:
+    //if its units are gone it is written anyway and the stock goes below zero, and if its product was deleted
+    //it is written without a stock change and newStock[0] is NO_STOCK
+    private long insertSale(int productId, String productName, int quantity, double salePrice, double cost,
+                            String date, int[] newStock, boolean acknowledged) {
+        //decreasing stock for the sold product, only if enough is left (Tutorialspoint.com, 2019)
+        newStock[0] = applyStockDelta(productId, -quantity, StockReason.SALE);
+        if (newStock[0] == STOCK_REJECTED) {
+            if (!acknowledged) {
+                return SALE_REJECTED; //not enough stock (or the product was deleted), so nothing is written
+            }
+            newStock[0] = oversell(productId, quantity);
+        }
+
+        //insert new sale record into the sales table (a deleted product's sale goes to the current branch)
+        int branch = newStock[0] == NO_STOCK ? getCurrentBranchId() : (int) db.queryLong("SELECT " + COL_BRANCH_ID + " FROM "
+                + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?", new Object[]{productId});
+        double total = ReportCalculator.saleTotal(salePrice, quantity);
+        double profit = ReportCalculator.saleProfit(salePrice, cost, quantity); // Calculate profit
+        long id = db.insert(INSERT_SALE, new Object[]{
+                productId,
+                productName,
+                quantity,
+                salePrice,
+                total,
+                date,
+                profit,
+                branch
+        });
+        if (id < 0) {
+            //throwing rolls the stock decrement back with the failed insert
+            throw new StoreException("could not insert the sale for product " + productId);
+        }
+        addToRollup(branch, date, quantity, total, profit);
+        addToVelocity(productId, date, quantity);
+        addToSketches(productId, branch, date, total, quantity);
+        appendChange(ENTITY_SALE, id);
+        return id;
+    }
+
+    //taking an acknowledged sale's units off the stock even though fewer are left (inside the caller's transaction).
+    //returns the new stock, which is below zero, or NO_STOCK if the product was deleted
+    private int oversell(int productId, int quantity) {
+        int updated = db.update("UPDATE " + TABLE_PRODUCTS + " SET " + COL_STOCK + " = " + COL_STOCK + " - ? WHERE " + COL_ID
+                + " = ?", new Object[]{quantity, productId});
+        if (updated == 0) {
+            return NO_STOCK;
+        }
+        appendMovement(productId, -quantity, StockReason.SALE);
+        appendChange(ENTITY_PRODUCT, productId);
+        return (int) db.queryLong("SELECT " + COL_STOCK + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?",
+                new Object[]{productId});
+    }
+
+    //sales velocity and reorder suggestions (see SalesVelocity)
+
+    private static final String ADD_TO_VELOCITY_DAY = "UPDATE " + TABLE_PRODUCTS + " SET " + COL_DAY_UNITS + " = " + COL_DAY_UNITS
+            + " + ? WHERE " + COL_ID + " = ? AND " + COL_VELOCITY_DAY + " >= ?";
+    private static final String START_VELOCITY_DAY = "UPDATE " + TABLE_PRODUCTS + " SET " + COL_VELOCITY + " = (" + COL_VELOCITY
+            + " * ? + " + COL_DAY_UNITS + " * ?) * ?, " + COL_VELOCITY_DAY + " = ?, " + COL_DAY_UNITS + " = ? WHERE " + COL_ID + " = ?";
+
+    //adding a sale's units to its product's sales velocity (call inside the transaction that records the sale).
+    //a sale on the product's velocity day only adds to that day's units, which is one UPDATE; the first sale of a
+    //later day folds the old day into the average and fades it over the days between. a sale dated before the
+    //velocity day (a late journal replay) is counted on the velocity day, which moves the average by at most a day
+    private void addToVelocity(int productId, String storedDate, int quantity) {
+        String day = storedDate.substring(0, 10);
+        if (db.update(ADD_TO_VELOCITY_DAY, new Object[]{quantity, productId, day}) > 0) {
+            return;
+        }
+        List<String> days = db.query("SELECT " + COL_VELOCITY_DAY + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_ID + " = ?",
+                new Object[]{productId}, row -> row.getString(COL_VELOCITY_DAY));
+        String lastDay = days.isEmpty() ? null : days.get(0);
+        //a product's first sale has nothing to fade (its velocity and day units are still 0)
+        double fade = lastDay == null ? 1 : SalesVelocity.decay(SalesVelocity.epochDay(day) - SalesVelocity.epochDay(lastDay) - 1);
+        db.update(START_VELOCITY_DAY, new Object[]{1 - SalesVelocity.ALPHA, SalesVelocity.ALPHA, fade, day, quantity, productId});
+    }
+
+    //returning the current branch's products that should be ordered now, fewest days of cover first.
+    //this is one read of the branch's products that have ever sold; no sales are read
+    @Override
+    public List<ReorderSuggestion> getReorderSuggestions() {
+        awaitSaleJournal();
+        ensureVelocityComplete();
+        long start = System.nanoTime();
+        final long today = SalesVelocity.epochDay(DisplayFormats.formatStoredDate(new Date()));
+        String sql = "SELECT " + COL_ID + ", " + COL_NAME + ", " + COL_STOCK + ", " + COL_VELOCITY + ", " + COL_VELOCITY_DAY + ", "
+                + COL_DAY_UNITS + " FROM " + TABLE_PRODUCTS + " WHERE " + COL_BRANCH_ID + " = ? AND " + COL_VELOCITY_DAY + " IS NOT NULL";
+        Object[] args = {getCurrentBranchId()};
+        final List<ReorderSuggestion> due = new ArrayList<>();
+        final int[] read = new int[1];
+        db.scan(sql, args, row -> {
+            read[0]++;
+            double dailyUnits = SalesVelocity.dailyUnits(row.getDouble(COL_VELOCITY),
+                    SalesVelocity.epochDay(row.getString(COL_VELOCITY_DAY)), row.getInt(COL_DAY_UNITS), today);
+            ReorderSuggestion suggestion = SalesVelocity.suggest(row.getInt(COL_ID), row.getString(COL_NAME), row.getInt(COL_STOCK),
+                    dailyUnits);
+            if (suggestion.isDue()) {
+                due.add(suggestion);
+            }
+        });
+        Collections.sort(due, ReorderSuggestion.BY_DAYS_OF_COVER);
+        recordQuery("getReorderSuggestions", start, read[0], sql, args);
+        return due;
+    }
+
+    //working out every product's sales velocity again from the last VELOCITY_HISTORY_DAYS days of sales in the main
+    //database, in one transaction (used once after the upgrade to version 9, and after sales are written directly,
+    //e.g. by DatasetGenerator); returns the number of products with sales in that time
+    public int rebuildSalesVelocity() {
+        long start = System.nanoTime();
+        Calendar cutoff = Calendar.getInstance();
+        cutoff.add(Calendar.DAY_OF_YEAR, -VELOCITY_HISTORY_DAYS);
+        final String from = DisplayFormats.formatStoredDate(cutoff.getTime()).substring(0, 10);
+        final String sql = "SELECT " + COL_PRODUCT_ID + ", substr(" + COL_DATE + ", 1, 10) AS " + COL_DAY + ", SUM(" + COL_QUANTITY
+                + ") AS " + COL_UNITS + " FROM " + TABLE_SALES + " WHERE " + COL_DATE + " >= ? GROUP BY " + COL_PRODUCT_ID + ", "
+                + COL_DAY + " ORDER BY " + COL_PRODUCT_ID + ", " + COL_DAY;
+        int products = db.inTransaction(() -> {
+            db.update("UPDATE " + TABLE_PRODUCTS + " SET " + COL_VELOCITY + " = 0, " + COL_VELOCITY_DAY + " = NULL, " + COL_DAY_UNITS
+                    + " = 0", null);
+            //folding each product's days in order, the same way addToVelocity() does one sale at a time
+            final List<Object[]> updates = new ArrayList<>();
+            final double[] velocity = new double[1];
+            final long[] lastDay = new long[1];
+            final int[] lastProduct = {-1};
+            final String[] lastDayText = new String[1];
+            final long[] dayUnits = new long[1];
+            db.scan(sql, new Object[]{from}, row -> {
+                int productId = row.getInt(COL_PRODUCT_ID);
+                String dayText = row.getString(COL_DAY);
+                long day = SalesVelocity.epochDay(dayText);
+                if (productId != lastProduct[0]) {
+                    if (lastProduct[0] != -1) {
+                        updates.add(new Object[]{velocity[0], lastDayText[0], dayUnits[0], lastProduct[0]});
+                    }
+                    lastProduct[0] = productId;
+                    velocity[0] = 0;
+                } else {
+                    velocity[0] = SalesVelocity.dailyUnits(velocity[0], lastDay[0], (int) dayUnits[0], day);
+                }
+                lastDay[0] = day;
+                lastDayText[0] = dayText;
+                dayUnits[0] = row.getLong(COL_UNITS);
+            });
+            if (lastProduct[0] != -1) {
+                updates.add(new Object[]{velocity[0], lastDayText[0], dayUnits[0], lastProduct[0]});
+            }
+            String update = "UPDATE " + TABLE_PRODUCTS + " SET " + COL_VELOCITY + " = ?, " + COL_VELOCITY_DAY + " = ?, "
+                    + COL_DAY_UNITS + " = ? WHERE " + COL_ID + " = ?";
+            for (Object[] values : updates) {
+                db.update(update, values);
+            }
+            db.update("DELETE FROM " + TABLE_META + " WHERE " + COL_KEY + " = ?", new Object[]{META_VELOCITY_NEEDS_REBUILD});
+            return updates.size();
+        });
+        velocityComplete = true;
+        recordQuery("rebuildSalesVelocity", start, products, sql, null);
+        return products;
+    }
+
+    //working out the sales velocity from the existing sales once, if the database was upgraded to version 9 with sales
+    private void ensureVelocityComplete() {
+        if (velocityComplete) {
+            return;
+        }
+        if (readMeta(META_VELOCITY_NEEDS_REBUILD) != null) {
+            rebuildSalesVelocity();
+        }
+        velocityComplete = true;
+    }
+
+    //sale size distributions (see QuantileSketch)
+
+    private static final String SELECT_DAY_SKETCHES = "SELECT " + COL_VALUE_SKETCH + ", " + COL_QUANTITY_SKETCH + " FROM "
+            + TABLE_SALE_SKETCHES + " WHERE " + COL_PRODUCT_ID + " = ? AND " + COL_DAY + " = ?";
+    private static final String INSERT_DAY_SKETCHES = "INSERT INTO " + TABLE_SALE_SKETCHES + " (" + COL_PRODUCT_ID + ", " + COL_DAY
+            + ", " + COL_BRANCH_ID + ", " + COL_VALUE_SKETCH + ", " + COL_QUANTITY_SKETCH + ") VALUES (?, ?, ?, ?, ?)";
+
+    //adding a sale's value and quantity to its product's sketches for the day (call inside the transaction that
+    //records the sale): one read of the day's row by its key and one write, whatever the number of sales before it
+    private void addToSketches(int productId, int branch, String storedDate, double total, int quantity) {
+        String day = storedDate.substring(0, 10);
+        List<QuantileSketch[]> rows = db.query(SELECT_DAY_SKETCHES, new Object[]{productId, day}, row -> new QuantileSketch[]{
+                QuantileSketch.decode(row.getString(COL_VALUE_SKETCH)), QuantileSketch.decode(row.getString(COL_QUANTITY_SKETCH))});
+        QuantileSketch values = rows.isEmpty() ? new QuantileSketch() : rows.get(0)[0];
+        QuantileSketch quantities = rows.isEmpty() ? new QuantileSketch() : rows.get(0)[1];
+        values.add(total);
+        quantities.add(quantity);
+        if (rows.isEmpty()) {
+            db.insert(INSERT_DAY_SKETCHES, new Object[]{productId, day, branch, values.encode(), quantities.encode()});
+        } else {
+            db.update("UPDATE " + TABLE_SALE_SKETCHES + " SET " + COL_VALUE_SKETCH + " = ?, " + COL_QUANTITY_SKETCH + " = ? WHERE "
+                    + COL_PRODUCT_ID + " = ? AND " + COL_DAY + " = ?", new Object[]{values.encode(), quantities.encode(), productId, day});
+        }
+    }
+
+    //returning the distribution of the sale values and quantities of each of the current branch's products sold
+    //from 'fromDay' to 'toDay' (both included, as "yyyy-MM-dd"), most sales first. each product's daily sketches
+    //are merged, so this reads one row per product per day and never the sales themselves
+    public List<SaleDistribution> getSaleDistributions(String fromDay, String toDay) {
+        awaitSaleJournal();
+        ensureSketchesComplete();
+        long start = System.nanoTime();
+        final String sql = "SELECT s." + COL_PRODUCT_ID + ", p." + COL_NAME + ", s." + COL_VALUE_SKETCH + ", s." + COL_QUANTITY_SKETCH
+                + " FROM " + TABLE_SALE_SKETCHES + " s LEFT JOIN " + TABLE_PRODUCTS + " p ON p." + COL_ID + " = s." + COL_PRODUCT_ID
+                + " WHERE s." + COL_BRANCH_ID + " = ? AND s." + COL_DAY + " >= ? AND s." + COL_DAY + " <= ?";
+        Object[] args = {getCurrentBranchId(), fromDay, toDay};
+        final Map<Integer, SaleDistribution> products = new HashMap<>();
+        final int[] read = new int[1];
+        db.scan(sql, args, row -> {
+            read[0]++;
+            int productId = row.getInt(COL_PRODUCT_ID);
+            QuantileSketch values = QuantileSketch.decode(row.getString(COL_VALUE_SKETCH));
+            QuantileSketch quantities = QuantileSketch.decode(row.getString(COL_QUANTITY_SKETCH));
+            SaleDistribution distribution = products.get(productId);
+            if (distribution == null) {
+                String name = row.isNull(COL_NAME) ? "Product #" + productId + " (deleted)" : row.getString(COL_NAME);
+                products.put(productId, new SaleDistribution(productId, name, values, quantities));
+            } else {
+                distribution.merge(values, quantities);
+            }
+        });
+        List<SaleDistribution> distributions = new ArrayList<>(products.values());
+        Collections.sort(distributions, SaleDistribution.BY_SALE_COUNT);
+        recordQuery("getSaleDistributions", start, read[0], sql, args);
+        return distributions;
+    }
+
+    //working the sale sketches out again from every sale, in the main database and the archive, in one transaction
+    //(used once after the upgrade to version 10, and after sales are written directly, e.g. by DatasetGenerator).
+    //the sales are read in product and day order, so only one day's sketches are held at a time, and the rows are
+    //written in batches while the sales are read. returns the number of sketch rows
+    public int rebuildSaleSketches() {
+        long start = System.nanoTime();
+        final String archivedBefore = archiveState().archivedBefore;
+        final boolean withArchive = archivedBefore != null && attachArchive();
+        final String columns = COL_PRODUCT_ID + ", substr(" + COL_DATE + ", 1, 10) AS " + COL_DAY + ", " + COL_BRANCH_ID + ", "
+                + COL_TOTAL + ", " + COL_QUANTITY;
+        final String sql = "SELECT " + columns + " FROM main." + TABLE_SALES
+                + (withArchive ? " UNION ALL SELECT " + columns + " FROM " + ARCHIVE_SCHEMA + "." + TABLE_SALES + " WHERE " + COL_DATE + " < ?" : "")
+                + " ORDER BY " + COL_PRODUCT_ID + ", " + COL_DAY;
+        int rows = withArchive(withArchive, () -> db.inTransaction(() -> {
+            db.update("DELETE FROM " + TABLE_SALE_SKETCHES, null);
+            final List<Object[]> batch = new ArrayList<>();
+            final int[] written = new int[1];
+            //the product, day and branch of the sketches being added up, and the sketches themselves
+            final Object[] current = new Object[3];
+            final QuantileSketch[] sketches = new QuantileSketch[2];
+            db.scan(sql, withArchive ? new Object[]{archivedBefore} : null, row -> {
+                int productId = row.getInt(COL_PRODUCT_ID);
+                String day = row.getString(COL_DAY);
+                if (sketches[0] == null || productId != (Integer) current[0] || !day.equals(current[1])) {
+                    if (sketches[0] != null) {
+                        batch.add(new Object[]{current[0], current[1], current[2], sketches[0].encode(), sketches[1].encode()});
+                        if (batch.size() == SKETCH_REBUILD_BATCH) {
+                            written[0] += db.insertBatch(INSERT_DAY_SKETCHES, batch);
+                            batch.clear();
+                        }
+                    }
+                    current[0] = productId;
+                    current[1] = day;
+                    current[2] = row.getInt(COL_BRANCH_ID);
+                    sketches[0] = new QuantileSketch();
+                    sketches[1] = new QuantileSketch();
+                }
+                sketches[0].add(row.getDouble(COL_TOTAL));
+                sketches[1].add(row.getInt(COL_QUANTITY));
+            });
+            if (sketches[0] != null) {
+                batch.add(new Object[]{current[0], current[1], current[2], sketches[0].encode(), sketches[1].encode()});
+            }
+            written[0] += db.insertBatch(INSERT_DAY_SKETCHES, batch);
+            if (withArchive || archivedBefore == null) {
+                db.update("DELETE FROM " + TABLE_META + " WHERE " + COL_KEY + " = ?", new Object[]{META_SKETCHES_NEED_REBUILD});
+            }
+            return written[0];
+        }));
+        sketchesComplete = withArchive || archivedBefore == null;
+        recordQuery("rebuildSaleSketches", start, rows, sql, null);
+        return rows;
+    }
+
+    //working out the sale sketches from the existing sales once, if the database was upgraded to version 10 with sales.
+    //a rebuild without the archive covers only the main sales, so it is done again once an archive path is set
+    private void ensureSketchesComplete() {
+        if (sketchesComplete) {
+            return;
+        }
+        if (readMeta(META_SKETCHES_NEED_REBUILD) == null) {
+            sketchesComplete = true;
+        } else if (!sketchesRebuiltWithoutArchive || archivePath != null) {
+            rebuildSaleSketches(); //sets sketchesComplete from whether the archive was read
+            sketchesRebuiltWithoutArchive = !sketchesComplete;
+        }
+    }
+
+    //sale journal
+
+    //turning on the write-behind sale journal: from now on recordSale() appends to this file and returns as soon as
+    //the sale is on disk, and a background thread writes the sales into the database in batches
+    public void setSaleJournalFile(File file) {
+        this.saleJournalFile = file;
+    }
+
+    //opening the sale journal if it is on and not open yet, which also writes any sales a previous run left in it
+    //(called during start-up, so they are in the database before the first screen reads it); returns null when off
+    public SaleJournal openSaleJournal() {
+        synchronized (saleJournalLock) {
+            if (saleJournal == null && saleJournalFile != null) {
+                SaleJournal journal = SaleJournal.open(saleJournalFile, readDrainedSeq());
+                journal.start(this::drainJournal);
+                saleJournal = journal;
+            }
+            return saleJournal;
+        }
+    }
+
+    //reading the sequence number of the last journaled sale in the database
+    private long readDrainedSeq() {
+        String drained = readMeta(META_JOURNAL_DRAINED);
+        return drained == null ? 0 : Long.parseLong(drained);
+    }
+
+    //returning the open sale journal, opening it on first use (null when the journal is off)
+    private SaleJournal saleJournal() {
+        SaleJournal journal = saleJournal;
+        return journal != null || saleJournalFile == null ? journal : openSaleJournal();
+    }
+
+    //waiting until every journaled sale is in the database (e.g. before the stores are compared); returns false if
+    //some are still pending after timeoutMillis
+    public boolean flushSaleJournal(long timeoutMillis) {
+        SaleJournal journal = saleJournal;
+        return journal == null || journal.awaitDrained(timeoutMillis);
+    }
+
+    //holding new sales back and waiting until the journal is empty, before the database file is replaced; returns
+    //false (and lets sales in again) if it did not empty within timeoutMillis. call resumeSaleJournal() afterwards
+    public boolean pauseSaleJournal(long timeoutMillis) {
+        SaleJournal journal = saleJournal;
+        if (journal == null) {
+            return true;
+        }
+        journal.pause();
+        if (!journal.awaitDrained(timeoutMillis)) {
+            journal.resume();
+            return false;
+        }
+        return true;
+    }
+
+    //letting new sales into the journal again after pauseSaleJournal()
+    public void resumeSaleJournal() {
+        SaleJournal journal = saleJournal;
+        if (journal != null) {
+            journal.resume();
+        }
+    }
+
+    //stopping the journal's drain and closing its file (any sales still pending stay in it for the next open)
+    public void closeSaleJournal() {
+        synchronized (saleJournalLock) {
+            SaleJournal journal = saleJournal;
+            if (journal != null) {
+                saleJournal = null;
+                journal.close();
+            }
+        }
+    }
+
+    //returns the journaled sales that took their product's stock below zero when they were drained (or whose product
+    //was deleted first), because a change made between the checkout and the drain took the units they counted on
+    public long getJournalOversoldCount() {
+        return journalOversold.get();
+    }
+
+    //returns the number of times the journal's drain failed to write a batch of sales (0 with the journal off)
+    public long getJournalDrainFailureCount() {
+        SaleJournal journal = saleJournal;
+        return journal == null ? 0 : journal.drainFailureCount();
+    }
+
+    //returns the units of a product sold by journaled sales that are not in the database yet (0 with the journal off).
+    //call it inside the write transaction of a change that takes stock away, so the drained sequence number it reads
+    //matches the stock the change sees
+    private int pendingJournalUnits(int productId) {
+        SaleJournal journal = saleJournal;
+        return journal == null ? 0 : journal.pendingQuantity(productId, readDrainedSeq());
+    }
+
+    //letting a read wait briefly for journaled sales, so it sees every sale a till has already been told about
+    private void awaitSaleJournal() {
+        SaleJournal journal = saleJournal;
+        if (journal != null) {
+            journal.awaitDrained(JOURNAL_READ_WAIT_MILLIS);
+        }
+    }
+
+    //the stock of a product and the last drained journal sequence number, read in one statement so they match
+    private static final String JOURNAL_STOCK_QUERY = "SELECT " + COL_STOCK + ", IFNULL((SELECT CAST(" + COL_VALUE
+            + " AS INTEGER) FROM " + TABLE_META + " WHERE " + COL_KEY + " = ?), 0) AS drained FROM " + TABLE_PRODUCTS
+            + " WHERE " + COL_ID + " = ?";
+
+    //recording a sale through the journal: the stock is checked against the database minus the sales still in the
+    //journal, and the sale is appended and flushed (grouped with other tills' sales) without a SQLite commit.
+    //returns SALE_JOURNALED (the sale ID is given when it is drained), SALE_REJECTED or SALE_UNAVAILABLE
+    private long journalSale(SaleJournal journal, int productId, String productName, int quantity,
+                             double salePrice, double cost) {
+        long start = System.nanoTime();
+        String date = DisplayFormats.formatStoredDate(new Date());
+        Object[] args = {META_JOURNAL_DRAINED, productId};
+        long seq;
+        do {
+            List<long[]> rows = db.query(JOURNAL_STOCK_QUERY, args,
+                    row -> new long[]{row.getInt(COL_STOCK), row.getLong("drained")});
+            if (rows.isEmpty()) {
+                seq = SALE_REJECTED; //the product was deleted
+                break;
+            }
+            seq = journal.append(productId, productName, quantity, salePrice, cost, date, (int) rows.get(0)[0], rows.get(0)[1]);
+        } while (seq == SaleJournal.STALE_STOCK);
+        boolean accepted = seq > 0;
+        recordQuery("recordSale.journal", start, accepted ? 1 : 0, JOURNAL_STOCK_QUERY, args);
+        if (seq == SaleJournal.BUSY) {
+            return SALE_UNAVAILABLE;
+        }
+        return accepted ? SALE_JOURNALED : SALE_REJECTED;
+    }
+
+    //writing a batch of journaled sales into the database in one transaction, together with the batch's last
+    //sequence number, so after a crash the journal knows exactly which sales the database already has
+    private void drainJournal(final List<SaleJournal.Entry> batch) {
+        long start = System.nanoTime();
+        final int[] newStocks = new int[batch.size()];
+        writeStock(() -> {
+            int[] newStock = new int[1];
+            for (int i = 0; i < batch.size(); i++) {
+                SaleJournal.Entry sale = batch.get(i);
+                insertSale(sale.productId, sale.productName, sale.quantity, sale.salePrice, sale.cost,
+                        sale.date, newStock, true);
+                newStocks[i] = newStock[0];
+            }
+            writeMeta(META_JOURNAL_DRAINED, Long.toString(batch.get(batch.size() - 1).seq));
+            return null;
+        }, none -> {
+            for (int i = 0; i < batch.size(); i++) {
+                SaleJournal.Entry sale = batch.get(i);
+                if (newStocks[i] != NO_STOCK) {
+                    StockEvents.stockChanged(sale.productId, sale.productName, newStocks[i] + sale.quantity, newStocks[i]);
+                }
+            }
+        });
+        for (int i = 0; i < batch.size(); i++) {
+            if (newStocks[i] < 0) {
+                journalOversold.incrementAndGet(); //NO_STOCK is below zero too
+            }
+        }
+        onDataChanged(TABLE_SALES, TABLE_PRODUCTS, TABLE_BRANCH_ROLLUPS);
+        snapshotIfDue();
+        recordQuery("drainSaleJournal", start, batch.size(), INSERT_SALE, null);
+    }
+
+    //retrieving all recorded sales of the current branch when the user prompts, newest first (w3resource, 2024)
+    @Override
+    public List<Sale> getAllSales() {
+        return querySales("getAllSales", null, null, 0);
+    }
+
+    //retrieving only the most recent sales of the current branch, newest first (used by the dashboard instead of
+    //loading every sale). these are nearly always all in the main database, so the archive is only read to fill up a short list
+    @Override
+    public List<Sale> getRecentSales(int limit) {
+        awaitSaleJournal();
+        long start = System.nanoTime();
+        int branch = getCurrentBranchId();
+        String sql = "SELECT * FROM " + TABLE_SALES + " WHERE " + COL_BRANCH_ID + " = ? ORDER BY " + COL_DATE + " DESC LIMIT " + limit;
+        Object[] branchArgs = {branch};
+        List<Sale> sales = db.query(sql, branchArgs, SqlInventoryStore::readSale);
+        recordQuery("getRecentSales", start, sales.size(), sql, branchArgs);
+        String archivedBefore = archiveState().archivedBefore;
+        if (sales.size() < limit && archivedBefore != null && attachArchive()) {
+            start = System.nanoTime();
+            sql = "SELECT * FROM " + ARCHIVE_SCHEMA + "." + TABLE_SALES + " WHERE " + COL_BRANCH_ID + " = ? AND " + COL_DATE
+                    + " < ? ORDER BY " + COL_DATE + " DESC LIMIT " + (limit - sales.size());
+            Object[] args = {branch, archivedBefore};
+            final String archiveSql = sql;
+            List<Sale> archived = withArchive(true, () -> db.query(archiveSql, args, SqlInventoryStore::readSale));
+            recordQuery("getRecentSales.archive", start, archived.size(), sql, args);
+            sales.addAll(archived);
+        }
+        return sales;
+    }
+
+    //retrieving the current branch's sales in a date range, newest first, from the archive as well when the range reaches into it
+    @Override
+    public List<Sale> getSalesBetween(String from, String to) {
+        return querySales("getSalesBetween", from, to, 0);
+    }
+
+    //reading the current branch's sales dated from 'from' (inclusive) up to 'to' (exclusive), either of which may be null, newest first.
+    //the main table is always read; the archive is attached and read only when the range starts before the
+    //archive watermark, and then only below it (so a sale copied there by an unfinished archiving run is never counted twice)
+    private List<Sale> querySales(String operation, String from, String to, int limit) {
+        awaitSaleJournal();
+        long start = System.nanoTime();
+        List<Object> args = new ArrayList<>();
+        int branch = getCurrentBranchId();
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(TABLE_SALES);
+        appendSalesFilter(sql, args, branch, from, to, null);
+        String archivedBefore = archiveState().archivedBefore;
+        boolean withArchive = archivedBefore != null && (from == null || from.compareTo(archivedBefore) < 0) && attachArchive();
+        if (withArchive) {
+            sql.append(" UNION ALL SELECT * FROM ").append(ARCHIVE_SCHEMA).append('.').append(TABLE_SALES);
+            appendSalesFilter(sql, args, branch, from, to, archivedBefore);
+        }
+        sql.append(" ORDER BY ").append(COL_DATE).append(" DESC");
+        if (limit > 0) {
+            sql.append(" LIMIT ").append(limit);
+        }
+        final Object[] argArray = args.toArray();
+        final String salesSql = sql.toString();
+        List<Sale> sales = withArchive(withArchive, () -> db.query(salesSql, argArray, SqlInventoryStore::readSale));
+        recordQuery(operation, start, sales.size(), sql.toString(), argArray);
+        return sales;
+    }
+
+    //adding "WHERE branch_id = branch AND date >= from AND date < to AND date < before" for the bounds that are not null
+    private static void appendSalesFilter(StringBuilder sql, List<Object> args, int branch, String from, String to, String before) {
+        sql.append(" WHERE ").append(COL_BRANCH_ID).append(" = ?");
+        args.add(branch);
+        for (String[] bound : new String[][]{{" >= ?", from}, {" < ?", to}, {" < ?", before}}) {
+            if (bound[1] != null) {
+                sql.append(" AND ").append(COL_DATE).append(bound[0]);
+                args.add(bound[1]);
+            }
+        }
+    }
+
+    //creating a sale object from a sales row
+    static Sale readSale(StoreDatabase.Row row) {
+        return new Sale(
+                row.getInt(COL_SALE_ID),
+                row.getInt(COL_PRODUCT_ID),
+                row.getString(COL_PRODUCT_NAME),
+                row.getInt(COL_QUANTITY),
+                row.getDouble(COL_SALE_PRICE),
+                row.getDouble(COL_TOTAL),
+                row.getString(COL_DATE),
+                row.getDouble(COL_PROFIT),
+                row.getInt(COL_BRANCH_ID)
+        );
+    }
+
+    //calculating the current branch's total sales value (SQLite Tutorial, 2022)
+    //(from the daily rollups, which include archived sales, so neither the sales nor the archive are scanned)
+    @Override
+    public double getTotalSales() {
+        ensureRollupsComplete();
+        return queryDouble("getTotalSales", "SELECT SUM(" + COL_SALES_TOTAL + ") FROM " + TABLE_BRANCH_ROLLUPS
+                + " WHERE " + COL_BRANCH_ID + " = ?");
+    }
+
+    //calculating the current branch's total profit earned (SQLite Tutorial, 2022)
+    @Override
+    public double getTotalProfit() {
+        ensureRollupsComplete();
+        return queryDouble("getTotalProfit", "SELECT SUM(" + COL_PROFIT_TOTAL + ") FROM " + TABLE_BRANCH_ROLLUPS
+                + " WHERE " + COL_BRANCH_ID + " = ?");
+    }
+
+    //returning the current branch's report (total sales, total profit and the low stock report), worked out again
+    //only when the data changed since it was last worked out: the highest sale ID and the data version are two
+    //single-row reads, and while they match the snapshot kept in memory (or, after a restart, the one stored in
+    //the meta table) it is returned as it is. the operation is recorded with 1 row when the report was worked out
+    public ReportSnapshot getReportSnapshot() {
+        awaitSaleJournal();
+        ensureRollupsComplete();
+        long start = System.nanoTime();
+        int branch = getCurrentBranchId();
+        //reading the version before the data, so a change made while the report is worked out leaves the stored
+        //version behind the database's and the next call works the report out again
+        long saleHighWater = db.queryLong("SELECT IFNULL(MAX(" + COL_SALE_ID + "), 0) FROM " + TABLE_SALES, null);
+        String storedVersion = readMeta(META_DATA_VERSION);
+        long dataVersion = storedVersion == null ? 0 : Long.parseLong(storedVersion);
+
+        ReportSnapshot snapshot = reportSnapshot;
+        int worked = 0;
+        if (snapshot == null || !snapshot.isFor(branch, saleHighWater, dataVersion)) {
+            final String key = META_REPORT_SNAPSHOT_PREFIX + branch;
+            snapshot = ReportSnapshot.decode(readMeta(key));
+            if (snapshot == null || !snapshot.isFor(branch, saleHighWater, dataVersion)) {
+                snapshot = new ReportSnapshot(branch, saleHighWater, dataVersion, getTotalSales(), getTotalProfit(),
+                        ReportCalculator.lowStockReport(getLowStockProducts()));
+                final String encoded = snapshot.encode();
+                db.inTransaction(() -> {
+                    writeMeta(key, encoded);
+                    return null;
+                });
+                worked = 1;
+            }
+            reportSnapshot = snapshot;
+        }
+        recordQuery("getReportSnapshot", start, worked, "SELECT MAX(" + COL_SALE_ID + ") FROM " + TABLE_SALES, null);
+        return snapshot;
+    }
+
+    //calculating the current branch's inventory value (price × stock for all its products) (SQLite Tutorial, 2022)
+    @Override
+    public double getInventoryValue() {
+        return queryDouble("getInventoryValue", "SELECT SUM(" + COL_PRICE + " * " + COL_STOCK + ") FROM " + TABLE_PRODUCTS
+                + " WHERE " + COL_BRANCH_ID + " = ?");
+    }
+
+    //counting the current branch's products with low stock without loading them (SQLite Tutorial, 2022)
+    @Override
+    public int getLowStockCount() {
+        return (int) queryDouble("getLowStockCount", "SELECT COUNT(*) FROM " + TABLE_PRODUCTS + " WHERE " + COL_BRANCH_ID
+                + " = ? AND " + COL_STOCK + " <= " + LOW_STOCK_THRESHOLD);
+    }
+
+    //counting the current branch's products (SQLite Tutorial, 2022)
+    @Override
+    public int getTotalProducts() {
+        return (int) queryDouble("getTotalProducts", "SELECT COUNT(*) FROM " + TABLE_PRODUCTS + " WHERE " + COL_BRANCH_ID + " = ?");
+    }
+
+    //running a single-value aggregate query (SUM or COUNT) for the current branch and recording its timing
+    private double queryDouble(String operation, String sql) {
+        awaitSaleJournal();
+        long start = System.nanoTime();
+        Object[] args = {getCurrentBranchId()};
+        double total = db.queryDouble(sql, args);
+        recordQuery(operation, start, 1, sql, args);
+        return total;
+    }
+
+    //sales archive
+
+    //the archive watermark, as stored in the meta table
+    private static final class ArchiveState {
+        final String archivedBefore; //sales dated before this are in the archive (null if nothing was archived)
+
+        ArchiveState(String archivedBefore) {
+            this.archivedBefore = archivedBefore;
+        }
+    }
+
+    //returning the archive state, reading it from the meta table the first time
+    private ArchiveState archiveState() {
+        ArchiveState state = archiveState;
+        if (state == null) {
+            state = new ArchiveState(readMeta(META_SALES_ARCHIVED_BEFORE));
+            archiveState = state;
+        }
+        return state;
+    }
+
+    //attaching the archive database and creating its tables on first use; returns false if this store has no archive
+    private synchronized boolean attachArchive() {
+        if (archiveAttached) {
+            return true;
+        }
+        String path = archivePath;
+        if (path == null) {
+            return false;
+        }
+        long start = System.nanoTime();
+        db.attach(ARCHIVE_SCHEMA, path);
+        db.withAttached(() -> {
+            for (String statement : InventorySchema.createArchiveStatements()) {
+                db.execute(statement);
+            }
+            //an archive written before version 7 has no branch column yet; its sales all belong to the default branch
+            List<String> columns = db.query("PRAGMA " + ARCHIVE_SCHEMA + ".table_info(" + TABLE_SALES + ")", null, row -> row.getString("name"));
+            if (!columns.contains(COL_BRANCH_ID)) {
+                db.execute("ALTER TABLE " + ARCHIVE_SCHEMA + "." + TABLE_SALES + " ADD COLUMN " + COL_BRANCH_ID
+                        + " INTEGER NOT NULL DEFAULT " + DEFAULT_BRANCH_ID);
+            }
+            //the archive is a file of its own that a restore does not replace, so it can hold sales archived after the
+            //restored backup was taken; the restored database still has those in its sales table (or, if they were
+            //recorded after the backup, lost them with everything else since), so they are dropped here
+            db.inTransaction(() -> trimArchive(archiveState().archivedBefore));
+            return null;
+        });
+        archiveAttached = true;
+        recordQuery("attachArchive", start, 0, "ATTACH DATABASE", null);
+        return true;
+    }
+
+    //deleting the archived sales at or after the watermark (all of them if nothing was archived yet); they are not part
+    //of the main database's sales, only copies whose delete never happened or sales from a database since restored over.
+    //call inside a transaction where the archive is attached. returns the number deleted
+    private int trimArchive(String archivedBefore) {
+        String sql = "DELETE FROM " + ARCHIVE_SCHEMA + "." + TABLE_SALES + (archivedBefore == null ? "" : " WHERE " + COL_DATE + " >= ?");
+        Object[] args = archivedBefore == null ? null : new Object[]{archivedBefore};
+        long start = System.nanoTime();
+        int deleted = db.update(sql, args);
+        recordQuery("trimArchive", start, deleted, sql, args);
+        return deleted;
+    }
+
+    //running work that reads or writes the archive on the database's attached connection (see
+    //StoreDatabase.withAttached()), or as it is when it does not use the archive. the first time the archive is
+    //used, the main database is checked to still be in WAL mode: attaching the archive on Android's shared
+    //connection would have turned WAL off and left a single connection for every reader and writer
+    private <T> T withArchive(boolean archive, StoreDatabase.Work<T> work) {
+        if (!archive) {
+            return work.run();
+        }
+        T result = db.withAttached(work);
+        if (!walCheckedAfterArchive) {
+            List<String> mode = db.query("PRAGMA main.journal_mode", null, row -> row.getString("journal_mode"));
+            if (mode.isEmpty() || !"wal".equalsIgnoreCase(mode.get(0))) {
+                throw new StoreException("the database left WAL mode when the archive was used (journal mode "
+                        + (mode.isEmpty() ? "unknown" : mode.get(0)) + ")");
+            }
+            walCheckedAfterArchive = true;
+        }
+        return result;
+    }
+
+    //moving the sales dated before midnight olderThanDays days ago into the archive database.
+    //returns the number of sales moved
+    @Override
+    public int archiveSales(int olderThanDays) {
+        Calendar cutoff = Calendar.getInstance();
+        cutoff.set(Calendar.HOUR_OF_DAY, 0);
+        cutoff.set(Calendar.MINUTE, 0);
+        cutoff.set(Calendar.SECOND, 0);
+        cutoff.set(Calendar.MILLISECOND, 0);
+        cutoff.add(Calendar.DAY_OF_MONTH, -olderThanDays);
+        return archiveSalesBefore(DisplayFormats.formatStoredDate(cutoff.getTime()));
+    }
+
+    //moving the sales dated before the cutoff (stored date format) into the archive, oldest first,
+    //in chunks of about ARCHIVE_CHUNK sales so each transaction stays short. returns the number moved
+    public int archiveSalesBefore(final String cutoff) {
+        if (!attachArchive()) {
+            throw new IllegalStateException("this store has no archive database");
+        }
+        return withArchive(true, () -> moveSalesInChunks(cutoff));
+    }
+
+    //the chunks of archiveSalesBefore(), run where the archive is attached
+    private int moveSalesInChunks(String cutoff) {
+        long start = System.nanoTime();
+        String boundarySql = "SELECT " + COL_DATE + " FROM " + TABLE_SALES + " WHERE " + COL_DATE + " < ? ORDER BY "
+                + COL_DATE + " LIMIT 1 OFFSET " + ARCHIVE_CHUNK;
+        String nextDateSql = "SELECT " + COL_DATE + " FROM " + TABLE_SALES + " WHERE " + COL_DATE + " > ? AND "
+                + COL_DATE + " < ? ORDER BY " + COL_DATE + " LIMIT 1";
+        int moved = 0;
+        while (true) {
+            //the chunk ends at the date of the (ARCHIVE_CHUNK + 1)-th oldest sale, or at the cutoff for the last chunk
+            List<String> boundary = db.query(boundarySql, new Object[]{cutoff}, row -> row.getString(COL_DATE));
+            String chunkEnd = boundary.isEmpty() ? cutoff : boundary.get(0);
+            int chunk = moveSalesBefore(chunkEnd);
+            if (chunk == 0 && !boundary.isEmpty()) {
+                //more than a chunk of sales share the oldest date, so they move together up to the next date
+                List<String> next = db.query(nextDateSql, new Object[]{chunkEnd, cutoff}, row -> row.getString(COL_DATE));
+                chunk = moveSalesBefore(next.isEmpty() ? cutoff : next.get(0));
+            }
+            moved += chunk;
+            if (boundary.isEmpty()) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            onDataChanged(TABLE_SALES);
+        }
+        recordQuery("archiveSales", start, moved, boundarySql, null);
+        return moved;
+    }
+
+    //moving the main database's sales dated before end into the archive and raising the watermark to end.
+    //the copy and the delete are separate transactions because in WAL mode each database file commits on its own:
+    //a copy whose delete never happened is harmless (the archive is only read below the watermark, which is
+    //raised together with the delete, and the next copy drops it first), whereas a delete whose copy was lost
+    //would lose sales. the copy is a plain INSERT, so a sale ID that is already archived below the watermark
+    //stops the run instead of overwriting the archived sale
+    private int moveSalesBefore(final String end) {
+        final Object[] args = {end};
+        db.inTransaction(() -> {
+            trimArchive(archiveState().archivedBefore);
+            return db.update("INSERT INTO " + ARCHIVE_SCHEMA + "." + TABLE_SALES + " SELECT * FROM main." + TABLE_SALES
+                    + " WHERE " + COL_DATE + " < ?", args);
+        });
+
+        //only deleting sales that are in the archive, in case a sale dated before end was written in between
+        final String moved = " FROM main." + TABLE_SALES + " WHERE " + COL_DATE + " < ? AND " + COL_SALE_ID + " IN (SELECT "
+                + COL_SALE_ID + " FROM " + ARCHIVE_SCHEMA + "." + TABLE_SALES + ")";
+        final int[] deleted = new int[1];
+        ArchiveState state = db.inTransaction(() -> {
+            ArchiveState old = archiveState();
+            deleted[0] = db.update("DELETE" + moved, args);
+            String archivedBefore = old.archivedBefore == null || end.compareTo(old.archivedBefore) > 0 ? end : old.archivedBefore;
+            writeMeta(META_SALES_ARCHIVED_BEFORE, archivedBefore);
+            return new ArchiveState(archivedBefore);
+        });
+        archiveState = state; //only after the commit, so a rolled back run leaves the old state
+        return deleted[0];
+    }
+
+    //branches
+
+    //returning the branch this store works in (the default branch until another is chosen)
+    public int getCurrentBranchId() {
+        Integer branch = currentBranch;
+        if (branch == null) {
+            String stored = readMeta(META_CURRENT_BRANCH);
+            branch = stored == null ? DEFAULT_BRANCH_ID : Integer.parseInt(stored);
+            currentBranch = branch;
+        }
+        return branch;
+    }
+
+    //switching the branch whose products, sales and totals are read and whose products are added
+    public void setCurrentBranch(final int branchId) {
+        db.inTransaction(() -> {
+            writeMeta(META_CURRENT_BRANCH, Integer.toString(branchId));
+            return null;
+        });
+        currentBranch = branchId;
+        catalogChanged();
+        onDataChanged(); //everything cached belongs to the old branch
+    }
+
+    //adding a branch and returning its ID
+    public int addBranch(String name) {
+        return (int) db.insert("INSERT INTO " + TABLE_BRANCHES + " (" + COL_BRANCH_NAME + ") VALUES (?)", new Object[]{name});
+    }
+
+    //adding one sale to its branch's rollup for the day (call inside the transaction that records the sale).
+    //an UPDATE first and an INSERT only for the first sale of the day, so it works on every SQLite version
+    private void addToRollup(int branch, String storedDate, int quantity, double total, double profit) {
+        String day = storedDate.substring(0, 10);
+        int updated = db.update("UPDATE " + TABLE_BRANCH_ROLLUPS + " SET " + COL_SALE_COUNT + " = " + COL_SALE_COUNT + " + 1, "
+                        + COL_UNITS + " = " + COL_UNITS + " + ?, " + COL_SALES_TOTAL + " = " + COL_SALES_TOTAL + " + ?, "
+                        + COL_PROFIT_TOTAL + " = " + COL_PROFIT_TOTAL + " + ? WHERE " + COL_BRANCH_ID + " = ? AND " + COL_DAY + " = ?",
+                new Object[]{quantity, total, profit, branch, day});
+        if (updated == 0) {
+            db.insert("INSERT INTO " + TABLE_BRANCH_ROLLUPS + " VALUES (?, ?, 1, ?, ?, ?)",
+                    new Object[]{branch, day, quantity, total, profit});
+        }
+    }
+
+    //working the rollups out again from every sale, in the main database and the archive (e.g., after sales
+    //were written without recordSale(), as the test data generator does). returns the number of rollup rows
+    public int rebuildBranchRollups() {
+        long start = System.nanoTime();
+        final String archivedBefore = archiveState().archivedBefore;
+        final boolean withArchive = archivedBefore != null && attachArchive();
+        final String sql = "INSERT INTO " + TABLE_BRANCH_ROLLUPS + " SELECT " + ROLLUP_COLUMNS + " FROM (SELECT * FROM main." + TABLE_SALES
+                + (withArchive ? " UNION ALL SELECT * FROM " + ARCHIVE_SCHEMA + "." + TABLE_SALES + " WHERE " + COL_DATE + " < ?" : "")
+                + ")" + ROLLUP_GROUP_BY;
+        int rows = withArchive(withArchive, () -> db.inTransaction(() -> {
+            db.update("DELETE FROM " + TABLE_BRANCH_ROLLUPS, null);
+            int written = db.update(sql, withArchive ? new Object[]{archivedBefore} : null);
+            bumpDataVersion();
+            if (withArchive) {
+                db.update("DELETE FROM " + TABLE_META + " WHERE " + COL_KEY + " = ?", new Object[]{META_ROLLUPS_NEED_ARCHIVE});
+            }
+            return written;
+        }));
+        rollupsComplete = withArchive || archivedBefore == null;
+        recordQuery("rebuildBranchRollups", start, rows, sql, null);
+        return rows;
+    }
+
+    //taking the archived sales into the rollups once, if the database was upgraded to version 7 with sales in the archive.
+    //without an archive path the rollups stay incomplete (and are checked again), so an archive set later is taken in
+    private void ensureRollupsComplete() {
+        if (rollupsComplete) {
+            return;
+        }
+        if (readMeta(META_ROLLUPS_NEED_ARCHIVE) == null) {
+            rollupsComplete = true;
+        } else if (archivePath != null) {
+            rebuildBranchRollups(); //sets rollupsComplete from whether the archive was read
+        }
+    }
+
+    //adding up every branch's sales from the rollups for the days from 'fromDay' (inclusive) up to 'toDay' (exclusive),
+    //as "yyyy-MM-dd" and either may be null for no limit; one entry per branch, branches with no sales included
+    @Override
+    public List<BranchTotals> getBranchTotals(String fromDay, String toDay) {
+        awaitSaleJournal();
+        ensureRollupsComplete();
+        long start = System.nanoTime();
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT b.").append(COL_BRANCH_ID).append(", b.").append(COL_BRANCH_NAME)
+                .append(", IFNULL(SUM(r.").append(COL_SALE_COUNT).append("), 0) AS ").append(COL_SALE_COUNT)
+                .append(", IFNULL(SUM(r.").append(COL_UNITS).append("), 0) AS ").append(COL_UNITS)
+                .append(", IFNULL(SUM(r.").append(COL_SALES_TOTAL).append("), 0) AS ").append(COL_SALES_TOTAL)
+                .append(", IFNULL(SUM(r.").append(COL_PROFIT_TOTAL).append("), 0) AS ").append(COL_PROFIT_TOTAL)
+                .append(" FROM ").append(TABLE_BRANCHES).append(" b LEFT JOIN ").append(TABLE_BRANCH_ROLLUPS)
+                .append(" r ON r.").append(COL_BRANCH_ID).append(" = b.").append(COL_BRANCH_ID);
+        if (fromDay != null) {
+            sql.append(" AND r.").append(COL_DAY).append(" >= ?");
+            args.add(fromDay);
+        }
+        if (toDay != null) {
+            sql.append(" AND r.").append(COL_DAY).append(" < ?");
+            args.add(toDay);
+        }
+        sql.append(" GROUP BY b.").append(COL_BRANCH_ID).append(" ORDER BY b.").append(COL_BRANCH_ID);
+        Object[] argArray = args.toArray();
+        List<BranchTotals> totals = db.query(sql.toString(), argArray, row -> new BranchTotals(
+                row.getInt(COL_BRANCH_ID),
+                row.getString(COL_BRANCH_NAME),
+                row.getLong(COL_SALE_COUNT),
+                row.getLong(COL_UNITS),
+                row.getDouble(COL_SALES_TOTAL),
+                row.getDouble(COL_PROFIT_TOTAL)));
+        recordQuery("getBranchTotals", start, totals.size(), sql.toString(), argArray);
+        return totals;
+    }
+
+    //analytics
+
+    //loading the current branch's sales dated from 'from' (inclusive) up to 'to' (exclusive) into a columnar
+    //snapshot, archived sales first; dates are in the stored format and either may be null for no limit.
+    //the rows are streamed straight into the snapshot's columns and SQLite works out the timestamps and cents,
+    //so no Sale object or date string is created per sale
+    public SalesSnapshot loadSalesSnapshot(String from, String to) {
+        awaitSaleJournal();
+        int branch = getCurrentBranchId();
+        final SalesSnapshot.Builder builder = new SalesSnapshot.Builder((int) db.queryLong(
+                "SELECT COUNT(*) FROM " + TABLE_SALES + " WHERE " + COL_BRANCH_ID + " = ?", new Object[]{branch}));
+        StoreDatabase.RowHandler handler = row -> builder.add(
+                row.getInt(COL_PRODUCT_ID),
+                row.getString(COL_PRODUCT_NAME),
+                row.getInt(COL_QUANTITY),
+                row.getLong("ts"),
+                row.getLong("total_cents"),
+                row.getLong("profit_cents"));
+        String archivedBefore = archiveState().archivedBefore;
+        if (archivedBefore != null && (from == null || from.compareTo(archivedBefore) < 0) && attachArchive()) {
+            withArchive(true, () -> {
+                scanSnapshotRows(ARCHIVE_SCHEMA + "." + TABLE_SALES, branch, from, to, archivedBefore, builder, handler);
+                return null;
+            });
+        }
+        scanSnapshotRows(TABLE_SALES, branch, from, to, null, builder, handler);
+        return builder.build();
+    }
+
+    //streaming one sales table's rows for a snapshot, oldest first
+    private void scanSnapshotRows(String table, int branch, String from, String to, String before,
+                                  SalesSnapshot.Builder builder, StoreDatabase.RowHandler handler) {
+        long start = System.nanoTime();
+        int rowsBefore = builder.size();
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(COL_PRODUCT_ID).append(", ").append(COL_PRODUCT_NAME)
+                .append(", ").append(COL_QUANTITY)
+                .append(", CAST(strftime('%s', ").append(COL_DATE).append(") AS INTEGER) AS ts")
+                .append(", CAST(ROUND(").append(COL_TOTAL).append(" * 100) AS INTEGER) AS total_cents")
+                .append(", CAST(ROUND(").append(COL_PROFIT).append(" * 100) AS INTEGER) AS profit_cents")
+                .append(" FROM ").append(table);
+        appendSalesFilter(sql, args, branch, from, to, before);
+        sql.append(" ORDER BY ").append(COL_DATE);
+        Object[] argArray = args.toArray();
+        db.scan(sql.toString(), argArray, handler);
+        recordQuery("loadSalesSnapshot", start, builder.size() - rowsBefore, sql.toString(), argArray);
+    }
+
+    //sync settings
+
+    //returns true once a sync server has been set, i.e. changes need to be logged
+    private boolean isSyncConfigured() {
+        Boolean configured = syncConfigured;
+        if (configured == null) {
+            configured = readMeta(META_SYNC_ENDPOINT) != null;
+            syncConfigured = configured;
+        }
+        return configured;
+    }
+
+    //returning the sync server address (null if none was set)
+    public String getSyncEndpoint() {
+        return readMeta(META_SYNC_ENDPOINT);
+    }
+
+    //setting the sync server address; from then on every change to sales and products is logged for SyncEngine
+    public void setSyncEndpoint(final String endpoint) {
+        db.inTransaction(() -> {
+            writeMeta(META_SYNC_ENDPOINT, endpoint);
+            return null;
+        });
+        syncConfigured = endpoint != null;
+    }
+
+    //meta values
+
+    private static final String META_VALUE_QUERY = "SELECT " + COL_VALUE + " FROM " + TABLE_META + " WHERE " + COL_KEY + " = ?";
+
+    //reading a value from the meta table (null if it was never written)
+    protected String readMeta(String key) {
+        List<String> values = db.query(META_VALUE_QUERY, new Object[]{key}, row -> row.getString(COL_VALUE));
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    //writing a value to the meta table (call inside the transaction whose data it describes)
+    protected void writeMeta(String key, String value) {
+        db.update("INSERT OR REPLACE INTO " + TABLE_META + " (" + COL_KEY + ", " + COL_VALUE + ") VALUES (?, ?)",
+                new Object[]{key, value});
+    }
+
+    //instrumentation
+
+    //telling the listener that the data changed, then the invalidation tracker which tables a committed write
+    //changed (none means every table). the listener goes first, so a query woken up by the tracker does not read
+    //an in-memory copy from before the write
+    protected void onDataChanged(String... tables) {
+        Runnable listener = dataChangeListener;
+        if (listener != null) {
+            listener.run();
+        }
+        invalidationTracker.tablesChanged(tables);
+    }
+
+    //recording the timing of one database operation: it feeds the per-operation histogram in QueryStats,
+    //traces the first query after start-up and, if the call was slow, logs its SQL and query plan
+    protected void recordQuery(String operation, long startNanos, long rows, String sql, Object[] args) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (PerfTrace.isEnabled() && firstQueryTraced.compareAndSet(false, true)) {
+            PerfTrace.record("db.first_query:" + operation, startNanos, startNanos + elapsed);
+        }
+        if (QueryStats.record(operation, elapsed, rows)) {
+            QueryStats.logSlowQuery(operation, sql, elapsed, rows, explainQueryPlan(sql, args));
+        }
+    }
+
+    //running EXPLAIN QUERY PLAN for a slow SELECT, so the slow-query log shows whether an index was used
+    private String explainQueryPlan(String sql, Object[] args) {
+        if (!sql.regionMatches(true, 0, "SELECT", 0, 6)) {
+            return "";
+        }
+        try {
+            List<String> steps = db.query("EXPLAIN QUERY PLAN " + sql, args, row -> row.getString("detail"));
+            StringBuilder plan = new StringBuilder();
+            for (String step : steps) {
+                if (plan.length() > 0) {
+                    plan.append(" | ");
+                }
+                plan.append(step);
+            }
+            return plan.toString();
+        } catch (RuntimeException e) {
+            return "unavailable: " + e.getMessage();
+        }
+    }
+}
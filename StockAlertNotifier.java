@@ -0,0 +1,60 @@
+package com.businesspro.inventorymanager;
+
+//importing the android classes used to show the alert
+import android.content.Context; //this is the application context the toast is shown from
+import android.widget.Toast; //this shows the alert message
+
+//importing the list interface for the delivered events
+import java.util.List;
+
+//the StockAlertNotifier class shows the in-app low stock alert.
+//it is subscribed to StockEvents for the whole life of the app (by InventoryApplication),
+//so the alert still appears after the record sale screen has closed, and a burst of sales
+//gives one alert listing every product instead of one toast per sale.
+public final class StockAlertNotifier implements StockEvents.Listener {
+
+    //the application context, so the notifier never holds on to a screen
+    private final Context context;
+
+    //creating a notifier that shows its alerts from the given context
+    public StockAlertNotifier(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    //showing one alert for every product that became low or ran out (restocks need no alert)
+    @Override
+    public void onStockEvents(List<StockEvent> events) {
+        String message = alertText(events);
+        if (message != null) {
+            Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+        }
+    }
+
+    //building the alert text, or null if nothing needs an alert
+    static String alertText(List<StockEvent> events) {
+        StringBuilder text = new StringBuilder();
+        StockEvent single = null;
+        int count = 0;
+        for (StockEvent event : events) {
+            if (event.getType() == StockEvent.Type.RESTOCKED) {
+                continue;
+            }
+            single = event;
+            count++;
+            text.append(count == 1 ? "" : ", ").append(event.getProductName())
+                    .append(event.getType() == StockEvent.Type.OUT_OF_STOCK
+                            ? " (out of stock)"
+                            : " (" + event.getNewStock() + " left)");
+        }
+        if (count == 0) {
+            return null;
+        }
+        if (count == 1) {
+            //the same wording as the alert the record sale screen used to show
+            return single.getType() == StockEvent.Type.OUT_OF_STOCK
+                    ? "WARNING: " + single.getProductName() + " is out of stock!"
+                    : "WARNING: Low stock alert for " + single.getProductName() + "! Only " + single.getNewStock() + " remaining.";
+        }
+        return "WARNING: Low stock alert for " + count + " products: " + text;
+    }
+}
@@ -0,0 +1,83 @@
+package com.businesspro.inventorymanager;
+
+//the StockEvent class describes a product's stock crossing the low-stock or out-of-stock line.
+//events are worked out from the write that changed the stock (see StockEvents), so nobody
+//has to query the product again to find out whether an alert is needed.
+public final class StockEvent {
+
+    //the kinds of threshold crossing
+    public enum Type {
+        //the stock dropped to the low-stock threshold or below, but not to zero
+        ENTERED_LOW_STOCK,
+        //the stock reached zero
+        OUT_OF_STOCK,
+        //the stock rose out of a worse level (out of stock → low, or low/out → above the threshold)
+        RESTOCKED
+    }
+
+    //the stock levels a product can be at, from worst to best
+    static final int LEVEL_OUT = 0;
+    static final int LEVEL_LOW = 1;
+    static final int LEVEL_OK = 2;
+
+    private final Type type;
+    private final int productId;
+    private final String productName;
+    private final int oldStock;
+    private final int newStock;
+
+    //creating an event (use crossing() to create one only when a line was actually crossed)
+    public StockEvent(Type type, int productId, String productName, int oldStock, int newStock) {
+        this.type = type;
+        this.productId = productId;
+        this.productName = productName;
+        this.oldStock = oldStock;
+        this.newStock = newStock;
+    }
+
+    //returning the level for a stock quantity
+    static int level(int stock) {
+        if (stock <= 0) {
+            return LEVEL_OUT;
+        }
+        return stock <= InventorySchema.LOW_STOCK_THRESHOLD ? LEVEL_LOW : LEVEL_OK;
+    }
+
+    //returning the event for a stock change, or null if the stock stayed at the same level
+    public static StockEvent crossing(int productId, String productName, int oldStock, int newStock) {
+        int oldLevel = level(oldStock);
+        int newLevel = level(newStock);
+        if (oldLevel == newLevel) {
+            return null;
+        }
+        Type type;
+        if (newLevel > oldLevel) {
+            type = Type.RESTOCKED;
+        } else if (newLevel == LEVEL_OUT) {
+            type = Type.OUT_OF_STOCK;
+        } else {
+            type = Type.ENTERED_LOW_STOCK;
+        }
+        return new StockEvent(type, productId, productName, oldStock, newStock);
+    }
+
+    //returns the kind of crossing
+    public Type getType() { return type; }
+
+    //returns the ID of the product whose stock changed
+    public int getProductId() { return productId; }
+
+    //returns the name of the product whose stock changed
+    public String getProductName() { return productName; }
+
+    //returns the stock before the change (before the first change, for a coalesced event)
+    public int getOldStock() { return oldStock; }
+
+    //returns the stock after the change
+    public int getNewStock() { return newStock; }
+
+    @Override
+    public String toString() {
+        return type + " " + productName + " (" + oldStock + " → " + newStock + ")";
+    }
+}
@@ -0,0 +1,128 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to collect and deliver the events
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//the StockEvents class is the stock-change event bus of the data layer.
+//the store reports every stock change it writes (old and new stock, known from the write itself);
+//changes are collected for a short window and then turned into threshold events per product, so a
+//burst of sales (e.g., a 40-item basket) reaches each subscriber as one list instead of 40 callbacks.
+//because the old stock of the first change and the new stock of the last change are compared,
+//a product that dips below the line and is restocked inside the window produces no event.
+public final class StockEvents {
+
+    //how long changes are collected before the events are delivered
+    private static final long COALESCE_MILLIS = 250;
+
+    //receives the events of one window
+    public interface Listener {
+        void onStockEvents(List<StockEvent> events);
+    }
+
+    //a listener and the executor its events are delivered on (e.g., the main thread)
+    private static final class Subscription {
+        final Listener listener;
+        final Executor executor;
+
+        Subscription(Listener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+    }
+
+    //the net change of one product inside the current window
+    private static final class PendingChange {
+        final String productName;
+        final int oldStock;
+        int newStock;
+
+        PendingChange(String productName, int oldStock, int newStock) {
+            this.productName = productName;
+            this.oldStock = oldStock;
+            this.newStock = newStock;
+        }
+    }
+
+    private static final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    //the changes of the current window, in the order the products first changed (guarded by the class lock)
+    private static final Map<Integer, PendingChange> pending = new LinkedHashMap<>();
+    private static boolean flushScheduled;
+
+    //one background thread that ends each window
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-stock-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //private constructor because this class only has static helpers
+    private StockEvents() {
+    }
+
+    //subscribing to threshold events, delivered on the given executor
+    public static void subscribe(Listener listener, Executor executor) {
+        subscriptions.add(new Subscription(listener, executor));
+    }
+
+    //removing a listener added with subscribe()
+    public static void unsubscribe(Listener listener) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.listener == listener) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    //reporting a committed stock change; called by the store after every write that changed stock, in the order the
+    //writes committed (a product's net change is taken from its first and last report in the window)
+    public static void stockChanged(int productId, String productName, int oldStock, int newStock) {
+        if (subscriptions.isEmpty() || oldStock == newStock) {
+            return;
+        }
+        synchronized (StockEvents.class) {
+            PendingChange change = pending.get(productId);
+            if (change == null) {
+                pending.put(productId, new PendingChange(productName, oldStock, newStock));
+            } else {
+                change.newStock = newStock;
+            }
+            if (!flushScheduled) {
+                flushScheduled = true;
+                SCHEDULER.schedule(StockEvents::flush, COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    //ending the window: working out each product's net crossing and delivering the list
+    private static void flush() {
+        List<StockEvent> events = new ArrayList<>();
+        synchronized (StockEvents.class) {
+            for (Map.Entry<Integer, PendingChange> entry : pending.entrySet()) {
+                PendingChange change = entry.getValue();
+                StockEvent event = StockEvent.crossing(entry.getKey(), change.productName, change.oldStock, change.newStock);
+                if (event != null) {
+                    events.add(event);
+                }
+            }
+            pending.clear();
+            flushScheduled = false;
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        final List<StockEvent> delivered = Collections.unmodifiableList(events);
+        for (final Subscription subscription : subscriptions) {
+            subscription.executor.execute(() -> subscription.listener.onStockEvents(delivered));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.businesspro.inventorymanager;
+
+//the StockReason class lists why a product's stock changed.
+//every stock change made through InventoryStore carries one of these.
+public final class StockReason {
+
+    //the stock a product started with (when it was added, or when the ledger was added to an existing database)
+    public static final String OPENING = "opening";
+
+    //units sold at a till (recordSale)
+    public static final String SALE = "sale";
+
+    //units received from a supplier
+    public static final String RECEIPT = "receipt";
+
+    //units a customer brought back
+    public static final String RETURN = "return";
+
+    //a count correction (e.g., the stock field changed on the edit product screen, or a stock take)
+    public static final String CORRECTION = "correction";
+
+    //units written off as damaged, lost or expired
+    public static final String WRITE_OFF = "write_off";
+
+    //private constructor because this class only holds constants
+    private StockReason() {
+    }
+}
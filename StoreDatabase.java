@@ -0,0 +1,74 @@
+package com.businesspro.inventorymanager;
+
+//importing the list interface returned by queries
+import java.util.List;
+
+//the StoreDatabase interface is the small set of SQL operations SqlInventoryStore needs.
+//AndroidStoreDatabase implements it over SQLiteDatabase and JdbcStoreDatabase over a JDBC connection,
+//so the same SQL and the same store logic run in the app and on a plain JVM.
+public interface StoreDatabase {
+
+    //one row of a query result, read by column name
+    interface Row {
+        int getInt(String column);
+        long getLong(String column);
+        double getDouble(String column);
+        String getString(String column);
+        boolean isNull(String column);
+    }
+
+    //turns one result row into an object
+    interface RowMapper<T> {
+        T map(Row row);
+    }
+
+    //receives the rows of a scan one at a time
+    interface RowHandler {
+        void handle(Row row);
+    }
+
+    //a piece of work that runs inside a transaction
+    interface Work<T> {
+        T run();
+    }
+
+    //running a query and mapping every row
+    <T> List<T> query(String sql, Object[] args, RowMapper<T> mapper);
+
+    //running a query and handing every row to the handler without collecting them, for reads too large to
+    //hold as objects (the row is only valid inside handle())
+    void scan(String sql, Object[] args, RowHandler handler);
+
+    //running a query and returning the first column of the first row as a number (0 if there is none)
+    double queryDouble(String sql, Object[] args);
+
+    //running a query and returning the first column of the first row as a whole number (0 if there is none)
+    long queryLong(String sql, Object[] args);
+
+    //running an INSERT and returning the new row ID, or -1 if a constraint stopped the insert
+    long insert(String sql, Object[] args);
+
+    //running the same INSERT once per row with the statement compiled only once (for bulk loads).
+    //returns the number of rows inserted; a constraint failure throws, so run it inside inTransaction()
+    int insertBatch(String sql, List<Object[]> rows);
+
+    //running an UPDATE or DELETE and returning the number of rows changed
+    int update(String sql, Object[] args);
+
+    //running a statement that returns nothing (CREATE, DROP, PRAGMA and so on)
+    void execute(String sql);
+
+    //attaching another database file under a schema name (e.g. "archive"), so statements run inside withAttached()
+    //can use schema.table. the file is created if it does not exist and stays attached until the adapter is closed;
+    //attaching a name that is already attached does nothing. must not be called inside a transaction
+    void attach(String schemaName, String path);
+
+    //running work on a connection that has the attached databases; every statement that names an attached schema
+    //must run inside it. it is not a transaction itself (the work can start one with inTransaction()), and it must
+    //not be called inside a transaction, because it may use a connection of its own
+    <T> T withAttached(Work<T> work);
+
+    //running work inside a transaction: everything is committed if it returns, and rolled back if it throws.
+    //transactions can be nested; only the outermost one commits
+    <T> T inTransaction(Work<T> work);
+}
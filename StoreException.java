@@ -0,0 +1,18 @@
+package com.businesspro.inventorymanager;
+
+//the StoreException is thrown when a store operation fails for a reason the caller cannot fix
+//(for example a JDBC error), so callers handle it the same way as Android's unchecked SQLException
+public class StoreException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    //creating an exception with a message
+    public StoreException(String message) {
+        super(message);
+    }
+
+    //creating an exception with a message and the error that caused it
+    public StoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
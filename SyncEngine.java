@@ -0,0 +1,347 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to build, compress and send the batches
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+//importing the shared table and column names
+import static com.businesspro.inventorymanager.InventorySchema.*;
+
+//the SyncEngine class pushes this device's changes to the head-office server.
+//
+//  - every change to a sale or product adds a row to the change_log table, with the next sequence number
+//    (SqlInventoryStore writes it in the same transaction as the change)
+//  - sync() reads the changes after the cursor (the last sequence number the server acknowledged) in batches
+//    of BATCH_SIZE, looks up the current rows, and POSTs each batch as gzip-compressed JSON
+//  - each batch carries an Idempotency-Key built from the device ID, the sync epoch and its sequence range, so a
+//    retry after a lost response is recognised by the server instead of being applied twice
+//  - the cursor only moves after the server acknowledged the batch, in the same transaction that deletes the
+//    sent log rows, so an interrupted sync resumes from the first unacknowledged change
+//
+//sequence numbers and sale IDs only identify a change within one sync epoch: restoring a backup brings back its
+//change log and ID counters, so numbers that were already sent are issued again for other changes. the restore
+//starts a new epoch (see SqlInventoryStore.databaseReplaced()), and the next sync sends everything once more,
+//so the server keys a device's rows by epoch and ID and replaces the rows of the older epoch with the new ones.
+//
+//the first sync of an epoch sends every product and every sale in the main database (archived sales are not sent).
+//the request and response look like this:
+//  POST {"device_id":"…","epoch":"…","from_seq":1,"to_seq":500,"products":[{…}],"deleted_products":[7],"sales":[{…}]}
+//  200  {"acked_seq":500}
+public class SyncEngine {
+
+    //how many change log rows go into one request
+    public static final int BATCH_SIZE = 500;
+
+    //how often a batch is tried before sync() gives up, and the wait before the first retry (doubled each time)
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long FIRST_RETRY_MILLIS = 1000;
+
+    //the connect and read timeouts of one request
+    private static final int TIMEOUT_MILLIS = 15_000;
+
+    //finds the acknowledged sequence number in the server's reply
+    private static final Pattern ACKED_SEQ = Pattern.compile("\"acked_seq\"\\s*:\\s*(\\d+)");
+
+    //what one sync() sent
+    public static final class Result {
+        public final int batches;
+        public final int changes;
+        public final long bytesSent;
+        public final long elapsedMillis;
+
+        Result(int batches, int changes, long bytesSent, long elapsedMillis) {
+            this.batches = batches;
+            this.changes = changes;
+            this.bytesSent = bytesSent;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d changes in %d requests (%.1f KB) in %d ms",
+                    changes, batches, bytesSent / 1024.0, elapsedMillis);
+        }
+    }
+
+    private final SqlInventoryStore store;
+    private final StoreDatabase db;
+    private final URL endpoint;
+
+    //creating an engine that pushes the store's changes to the given http(s) address
+    public SyncEngine(SqlInventoryStore store, String endpoint) {
+        this.store = store;
+        this.db = store.database();
+        try {
+            this.endpoint = new URL(endpoint);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("not a valid sync address: " + endpoint, e);
+        }
+    }
+
+    //pushing every change after the cursor, one batch at a time; throws IOException if the server could not be
+    //reached after the retries (everything acknowledged until then stays acknowledged)
+    public Result sync() throws IOException {
+        long start = System.nanoTime();
+        String deviceId = deviceId();
+        String epoch = epoch();
+        seedFirstSync();
+        int batches = 0;
+        int changes = 0;
+        long bytesSent = 0;
+        while (true) {
+            long cursor = Long.parseLong(store.readMeta(META_SYNC_CURSOR));
+            List<long[]> batch = db.query("SELECT " + COL_SEQ + ", " + COL_ENTITY + ", " + COL_ENTITY_ID + " FROM "
+                            + TABLE_CHANGE_LOG + " WHERE " + COL_SEQ + " > ? ORDER BY " + COL_SEQ + " LIMIT " + BATCH_SIZE,
+                    new Object[]{cursor},
+                    row -> new long[]{row.getLong(COL_SEQ), ENTITY_SALE.equals(row.getString(COL_ENTITY)) ? 1 : 0,
+                            row.getLong(COL_ENTITY_ID)});
+            if (batch.isEmpty()) {
+                break;
+            }
+            long fromSeq = batch.get(0)[0];
+            long toSeq = batch.get(batch.size() - 1)[0];
+            byte[] body = gzip(buildBatch(deviceId, epoch, fromSeq, toSeq, batch));
+            final long acked = post(body, deviceId + ":" + epoch + ":" + fromSeq + "-" + toSeq);
+            //an acknowledgement past the batch would move the cursor over changes that were never sent and delete them
+            if (acked < fromSeq || acked > toSeq) {
+                throw new IOException("the server acknowledged " + acked + " for changes " + fromSeq + " to " + toSeq);
+            }
+            db.inTransaction(() -> {
+                store.writeMeta(META_SYNC_CURSOR, Long.toString(acked));
+                return db.update("DELETE FROM " + TABLE_CHANGE_LOG + " WHERE " + COL_SEQ + " <= ?", new Object[]{acked});
+            });
+            batches++;
+            changes += batch.size();
+            bytesSent += body.length;
+        }
+        long elapsed = System.nanoTime() - start;
+        QueryStats.record("sync", elapsed, changes);
+        return new Result(batches, changes, bytesSent, elapsed / 1_000_000);
+    }
+
+    //returning this device's ID, creating it on first use
+    private String deviceId() {
+        String deviceId = store.readMeta(META_DEVICE_ID);
+        if (deviceId == null) {
+            final String created = UUID.randomUUID().toString();
+            db.inTransaction(() -> {
+                store.writeMeta(META_DEVICE_ID, created);
+                return null;
+            });
+            deviceId = created;
+        }
+        return deviceId;
+    }
+
+    //returning the sync epoch, creating it on first use (a restore replaces it with a new one)
+    private String epoch() {
+        String epoch = store.readMeta(META_SYNC_EPOCH);
+        if (epoch == null) {
+            final String created = UUID.randomUUID().toString();
+            db.inTransaction(() -> {
+                store.writeMeta(META_SYNC_EPOCH, created);
+                return null;
+            });
+            epoch = created;
+        }
+        return epoch;
+    }
+
+    //on the first sync of an epoch, logging every product and sale so the server starts with everything
+    //(the changes still logged, e.g. by a restored backup, are replaced, since everything is sent anyway)
+    private void seedFirstSync() {
+        if (store.readMeta(META_SYNC_CURSOR) != null) {
+            return;
+        }
+        final Object[] now = {DisplayFormats.formatStoredDate(new Date())};
+        db.inTransaction(() -> {
+            db.update("DELETE FROM " + TABLE_CHANGE_LOG, null);
+            String insert = "INSERT INTO " + TABLE_CHANGE_LOG + " (" + COL_ENTITY + ", " + COL_ENTITY_ID + ", " + COL_CREATED_AT + ") ";
+            db.update(insert + "SELECT '" + ENTITY_PRODUCT + "', " + COL_ID + ", ? FROM " + TABLE_PRODUCTS + " ORDER BY " + COL_ID, now);
+            db.update(insert + "SELECT '" + ENTITY_SALE + "', " + COL_SALE_ID + ", ? FROM " + TABLE_SALES + " ORDER BY " + COL_SALE_ID, now);
+            store.writeMeta(META_SYNC_CURSOR, "0");
+            return null;
+        });
+    }
+
+    //building the JSON of one batch from the current product and sale rows
+    //(a product changed several times in the batch is sent once; one that no longer exists is sent as deleted)
+    String buildBatch(String deviceId, String epoch, long fromSeq, long toSeq, List<long[]> changes) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        Set<Long> saleIds = new LinkedHashSet<>();
+        for (long[] change : changes) {
+            (change[1] == 1 ? saleIds : productIds).add(change[2]);
+        }
+        List<Product> products = productIds.isEmpty() ? new ArrayList<Product>() : db.query("SELECT * FROM " + TABLE_PRODUCTS
+                + " WHERE " + COL_ID + " IN (" + placeholders(productIds.size()) + ")", productIds.toArray(), SqlInventoryStore::readProduct);
+        List<Sale> sales = saleIds.isEmpty() ? new ArrayList<Sale>() : db.query("SELECT * FROM " + TABLE_SALES
+                + " WHERE " + COL_SALE_ID + " IN (" + placeholders(saleIds.size()) + ")", saleIds.toArray(), SqlInventoryStore::readSale);
+
+        StringBuilder json = new StringBuilder(256 + 160 * changes.size());
+        json.append("{\"device_id\":");
+        quote(json, deviceId);
+        json.append(",\"epoch\":");
+        quote(json, epoch);
+        json.append(",\"from_seq\":").append(fromSeq).append(",\"to_seq\":").append(toSeq).append(",\"products\":[");
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            productIds.remove((long) product.getId());
+            json.append(i == 0 ? "{" : ",{").append("\"id\":").append(product.getId()).append(",\"name\":");
+            quote(json, product.getName());
+            json.append(",\"price\":").append(product.getPrice()).append(",\"stock\":").append(product.getStock())
+                    .append(",\"category\":");
+            quote(json, product.getCategory());
+            json.append(",\"cost\":").append(product.getCost()).append(",\"version\":").append(product.getVersion())
+                    .append(",\"branch_id\":").append(product.getBranchId()).append(",\"sku\":");
+            quote(json, product.getSku());
+            json.append('}');
+        }
+        json.append("],\"deleted_products\":[");
+        boolean first = true;
+        for (Long deletedId : productIds) {
+            json.append(first ? "" : ",").append(deletedId);
+            first = false;
+        }
+        json.append("],\"sales\":[");
+        for (int i = 0; i < sales.size(); i++) {
+            Sale sale = sales.get(i);
+            json.append(i == 0 ? "{" : ",{").append("\"sale_id\":").append(sale.getSaleId())
+                    .append(",\"product_id\":").append(sale.getProductId()).append(",\"product_name\":");
+            quote(json, sale.getProductName());
+            json.append(",\"quantity\":").append(sale.getQuantity()).append(",\"sale_price\":").append(sale.getSalePrice())
+                    .append(",\"total\":").append(sale.getTotal()).append(",\"date\":");
+            quote(json, sale.getDate());
+            json.append(",\"profit\":").append(sale.getProfit()).append(",\"branch_id\":").append(sale.getBranchId()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    //sending one batch, retrying with the same idempotency key when the network or the server fails;
+    //returns the sequence number the server acknowledged
+    long post(byte[] body, String idempotencyKey) throws IOException {
+        IOException lastFailure = null;
+        long wait = FIRST_RETRY_MILLIS;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (attempt > 1) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("sync interrupted", e);
+                }
+                wait *= 2;
+            }
+            HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+            try {
+                connection.setRequestMethod("POST");
+                connection.setConnectTimeout(TIMEOUT_MILLIS);
+                connection.setReadTimeout(TIMEOUT_MILLIS);
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+                connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+                connection.setRequestProperty("Content-Encoding", "gzip");
+                connection.setRequestProperty("Idempotency-Key", idempotencyKey);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body);
+                }
+                int status = connection.getResponseCode();
+                if (status == HttpURLConnection.HTTP_OK) {
+                    String reply = readAll(connection.getInputStream());
+                    Matcher matcher = ACKED_SEQ.matcher(reply);
+                    if (!matcher.find()) {
+                        throw new RejectedException("the server reply has no acked_seq: " + reply);
+                    }
+                    return Long.parseLong(matcher.group(1));
+                }
+                if (status < 500 && status != 429) {
+                    //the request itself is wrong, so sending it again will not help
+                    throw new RejectedException("the server rejected " + idempotencyKey + " with " + status);
+                }
+                lastFailure = new IOException("the server answered " + status + " for " + idempotencyKey);
+            } catch (RejectedException e) {
+                throw e;
+            } catch (IOException e) {
+                lastFailure = e; //the network failed or the reply was lost, so the same batch is sent again
+            } finally {
+                connection.disconnect();
+            }
+        }
+        throw lastFailure;
+    }
+
+    //a reply that sending the batch again would not change
+    private static final class RejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    //returning "?, ?, ?" for n arguments
+    private static String placeholders(int n) {
+        StringBuilder sql = new StringBuilder(n * 3);
+        for (int i = 0; i < n; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.toString();
+    }
+
+    //adding a JSON string (with quotes and escapes)
+    private static void quote(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    //compressing the JSON text
+    private static byte[] gzip(String json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length() / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    //reading a whole response body as text
+    private static String readAll(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = input.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.businesspro.inventorymanager;
+
+//importing the android classes used to schedule and run the background job
+import android.app.job.JobInfo; //this describes when the job may run
+import android.app.job.JobParameters; //this identifies the job that was started
+import android.app.job.JobScheduler; //this is the system service that runs jobs
+import android.app.job.JobService; //this is the base class for a scheduled job
+import android.content.ComponentName; //this points the job at this service
+import android.content.Context; //this is used to reach the job scheduler
+
+//importing the java classes used to run the sync off the main thread
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//the SyncJobService class sends the device's changes to the central server in the background (see SyncEngine).
+//it is scheduled as one hourly job that needs a network connection; until a sync endpoint has been set on the
+//dashboard it does nothing. if a sync fails (e.g., the server is down) the job asks to be retried with backoff.
+public class SyncJobService extends JobService {
+
+    //the job ID
+    private static final int JOB_ID = 1003;
+
+    //how often the job may run
+    private static final long PERIOD_MILLIS = 60 * 60 * 1000L;
+
+    //its own background thread, so a slow network never delays the screens' loads on diskIO()
+    private static final ExecutorService SYNC = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //scheduling the job, unless it is already scheduled (scheduling again would restart its period)
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        for (JobInfo job : scheduler.getAllPendingJobs()) {
+            if (job.getId() == JOB_ID) {
+                return;
+            }
+        }
+        scheduler.schedule(new JobInfo.Builder(JOB_ID, new ComponentName(context, SyncJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setPeriodic(PERIOD_MILLIS)
+                .build());
+    }
+
+    //running work on the sync thread (used by the dashboard's "Sync now", so it never runs at the same time as the job)
+    static void runOnSyncThread(Runnable work) {
+        SYNC.execute(work);
+    }
+
+    //running the sync on the background thread; returns true because the work carries on after this returns
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        final SqlInventoryStore store = DatabaseHelper.getInstance(this).getStore();
+        SYNC.execute(() -> {
+            boolean retry = false;
+            try {
+                String endpoint = store.getSyncEndpoint();
+                if (endpoint != null) {
+                    new SyncEngine(store, endpoint).sync();
+                }
+            } catch (IOException | StoreException e) {
+                //the server could not be reached; what was acknowledged stays acknowledged and the rest is retried
+                retry = true;
+            } finally {
+                jobFinished(params, retry);
+            }
+        });
+        return true;
+    }
+
+    //the network went away: the batch in flight is simply sent again next time, so there is nothing to undo
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        return true;
+    }
+}
@@ -0,0 +1,235 @@
+package com.businesspro.inventorymanager;
+
+//importing the java classes used to serve and inspect the sync requests
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+//the SyncStandInServer class is a small local stand-in for the head-office sync server, for testing SyncEngine
+//without the real one. it accepts the same POST requests, answers {"acked_seq":to_seq}, remembers each
+//Idempotency-Key so a retried batch gets the same answer without being applied again, and counts the sales
+//it received, so a test can check that every sale arrived exactly once. like the real server, it keeps a device's
+//sales by epoch and sale ID, and a batch from a new epoch replaces the sales of the device's older one.
+//
+//it can also fail on purpose: failEvery(n) answers every n-th new batch with 503 before applying it, and
+//dropReplyEvery(n) applies every n-th new batch and then closes the connection without answering (a lost reply).
+//it only uses ServerSocket, so it runs on any JVM, e.g.
+//  java -cp build/bench com.businesspro.inventorymanager.SyncStandInServer 8085
+public class SyncStandInServer implements AutoCloseable {
+
+    private static final Pattern TO_SEQ = Pattern.compile("\"to_seq\"\\s*:\\s*(\\d+)");
+    private static final Pattern SALE_ID = Pattern.compile("\"sale_id\"\\s*:\\s*(\\d+)");
+    private static final Pattern DEVICE_ID = Pattern.compile("\"device_id\"\\s*:\\s*\"([^\"]*)\"");
+    private static final Pattern EPOCH = Pattern.compile("\"epoch\"\\s*:\\s*\"([^\"]*)\"");
+
+    private final ServerSocket socket;
+    private final Thread acceptThread;
+
+    //the answers already given, by idempotency key
+    private final Map<String, String> replies = new HashMap<>();
+
+    //the sales received, as "device/sale_id" for each device's current epoch, and how many arrived more than once
+    private final Set<String> sales = new HashSet<>();
+    private final Map<String, String> epochs = new HashMap<>();
+    private int duplicateSales;
+
+    private int requests;
+    private int newBatches;
+    private long bytesReceived;
+    private int failEvery;
+    private int dropReplyEvery;
+
+    //starting the server on the given port (0 picks a free one) on the loopback address
+    public SyncStandInServer(int port) throws IOException {
+        socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        acceptThread = new Thread(this::acceptLoop, "sync-stand-in");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    //returns the address to give SyncEngine
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + socket.getLocalPort() + "/sync";
+    }
+
+    //answering every n-th new batch with 503 (0 switches it off)
+    public synchronized SyncStandInServer failEvery(int n) {
+        this.failEvery = n;
+        return this;
+    }
+
+    //applying every n-th new batch but closing the connection without a reply (0 switches it off)
+    public synchronized SyncStandInServer dropReplyEvery(int n) {
+        this.dropReplyEvery = n;
+        return this;
+    }
+
+    public synchronized int getRequests() { return requests; }
+
+    public synchronized int getSalesReceived() { return sales.size(); }
+
+    public synchronized int getDuplicateSales() { return duplicateSales; }
+
+    public synchronized long getBytesReceived() { return bytesReceived; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.ROOT, "%d requests, %d batches applied, %d sales (%d duplicates), %.1f KB received",
+                requests, newBatches, sales.size(), duplicateSales, bytesReceived / 1024.0);
+    }
+
+    //accepting connections one after another until the server is closed
+    private void acceptLoop() {
+        while (!socket.isClosed()) {
+            try (Socket client = socket.accept()) {
+                handle(client);
+            } catch (IOException e) {
+                //a broken connection only affects that request
+            }
+        }
+    }
+
+    //reading one request and answering it
+    private void handle(Socket client) throws IOException {
+        InputStream in = new BufferedInputStream(client.getInputStream());
+        String requestLine = readLine(in);
+        Map<String, String> headers = new HashMap<>();
+        for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+        OutputStream out = client.getOutputStream();
+        if (!requestLine.startsWith("POST ")) {
+            respond(out, 405, "{\"error\":\"only POST\"}");
+            return;
+        }
+        byte[] body = new byte[Integer.parseInt(headers.containsKey("content-length") ? headers.get("content-length") : "0")];
+        for (int read = 0; read < body.length; ) {
+            int n = in.read(body, read, body.length - read);
+            if (n < 0) {
+                throw new IOException("the request body ended early");
+            }
+            read += n;
+        }
+        String key = headers.get("idempotency-key");
+        String json;
+        try {
+            json = "gzip".equals(headers.get("content-encoding")) ? gunzip(body) : new String(body, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            respond(out, 400, "{\"error\":\"the body is not valid gzip\"}");
+            return;
+        }
+
+        String reply;
+        boolean dropReply = false;
+        synchronized (this) {
+            requests++;
+            bytesReceived += body.length;
+            reply = key == null ? null : replies.get(key);
+            if (reply == null) {
+                Matcher toSeq = TO_SEQ.matcher(json);
+                Matcher device = DEVICE_ID.matcher(json);
+                if (key == null || !toSeq.find() || !device.find()) {
+                    respond(out, 400, "{\"error\":\"needs an Idempotency-Key, device_id and to_seq\"}");
+                    return;
+                }
+                if (failEvery > 0 && (newBatches + 1) % failEvery == 0 && !replies.containsKey("failed:" + key)) {
+                    replies.put("failed:" + key, "");
+                    respond(out, 503, "{\"error\":\"try again\"}");
+                    return;
+                }
+                //a new epoch means the device's database was restored, and it sends everything again
+                Matcher epoch = EPOCH.matcher(json);
+                String batchEpoch = epoch.find() ? epoch.group(1) : "";
+                String previousEpoch = epochs.put(device.group(1), batchEpoch);
+                if (previousEpoch != null && !previousEpoch.equals(batchEpoch)) {
+                    sales.removeIf(id -> id.startsWith(device.group(1) + "/"));
+                }
+                //applying the batch: upserting by ID means a sale can only be counted once per device and epoch
+                Matcher sale = SALE_ID.matcher(json);
+                while (sale.find()) {
+                    if (!sales.add(device.group(1) + "/" + sale.group(1))) {
+                        duplicateSales++;
+                    }
+                }
+                newBatches++;
+                reply = "{\"acked_seq\":" + toSeq.group(1) + "}";
+                replies.put(key, reply);
+                dropReply = dropReplyEvery > 0 && newBatches % dropReplyEvery == 0;
+            }
+        }
+        if (!dropReply) {
+            respond(out, 200, reply);
+        }
+    }
+
+    //writing a JSON response and ending the connection
+    private static void respond(OutputStream out, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        String head = "HTTP/1.1 " + status + (status == 200 ? " OK" : " Error") + "\r\nContent-Type: application/json\r\n"
+                + "Content-Length: " + body.length + "\r\nConnection: close\r\n\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+    }
+
+    //reading one header line (without the line ending)
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int c;
+        while ((c = in.read()) >= 0 && c != '\n') {
+            if (c != '\r') {
+                line.write(c);
+            }
+        }
+        return new String(line.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    //decompressing a gzip request body
+    private static String gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            ByteArrayOutputStream text = new ByteArrayOutputStream(body.length * 4);
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                text.write(buffer, 0, n);
+            }
+            return new String(text.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    //stopping the server
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    //running the stand-in until the process is stopped, printing its counters every 10 seconds
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8085;
+        try (SyncStandInServer server = new SyncStandInServer(port)) {
+            System.out.println("sync stand-in listening on " + server.getEndpoint());
+            while (true) {
+                Thread.sleep(10_000);
+                System.out.println("  " + server);
+            }
+        }
+    }
+}
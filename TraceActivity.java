@@ -0,0 +1,130 @@
+package com.businesspro.inventorymanager;
+
+//importing necessary android and java libraries
+import android.graphics.Typeface; //this gives the monospace font for the trace table
+import android.os.Build; //this is used to pick the export folder for the android version
+import android.os.Bundle; //this is used for saving/restoring activity state
+import android.os.Environment; //this gives the standard folder names
+import android.view.Menu; //this is the action bar menu
+import android.view.MenuItem; //this is a single action bar menu entry
+import android.widget.ScrollView; //this lets the trace table scroll
+import android.widget.TextView; //this shows the trace table
+import android.widget.Toast; //this shows short popup messages
+import androidx.appcompat.app.AppCompatActivity;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+//this debug screen shows the spans recorded by PerfTrace (start-up, database open, first frames, screen loads)
+//followed by the per-query timings from QueryStats, and can dump both to a text file next to the CSV reports.
+//the layout is built in code because it is only a plain scrolling text table.
+public class TraceActivity extends AppCompatActivity {
+
+    //the menu item IDs for the action bar
+    private static final int MENU_REFRESH = 1;
+    private static final int MENU_DUMP = 2;
+    private static final int MENU_CLEAR = 3;
+
+    //the TextView that shows the trace table
+    private TextView tvTrace;
+
+    //calling onCreate() for when the activity is first launched.
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        getSupportActionBar().setTitle("Performance Trace");
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+
+        //building a scrolling monospace text view to show the table
+        tvTrace = new TextView(this);
+        tvTrace.setTypeface(Typeface.MONOSPACE);
+        tvTrace.setTextSize(11);
+        tvTrace.setTextIsSelectable(true);
+        tvTrace.setPadding(24, 24, 24, 24);
+        ScrollView scrollView = new ScrollView(this);
+        scrollView.addView(tvTrace);
+        setContentView(scrollView);
+
+        showTrace();
+    }
+
+    //adding the refresh, dump and clear actions to the action bar
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        menu.add(Menu.NONE, MENU_REFRESH, Menu.NONE, "Refresh");
+        menu.add(Menu.NONE, MENU_DUMP, Menu.NONE, "Dump to file");
+        menu.add(Menu.NONE, MENU_CLEAR, Menu.NONE, "Clear");
+        return true;
+    }
+
+    //handling the action bar menu selections
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int itemId = item.getItemId();
+        if (itemId == MENU_REFRESH) {
+            showTrace();
+            return true;
+        } else if (itemId == MENU_DUMP) {
+            dumpToFile();
+            return true;
+        } else if (itemId == MENU_CLEAR) {
+            PerfTrace.clear();
+            QueryStats.reset();
+            showTrace();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    //showing the recorded spans as a table
+    private void showTrace() {
+        try {
+            StringWriter writer = new StringWriter();
+            if (PerfTrace.isEnabled()) {
+                PerfTrace.dump(writer);
+            } else {
+                writer.append("Tracing is disabled in this build.\n");
+            }
+            writer.append("\nQuery timings\n");
+            QueryStats.writeCsv(writer);
+            tvTrace.setText(writer.toString());
+        } catch (IOException e) {
+            tvTrace.setText("Could not read the trace: " + e.getMessage());
+        }
+    }
+
+    //writing the recorded spans to a timestamped text file in the reports folder
+    private void dumpToFile() {
+        File exportDir;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            exportDir = new File(getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS), "InventoryReports");
+        } else {
+            exportDir = new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS), "InventoryReports");
+        }
+        if (!exportDir.exists()) {
+            exportDir.mkdirs();
+        }
+
+        String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
+        File file = new File(exportDir, "trace_" + timeStamp + ".txt");
+        try (FileWriter writer = new FileWriter(file)) {
+            PerfTrace.dump(writer);
+            writer.append("\nQuery timings\n");
+            QueryStats.writeCsv(writer);
+            Toast.makeText(this, "Trace saved to " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Toast.makeText(this, "Dump failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    //allows the back button (arrow in the top bar) to return to the previous screen
+    @Override
+    public boolean onSupportNavigateUp() {
+        finish();
+        return true;
+    }
+}